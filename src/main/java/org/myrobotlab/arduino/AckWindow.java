@@ -0,0 +1,461 @@
+package org.myrobotlab.arduino;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.interfaces.SerialDevice;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Sliding window acks for the MrlComm serial protocol.
+ *
+ * Stop and wait sends a frame and waits for its publishAck before sending the
+ * next one - a full round trip per command. With a window up to size frames
+ * are in flight. Each frame carries a trailing sequence number
+ *
+ *   MAGIC_NUMBER|MSG_SIZE|METHOD_NUMBER|PARAM0|PARAM1 ...|SEQ
+ *
+ * MSG_SIZE includes SEQ. The board runs frames in sequence order and acks every
+ * frame it receives with publishAckWindow/seq/b32 bitmap - seq is the next
+ * sequence number it expects (everything before it was run) and bit i of the
+ * bitmap is set when frame seq + 1 + i was received and is buffered.
+ *
+ * Frames not acked within the timeout are re-sent individually, a frame
+ * reported missing by the bitmap is re-sent once right away. After MAX_RETRIES
+ * the window gives up - it reports an ack timeout, sends the board a resync
+ * (enableAckWindow 0) and falls back to stop and wait.
+ *
+ * The window is negotiated - the board confirms enableAckWindow with
+ * publishAckWindow 0/0, a board which does not confirm stays in stop and wait.
+ * enableAckWindow frames are never buffered, the board runs them as soon as
+ * they arrive and continues from their sequence number.
+ * </pre>
+ *
+ * The sender half is used by Msg, the Receiver by VirtualMsg.
+ */
+public class AckWindow {
+
+  public final static Logger log = LoggerFactory.getLogger(AckWindow.class);
+
+  /**
+   * largest window - the width of the ack bitmap
+   */
+  public final static int MAX_SIZE = 32;
+
+  public final static int DEFAULT_TIMEOUT_MS = 250;
+
+  public final static int MAX_RETRIES = 4;
+
+  final static int SEQ_SPACE = 256;
+
+  /**
+   * frames in flight - null once acked
+   */
+  final byte[][] frames = new byte[SEQ_SPACE][];
+  final long[] sentTs = new long[SEQ_SPACE];
+  final int[] retries = new int[SEQ_SPACE];
+  final boolean[] fastRetransmitted = new boolean[SEQ_SPACE];
+
+  /**
+   * 0 is stop and wait
+   */
+  volatile int size = 0;
+  volatile boolean confirmed = false;
+  int timeoutMs = DEFAULT_TIMEOUT_MS;
+
+  /**
+   * oldest frame not acked
+   */
+  int base = 0;
+  /**
+   * sequence number of the next frame sent
+   */
+  int nextSeq = 0;
+
+  long sentCount = 0;
+  long retransmitCount = 0;
+  long timeoutCount = 0;
+
+  transient SerialDevice serial = null;
+  transient Thread timer = null;
+  final transient Runnable onTimeout;
+
+  public AckWindow(Runnable onTimeout) {
+    this.onTimeout = onTimeout;
+  }
+
+  public boolean isEnabled() {
+    return size > 0;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setTimeout(int timeoutMs) {
+    this.timeoutMs = timeoutMs;
+  }
+
+  synchronized public int getOutstanding() {
+    return distance(base, nextSeq);
+  }
+
+  public long getSentCount() {
+    return sentCount;
+  }
+
+  public long getRetransmitCount() {
+    return retransmitCount;
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount;
+  }
+
+  static int distance(int from, int to) {
+    return (to - from) & (SEQ_SPACE - 1);
+  }
+
+  /**
+   * called before enableAckWindow is sent - the board's publishAckWindow 0/0
+   * confirms it
+   */
+  synchronized public void expectConfirm() {
+    confirmed = false;
+  }
+
+  /**
+   * @param timeoutMs
+   *          max wait
+   * @return true if the board confirmed the window
+   */
+  synchronized public boolean awaitConfirm(long timeoutMs) {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    long wait = timeoutMs;
+    while (!confirmed && wait > 0) {
+      try {
+        wait(wait);
+      } catch (InterruptedException e) {
+        break;
+      }
+      wait = deadline - System.currentTimeMillis();
+    }
+    return confirmed;
+  }
+
+  /**
+   * start sequencing frames - the board has confirmed the window
+   *
+   * @param size
+   *          max frames in flight, up to MAX_SIZE
+   */
+  synchronized public void enable(int size) {
+    clear();
+    this.size = Math.min(size, MAX_SIZE);
+    if (timer == null) {
+      timer = new Thread(this::retransmitLoop, "ack-window");
+      timer.setDaemon(true);
+      timer.start();
+    }
+  }
+
+  /**
+   * back to stop and wait - frames in flight are dropped
+   */
+  synchronized public void reset() {
+    size = 0;
+    confirmed = false;
+    clear();
+    if (timer != null) {
+      timer.interrupt();
+      timer = null;
+    }
+    notifyAll();
+  }
+
+  void clear() {
+    Arrays.fill(frames, null);
+    base = 0;
+    nextSeq = 0;
+  }
+
+  /**
+   * sends a frame with the next sequence number - blocks while the window is
+   * full
+   *
+   * @param serial
+   *          the port
+   * @param message
+   *          unsequenced frame
+   * @return the frame as sent, null if the window was reset while waiting - the
+   *         caller falls back to stop and wait
+   * @throws Exception
+   *           write failure
+   */
+  synchronized public byte[] send(SerialDevice serial, byte[] message) throws Exception {
+    this.serial = serial;
+    while (size > 0 && distance(base, nextSeq) >= size) {
+      wait(timeoutMs);
+      checkTimeouts(System.currentTimeMillis());
+    }
+    if (size == 0) {
+      return null;
+    }
+    int seq = nextSeq;
+    byte[] frame = Arrays.copyOf(message, message.length + 1);
+    frame[1] = (byte) (frame[1] + 1);
+    frame[frame.length - 1] = (byte) seq;
+    frames[seq] = frame;
+    sentTs[seq] = System.currentTimeMillis();
+    retries[seq] = 0;
+    fastRetransmitted[seq] = false;
+    nextSeq = (seq + 1) & (SEQ_SPACE - 1);
+    ++sentCount;
+    serial.write(frame);
+    return frame;
+  }
+
+  /**
+   * publishAckWindow from the board
+   *
+   * @param seq
+   *          next sequence number the board expects
+   * @param bitmap
+   *          frames received after seq
+   */
+  synchronized public void onAck(int seq, int bitmap) {
+    if (size == 0) {
+      // not sequencing yet - 0/0 confirms enableAckWindow
+      if (seq == 0 && bitmap == 0) {
+        confirmed = true;
+        notifyAll();
+      }
+      return;
+    }
+
+    int inFlight = distance(base, nextSeq);
+    if (distance(base, seq) > inFlight) {
+      log.debug("stale ack {} - window {} to {}", seq, base, nextSeq);
+      return;
+    }
+
+    // cumulative - everything before seq was run
+    while (base != seq) {
+      frames[base] = null;
+      base = (base + 1) & (SEQ_SPACE - 1);
+    }
+
+    // selective - buffered by the board
+    for (int i = 0; i < MAX_SIZE && bitmap != 0; ++i) {
+      if ((bitmap & (1 << i)) != 0) {
+        int s = (seq + 1 + i) & (SEQ_SPACE - 1);
+        if (distance(base, s) < distance(base, nextSeq)) {
+          frames[s] = null;
+        }
+      }
+    }
+
+    // the board has frames after seq but not seq - it was lost
+    if (bitmap != 0 && frames[seq] != null && !fastRetransmitted[seq]) {
+      fastRetransmitted[seq] = true;
+      resend(seq, System.currentTimeMillis());
+    }
+
+    while (base != nextSeq && frames[base] == null) {
+      base = (base + 1) & (SEQ_SPACE - 1);
+    }
+    notifyAll();
+  }
+
+  /**
+   * waits until every frame in flight was acked
+   *
+   * @param timeoutMs
+   *          max wait
+   * @return true if nothing is in flight
+   */
+  synchronized public boolean flush(long timeoutMs) {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (size > 0 && base != nextSeq) {
+      long wait = deadline - System.currentTimeMillis();
+      if (wait <= 0) {
+        return false;
+      }
+      try {
+        wait(Math.min(wait, timeoutMs));
+      } catch (InterruptedException e) {
+        return false;
+      }
+    }
+    return base == nextSeq;
+  }
+
+  void resend(int seq, long now) {
+    try {
+      ++retransmitCount;
+      ++retries[seq];
+      sentTs[seq] = now;
+      serial.write(frames[seq]);
+    } catch (Exception e) {
+      log.error("resending frame {} threw", seq, e);
+    }
+  }
+
+  void checkTimeouts(long now) {
+    if (size == 0 || serial == null) {
+      return;
+    }
+    for (int s = base; s != nextSeq; s = (s + 1) & (SEQ_SPACE - 1)) {
+      if (frames[s] == null || now - sentTs[s] < timeoutMs) {
+        continue;
+      }
+      if (retries[s] >= MAX_RETRIES) {
+        fail(s);
+        return;
+      }
+      resend(s, now);
+    }
+  }
+
+  /**
+   * the board stopped acking - report it, resync the board and fall back to
+   * stop and wait
+   */
+  void fail(int seq) {
+    ++timeoutCount;
+    log.error("frame {} not acked after {} retries - ack window disabled", seq, MAX_RETRIES);
+    resync(serial);
+    reset();
+    if (onTimeout != null) {
+      onTimeout.run();
+    }
+  }
+
+  /**
+   * switches the board back to stop and wait whatever state it is in - a
+   * windowed board runs enableAckWindow 0 regardless of its sequence number, a
+   * board in stop and wait ignores the trailing byte
+   *
+   * @param serial
+   *          the port
+   */
+  synchronized public void resync(SerialDevice serial) {
+    try {
+      serial.write(new byte[] { (byte) Msg.MAGIC_NUMBER, 3, (byte) Msg.ENABLE_ACK_WINDOW, 0, (byte) nextSeq });
+    } catch (Exception e) {
+      log.error("ack window resync threw", e);
+    }
+  }
+
+  void retransmitLoop() {
+    Thread me = Thread.currentThread();
+    try {
+      while (timer == me) {
+        Thread.sleep(Math.max(1, timeoutMs / 4));
+        synchronized (this) {
+          if (timer != me) {
+            break;
+          }
+          checkTimeouts(System.currentTimeMillis());
+        }
+      }
+    } catch (InterruptedException e) {
+      /* disabled */
+    }
+  }
+
+  /**
+   * board side of the window - runs frames in sequence order and builds the
+   * ack
+   */
+  public static class Receiver {
+
+    volatile int size = 0;
+    int next = 0;
+    final int[][] buffered = new int[SEQ_SPACE][];
+
+    public boolean isEnabled() {
+      return size > 0;
+    }
+
+    /**
+     * @param size
+     *          0 disables, frames then carry no sequence number
+     */
+    synchronized public void enable(int size) {
+      this.size = Math.min(size, MAX_SIZE);
+      next = 0;
+      Arrays.fill(buffered, null);
+    }
+
+    /**
+     * @return next sequence number expected - every frame before it was run
+     */
+    synchronized public int getNext() {
+      return next;
+    }
+
+    /**
+     * @return bit i is set if frame next + 1 + i is buffered
+     */
+    synchronized public int getBitmap() {
+      int bitmap = 0;
+      for (int i = 0; i < MAX_SIZE; ++i) {
+        if (buffered[(next + 1 + i) & (SEQ_SPACE - 1)] != null) {
+          bitmap |= 1 << i;
+        }
+      }
+      return bitmap;
+    }
+
+    /**
+     * @param frame
+     *          method, params and trailing sequence number
+     * @param process
+     *          runs a command - called in sequence order
+     */
+    synchronized public void receive(int[] frame, Consumer<int[]> process) {
+      receive(frame, frame.length, process);
+    }
+
+    /**
+     * @param frame
+     *          method, params and trailing sequence number
+     * @param size
+     *          valid length of frame
+     * @param process
+     *          runs a command - called in sequence order
+     */
+    synchronized public void receive(int[] frame, int size, Consumer<int[]> process) {
+      int seq = frame[size - 1];
+      int[] cmd = Arrays.copyOf(frame, size - 1);
+
+      if (cmd[0] == Msg.ENABLE_ACK_WINDOW) {
+        // control frame - run now and continue after it, it re-enables the
+        // receiver which clears the buffer
+        process.accept(cmd);
+        Arrays.fill(buffered, null);
+        next = (seq + 1) & (SEQ_SPACE - 1);
+        return;
+      }
+
+      int ahead = distance(next, seq);
+      if (ahead == 0) {
+        process.accept(cmd);
+        next = (next + 1) & (SEQ_SPACE - 1);
+        while (buffered[next] != null) {
+          int[] b = buffered[next];
+          buffered[next] = null;
+          process.accept(b);
+          next = (next + 1) & (SEQ_SPACE - 1);
+        }
+      } else if (ahead <= MAX_SIZE) {
+        buffered[seq] = cmd;
+      }
+      // else a re-sent frame which already ran - the ack tells the sender
+    }
+  }
+
+}
@@ -26,7 +26,7 @@ public class ArduinoMsgGenerator {
 
   public transient final static Logger log = LoggerFactory.getLogger(ArduinoMsgGenerator.class);
 
-  static final Integer MRLCOMM_VERSION = 68;
+  static final Integer MRLCOMM_VERSION = 71;
 
   private String ackEnabled = "true";
 
@@ -99,6 +99,8 @@ public class ArduinoMsgGenerator {
     String idlToCpp = toString("src/main/resources/resource/Arduino/generate/Msg.template.cpp");
     String idlToJava = toString("src/main/resources/resource/Arduino/generate/Msg.java.template");
     String virtualJava = toString("src/main/resources/resource/Arduino/generate/Msg.java.template");
+    String hostFrameMethods = toString("src/main/resources/resource/Arduino/generate/Msg.java.host.template");
+    String virtualFrameMethods = toString("src/main/resources/resource/Arduino/generate/Msg.java.virtual.template");
 
     // String idlToJava = toString("blah");
 
@@ -223,7 +225,8 @@ public class ArduinoMsgGenerator {
     idlToJava = idlToJava.replace("%invokeIfService%", "true");
     idlToJava = idlToJava.replace("%javaArduinoClass%", MrlCommPublisher.class.getSimpleName());
     // Msg doesn't publish acks back to MrlComm
-    idlToJava = idlToJava.replace("%publishAcks%", "");
+    idlToJava = idlToJava.replace("%processFrame%", "processCommand(frame.getData());");
+    idlToJava = idlToJava.replace("%frameMethods%", hostFrameMethods);
     // on startup Msg needs to see an MrlBeginMessage before it's clear to send
     // data.
     idlToJava = idlToJava.replace("%clearToSend%", "false");
@@ -234,8 +237,10 @@ public class ArduinoMsgGenerator {
     virtualJava = virtualJava.replace("%ackEnabled%", "false");
     virtualJava = virtualJava.replace("%invokeIfService%", "false");
 
-    // virtual message should publish an ack after each processCommand call.
-    virtualJava = virtualJava.replace("%publishAcks%", "publishAck(method);");
+    // virtual message should publish an ack after each processCommand call -
+    // or a windowed ack when the host enabled a window
+    virtualJava = virtualJava.replace("%processFrame%", "processFrame(frame);");
+    virtualJava = virtualJava.replace("%frameMethods%", virtualFrameMethods);
     // virtual message doesn't need to wait for a begin message to be clear to
     // send.
     virtualJava = virtualJava.replace("%clearToSend%", "true");
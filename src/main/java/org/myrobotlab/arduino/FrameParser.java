@@ -0,0 +1,243 @@
+package org.myrobotlab.arduino;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Parser of the MrlComm wire format
+ *
+ *   MAGIC_NUMBER|MSG_SIZE|METHOD_NUMBER|PARAM0|PARAM1 ...
+ *
+ * A state machine over primitives - bytes are fed from arrays or ByteBuffers
+ * in any split, a complete frame is handed to the Listener as a Frame view of
+ * the parser's own buffer. Parsing allocates nothing. The view is only valid
+ * during the callback - Frame.toArray copies it.
+ *
+ * A bad magic number, size or method drops the frame and the parser looks for
+ * the next magic number.
+ * </pre>
+ */
+public class FrameParser {
+
+  public final static Logger log = LoggerFactory.getLogger(FrameParser.class);
+
+  public interface Listener {
+
+    /**
+     * @param method
+     *          method number of a new frame
+     * @return false to drop the frame
+     */
+    boolean acceptMethod(int method);
+
+    /**
+     * @param frame
+     *          only valid during the call
+     */
+    void onFrame(Frame frame);
+  }
+
+  /**
+   * view of a complete frame - method at position 0, params after it
+   */
+  public static class Frame {
+
+    final int[] data;
+    int size;
+
+    Frame(int maxSize) {
+      data = new int[maxSize];
+    }
+
+    /**
+     * @return the parser's buffer - valid up to getSize()
+     */
+    public int[] getData() {
+      return data;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getMethod() {
+      return data[0];
+    }
+
+    public int u8(int pos) {
+      return data[pos];
+    }
+
+    public boolean bool(int pos) {
+      return data[pos] != 0;
+    }
+
+    public int b16(int pos) {
+      return (short) ((data[pos] << 8) | data[pos + 1]);
+    }
+
+    public int b32(int pos) {
+      return (data[pos] << 24) | (data[pos + 1] << 16) | (data[pos + 2] << 8) | data[pos + 3];
+    }
+
+    public long bu32(int pos) {
+      return b32(pos) & 0xFFFFFFFFL;
+    }
+
+    public float f32(int pos) {
+      return Float.intBitsToFloat(b32(pos));
+    }
+
+    /**
+     * @return length prefixed string at pos
+     */
+    public String str(int pos) {
+      int length = data[pos];
+      byte[] b = new byte[length];
+      for (int i = 0; i < length; ++i) {
+        b[i] = (byte) data[pos + 1 + i];
+      }
+      return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return copy of the length prefixed array at pos
+     */
+    public int[] array(int pos) {
+      return Arrays.copyOfRange(data, pos + 1, pos + 1 + data[pos]);
+    }
+
+    /**
+     * @return copy of the frame - method and params
+     */
+    public int[] toArray() {
+      return Arrays.copyOf(data, size);
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(toArray());
+    }
+  }
+
+  final static int MAGIC = 0;
+  final static int SIZE = 1;
+  final static int BODY = 2;
+
+  final int magicNumber;
+  final int maxSize;
+  final Listener listener;
+  final Frame frame;
+
+  int state = MAGIC;
+  int pos = 0;
+
+  long frames = 0;
+  long errors = 0;
+
+  /**
+   * @param magicNumber
+   *          first byte of every frame
+   * @param maxSize
+   *          largest MSG_SIZE
+   * @param listener
+   *          gets the frames
+   */
+  public FrameParser(int magicNumber, int maxSize, Listener listener) {
+    this.magicNumber = magicNumber;
+    this.maxSize = maxSize;
+    this.listener = listener;
+    this.frame = new Frame(maxSize);
+  }
+
+  /**
+   * drop a partial frame - e.g. after the port was reopened
+   */
+  public void reset() {
+    state = MAGIC;
+  }
+
+  public long getFrameCount() {
+    return frames;
+  }
+
+  public long getErrorCount() {
+    return errors;
+  }
+
+  public void parse(byte[] bytes) {
+    parse(bytes, 0, bytes.length);
+  }
+
+  public void parse(byte[] bytes, int offset, int length) {
+    int end = offset + length;
+    for (int i = offset; i < end; ++i) {
+      parse(bytes[i] & 0xFF);
+    }
+  }
+
+  /**
+   * consumes the remaining bytes of buffer
+   */
+  public void parse(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      int p = buffer.position();
+      parse(buffer.array(), buffer.arrayOffset() + p, buffer.limit() - p);
+      buffer.position(buffer.limit());
+      return;
+    }
+    while (buffer.hasRemaining()) {
+      parse(buffer.get() & 0xFF);
+    }
+  }
+
+  void parse(int b) {
+    switch (state) {
+      case MAGIC:
+        if (b == magicNumber) {
+          state = SIZE;
+        } else {
+          error("bad magic number {}", b);
+        }
+        break;
+      case SIZE:
+        if (b == 0 || b > maxSize) {
+          error("bad size {}", b);
+          state = MAGIC;
+        } else {
+          frame.size = b;
+          pos = 0;
+          state = BODY;
+        }
+        break;
+      default:
+        if (pos == 0 && !listener.acceptMethod(b)) {
+          ++errors;
+          state = MAGIC;
+          break;
+        }
+        frame.data[pos++] = b;
+        if (pos == frame.size) {
+          state = MAGIC;
+          ++frames;
+          try {
+            listener.onFrame(frame);
+          } catch (Exception e) {
+            ++errors;
+            log.warn("processing frame {} threw", frame, e);
+          }
+        }
+    }
+  }
+
+  void error(String format, int value) {
+    ++errors;
+    log.warn("MrlComm frame error - " + format + " - {} rx errors", value, errors);
+  }
+
+}
@@ -0,0 +1,323 @@
+package org.myrobotlab.arduino;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Asynchronous i2c transactions for the MrlComm serial protocol.
+ *
+ * A transaction is an optional write (usually a register address) followed by
+ * an optional read - one frame each way, correlated by a transaction id
+ *
+ *   &gt; i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+ *   &lt; publishI2cTransaction/deviceId/txId/[] data
+ *
+ * deviceId is the MrlComm id of the bus. The board answers every transaction,
+ * write only ones with no data.
+ *
+ * Transactions are queued per bus and up to window of them are in flight on
+ * a bus, so the board starts the next transfer as soon as one is done instead
+ * of waiting a serial round trip for the host to ask. A transaction which is
+ * not answered within the timeout completes with a TimeoutException and frees
+ * its id.
+ * </pre>
+ *
+ * Futures complete on the thread receiving the serial data - dependent actions
+ * must not block on another transaction, use the *Async variants of
+ * CompletableFuture for anything slow.
+ */
+public class I2CTransactions {
+
+  public final static Logger log = LoggerFactory.getLogger(I2CTransactions.class);
+
+  public final static int DEFAULT_WINDOW = 4;
+
+  public final static int DEFAULT_TIMEOUT_MS = 1000;
+
+  final static int TX_SPACE = 256;
+
+  /**
+   * sends one i2cTransaction frame - Msg.i2cTransaction for a board
+   */
+  public interface Sender {
+    void send(int deviceId, int txId, int deviceAddress, int readSize, int[] writeData) throws Exception;
+  }
+
+  class Transaction {
+    final Bus bus;
+    final int deviceAddress;
+    final int[] writeData;
+    final int readSize;
+    final CompletableFuture<byte[]> future = new CompletableFuture<>();
+    int txId = -1;
+    volatile ScheduledFuture<?> timeout;
+
+    Transaction(Bus bus, int deviceAddress, int[] writeData, int readSize) {
+      this.bus = bus;
+      this.deviceAddress = deviceAddress;
+      this.writeData = writeData;
+      this.readSize = readSize;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("i2c transaction %d bus %d address 0x%02x write %d read %d", txId, bus.deviceId, deviceAddress, writeData.length, readSize);
+    }
+  }
+
+  class Bus {
+    final int deviceId;
+    final ArrayDeque<Transaction> queue = new ArrayDeque<>();
+    int inFlight = 0;
+
+    Bus(int deviceId) {
+      this.deviceId = deviceId;
+    }
+  }
+
+  private static ScheduledThreadPoolExecutor timer = null;
+
+  final Sender sender;
+  final Map<Integer, Bus> buses = new ConcurrentHashMap<>();
+
+  /**
+   * transactions in flight by id
+   */
+  final Transaction[] pending = new Transaction[TX_SPACE];
+  int pendingCount = 0;
+  int nextTxId = 0;
+
+  volatile int window = DEFAULT_WINDOW;
+  volatile int timeoutMs = DEFAULT_TIMEOUT_MS;
+
+  long completedCount = 0;
+  long timeoutCount = 0;
+
+  public I2CTransactions(Sender sender) {
+    this.sender = sender;
+  }
+
+  /**
+   * timeouts and sends of queued transactions - one daemon thread for every
+   * board
+   */
+  synchronized static ScheduledThreadPoolExecutor getTimer() {
+    if (timer == null) {
+      timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "i2c-transactions");
+        thread.setDaemon(true);
+        return thread;
+      });
+      timer.setRemoveOnCancelPolicy(true);
+    }
+    return timer;
+  }
+
+  /**
+   * queue a transaction
+   *
+   * @param deviceId
+   *          MrlComm id of the bus
+   * @param deviceAddress
+   *          i2c address
+   * @param writeBuffer
+   *          bytes written first - may be null
+   * @param writeSize
+   *          number of bytes of writeBuffer written
+   * @param readSize
+   *          number of bytes read after the write
+   * @return the bytes read - fewer than readSize if the device sent less
+   */
+  public CompletableFuture<byte[]> submit(int deviceId, int deviceAddress, byte[] writeBuffer, int writeSize, int readSize) {
+    int[] writeData = new int[writeSize];
+    for (int i = 0; i < writeSize; ++i) {
+      writeData[i] = writeBuffer[i] & 0xFF;
+    }
+    Bus bus = buses.computeIfAbsent(deviceId, Bus::new);
+    Transaction tx = new Transaction(bus, deviceAddress, writeData, readSize);
+    synchronized (this) {
+      bus.queue.add(tx);
+    }
+    dispatch(bus);
+    return tx.future;
+  }
+
+  /**
+   * sends what the window of a bus allows - sends on a bus are serialized so
+   * transactions go out in the order they were queued
+   */
+  void dispatch(Bus bus) {
+    synchronized (bus) {
+      while (true) {
+        Transaction tx;
+        synchronized (this) {
+          if (bus.inFlight >= window || bus.queue.isEmpty() || pendingCount >= TX_SPACE) {
+            return;
+          }
+          tx = bus.queue.poll();
+          while (pending[nextTxId] != null) {
+            nextTxId = (nextTxId + 1) % TX_SPACE;
+          }
+          tx.txId = nextTxId;
+          nextTxId = (nextTxId + 1) % TX_SPACE;
+          pending[tx.txId] = tx;
+          ++pendingCount;
+          ++bus.inFlight;
+        }
+        tx.timeout = getTimer().schedule(() -> expire(tx), timeoutMs, TimeUnit.MILLISECONDS);
+        try {
+          sender.send(bus.deviceId, tx.txId, tx.deviceAddress, tx.readSize, tx.writeData);
+        } catch (Exception e) {
+          if (release(tx)) {
+            tx.future.completeExceptionally(e);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * frees the id of a transaction in flight
+   *
+   * @return false if it was already answered or expired
+   */
+  boolean release(Transaction tx) {
+    synchronized (this) {
+      if (tx.txId < 0 || pending[tx.txId] != tx) {
+        return false;
+      }
+      pending[tx.txId] = null;
+      --pendingCount;
+      --tx.bus.inFlight;
+    }
+    ScheduledFuture<?> timeout = tx.timeout;
+    if (timeout != null) {
+      timeout.cancel(false);
+    }
+    return true;
+  }
+
+  void expire(Transaction tx) {
+    if (!release(tx)) {
+      return;
+    }
+    synchronized (this) {
+      ++timeoutCount;
+    }
+    log.warn("{} timed out after {} ms", tx, timeoutMs);
+    tx.future.completeExceptionally(new TimeoutException(String.format("%s timed out", tx)));
+    dispatch(tx.bus);
+  }
+
+  /**
+   * publishI2cTransaction from the board
+   *
+   * @param deviceId
+   *          the bus
+   * @param txId
+   *          transaction id
+   * @param data
+   *          bytes read
+   */
+  public void onResponse(int deviceId, int txId, int[] data) {
+    Transaction tx;
+    synchronized (this) {
+      tx = pending[txId & 0xFF];
+    }
+    if (tx == null || tx.bus.deviceId != deviceId || !release(tx)) {
+      log.warn("i2c transaction {} on bus {} is not pending - late or duplicate answer", txId, deviceId);
+      return;
+    }
+    byte[] bytes = new byte[data.length];
+    for (int i = 0; i < data.length; ++i) {
+      bytes[i] = (byte) data[i];
+    }
+    synchronized (this) {
+      ++completedCount;
+    }
+    tx.future.complete(bytes);
+    if (hasQueued(tx.bus)) {
+      // not on the receiving thread - a send may wait for an ack
+      getTimer().execute(() -> dispatch(tx.bus));
+    }
+  }
+
+  synchronized boolean hasQueued(Bus bus) {
+    return !bus.queue.isEmpty();
+  }
+
+  /**
+   * fails everything queued or in flight - the board went away
+   */
+  public void clear() {
+    List<Transaction> failed = new ArrayList<>();
+    synchronized (this) {
+      for (Bus bus : buses.values()) {
+        failed.addAll(bus.queue);
+        bus.queue.clear();
+      }
+      for (Transaction tx : pending) {
+        if (tx != null) {
+          failed.add(tx);
+        }
+      }
+    }
+    for (Transaction tx : failed) {
+      release(tx);
+      tx.future.completeExceptionally(new IOException(String.format("%s cancelled - disconnected", tx)));
+    }
+  }
+
+  /**
+   * @param size
+   *          transactions in flight per bus, 1 waits for each answer before
+   *          sending the next
+   */
+  public void setWindow(int size) {
+    if (size < 1) {
+      size = 1;
+    }
+    window = size;
+    for (Bus bus : buses.values()) {
+      dispatch(bus);
+    }
+  }
+
+  public int getWindow() {
+    return window;
+  }
+
+  public void setTimeout(int timeoutMs) {
+    this.timeoutMs = timeoutMs;
+  }
+
+  public int getTimeout() {
+    return timeoutMs;
+  }
+
+  synchronized public int getPendingCount() {
+    return pendingCount;
+  }
+
+  synchronized public long getCompletedCount() {
+    return completedCount;
+  }
+
+  synchronized public long getTimeoutCount() {
+    return timeoutCount;
+  }
+
+}
@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.myrobotlab.logging.Level;
 
@@ -62,30 +61,25 @@ import org.slf4j.Logger;
  *
  */
 
-public class Msg {
+public class Msg implements FrameParser.Listener {
 
   // TODO: pick a more reasonable timeout.. 3 seconds is high.
   private static final int ACK_TIMEOUT = 3000;
   public transient final static Logger log = LoggerFactory.getLogger(Msg.class);
   public static final int MAX_MSG_SIZE = 64;
   public static final int MAGIC_NUMBER = 170; // 10101010
-  public static final int MRLCOMM_VERSION = 68;
+  public static final int MRLCOMM_VERSION = 71;
   // send buffer
   private int sendBufferSize = 0;
   private int sendBuffer[] = new int[MAX_MSG_SIZE];
-  // recv buffer
-  private int ioCmd[] = new int[MAX_MSG_SIZE];
-  private AtomicInteger byteCount = new AtomicInteger(0);
-  private int msgSize = 0;
+  // recv - frames are parsed in place
+  transient FrameParser parser = new FrameParser(MAGIC_NUMBER, MAX_MSG_SIZE, this);
   // ------ device type mapping constants
   private int method = -1;
   public boolean debug = false;
   // when using a real service, invoke should be true, for unit tests, this should be false.
   private boolean invoke = true;
   
-  private int errorServiceToHardwareRxCnt = 0;
-  private int errorHardwareToServiceRxCnt = 0;
-  
   boolean ackEnabled = true;
   private volatile boolean clearToSend = false;
   public static class AckLock {
@@ -94,6 +88,8 @@ public class Msg {
     volatile boolean pendingMessage = false;
   }
   transient AckLock ackRecievedLock = new AckLock();
+  // sliding window acks - disabled (stop and wait) until setAckWindow
+  transient AckWindow window = new AckWindow(() -> this.arduino.ackTimeout());
   // recording related
   transient OutputStream record = null;
   transient StringBuilder rxBuffer = new StringBuilder();
@@ -228,6 +224,16 @@ public class Msg {
   public final static int PUBLISH_MRL_COMM_BEGIN = 58;
   // > servoStop/deviceId
   public final static int SERVO_STOP = 59;
+  // > enableAckWindow/size
+  public final static int ENABLE_ACK_WINDOW = 60;
+  // < publishAckWindow/seq/b32 bitmap
+  public final static int PUBLISH_ACK_WINDOW = 61;
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  public final static int I2C_TRANSACTION = 62;
+  // < publishI2cTransaction/deviceId/txId/[] data
+  public final static int PUBLISH_I2C_TRANSACTION = 63;
+  // > servoMoveGroup/[] moves
+  public final static int SERVO_MOVE_GROUP = 64;
 
 
 /**
@@ -247,6 +253,8 @@ public class Msg {
   // public void publishUltrasonicSensorData(Integer deviceId/*byte*/, Integer echoTime/*b16*/){}
   // public void publishEncoderData(Integer deviceId/*byte*/, Integer position/*b16*/){}
   // public void publishMrlCommBegin(Integer version/*byte*/){}
+  // public void publishAckWindow(Integer seq/*byte*/, Integer bitmap/*b32*/){}
+  // public void publishI2cTransaction(Integer deviceId/*byte*/, Integer txId/*byte*/, int[] data/*[]*/){}
   
   
 
@@ -280,6 +288,10 @@ public class Msg {
       Integer function = ioCmd[startPos+1]; // bu8
       ackReceived(function);
     }
+
+    if (method == PUBLISH_ACK_WINDOW) {
+      window.onAck(ioCmd[startPos + 1], b32(ioCmd, startPos + 2));
+    }
     
     if (method != PUBLISH_MRL_COMM_BEGIN) {
       if (!clearToSend) {
@@ -291,6 +303,8 @@ public class Msg {
       // Process!
       log.info("Clear to process!!!!!!!!!!!!!!!!!!");
       this.clearToSend = true;
+      // the board (re)started - it is back to stop and wait
+      window.reset();
     }
     switch (method) {
     case PUBLISH_MRLCOMM_ERROR: {
@@ -648,6 +662,64 @@ public class Msg {
 
       break;
     }
+    case PUBLISH_ACK_WINDOW: {
+      Integer seq = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      Integer bitmap = b32(ioCmd, startPos+1);
+      startPos += 4; //b32
+      if(invoke){
+        arduino.invoke("publishAckWindow",  seq,  bitmap);
+      } else { 
+         arduino.publishAckWindow( seq,  bitmap);
+      }
+      if(record != null){
+        rxBuffer.append("< publishAckWindow");
+        rxBuffer.append("/");
+        rxBuffer.append(seq);
+        rxBuffer.append("/");
+        rxBuffer.append(bitmap);
+        rxBuffer.append("\n");
+        try{
+          record.write(rxBuffer.toString().getBytes());
+          rxBuffer.setLength(0);
+        } catch (IOException e) {
+          log.warn("failed recording bytes.", e); 
+        }
+      }
+
+      break;
+    }
+    case PUBLISH_I2C_TRANSACTION: {
+      Integer deviceId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      Integer txId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      int[] data = subArray(ioCmd, startPos+2, ioCmd[startPos+1]);
+      startPos += 1 + ioCmd[startPos+1];
+      if(invoke){
+        arduino.invoke("publishI2cTransaction",  deviceId,  txId,  data);
+      } else { 
+         arduino.publishI2cTransaction( deviceId,  txId,  data);
+      }
+      if(record != null){
+        rxBuffer.append("< publishI2cTransaction");
+        rxBuffer.append("/");
+        rxBuffer.append(deviceId);
+        rxBuffer.append("/");
+        rxBuffer.append(txId);
+        rxBuffer.append("/");
+        rxBuffer.append(Arrays.toString(data));
+        rxBuffer.append("\n");
+        try{
+          record.write(rxBuffer.toString().getBytes());
+          rxBuffer.setLength(0);
+        } catch (IOException e) {
+          log.warn("failed recording bytes.", e); 
+        }
+      }
+
+      break;
+    }
     
     }
   }
@@ -2237,6 +2309,111 @@ public class Msg {
     }
   }
 
+  public synchronized byte[] enableAckWindow(Integer size/*byte*/) {
+    if (debug) {
+      log.info("Sending Message: enableAckWindow to {}", serial.getName());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      appendMessage(baos, MAGIC_NUMBER);
+      appendMessage(baos, 1 + 1); // size
+      appendMessage(baos, ENABLE_ACK_WINDOW); // msgType = 60
+      appendMessage(baos, size);
+ 
+      byte[] message = sendMessage(baos);
+      if (ackEnabled){
+        waitForAck();
+      }
+      if(record != null){
+        txBuffer.append("> enableAckWindow");
+        txBuffer.append("/");
+        txBuffer.append(size);
+        txBuffer.append("\n");
+        record.write(txBuffer.toString().getBytes());
+        txBuffer.setLength(0);
+      }
+
+      return message;
+	} catch (Exception e) {
+      log.error("enableAckWindow threw",e);
+      return null;
+    }
+  }
+
+  public synchronized byte[] i2cTransaction(Integer deviceId/*byte*/, Integer txId/*byte*/, Integer deviceAddress/*byte*/, Integer readSize/*byte*/, int[] writeData/*[]*/) {
+    if (debug) {
+      log.info("Sending Message: i2cTransaction to {}", serial.getName());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      appendMessage(baos, MAGIC_NUMBER);
+      appendMessage(baos, 1 + 1 + 1 + 1 + 1 + (1 + writeData.length)); // size
+      appendMessage(baos, I2C_TRANSACTION); // msgType = 62
+      appendMessage(baos, deviceId);
+      appendMessage(baos, txId);
+      appendMessage(baos, deviceAddress);
+      appendMessage(baos, readSize);
+      appendMessage(baos, writeData);
+ 
+      byte[] message = sendMessage(baos);
+      if (ackEnabled){
+        waitForAck();
+      }
+      if(record != null){
+        txBuffer.append("> i2cTransaction");
+        txBuffer.append("/");
+        txBuffer.append(deviceId);
+        txBuffer.append("/");
+        txBuffer.append(txId);
+        txBuffer.append("/");
+        txBuffer.append(deviceAddress);
+        txBuffer.append("/");
+        txBuffer.append(readSize);
+        txBuffer.append("/");
+        txBuffer.append(Arrays.toString(writeData));
+        txBuffer.append("\n");
+        record.write(txBuffer.toString().getBytes());
+        txBuffer.setLength(0);
+      }
+
+      return message;
+	} catch (Exception e) {
+      log.error("i2cTransaction threw",e);
+      return null;
+    }
+  }
+
+  public synchronized byte[] servoMoveGroup(int[] moves/*[]*/) {
+    if (debug) {
+      log.info("Sending Message: servoMoveGroup to {}", serial.getName());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      appendMessage(baos, MAGIC_NUMBER);
+      appendMessage(baos, 1 + (1 + moves.length)); // size
+      appendMessage(baos, SERVO_MOVE_GROUP); // msgType = 64
+      appendMessage(baos, moves);
+ 
+      byte[] message = sendMessage(baos);
+      if (ackEnabled){
+        waitForAck();
+      }
+      if(record != null){
+        txBuffer.append("> servoMoveGroup");
+        txBuffer.append("/");
+        txBuffer.append(Arrays.toString(moves));
+        txBuffer.append("\n");
+        record.write(txBuffer.toString().getBytes());
+        txBuffer.setLength(0);
+      }
+
+      return message;
+	} catch (Exception e) {
+      log.error("servoMoveGroup threw",e);
+      return null;
+    }
+  }
+
 
   public static String methodToString(int method) {
     switch (method) {
@@ -2417,6 +2594,21 @@ public class Msg {
     case SERVO_STOP:{
       return "servoStop";
     }
+    case ENABLE_ACK_WINDOW:{
+      return "enableAckWindow";
+    }
+    case PUBLISH_ACK_WINDOW:{
+      return "publishAckWindow";
+    }
+    case I2C_TRANSACTION:{
+      return "i2cTransaction";
+    }
+    case PUBLISH_I2C_TRANSACTION:{
+      return "publishI2cTransaction";
+    }
+    case SERVO_MOVE_GROUP:{
+      return "servoMoveGroup";
+    }
 
     default: {
       return "ERROR UNKNOWN METHOD (" + Integer.toString(method) + ")";
@@ -2425,6 +2617,18 @@ public class Msg {
     }
   }
 
+  // known method numbers - looked up for every received frame
+  final static boolean[] methods = new boolean[256];
+  static {
+    for (int i = 0; i < methods.length; ++i) {
+      methods[i] = !methodToString(i).startsWith("ERROR");
+    }
+  }
+
+  public static boolean isMethod(int method) {
+    return method >= 0 && method < methods.length && methods[method];
+  }
+
   public String str(int[] buffer, int start, int size) {
     byte[] b = new byte[size];
     for (int i = start; i < start + size; ++i){
@@ -2474,108 +2678,82 @@ public class Msg {
     if (debug) {
       // debug message.. semi-human readable?
       String byteString = StringUtil.byteArrayToIntString(bytes);
-      log.info("onBytes called byteCount: {} data: >{}<", byteCount, byteString);
+      log.info("onBytes called data: >{}<", byteString);
     }
-    // this gives us the current full buffer that was read from the seral
-    for (int i = 0 ; i < bytes.length; i++) {
-      // For now, let's just call onByte for each byte upcasted as an int.
-      Integer newByte = bytes[i] & 0xFF;
-      try {
-        byteCount.incrementAndGet();
-        if (byteCount.get() == 1) {
-          if (newByte != MAGIC_NUMBER) {
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            Arrays.fill(ioCmd, 0); // FIXME - optimize - remove
-            // warn(String.format("Arduino->MRL error - bad magic number %d - %d rx errors", newByte, ++errorServiceToHardwareRxCnt));
-            log.warn("Arduino->MRL error - bad magic number {} - {} rx errors", newByte, ++errorServiceToHardwareRxCnt);
-          }
-          continue;
-        } else if (byteCount.get() == 2) {
-          // get the size of message
-          if (newByte > 64) {
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            // This is an error scenario.. we should reset our byte count also.
-            // error(String.format("Arduino->MRL error %d rx sz errors", ++errorServiceToHardwareRxCnt ));
-            log.error("Arduino->MRL error {} rx sz errors", ++errorServiceToHardwareRxCnt);
-            continue;
-          }
-          msgSize = newByte.intValue();
-        } else if (byteCount.get() == 3) {
-          // This is the method..
-          int method = newByte.intValue();
-          if (methodToString(method).startsWith("ERROR")) {
-            // we've got an error scenario here.. reset the parser and try again!
-            log.error("Arduino->MRL error unknown method error. resetting parser.");
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            continue;
-          }
-          
-          // If we're not clear to send, we need to unlock if this is a begin message.
-          if (!clearToSend && (method == Msg.PUBLISH_MRL_COMM_BEGIN)) {
-            // Clear to send!!
-            log.info("Saw the MRL COMM BEGIN!!!!!!!!!!!!! Clear To Send.");
-            clearToSend = true;
-          } 
-          
-          if (!clearToSend) {
-            log.warn("NOT CLEAR TO SEND! resetting parser!");
-            // We opened the port, and we got some data that isn't a Begin message.
-            // so, I think we need to reset the parser and continue processing bytes...
-            // there will be errors until the next magic byte is seen.
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            continue;
-          }
-          // we are in a valid parse state.    
-          ioCmd[byteCount.get() - 3] = method;
-        } else if (byteCount.get() > 3) {
-          // This is the body of the message copy it to the buffer
-          ioCmd[byteCount.get() - 3] = newByte.intValue();
-        } else {
-          // the case where byteCount is negative?! not got.  You should probably never see this.
-          log.warn("MRL error rx zero/negative size error: {} {}", byteCount, Arrays.copyOf(ioCmd, byteCount.get()));
-          //error(String.format("Arduino->MRL error %d rx negsz errors", ++errorServiceToHardwareRxCnt));
-          continue;
-        }
-        // we have a complete message here.
-        if (byteCount.get() == 2 + msgSize) {
-          // we've received a full message
-          int[] actualCommand = Arrays.copyOf(ioCmd, byteCount.get()-2);
-          if (debug) {
-            log.info("Full message received: {} Data:{}", VirtualMsg.methodToString(ioCmd[0]), actualCommand);
-          }
-          // process the command.
-          processCommand(actualCommand);
-          
-          // re-init parser
-          Arrays.fill(ioCmd, 0); // optimize remove
-          msgSize = 0;
-          byteCount = new AtomicInteger(0);
-        }
-      } catch (Exception e) {
-        ++errorHardwareToServiceRxCnt ;
-        // error("msg structure violation %d", errorHardwareToServiceRxCnt);
-        log.warn("msg_structure violation byteCount {} buffer {}", byteCount, Arrays.copyOf(ioCmd, byteCount.get()), e);
-        // TODO: perhaps we could find the first occurance of 170.. and then attempt to re-parse at that point.
-        // find the first occurance of 170 in the bytes subbytes
-        // Maybe we can just walk the iterater back to the beginning based on the byte count .. and advance it by 1.. and continue.
-        i = i - byteCount.get()+1;
-        log.error("Trying to resume parsing the byte stream at position {} bytecount: {}", i, byteCount);
-        log.error("Original Byte Array: {}", StringUtil.byteArrayToIntString(bytes));
-        System.err.println("Try to consume more messages!");
-        msgSize = 0;
-        byteCount = new AtomicInteger(0);
-        // TODO: this is wonky.. what?! 
-        i = 0;
-        return;
-        
-        
+    parser.parse(bytes);
+  }
+
+  /**
+   * first byte of a frame - drop unknown methods, and everything before the
+   * board's begin message
+   */
+  public boolean acceptMethod(int method) {
+    if (!isMethod(method)) {
+      // we've got an error scenario here.. reset the parser and try again!
+      log.error("Arduino->MRL error unknown method {}. resetting parser.", method);
+      return false;
+    }
+    // If we're not clear to send, we need to unlock if this is a begin message.
+    if (!clearToSend && (method == PUBLISH_MRL_COMM_BEGIN)) {
+      // Clear to send!!
+      log.info("Saw the MRL COMM BEGIN!!!!!!!!!!!!! Clear To Send.");
+      clearToSend = true;
+    }
+    if (!clearToSend) {
+      // We opened the port, and we got some data that isn't a Begin message.
+      // there will be errors until the next magic byte is seen.
+      log.warn("NOT CLEAR TO SEND! resetting parser!");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * a complete frame - the view is reused for the next one
+   */
+  public void onFrame(FrameParser.Frame frame) {
+    if (debug) {
+      log.info("Full message received: {} Data:{}", methodToString(frame.getMethod()), frame);
+    }
+    // process the command.
+    processCommand(frame.getData());
+  }
+
+  // host side of the sliding window acks - see AckWindow
+  /**
+   * Switches between stop and wait (size 0) and up to size frames in flight.
+   * The board has to confirm the window - one which does not stays in stop and
+   * wait.
+   * 
+   * @param size
+   *          frames in flight, 0 for stop and wait
+   * @return true if the window is in use
+   */
+  synchronized public boolean setAckWindow(int size) {
+    size = Math.min(size, AckWindow.MAX_SIZE);
+    if (window.isEnabled()) {
+      // drain, switch the board back to stop and wait, drain its ack
+      window.flush(ACK_TIMEOUT);
+      enableAckWindow(0);
+      window.flush(ACK_TIMEOUT);
+      window.reset();
+    }
+    if (size <= 0) {
+      return false;
+    }
+    window.expectConfirm();
+    // sent stop and wait - the board confirms before it acks
+    enableAckWindow(size);
+    if (!window.awaitConfirm(ACK_TIMEOUT)) {
+      log.warn("board did not confirm ack window {} - staying in stop and wait", size);
+      if (serial != null) {
+        // in case only the confirmation was lost
+        window.resync(serial);
       }
+      return false;
     }
-    return;
+    window.enable(size);
+    return true;
   }
 
   String F(String msg) {
@@ -2662,6 +2840,19 @@ public class Msg {
       return message;
     }
 
+    if (window.isEnabled() && serial != null) {
+      if (message.length + 1 > MAX_MSG_SIZE) {
+        log.error("**** message size {} + seq > MAX_MSG_SIZE {} - not sending ****", message.length, MAX_MSG_SIZE);
+        return message;
+      }
+      // returns as soon as the frame fits in the window
+      byte[] frame = window.send(serial, message);
+      if (frame != null) {
+        return frame;
+      }
+      // the window was reset while waiting - send it stop and wait
+    }
+
     if (ackEnabled) {
       // wait for a pending ack to be received before we process our message.^M
       waitForAck();
@@ -2775,8 +2966,12 @@ public class Msg {
     // }
   }
   
+  public AckWindow getAckWindow() {
+    return window;
+  }
+
   public void waitForAck(){
-    if (!ackEnabled || serial == null || !serial.isConnected()) {
+    if (!ackEnabled || window.isEnabled() || serial == null || !serial.isConnected()) {
       return;
     }
     // if there's a pending message, we need to wait for the ack to be received.
@@ -2860,9 +3055,9 @@ public class Msg {
       log.info("On Connect Called in Msg.");
     }
     // reset the parser...
-    this.byteCount = new AtomicInteger(0);
-    this.msgSize = 0;
+    parser.reset();
     ackReceived(-1);
+    window.reset();
   }
 
   public void onDisconnect(String portName) {
@@ -2870,9 +3065,9 @@ public class Msg {
       log.info("On Disconnect Called in Msg.");
     }
     // reset the parser... this might not be necessary.
-    this.byteCount = new AtomicInteger(0);
-    this.msgSize = 0;
+    parser.reset();
     ackReceived(-1);
+    window.reset();
   }
 
   public static boolean isFullMessage(byte[] bytes) {
@@ -2888,10 +3083,8 @@ public class Msg {
       return false;
     
     int method = bytes[1] & 0xFF;
-    String strMethod = Msg.methodToString(method); 
     // only known methods. 
-    // TODO: make the methodToString return null for an unknown lookup.
-    if (strMethod.startsWith("ERROR")) 
+    if (!isMethod(method)) 
       return false;
     
     // now it's got to be the proper length
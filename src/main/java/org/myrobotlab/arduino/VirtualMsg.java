@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.myrobotlab.logging.Level;
 
@@ -62,30 +61,25 @@ import org.slf4j.Logger;
  *
  */
 
-public class VirtualMsg {
+public class VirtualMsg implements FrameParser.Listener {
 
   // TODO: pick a more reasonable timeout.. 3 seconds is high.
   private static final int ACK_TIMEOUT = 3000;
   public transient final static Logger log = LoggerFactory.getLogger(VirtualMsg.class);
   public static final int MAX_MSG_SIZE = 64;
   public static final int MAGIC_NUMBER = 170; // 10101010
-  public static final int MRLCOMM_VERSION = 68;
+  public static final int MRLCOMM_VERSION = 71;
   // send buffer
   private int sendBufferSize = 0;
   private int sendBuffer[] = new int[MAX_MSG_SIZE];
-  // recv buffer
-  private int ioCmd[] = new int[MAX_MSG_SIZE];
-  private AtomicInteger byteCount = new AtomicInteger(0);
-  private int msgSize = 0;
+  // recv - frames are parsed in place
+  transient FrameParser parser = new FrameParser(MAGIC_NUMBER, MAX_MSG_SIZE, this);
   // ------ device type mapping constants
   private int method = -1;
   public boolean debug = false;
   // when using a real service, invoke should be true, for unit tests, this should be false.
   private boolean invoke = false;
   
-  private int errorServiceToHardwareRxCnt = 0;
-  private int errorHardwareToServiceRxCnt = 0;
-  
   boolean ackEnabled = false;
   private volatile boolean clearToSend = true;
   public static class AckLock {
@@ -94,6 +88,8 @@ public class VirtualMsg {
     volatile boolean pendingMessage = false;
   }
   transient AckLock ackRecievedLock = new AckLock();
+  // sliding window acks - disabled (stop and wait) until setAckWindow
+  transient AckWindow window = new AckWindow(() -> this.arduino.ackTimeout());
   // recording related
   transient OutputStream record = null;
   transient StringBuilder rxBuffer = new StringBuilder();
@@ -228,6 +224,16 @@ public class VirtualMsg {
   public final static int PUBLISH_MRL_COMM_BEGIN = 58;
   // > servoStop/deviceId
   public final static int SERVO_STOP = 59;
+  // > enableAckWindow/size
+  public final static int ENABLE_ACK_WINDOW = 60;
+  // < publishAckWindow/seq/b32 bitmap
+  public final static int PUBLISH_ACK_WINDOW = 61;
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  public final static int I2C_TRANSACTION = 62;
+  // < publishI2cTransaction/deviceId/txId/[] data
+  public final static int PUBLISH_I2C_TRANSACTION = 63;
+  // > servoMoveGroup/[] moves
+  public final static int SERVO_MOVE_GROUP = 64;
 
 
 /**
@@ -280,6 +286,9 @@ public class VirtualMsg {
   // public void encoderAttach(Integer deviceId/*byte*/, Integer type/*byte*/, Integer pin/*byte*/){}
   // public void setZeroPoint(Integer deviceId/*byte*/){}
   // public void servoStop(Integer deviceId/*byte*/){}
+  // public void enableAckWindow(Integer size/*byte*/){}
+  // public void i2cTransaction(Integer deviceId/*byte*/, Integer txId/*byte*/, Integer deviceAddress/*byte*/, Integer readSize/*byte*/, int[] writeData/*[]*/){}
+  // public void servoMoveGroup(int[] moves/*[]*/){}
   
   
 
@@ -313,6 +322,10 @@ public class VirtualMsg {
       Integer function = ioCmd[startPos+1]; // bu8
       ackReceived(function);
     }
+
+    if (method == PUBLISH_ACK_WINDOW) {
+      window.onAck(ioCmd[startPos + 1], b32(ioCmd, startPos + 2));
+    }
     
     if (method != PUBLISH_MRL_COMM_BEGIN) {
       if (!clearToSend) {
@@ -324,6 +337,8 @@ public class VirtualMsg {
       // Process!
       log.info("Clear to process!!!!!!!!!!!!!!!!!!");
       this.clearToSend = true;
+      // the board (re)started - it is back to stop and wait
+      window.reset();
     }
     switch (method) {
     case GET_BOARD_INFO: {
@@ -890,6 +905,44 @@ public class VirtualMsg {
       }
       break;
     }
+    case ENABLE_ACK_WINDOW: {
+      Integer size = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      if(invoke){
+        arduino.invoke("enableAckWindow",  size);
+      } else { 
+         arduino.enableAckWindow( size);
+      }
+      break;
+    }
+    case I2C_TRANSACTION: {
+      Integer deviceId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      Integer txId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      Integer deviceAddress = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      Integer readSize = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      int[] writeData = subArray(ioCmd, startPos+2, ioCmd[startPos+1]);
+      startPos += 1 + ioCmd[startPos+1];
+      if(invoke){
+        arduino.invoke("i2cTransaction",  deviceId,  txId,  deviceAddress,  readSize,  writeData);
+      } else { 
+         arduino.i2cTransaction( deviceId,  txId,  deviceAddress,  readSize,  writeData);
+      }
+      break;
+    }
+    case SERVO_MOVE_GROUP: {
+      int[] moves = subArray(ioCmd, startPos+2, ioCmd[startPos+1]);
+      startPos += 1 + ioCmd[startPos+1];
+      if(invoke){
+        arduino.invoke("servoMoveGroup",  moves);
+      } else { 
+         arduino.servoMoveGroup( moves);
+      }
+      break;
+    }
     
     }
   }
@@ -1342,6 +1395,77 @@ public class VirtualMsg {
     }
   }
 
+  public synchronized byte[] publishAckWindow(Integer seq/*byte*/, Integer bitmap/*b32*/) {
+    if (debug) {
+      log.info("Sending Message: publishAckWindow to {}", serial.getName());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      appendMessage(baos, MAGIC_NUMBER);
+      appendMessage(baos, 1 + 1 + 4); // size
+      appendMessage(baos, PUBLISH_ACK_WINDOW); // msgType = 61
+      appendMessage(baos, seq);
+      appendMessageb32(baos, bitmap);
+ 
+      byte[] message = sendMessage(baos);
+      if (ackEnabled){
+        waitForAck();
+      }
+      if(record != null){
+        txBuffer.append("> publishAckWindow");
+        txBuffer.append("/");
+        txBuffer.append(seq);
+        txBuffer.append("/");
+        txBuffer.append(bitmap);
+        txBuffer.append("\n");
+        record.write(txBuffer.toString().getBytes());
+        txBuffer.setLength(0);
+      }
+
+      return message;
+	} catch (Exception e) {
+      log.error("publishAckWindow threw",e);
+      return null;
+    }
+  }
+
+  public synchronized byte[] publishI2cTransaction(Integer deviceId/*byte*/, Integer txId/*byte*/, int[] data/*[]*/) {
+    if (debug) {
+      log.info("Sending Message: publishI2cTransaction to {}", serial.getName());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      appendMessage(baos, MAGIC_NUMBER);
+      appendMessage(baos, 1 + 1 + 1 + (1 + data.length)); // size
+      appendMessage(baos, PUBLISH_I2C_TRANSACTION); // msgType = 63
+      appendMessage(baos, deviceId);
+      appendMessage(baos, txId);
+      appendMessage(baos, data);
+ 
+      byte[] message = sendMessage(baos);
+      if (ackEnabled){
+        waitForAck();
+      }
+      if(record != null){
+        txBuffer.append("> publishI2cTransaction");
+        txBuffer.append("/");
+        txBuffer.append(deviceId);
+        txBuffer.append("/");
+        txBuffer.append(txId);
+        txBuffer.append("/");
+        txBuffer.append(Arrays.toString(data));
+        txBuffer.append("\n");
+        record.write(txBuffer.toString().getBytes());
+        txBuffer.setLength(0);
+      }
+
+      return message;
+	} catch (Exception e) {
+      log.error("publishI2cTransaction threw",e);
+      return null;
+    }
+  }
+
 
   public static String methodToString(int method) {
     switch (method) {
@@ -1522,6 +1646,21 @@ public class VirtualMsg {
     case SERVO_STOP:{
       return "servoStop";
     }
+    case ENABLE_ACK_WINDOW:{
+      return "enableAckWindow";
+    }
+    case PUBLISH_ACK_WINDOW:{
+      return "publishAckWindow";
+    }
+    case I2C_TRANSACTION:{
+      return "i2cTransaction";
+    }
+    case PUBLISH_I2C_TRANSACTION:{
+      return "publishI2cTransaction";
+    }
+    case SERVO_MOVE_GROUP:{
+      return "servoMoveGroup";
+    }
 
     default: {
       return "ERROR UNKNOWN METHOD (" + Integer.toString(method) + ")";
@@ -1530,6 +1669,18 @@ public class VirtualMsg {
     }
   }
 
+  // known method numbers - looked up for every received frame
+  final static boolean[] methods = new boolean[256];
+  static {
+    for (int i = 0; i < methods.length; ++i) {
+      methods[i] = !methodToString(i).startsWith("ERROR");
+    }
+  }
+
+  public static boolean isMethod(int method) {
+    return method >= 0 && method < methods.length && methods[method];
+  }
+
   public String str(int[] buffer, int start, int size) {
     byte[] b = new byte[size];
     for (int i = start; i < start + size; ++i){
@@ -1579,108 +1730,74 @@ public class VirtualMsg {
     if (debug) {
       // debug message.. semi-human readable?
       String byteString = StringUtil.byteArrayToIntString(bytes);
-      log.info("onBytes called byteCount: {} data: >{}<", byteCount, byteString);
+      log.info("onBytes called data: >{}<", byteString);
     }
-    // this gives us the current full buffer that was read from the seral
-    for (int i = 0 ; i < bytes.length; i++) {
-      // For now, let's just call onByte for each byte upcasted as an int.
-      Integer newByte = bytes[i] & 0xFF;
-      try {
-        byteCount.incrementAndGet();
-        if (byteCount.get() == 1) {
-          if (newByte != MAGIC_NUMBER) {
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            Arrays.fill(ioCmd, 0); // FIXME - optimize - remove
-            // warn(String.format("Arduino->MRL error - bad magic number %d - %d rx errors", newByte, ++errorServiceToHardwareRxCnt));
-            log.warn("Arduino->MRL error - bad magic number {} - {} rx errors", newByte, ++errorServiceToHardwareRxCnt);
-          }
-          continue;
-        } else if (byteCount.get() == 2) {
-          // get the size of message
-          if (newByte > 64) {
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            // This is an error scenario.. we should reset our byte count also.
-            // error(String.format("Arduino->MRL error %d rx sz errors", ++errorServiceToHardwareRxCnt ));
-            log.error("Arduino->MRL error {} rx sz errors", ++errorServiceToHardwareRxCnt);
-            continue;
-          }
-          msgSize = newByte.intValue();
-        } else if (byteCount.get() == 3) {
-          // This is the method..
-          int method = newByte.intValue();
-          if (methodToString(method).startsWith("ERROR")) {
-            // we've got an error scenario here.. reset the parser and try again!
-            log.error("Arduino->MRL error unknown method error. resetting parser.");
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            continue;
-          }
-          
-          // If we're not clear to send, we need to unlock if this is a begin message.
-          if (!clearToSend && (method == Msg.PUBLISH_MRL_COMM_BEGIN)) {
-            // Clear to send!!
-            log.info("Saw the MRL COMM BEGIN!!!!!!!!!!!!! Clear To Send.");
-            clearToSend = true;
-          } 
-          
-          if (!clearToSend) {
-            log.warn("NOT CLEAR TO SEND! resetting parser!");
-            // We opened the port, and we got some data that isn't a Begin message.
-            // so, I think we need to reset the parser and continue processing bytes...
-            // there will be errors until the next magic byte is seen.
-            byteCount = new AtomicInteger(0);
-            msgSize = 0;
-            continue;
-          }
-          // we are in a valid parse state.    
-          ioCmd[byteCount.get() - 3] = method;
-        } else if (byteCount.get() > 3) {
-          // This is the body of the message copy it to the buffer
-          ioCmd[byteCount.get() - 3] = newByte.intValue();
-        } else {
-          // the case where byteCount is negative?! not got.  You should probably never see this.
-          log.warn("MRL error rx zero/negative size error: {} {}", byteCount, Arrays.copyOf(ioCmd, byteCount.get()));
-          //error(String.format("Arduino->MRL error %d rx negsz errors", ++errorServiceToHardwareRxCnt));
-          continue;
-        }
-        // we have a complete message here.
-        if (byteCount.get() == 2 + msgSize) {
-          // we've received a full message
-          int[] actualCommand = Arrays.copyOf(ioCmd, byteCount.get()-2);
-          if (debug) {
-            log.info("Full message received: {} Data:{}", VirtualMsg.methodToString(ioCmd[0]), actualCommand);
-          }
-          // process the command.
-          processCommand(actualCommand);
-          publishAck(method);
-          // re-init parser
-          Arrays.fill(ioCmd, 0); // optimize remove
-          msgSize = 0;
-          byteCount = new AtomicInteger(0);
-        }
-      } catch (Exception e) {
-        ++errorHardwareToServiceRxCnt ;
-        // error("msg structure violation %d", errorHardwareToServiceRxCnt);
-        log.warn("msg_structure violation byteCount {} buffer {}", byteCount, Arrays.copyOf(ioCmd, byteCount.get()), e);
-        // TODO: perhaps we could find the first occurance of 170.. and then attempt to re-parse at that point.
-        // find the first occurance of 170 in the bytes subbytes
-        // Maybe we can just walk the iterater back to the beginning based on the byte count .. and advance it by 1.. and continue.
-        i = i - byteCount.get()+1;
-        log.error("Trying to resume parsing the byte stream at position {} bytecount: {}", i, byteCount);
-        log.error("Original Byte Array: {}", StringUtil.byteArrayToIntString(bytes));
-        System.err.println("Try to consume more messages!");
-        msgSize = 0;
-        byteCount = new AtomicInteger(0);
-        // TODO: this is wonky.. what?! 
-        i = 0;
-        return;
-        
-        
-      }
+    parser.parse(bytes);
+  }
+
+  /**
+   * first byte of a frame - drop unknown methods, and everything before the
+   * board's begin message
+   */
+  public boolean acceptMethod(int method) {
+    if (!isMethod(method)) {
+      // we've got an error scenario here.. reset the parser and try again!
+      log.error("Arduino->MRL error unknown method {}. resetting parser.", method);
+      return false;
+    }
+    // If we're not clear to send, we need to unlock if this is a begin message.
+    if (!clearToSend && (method == PUBLISH_MRL_COMM_BEGIN)) {
+      // Clear to send!!
+      log.info("Saw the MRL COMM BEGIN!!!!!!!!!!!!! Clear To Send.");
+      clearToSend = true;
+    }
+    if (!clearToSend) {
+      // We opened the port, and we got some data that isn't a Begin message.
+      // there will be errors until the next magic byte is seen.
+      log.warn("NOT CLEAR TO SEND! resetting parser!");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * a complete frame - the view is reused for the next one
+   */
+  public void onFrame(FrameParser.Frame frame) {
+    if (debug) {
+      log.info("Full message received: {} Data:{}", methodToString(frame.getMethod()), frame);
+    }
+    // process the command.
+    processFrame(frame);
+  }
+
+  // board side of the sliding window acks - see AckWindow
+  transient AckWindow.Receiver receiver = new AckWindow.Receiver();
+
+  /**
+   * Runs a complete frame and acks it - with publishAck in stop and wait,
+   * otherwise in sequence order through the receiver and with publishAckWindow.
+   */
+  void processFrame(FrameParser.Frame frame) {
+    if (!receiver.isEnabled()) {
+      processCommand(frame.getData());
+      publishAck(frame.getMethod());
+      return;
+    }
+    receiver.receive(frame.getData(), frame.getSize(), this::processCommand);
+    publishAckWindow(receiver.getNext(), receiver.getBitmap());
+  }
+
+  /**
+   * @param size
+   *          0 is stop and wait - otherwise the window is confirmed with
+   *          publishAckWindow 0/0
+   */
+  public void enableReceiveWindow(int size) {
+    receiver.enable(size);
+    if (size > 0) {
+      publishAckWindow(0, 0);
     }
-    return;
   }
 
   String F(String msg) {
@@ -1767,6 +1884,19 @@ public class VirtualMsg {
       return message;
     }
 
+    if (window.isEnabled() && serial != null) {
+      if (message.length + 1 > MAX_MSG_SIZE) {
+        log.error("**** message size {} + seq > MAX_MSG_SIZE {} - not sending ****", message.length, MAX_MSG_SIZE);
+        return message;
+      }
+      // returns as soon as the frame fits in the window
+      byte[] frame = window.send(serial, message);
+      if (frame != null) {
+        return frame;
+      }
+      // the window was reset while waiting - send it stop and wait
+    }
+
     if (ackEnabled) {
       // wait for a pending ack to be received before we process our message.^M
       waitForAck();
@@ -1880,8 +2010,12 @@ public class VirtualMsg {
     // }
   }
   
+  public AckWindow getAckWindow() {
+    return window;
+  }
+
   public void waitForAck(){
-    if (!ackEnabled) {
+    if (!ackEnabled || window.isEnabled() || serial == null || !serial.isConnected()) {
       return;
     }
     // if there's a pending message, we need to wait for the ack to be received.
@@ -1967,9 +2101,9 @@ public class VirtualMsg {
       log.info("On Connect Called in Msg.");
     }
     // reset the parser...
-    this.byteCount = new AtomicInteger(0);
-    this.msgSize = 0;
+    parser.reset();
     ackReceived(-1);
+    window.reset();
   }
 
   public void onDisconnect(String portName) {
@@ -1977,9 +2111,9 @@ public class VirtualMsg {
       log.info("On Disconnect Called in Msg.");
     }
     // reset the parser... this might not be necessary.
-    this.byteCount = new AtomicInteger(0);
-    this.msgSize = 0;
+    parser.reset();
     ackReceived(-1);
+    window.reset();
   }
 
   public static boolean isFullMessage(byte[] bytes) {
@@ -1995,10 +2129,8 @@ public class VirtualMsg {
       return false;
     
     int method = bytes[1] & 0xFF;
-    String strMethod = Msg.methodToString(method); 
     // only known methods. 
-    // TODO: make the methodToString return null for an unknown lookup.
-    if (strMethod.startsWith("ERROR")) 
+    if (!isMethod(method)) 
       return false;
     
     // now it's got to be the proper length
@@ -16,7 +16,9 @@ public abstract class Device {
     this.id = deviceId;
     this.type = deviceType;
     this.virtual = virtual;
-    this.msg = virtual.getMrlComm().getMsg();
+    // MrlComm.addDevice sets it when the board is not the VirtualArduino's own
+    MrlComm mrlComm = virtual.getMrlComm();
+    this.msg = (mrlComm == null) ? null : mrlComm.getMsg();
   }
   // virtual ~Device(){
   // default destructor for the device class.
@@ -12,9 +12,9 @@ import org.myrobotlab.arduino.VirtualMsg;
 import org.myrobotlab.framework.QueueStats;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.service.Arduino;
-import org.myrobotlab.service.Serial;
 import org.myrobotlab.service.VirtualArduino;
 import org.myrobotlab.service.interfaces.SerialDataListener;
+import org.myrobotlab.service.interfaces.SerialDevice;
 import org.slf4j.Logger;
 
 ///////////// MrlComm.h ///////////////
@@ -231,6 +231,8 @@ public class MrlComm implements SerialDataListener {
    * was removed - the slot could be re-used by the next device request
    */
   Device addDevice(Device device) {
+    // the device answers through the board it was attached to
+    device.msg = virtualMsg;
     deviceList.add(device);
     log.info("Added virtual device {}", device);
     return device;
@@ -275,10 +277,12 @@ public class MrlComm implements SerialDataListener {
     }
   }
 
-  public void begin(Serial serial) {
+  public void begin(SerialDevice serial) {
     // wire the serial port through to virtual message
     // TODO: consider creating a new virtual message instead?
     virtualMsg.begin(serial);
+    // a restarted board is back to stop and wait
+    virtualMsg.enableReceiveWindow(0);
   }
 
   // > customMsg/[] msg
@@ -518,6 +522,16 @@ public class MrlComm implements SerialDataListener {
     }
   }
 
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  public void i2cTransaction(int deviceId, int txId, int deviceAddress, int readSize, int[] writeData) {
+    MrlI2CBus i2c = (MrlI2CBus) getDevice(deviceId);
+    if (i2c != null) {
+      i2c.i2cTransaction(txId, deviceAddress, readSize, writeData);
+    } else {
+      log.warn("i2c device {} not found", deviceId);
+    }
+  }
+
   public Object invoke(String method, Object... params) {
     return virtual.invokeOn(false, this, method, params);
   }
@@ -681,6 +695,19 @@ public class MrlComm implements SerialDataListener {
     }
   }
 
+  // > servoMoveGroup/[] moves
+  public void servoMoveGroup(int[] moves) {
+    for (int i = 0; i + 4 < moves.length; i += 5) {
+      MrlServo servo = (MrlServo) getDevice(moves[i]);
+      if (servo != null) {
+        // b16 - velocity -1 is no speed control
+        servo.moveToMicroseconds(moves[i + 1] << 8 | moves[i + 2], (short) (moves[i + 3] << 8 | moves[i + 4]));
+      } else {
+        log.warn("servo not found for {}", moves[i]);
+      }
+    }
+  }
+
   public void servoSetAcceleration(int deviceId, int acceleration) {
     MrlServo servo = (MrlServo) getDevice(deviceId);
     if (servo != null) {
@@ -942,6 +969,12 @@ public class MrlComm implements SerialDataListener {
     log.info("servoStop {}", deviceId);
   }
 
+  // > enableAckWindow/size
+  public void enableAckWindow(Integer size) {
+    log.info("enableAckWindow {}", size);
+    virtualMsg.enableReceiveWindow(size);
+  }
+
   public boolean readMsg() {
     // TODO: we really should be reading the byte stream from the serial port
     // here
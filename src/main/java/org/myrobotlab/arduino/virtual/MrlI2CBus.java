@@ -1,5 +1,7 @@
 package org.myrobotlab.arduino.virtual;
 
+import java.util.Arrays;
+
 import org.myrobotlab.arduino.VirtualMsg;
 import org.myrobotlab.service.VirtualArduino;
 
@@ -42,12 +44,13 @@ public class MrlI2CBus extends Device {
     int answer = Wire.requestFrom(deviceAddress, size); // reqest a number of
     // bytes to read
 
+    int[] data = new int[answer];
     for (int i = 0; i < answer; i++) {
-      msg.add(Wire.read());
+      data[i] = Wire.read();
     }
 
     // int deviceId = ioCmd[1]; not needed we have our own deviceId
-    msg.publishI2cData(id, msg.getBuffer());
+    msg.publishI2cData(id, data);
   }
 
   // I2WRITEREAD | DEVICE_INDEX | I2CADDRESS | DATASIZE | DEVICE_MEMORY_ADDRESS
@@ -62,12 +65,38 @@ public class MrlI2CBus extends Device {
     int answer = Wire.requestFrom(deviceAddress, readSize); // reqest a number
     // of bytes to read
 
+    int[] data = new int[answer];
     for (int i = 0; i < answer; i++) {
-      msg.add(Wire.read());
+      data[i] = Wire.read();
     }
 
     // int deviceId = ioCmd[1];
-    msg.publishI2cData(id, msg.getBuffer());
+    msg.publishI2cData(id, data);
+  }
+
+  // I2C_TRANSACTION | DEVICE_INDEX | TX_ID | I2CADDRESS | READ_SIZE | WRITE_SIZE | DATA ....
+  // PUBLISH_I2C_TRANSACTION | DEVICE_INDEX | TX_ID | DATASIZE | DATA ....
+  // an optional write then an optional read - always answered so the host can
+  // complete the transaction with TX_ID
+  void i2cTransaction(int txId, int deviceAddress, int readSize, int[] writeData) {
+    if (writeData.length > 0) {
+      Wire.beginTransmission(deviceAddress);
+      for (int i = 0; i < writeData.length; i++) {
+        Wire.write(writeData[i]);
+      }
+      Wire.endTransmission();
+    }
+
+    int answer = 0;
+    int[] data = new int[readSize];
+    if (readSize > 0) {
+      answer = Wire.requestFrom(deviceAddress, readSize);
+      for (int i = 0; i < answer; i++) {
+        data[i] = Wire.read();
+      }
+    }
+
+    msg.publishI2cTransaction(id, txId, (answer == readSize) ? data : Arrays.copyOf(data, answer));
   }
 
   void update() {
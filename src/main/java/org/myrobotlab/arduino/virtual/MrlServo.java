@@ -150,6 +150,15 @@ public class MrlServo extends Device implements VirtualServo {
     publishServoEvent(SERVO_EVENT_STARTED);
   }
 
+  /**
+   * a move from a servoMoveGroup - each servo of the group carries its own
+   * velocity
+   */
+  public void moveToMicroseconds(int posUs, int velocity) {
+    setVelocity(velocity);
+    moveToMicroseconds(posUs);
+  }
+
   void startSweep(int minUs, int maxUs, int step) {
     this.minUs = minUs;
     this.maxUs = maxUs;
@@ -0,0 +1,493 @@
+package org.myrobotlab.audio;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Index of the audio files speech services have generated - which file of a
+ * voice holds which utterance is known without asking the filesystem, and the
+ * files least recently spoken are deleted when the cache is bigger than
+ * maxBytes or older than maxAge.
+ *
+ * The index is kept in a journal in the cache directory - a record for each
+ * added, used or removed file. A directory is listed once, the first time a
+ * voice uses it, and the journal is rewritten when it has grown to twice the
+ * records it needs.
+ *
+ * <pre>
+ * d AbstractSpeechSynthesisSubclass/voice            - directory listed
+ * + size lastUse AbstractSpeechSynthesisSubclass/voice/md5.mp3 - added or used
+ * - AbstractSpeechSynthesisSubclass/voice/md5.mp3    - removed
+ * </pre>
+ */
+public class AudioCache {
+
+  public final static Logger log = LoggerFactory.getLogger(AudioCache.class);
+
+  private static volatile AudioCache instance;
+
+  /**
+   * the journal in the cache directory
+   */
+  public final static String JOURNAL_FILENAME = "journal.txt";
+
+  /**
+   * uses of files written to the journal at once
+   */
+  final static int TOUCH_BATCH = 64;
+
+  static class Entry {
+    long size;
+    long lastUse;
+
+    Entry(long size, long lastUse) {
+      this.size = size;
+      this.lastUse = lastUse;
+    }
+  }
+
+  public static class Stats {
+    public long hits;
+    public long misses;
+    public double hitRate;
+    public int entries;
+    public long bytes;
+    public long evictions;
+
+    @Override
+    public String toString() {
+      return String.format("hits %d misses %d hit rate %.2f entries %d bytes %d evictions %d", hits, misses, hitRate, entries, bytes, evictions);
+    }
+  }
+
+  final File dir;
+
+  final File journal;
+
+  /**
+   * least recently used first
+   */
+  final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+
+  /**
+   * directories listed - and known to exist
+   */
+  final Set<String> dirs = new HashSet<>();
+
+  /**
+   * used files not written to the journal yet
+   */
+  final Set<String> touched = new LinkedHashSet<>();
+
+  transient private Writer writer = null;
+
+  int records = 0;
+
+  long bytes = 0;
+
+  long maxBytes = 1024L * 1024 * 1024;
+
+  /**
+   * ms a file is kept after it was last used - 0 keeps it until the cache is
+   * full
+   */
+  long maxAge = 0;
+
+  long hits = 0;
+
+  long misses = 0;
+
+  long evictions = 0;
+
+  public static AudioCache getInstance() {
+    if (instance == null) {
+      synchronized (AudioCache.class) {
+        if (instance == null) {
+          instance = new AudioCache(new File(System.getProperty("user.dir"), "audioFile"));
+          java.lang.Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "AudioCache.close"));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @param dir
+   *          the cache directory - the journal is kept in it
+   */
+  public AudioCache(File dir) {
+    this.dir = dir;
+    journal = new File(dir, JOURNAL_FILENAME);
+    load();
+  }
+
+  /**
+   * @param filename
+   *          a file in the cache directory
+   * @return the path of the file in the cache directory - null if it is not in
+   *         it
+   */
+  String key(String filename) {
+    String path = new File(filename).getAbsolutePath();
+    String root = dir.getAbsolutePath() + File.separator;
+    if (!path.startsWith(root)) {
+      return null;
+    }
+    return path.substring(root.length());
+  }
+
+  /**
+   * creates a directory of the cache if it does not exist - the first time it
+   * is used its files are indexed
+   *
+   * @param directory
+   *          a directory in the cache directory
+   */
+  public synchronized void mkdirs(File directory) {
+    String key = key(directory.getPath());
+    if (key == null || dirs.contains(key)) {
+      return;
+    }
+    if (!directory.exists()) {
+      directory.mkdirs();
+    }
+    dirs.add(key);
+    write(String.format("d %s", key));
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String fileKey = key + File.separator + file.getName();
+        if (file.isFile() && !entries.containsKey(fileKey)) {
+          put(fileKey, file.length(), file.lastModified());
+        }
+      }
+    }
+    flush();
+    evict(null);
+  }
+
+  /**
+   * @param filename
+   *          file of a speech service
+   * @return true if the file is in the cache - a hit makes it the most recently
+   *         used
+   */
+  public synchronized boolean contains(String filename) {
+    String key = key(filename);
+    Entry entry = (key == null) ? null : entries.get(key);
+    if (entry == null) {
+      ++misses;
+      return false;
+    }
+    ++hits;
+    entry.lastUse = System.currentTimeMillis();
+    touched.add(key);
+    if (touched.size() >= TOUCH_BATCH) {
+      flushTouched();
+    }
+    return true;
+  }
+
+  /**
+   * indexes a file generated - and deletes the least recently used ones if the
+   * cache is too big
+   *
+   * @param filename
+   *          the file
+   */
+  public synchronized void add(String filename) {
+    String key = key(filename);
+    if (key == null) {
+      return;
+    }
+    File file = new File(filename);
+    if (!file.exists()) {
+      return;
+    }
+    put(key, file.length(), System.currentTimeMillis());
+    flush();
+    evict(key);
+  }
+
+  /**
+   * deletes a file and its entry
+   *
+   * @param filename
+   *          the file
+   */
+  public synchronized void remove(String filename) {
+    String key = key(filename);
+    if (key != null) {
+      drop(key);
+      flush();
+    }
+    new File(filename).delete();
+  }
+
+  /**
+   * deletes the files of a directory of the cache - e.g. the files of all the
+   * voices of a speech service
+   *
+   * @param subDir
+   *          directory in the cache directory
+   */
+  public synchronized void purge(String subDir) {
+    String prefix = subDir + File.separator;
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Entry> e = it.next();
+      if (e.getKey().startsWith(prefix)) {
+        new File(dir, e.getKey()).delete();
+        bytes -= e.getValue().size;
+        touched.remove(e.getKey());
+        it.remove();
+      }
+    }
+    // files not indexed
+    deleteFiles(new File(dir, subDir));
+    dirs.removeIf(d -> d.equals(subDir) || d.startsWith(prefix));
+    compact();
+  }
+
+  private void deleteFiles(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        deleteFiles(f);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * @param maxBytes
+   *          size of the cache - the least recently used files are deleted
+   *          over it
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    evict(null);
+  }
+
+  /**
+   * @param maxAge
+   *          ms a file is kept after it was last used - 0 for no limit
+   */
+  public synchronized void setMaxAge(long maxAge) {
+    this.maxAge = maxAge;
+    evict(null);
+  }
+
+  public synchronized long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public synchronized long getMaxAge() {
+    return maxAge;
+  }
+
+  public synchronized Stats getStats() {
+    Stats stats = new Stats();
+    stats.hits = hits;
+    stats.misses = misses;
+    stats.hitRate = (hits + misses == 0) ? 0 : (double) hits / (hits + misses);
+    stats.entries = entries.size();
+    stats.bytes = bytes;
+    stats.evictions = evictions;
+    return stats;
+  }
+
+  /**
+   * writes the uses not in the journal yet and closes it
+   */
+  public synchronized void close() {
+    flushTouched();
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        log.warn("could not close {}", journal, e);
+      }
+      writer = null;
+    }
+  }
+
+  private void put(String key, long size, long lastUse) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      bytes -= entry.size;
+      entry.size = size;
+      entry.lastUse = lastUse;
+    } else {
+      entries.put(key, new Entry(size, lastUse));
+    }
+    bytes += size;
+    touched.remove(key);
+    write(String.format("+ %d %d %s", size, lastUse, key));
+  }
+
+  private void drop(String key) {
+    Entry entry = entries.remove(key);
+    if (entry != null) {
+      bytes -= entry.size;
+      touched.remove(key);
+      write(String.format("- %s", key));
+    }
+  }
+
+  /**
+   * deletes the files not used for maxAge, then the least recently used until
+   * the cache is under maxBytes
+   *
+   * @param keep
+   *          the file just added - it is not deleted
+   */
+  private void evict(String keep) {
+    long oldest = (maxAge > 0) ? System.currentTimeMillis() - maxAge : Long.MIN_VALUE;
+    List<String> evicted = new ArrayList<>();
+    long size = bytes;
+    for (Map.Entry<String, Entry> e : entries.entrySet()) {
+      if (size <= maxBytes && e.getValue().lastUse >= oldest) {
+        break;
+      }
+      if (e.getKey().equals(keep)) {
+        continue;
+      }
+      evicted.add(e.getKey());
+      size -= e.getValue().size;
+    }
+    if (evicted.isEmpty()) {
+      return;
+    }
+    for (String key : evicted) {
+      new File(dir, key).delete();
+      drop(key);
+    }
+    evictions += evicted.size();
+    log.info("evicted {} files - {} bytes in the cache", evicted.size(), bytes);
+    flush();
+  }
+
+  private void flushTouched() {
+    if (touched.isEmpty()) {
+      return;
+    }
+    for (String key : touched) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        write(String.format("+ %d %d %s", entry.size, entry.lastUse, key));
+      }
+    }
+    touched.clear();
+    flush();
+  }
+
+  private void write(String record) {
+    try {
+      if (writer == null) {
+        dir.mkdirs();
+        writer = new BufferedWriter(new FileWriter(journal, true));
+      }
+      writer.write(record);
+      writer.write('\n');
+      ++records;
+    } catch (IOException e) {
+      log.error("could not write {}", journal, e);
+    }
+  }
+
+  private void flush() {
+    try {
+      if (writer != null) {
+        writer.flush();
+      }
+    } catch (IOException e) {
+      log.error("could not write {}", journal, e);
+    }
+    if (records > 2 * (entries.size() + dirs.size()) + 1000) {
+      compact();
+    }
+  }
+
+  /**
+   * rewrites the journal with a record for each directory and file
+   */
+  synchronized void compact() {
+    close();
+    File tmp = new File(dir, journal.getName() + ".tmp");
+    dir.mkdirs();
+    try (Writer out = new BufferedWriter(new FileWriter(tmp))) {
+      for (String d : dirs) {
+        out.write(String.format("d %s\n", d));
+      }
+      for (Map.Entry<String, Entry> e : entries.entrySet()) {
+        out.write(String.format("+ %d %d %s\n", e.getValue().size, e.getValue().lastUse, e.getKey()));
+      }
+    } catch (IOException e) {
+      log.error("could not write {}", tmp, e);
+      return;
+    }
+    journal.delete();
+    if (!tmp.renameTo(journal)) {
+      log.error("could not rename {} to {}", tmp, journal);
+    }
+    records = dirs.size() + entries.size();
+  }
+
+  private void load() {
+    if (!journal.exists()) {
+      return;
+    }
+    Map<String, Entry> loaded = new HashMap<>();
+    try (BufferedReader in = new BufferedReader(new FileReader(journal))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        ++records;
+        try {
+          if (line.startsWith("d ")) {
+            dirs.add(line.substring(2));
+          } else if (line.startsWith("- ")) {
+            loaded.remove(line.substring(2));
+          } else if (line.startsWith("+ ")) {
+            String[] parts = line.split(" ", 4);
+            loaded.put(parts[3], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+          }
+        } catch (Exception e) {
+          log.warn("skipping {} in {}", line, journal);
+        }
+      }
+    } catch (IOException e) {
+      log.error("could not read {}", journal, e);
+    }
+
+    // least recently used first
+    List<Map.Entry<String, Entry>> sorted = new ArrayList<>(loaded.entrySet());
+    sorted.sort((a, b) -> Long.compare(a.getValue().lastUse, b.getValue().lastUse));
+    for (Map.Entry<String, Entry> e : sorted) {
+      entries.put(e.getKey(), e.getValue());
+      bytes += e.getValue().size;
+    }
+    log.info("{} files {} bytes in the cache", entries.size(), bytes);
+    if (records > 2 * (entries.size() + dirs.size()) + 1000) {
+      compact();
+    }
+  }
+
+}
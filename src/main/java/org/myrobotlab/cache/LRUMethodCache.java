@@ -7,8 +7,40 @@ public class LRUMethodCache {
 
   private static LRUMethodCache instance = null;
 
+  /**
+   * key compared by class identity and parameter type arrays - no string
+   * building per lookup
+   */
+  static final class Key {
+    final Class<?> type;
+    final String method;
+    final Class<?>[] paramTypes;
+    final int hash;
+
+    Key(Object obj, String method, Class<?>[] paramTypes) {
+      this.type = obj.getClass();
+      this.method = method;
+      this.paramTypes = paramTypes;
+      this.hash = 31 * (31 * type.hashCode() + method.hashCode()) + Arrays.hashCode(paramTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key k = (Key) o;
+      return type == k.type && method.equals(k.method) && Arrays.equals(paramTypes, k.paramTypes);
+    }
+  }
+
   // an lru cache object
-  private LRUCache<String, Method> cacheMap = null;
+  private LRUCache<Key, Method> cacheMap = null;
 
   // size of cache
   // private int size = 1024;
@@ -16,7 +48,7 @@ public class LRUMethodCache {
   protected LRUMethodCache(int size) {
     // this.size = size;
     // Exists only to defeat instantiation.
-    cacheMap = new LRUCache<String, Method>(size);
+    cacheMap = new LRUCache<Key, Method>(size);
   }
 
   public static LRUMethodCache getInstance() {
@@ -37,21 +69,16 @@ public class LRUMethodCache {
     return instance;
   }
 
-  private String makeKey(Object obj, String method, Class<?>[] paramTypes) {
-    String key = String.format("%s.%s.%s", obj.toString(), method, Arrays.toString(paramTypes));
-    return key;
-  }
-
   public Method getCacheEntry(Object obj, String method, Class<?>[] paramTypes) {
-    String key = makeKey(obj, method, paramTypes);
-    if (cacheMap.containsKey(key)) {
-      return cacheMap.get(key);
+    synchronized (cacheMap) {
+      return cacheMap.get(new Key(obj, method, paramTypes));
     }
-    return null;
   }
 
   public void addCacheEntry(Object obj, String method, Class<?>[] paramTypes, Method m) {
-    cacheMap.put(makeKey(obj, method, paramTypes), m);
+    synchronized (cacheMap) {
+      cacheMap.put(new Key(obj, method, paramTypes), m);
+    }
   }
 
 }
@@ -240,7 +240,9 @@ public class Client implements Runnable, Decoder<String, Reader>, Encoder<String
     Message msg = gson.fromJson(s, Message.class);
 
     if ("describe".equals(msg.method)) {
-      serverHelloRequest = gson.fromJson(msg.data[1].toString(), DescribeQuery.class);
+      // double encoded parameters are strings, json-inline are decoded objects
+      Object query = msg.data[1];
+      serverHelloRequest = gson.fromJson((query instanceof String) ? (String) query : gson.toJson(query), DescribeQuery.class);
       promptId = serverHelloRequest.id;
       System.out.println("attaching to id " + promptId);
     }
@@ -1,13 +1,20 @@
 package org.myrobotlab.codec;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -20,6 +27,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.myrobotlab.framework.MRLListener;
@@ -35,7 +43,13 @@ import org.yaml.snakeyaml.constructor.Constructor;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.internal.LinkedTreeMap;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * handles all encoding and decoding of MRL messages or api(s) assumed context -
@@ -74,6 +88,24 @@ public class CodecUtils {
   // mime-types
   public final static String MIME_TYPE_JSON = "application/json";
 
+  /**
+   * Message.encoding - data is an array of json encoded strings, the envelope
+   * is json encoded again (double encoding)
+   */
+  public final static String MSG_ENCODING_JSON = "json";
+
+  /**
+   * Message.encoding - data is an array of json values, envelope and
+   * parameters are written in a single pass
+   */
+  public final static String MSG_ENCODING_JSON_INLINE = "json-inline";
+
+  /**
+   * when true toJsonMsg writes the original double encoded format - for
+   * clients and instances which do not understand json-inline
+   */
+  private static boolean doubleEncodeJsonMsg = false;
+
   private transient static Gson gson = new GsonBuilder().setDateFormat("yyyy-MM-dd HH:mm:ss.SSS").disableHtmlEscaping().create();
   private transient static Gson prettyGson = new GsonBuilder().setDateFormat("yyyy-MM-dd HH:mm:ss.SSS").setPrettyPrinting().disableHtmlEscaping().create();
 
@@ -305,6 +337,19 @@ public class CodecUtils {
     return gson.toJson(o, clazz);
   }
 
+  /**
+   * @param o
+   *          object
+   * @return the json tree of what toJson would write
+   */
+  public final static JsonElement toJsonTree(Object o) {
+    return gson.toJsonTree(o, o.getClass());
+  }
+
+  public final static JsonElement parseJson(String json) {
+    return new JsonParser().parse(json);
+  }
+
   public static void toJsonFile(Object o, String filename) throws IOException {
     FileOutputStream fos = new FileOutputStream(new File(filename));
     fos.write(gson.toJson(o).getBytes());
@@ -645,24 +690,251 @@ public class CodecUtils {
     return CodecUtils.toJson(msg);
   }
 
+  public static boolean isDoubleEncodeJsonMsg() {
+    return doubleEncodeJsonMsg;
+  }
+
+  /**
+   * compatibility switch for the remote json format
+   * 
+   * @param b
+   *          true - parameters are json encoded strings inside a json envelope
+   *          (the original format), false - parameters are written inline
+   */
+  public static void setDoubleEncodeJsonMsg(boolean b) {
+    doubleEncodeJsonMsg = b;
+  }
+
   final public static String toJsonMsg(Message inMsg) {
-    if ("json".equals(inMsg.encoding)) {
+    StringWriter out = new StringWriter();
+    try {
+      writeJsonMsg(inMsg, out);
+    } catch (IOException e) {
+      // StringWriter does not throw
+      log.error("toJsonMsg threw", e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * writes a msg in a single pass - parameters are serialized directly into
+   * the envelope, there is no intermediate string per parameter and no copy of
+   * the msg
+   * 
+   * @param msg
+   *          msg to write
+   * @param out
+   *          destination
+   * @throws IOException
+   *           if out throws
+   */
+  final public static void writeJsonMsg(Message msg, Writer out) throws IOException {
+    JsonWriter writer = gson.newJsonWriter(out);
+    writer.beginObject();
+    writer.name("msgId").value(msg.msgId);
+    writeField(writer, "name", msg.name);
+    writeField(writer, "sender", msg.sender);
+    writeField(writer, "sendingMethod", msg.sendingMethod);
+    List<String> hops = msg.getHops();
+    if (hops != null) {
+      writer.name("historyList").beginArray();
+      for (String hop : hops) {
+        writer.value(hop);
+      }
+      writer.endArray();
+    }
+    if (msg.getProperties() != null) {
+      writer.name("properties");
+      gson.toJson(msg.getProperties(), Map.class, writer);
+    }
+    writeField(writer, "status", msg.status);
+
+    Object[] params = msg.getData();
+    if (MSG_ENCODING_JSON.equals(msg.encoding)) {
       // msg already has json encoded data parameters
       // just encode the msg envelope
-      return CodecUtils.toJson(inMsg);
+      writeField(writer, "encoding", msg.encoding);
+      writeField(writer, "method", msg.method);
+      if (params != null) {
+        writer.name("data");
+        gson.toJson(params, Object[].class, writer);
+      }
+    } else if (MSG_ENCODING_JSON_INLINE.equals(msg.encoding)) {
+      // msg read by a MessageCodec being relayed - data is the json text of
+      // each parameter or a natively decoded value
+      writeField(writer, "encoding", msg.encoding);
+      writeField(writer, "method", msg.method);
+      if (params != null) {
+        writer.name("data").beginArray();
+        for (Object param : params) {
+          if (param == null) {
+            writer.nullValue();
+          } else if (param instanceof String) {
+            writer.jsonValue((String) param);
+          } else {
+            gson.toJson(param, param.getClass(), writer);
+          }
+        }
+        writer.endArray();
+      }
+    } else if (doubleEncodeJsonMsg) {
+      writeField(writer, "encoding", MSG_ENCODING_JSON);
+      writeField(writer, "method", msg.method);
+      if (params != null) {
+        writer.name("data").beginArray();
+        for (Object param : params) {
+          writer.value(toJson(param));
+        }
+        writer.endArray();
+      }
+    } else {
+      writeField(writer, "encoding", MSG_ENCODING_JSON_INLINE);
+      writeField(writer, "method", msg.method);
+      if (params != null) {
+        writer.name("data").beginArray();
+        for (Object param : params) {
+          if (param == null) {
+            writer.nullValue();
+          } else {
+            gson.toJson(param, param.getClass(), writer);
+          }
+        }
+        writer.endArray();
+      }
     }
-    Message msg = new Message(inMsg);
-    msg.encoding = "json";
-    Object[] params = inMsg.getData();
-    Object[] d = null;
-    if (params != null) {
-      d = new Object[params.length];
-      for (int i = 0; i < params.length; ++i) {
-        d[i] = CodecUtils.toJson(params[i]);
+    writer.endObject();
+    writer.flush();
+  }
+
+  /**
+   * writes a msg as utf-8 json to a stream - the stream is flushed but not
+   * closed
+   * 
+   * @param msg
+   *          msg to write
+   * @param out
+   *          destination
+   * @throws IOException
+   *           if out throws
+   */
+  final public static void writeJsonMsg(Message msg, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writeJsonMsg(msg, writer);
+    writer.flush();
+  }
+
+  private static void writeField(JsonWriter writer, String name, String value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  /**
+   * Reads a msg in a single pass with a JsonReader. Parameters are not decoded
+   * - data holds the json text of each parameter in either format (the same
+   * strings the double encoded format carried),
+   * MethodCache.getDecodedJsonParameters decodes them once against the
+   * signature of the target method.
+   *
+   * @param json
+   *          json msg in either format
+   * @return the msg
+   */
+  final public static Message fromJsonMsg(String json) {
+    return fromJsonMsg(new JsonReader(new StringReader(json)));
+  }
+
+  final public static Message fromJsonMsg(byte[] json) {
+    return fromJsonMsg(new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)));
+  }
+
+  private static Message fromJsonMsg(JsonReader reader) {
+    try {
+      reader.setLenient(true);
+      Message msg = new Message();
+      List<JsonElement> data = null;
+      JsonParser parser = new JsonParser();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String field = reader.nextName();
+        if (reader.peek() == JsonToken.NULL) {
+          reader.nextNull();
+          continue;
+        }
+        switch (field) {
+          case "msgId":
+            // a number in any notation or a quoted one
+            msg.msgId = reader.nextLong();
+            break;
+          case "name":
+            msg.name = reader.nextString();
+            break;
+          case "sender":
+            msg.sender = reader.nextString();
+            break;
+          case "sendingMethod":
+            msg.sendingMethod = reader.nextString();
+            break;
+          case "historyList":
+            msg.clearHops();
+            reader.beginArray();
+            while (reader.hasNext()) {
+              msg.addHop(reader.nextString());
+            }
+            reader.endArray();
+            break;
+          case "properties":
+            Map<String, Object> props = gson.fromJson(reader, Map.class);
+            for (String key : props.keySet()) {
+              msg.setProperty(key, props.get(key));
+            }
+            break;
+          case "status":
+            msg.status = reader.nextString();
+            break;
+          case "encoding":
+            msg.encoding = reader.nextString();
+            break;
+          case "method":
+            msg.method = reader.nextString();
+            break;
+          case "data":
+            data = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+              data.add(parser.parse(reader));
+            }
+            reader.endArray();
+            break;
+          default:
+            reader.skipValue();
+            break;
+        }
       }
-      msg.setData(d);
+      reader.endObject();
+
+      if (data != null) {
+        // the encoding field can come after data - so the parameter
+        // representation is decided here
+        boolean inline = MSG_ENCODING_JSON_INLINE.equals(msg.encoding);
+        Object[] params = new Object[data.size()];
+        for (int p = 0; p < params.length; ++p) {
+          JsonElement param = data.get(p);
+          if (param.isJsonNull()) {
+            params[p] = null;
+          } else if (!inline && param.isJsonPrimitive() && param.getAsJsonPrimitive().isString()) {
+            // double encoded - the string is the encoded parameter
+            params[p] = param.getAsString();
+          } else {
+            params[p] = param.toString();
+          }
+        }
+        msg.data = params;
+      }
+      return msg;
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      throw new JsonSyntaxException("malformed msg", e);
     }
-    return CodecUtils.toJson(msg);
   }
 
   @Deprecated
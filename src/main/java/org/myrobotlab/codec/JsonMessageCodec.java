@@ -0,0 +1,60 @@
+package org.myrobotlab.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.myrobotlab.framework.Message;
+
+/**
+ * the default text codec - CodecUtils.writeJsonMsg and CodecUtils.fromJsonMsg
+ * behind the MessageCodec interface
+ */
+public class JsonMessageCodec implements MessageCodec {
+
+  public final static String KEY = "json";
+
+  @Override
+  public String getKey() {
+    return KEY;
+  }
+
+  @Override
+  public String getMimeType() {
+    return CodecUtils.MIME_TYPE_JSON;
+  }
+
+  @Override
+  public boolean isBinary() {
+    return false;
+  }
+
+  @Override
+  public byte[] encode(Message msg) throws IOException {
+    return CodecUtils.toJsonMsg(msg).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void encode(Message msg, OutputStream out) throws IOException {
+    CodecUtils.writeJsonMsg(msg, out);
+  }
+
+  @Override
+  public Message decode(byte[] data, int offset, int length) throws IOException {
+    return CodecUtils.fromJsonMsg(new String(data, offset, length, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public boolean accepts(byte[] data, int offset) {
+    for (int i = offset; i < data.length; ++i) {
+      if (data[i] == '{') {
+        return true;
+      }
+      if (data[i] > ' ') {
+        return false;
+      }
+    }
+    return false;
+  }
+
+}
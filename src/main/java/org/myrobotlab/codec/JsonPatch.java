@@ -0,0 +1,174 @@
+package org.myrobotlab.codec;
+
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * RFC 6902 json patches of json trees - only the add, remove and replace
+ * operations are produced. Objects are compared field by field, arrays element
+ * by element with the elements added or removed at their end, anything else
+ * which differs is replaced.
+ *
+ * <pre>
+ * [{"op":"replace","path":"/currentInputPos","value":92.5},
+ *  {"op":"remove","path":"/tasks/sweep"}]
+ * </pre>
+ */
+public class JsonPatch {
+
+  public final static String ADD = "add";
+  public final static String REMOVE = "remove";
+  public final static String REPLACE = "replace";
+
+  /**
+   * @param from
+   *          the tree the patch is applied to
+   * @param to
+   *          the tree after the patch
+   * @return the operations - empty if they are equal
+   */
+  static public JsonArray diff(JsonElement from, JsonElement to) {
+    JsonArray ops = new JsonArray();
+    diff("", from, to, ops);
+    return ops;
+  }
+
+  static void diff(String path, JsonElement from, JsonElement to, JsonArray ops) {
+    if (from.equals(to)) {
+      return;
+    }
+    if (from.isJsonObject() && to.isJsonObject()) {
+      JsonObject a = from.getAsJsonObject();
+      JsonObject b = to.getAsJsonObject();
+      for (Map.Entry<String, JsonElement> e : a.entrySet()) {
+        if (!b.has(e.getKey())) {
+          ops.add(op(REMOVE, path + "/" + escape(e.getKey()), null));
+        }
+      }
+      for (Map.Entry<String, JsonElement> e : b.entrySet()) {
+        JsonElement was = a.get(e.getKey());
+        if (was == null) {
+          ops.add(op(ADD, path + "/" + escape(e.getKey()), e.getValue()));
+        } else {
+          diff(path + "/" + escape(e.getKey()), was, e.getValue(), ops);
+        }
+      }
+    } else if (from.isJsonArray() && to.isJsonArray()) {
+      JsonArray a = from.getAsJsonArray();
+      JsonArray b = to.getAsJsonArray();
+      int common = Math.min(a.size(), b.size());
+      for (int i = 0; i < common; ++i) {
+        diff(path + "/" + i, a.get(i), b.get(i), ops);
+      }
+      // from the end so the indexes stay valid
+      for (int i = a.size() - 1; i >= common; --i) {
+        ops.add(op(REMOVE, path + "/" + i, null));
+      }
+      for (int i = common; i < b.size(); ++i) {
+        ops.add(op(ADD, path + "/" + i, b.get(i)));
+      }
+    } else {
+      ops.add(op(REPLACE, path, to));
+    }
+  }
+
+  static JsonObject op(String op, String path, JsonElement value) {
+    JsonObject o = new JsonObject();
+    o.addProperty("op", op);
+    o.addProperty("path", path);
+    if (value != null) {
+      o.add("value", value);
+    }
+    return o;
+  }
+
+  static String escape(String key) {
+    if (key.indexOf('~') < 0 && key.indexOf('/') < 0) {
+      return key;
+    }
+    return key.replace("~", "~0").replace("/", "~1");
+  }
+
+  static String unescape(String token) {
+    if (token.indexOf('~') < 0) {
+      return token;
+    }
+    return token.replace("~1", "/").replace("~0", "~");
+  }
+
+  /**
+   * applies a patch made by diff - the tree is changed in place
+   *
+   * @param doc
+   *          the tree
+   * @param ops
+   *          the operations
+   * @return the patched tree - a new one if the root was replaced
+   */
+  static public JsonElement apply(JsonElement doc, JsonArray ops) {
+    for (JsonElement e : ops) {
+      JsonObject o = e.getAsJsonObject();
+      String op = o.get("op").getAsString();
+      String path = o.get("path").getAsString();
+      JsonElement value = o.get("value");
+      if (path.isEmpty()) {
+        // whole document
+        doc = value;
+        continue;
+      }
+      int pos = path.lastIndexOf('/');
+      JsonElement parent = get(doc, path.substring(0, pos));
+      String key = unescape(path.substring(pos + 1));
+      if (parent.isJsonObject()) {
+        if (REMOVE.equals(op)) {
+          parent.getAsJsonObject().remove(key);
+        } else {
+          parent.getAsJsonObject().add(key, value);
+        }
+      } else {
+        JsonArray array = parent.getAsJsonArray();
+        int index = ("-".equals(key)) ? array.size() : Integer.parseInt(key);
+        if (REMOVE.equals(op)) {
+          array.remove(index);
+        } else if (REPLACE.equals(op)) {
+          array.set(index, value);
+        } else if (index == array.size()) {
+          array.add(value);
+        } else {
+          // insert
+          JsonArray inserted = new JsonArray();
+          for (int i = 0; i < array.size(); ++i) {
+            if (i == index) {
+              inserted.add(value);
+            }
+            inserted.add(array.get(i));
+          }
+          while (array.size() > 0) {
+            array.remove(array.size() - 1);
+          }
+          array.addAll(inserted);
+        }
+      }
+    }
+    return doc;
+  }
+
+  static JsonElement get(JsonElement doc, String path) {
+    JsonElement e = doc;
+    if (path.isEmpty()) {
+      return e;
+    }
+    for (String token : path.substring(1).split("/", -1)) {
+      if (e.isJsonArray()) {
+        e = e.getAsJsonArray().get(Integer.parseInt(token));
+      } else {
+        e = e.getAsJsonObject().get(unescape(token));
+      }
+    }
+    return e;
+  }
+
+}
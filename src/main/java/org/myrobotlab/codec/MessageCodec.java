@@ -0,0 +1,48 @@
+package org.myrobotlab.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.myrobotlab.framework.Message;
+
+/**
+ * Wire encoding of a Message for remote gateways. Implementations are
+ * registered in MessageCodecs and selected per connection.
+ *
+ * Decoded msgs share one parameter representation whatever the wire format -
+ * each parameter is either the json text of the parameter or a value the
+ * codec could carry natively (boxed primitives, byte[], int[], long[],
+ * float[], double[]). MethodCache.getDecodedJsonParameters turns both into
+ * the types of the target method.
+ *
+ */
+public interface MessageCodec {
+
+  /**
+   * @return key used to negotiate the codec e.g. json, msgpack
+   */
+  public String getKey();
+
+  public String getMimeType();
+
+  /**
+   * @return true if encoded msgs are not text
+   */
+  public boolean isBinary();
+
+  public byte[] encode(Message msg) throws IOException;
+
+  public void encode(Message msg, OutputStream out) throws IOException;
+
+  public Message decode(byte[] data, int offset, int length) throws IOException;
+
+  /**
+   * @param data
+   *          encoded msg
+   * @param offset
+   *          start of the msg in data
+   * @return true if this codec encoded the msg
+   */
+  public boolean accepts(byte[] data, int offset);
+
+}
@@ -0,0 +1,147 @@
+package org.myrobotlab.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.net.Connection;
+import org.slf4j.Logger;
+
+/**
+ * Registry of MessageCodecs and per connection negotiation.
+ *
+ * A gateway advertises getKeys() when a connection is established (the
+ * "codecs" msg property or connection parameter), the other side picks the
+ * first codec of its own preference list the peer supports and stores it on
+ * the connection. Receivers do not need to know the choice - decode(byte[])
+ * recognizes the encoding from the first bytes of the msg. Json is always
+ * supported and is the fallback for peers which advertise nothing.
+ */
+public class MessageCodecs {
+
+  public final static Logger log = LoggerFactory.getLogger(MessageCodecs.class);
+
+  /**
+   * msg property and connection key the supported codecs are advertised with
+   */
+  public final static String CODECS = "codecs";
+
+  /**
+   * connection key of the negotiated codec
+   */
+  public final static String CODEC = "codec";
+
+  final static Map<String, MessageCodec> codecs = new ConcurrentHashMap<>();
+
+  /**
+   * keys in order of preference
+   */
+  final static List<String> preference = new CopyOnWriteArrayList<>();
+
+  final static JsonMessageCodec json = new JsonMessageCodec();
+
+  static {
+    register(new MsgPackMessageCodec());
+    register(json);
+  }
+
+  /**
+   * register a codec - codecs registered first are preferred
+   * 
+   * @param codec
+   *          the codec
+   */
+  public static void register(MessageCodec codec) {
+    if (codecs.put(codec.getKey(), codec) == null) {
+      preference.add(codec.getKey());
+    }
+  }
+
+  /**
+   * @param key
+   *          codec key
+   * @return the codec or json if key is null or unknown
+   */
+  public static MessageCodec get(String key) {
+    if (key == null) {
+      return json;
+    }
+    MessageCodec codec = codecs.get(key);
+    return (codec == null) ? json : codec;
+  }
+
+  /**
+   * @return keys of all codecs in order of preference
+   */
+  public static List<String> getKeys() {
+    return new ArrayList<>(preference);
+  }
+
+  /**
+   * @param remoteKeys
+   *          codecs the peer supports - a list or a comma separated string, may
+   *          be null
+   * @return key of the first codec in local order of preference the peer
+   *         supports
+   */
+  public static String negotiate(Object remoteKeys) {
+    List<String> remote = new ArrayList<>();
+    if (remoteKeys instanceof List) {
+      for (Object key : (List<?>) remoteKeys) {
+        remote.add(String.valueOf(key).trim());
+      }
+    } else if (remoteKeys instanceof String) {
+      for (String key : ((String) remoteKeys).split(",")) {
+        remote.add(key.trim());
+      }
+    }
+    for (String key : preference) {
+      if (remote.contains(key)) {
+        return key;
+      }
+    }
+    return JsonMessageCodec.KEY;
+  }
+
+  /**
+   * @param connection
+   *          a gateway connection - may be null
+   * @return the codec negotiated for the connection, json if none was
+   */
+  public static MessageCodec get(Connection connection) {
+    return (connection == null) ? json : get((String) connection.get(CODEC));
+  }
+
+  public static Message decode(byte[] data) throws IOException {
+    return decode(data, 0, data.length);
+  }
+
+  /**
+   * decode a msg in any registered encoding
+   * 
+   * @param data
+   *          encoded msg
+   * @param offset
+   *          start of the msg
+   * @param length
+   *          length of the msg
+   * @return the msg
+   * @throws IOException
+   *           if no codec recognizes the data or it is malformed
+   */
+  public static Message decode(byte[] data, int offset, int length) throws IOException {
+    for (String key : preference) {
+      MessageCodec codec = codecs.get(key);
+      if (codec.accepts(data, offset)) {
+        return codec.decode(data, offset, length);
+      }
+    }
+    throw new IOException("unknown msg encoding");
+  }
+
+}
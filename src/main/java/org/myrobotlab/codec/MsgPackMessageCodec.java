@@ -0,0 +1,620 @@
+package org.myrobotlab.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Compact binary Message encoding in the MessagePack format.
+ *
+ * A msg is an array of 10 elements - format version, msgId, name, sender,
+ * sendingMethod, history, properties, status, method and data. Parameters which
+ * MessagePack can represent are written natively - null, booleans, integers,
+ * floats, strings and byte[] (bin). int[], long[], float[] and double[] are
+ * written without boxing as big endian ext types 1 to 4. Everything else is
+ * written as its json text in ext type 0, so any parameter the json codec can
+ * carry can be carried here too.
+ *
+ * Decoded msgs follow the MessageCodec parameter representation - natives stay
+ * as they are, strings and ext 0 parameters become json text.
+ *
+ */
+public class MsgPackMessageCodec implements MessageCodec {
+
+  public final static Logger log = LoggerFactory.getLogger(MsgPackMessageCodec.class);
+
+  public final static String KEY = "msgpack";
+
+  public final static String MIME_TYPE = "application/x-msgpack";
+
+  final static int VERSION = 1;
+
+  final static int ENVELOPE_SIZE = 10;
+
+  final static byte EXT_JSON = 0;
+  final static byte EXT_INT_ARRAY = 1;
+  final static byte EXT_LONG_ARRAY = 2;
+  final static byte EXT_FLOAT_ARRAY = 3;
+  final static byte EXT_DOUBLE_ARRAY = 4;
+
+  /**
+   * buffers larger than this are not kept for the next msg
+   */
+  final static int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+  final static ThreadLocal<Output> outputs = new ThreadLocal<Output>() {
+    @Override
+    protected Output initialValue() {
+      return new Output();
+    }
+  };
+
+  @Override
+  public String getKey() {
+    return KEY;
+  }
+
+  @Override
+  public String getMimeType() {
+    return MIME_TYPE;
+  }
+
+  @Override
+  public boolean isBinary() {
+    return true;
+  }
+
+  @Override
+  public byte[] encode(Message msg) throws IOException {
+    Output out = write(msg);
+    byte[] ret = Arrays.copyOf(out.buf, out.pos);
+    out.release();
+    return ret;
+  }
+
+  @Override
+  public void encode(Message msg, OutputStream stream) throws IOException {
+    Output out = write(msg);
+    stream.write(out.buf, 0, out.pos);
+    out.release();
+  }
+
+  @Override
+  public boolean accepts(byte[] data, int offset) {
+    return data.length > offset + 1 && data[offset] == (byte) (0x90 | ENVELOPE_SIZE) && data[offset + 1] == VERSION;
+  }
+
+  Output write(Message msg) {
+    Output out = outputs.get();
+    out.pos = 0;
+    out.writeArrayHeader(ENVELOPE_SIZE);
+    out.writeLong(VERSION);
+    out.writeLong(msg.msgId);
+    out.writeString(msg.name);
+    out.writeString(msg.sender);
+    out.writeString(msg.sendingMethod);
+    List<String> hops = msg.getHops();
+    if (hops == null) {
+      out.writeNil();
+    } else {
+      out.writeArrayHeader(hops.size());
+      for (String hop : hops) {
+        out.writeString(hop);
+      }
+    }
+    Map<String, Object> properties = msg.getProperties();
+    if (properties == null || properties.isEmpty()) {
+      out.writeNil();
+    } else {
+      out.writeJson(CodecUtils.toJson(properties));
+    }
+    out.writeString(msg.status);
+    out.writeString(msg.method);
+
+    Object[] params = msg.getData();
+    if (params == null) {
+      out.writeNil();
+    } else {
+      // a msg read by a codec which is being relayed carries the json text of
+      // its parameters
+      boolean jsonText = CodecUtils.MSG_ENCODING_JSON.equals(msg.encoding) || CodecUtils.MSG_ENCODING_JSON_INLINE.equals(msg.encoding);
+      out.writeArrayHeader(params.length);
+      for (Object param : params) {
+        if (jsonText && param instanceof String) {
+          out.writeJson((String) param);
+        } else {
+          out.writeValue(param);
+        }
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public Message decode(byte[] data, int offset, int length) throws IOException {
+    try {
+      Input in = new Input(data, offset, offset + length);
+      if (in.readArrayHeader() != ENVELOPE_SIZE || in.readLong() != VERSION) {
+        throw new IOException("not a msgpack msg");
+      }
+      Message msg = new Message();
+      msg.msgId = in.readLong();
+      msg.name = in.readString();
+      msg.sender = in.readString();
+      msg.sendingMethod = in.readString();
+      msg.clearHops();
+      if (!in.readNil()) {
+        int size = in.readArrayHeader();
+        for (int i = 0; i < size; ++i) {
+          msg.addHop(in.readString());
+        }
+      }
+      if (!in.readNil()) {
+        Map<String, Object> props = CodecUtils.fromJson((String) in.readValue(), Map.class);
+        for (String key : props.keySet()) {
+          msg.setProperty(key, props.get(key));
+        }
+      }
+      msg.status = in.readString();
+      msg.method = in.readString();
+      msg.encoding = CodecUtils.MSG_ENCODING_JSON_INLINE;
+      if (in.readNil()) {
+        msg.data = null;
+      } else {
+        Object[] params = new Object[in.readArrayHeader()];
+        for (int i = 0; i < params.length; ++i) {
+          params[i] = in.readParameter();
+        }
+        msg.data = params;
+      }
+      return msg;
+    } catch (ArrayIndexOutOfBoundsException | ClassCastException e) {
+      throw new IOException("malformed msgpack msg", e);
+    }
+  }
+
+  /**
+   * growable big endian output buffer
+   */
+  static class Output {
+    byte[] buf = new byte[512];
+    int pos = 0;
+
+    void release() {
+      if (buf.length > MAX_RETAINED_BUFFER) {
+        buf = new byte[512];
+      }
+    }
+
+    void ensure(int size) {
+      if (pos + size > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + size));
+      }
+    }
+
+    void put(int b) {
+      buf[pos++] = (byte) b;
+    }
+
+    void putShort(int v) {
+      buf[pos++] = (byte) (v >>> 8);
+      buf[pos++] = (byte) v;
+    }
+
+    void putInt(int v) {
+      buf[pos++] = (byte) (v >>> 24);
+      buf[pos++] = (byte) (v >>> 16);
+      buf[pos++] = (byte) (v >>> 8);
+      buf[pos++] = (byte) v;
+    }
+
+    void putLong(long v) {
+      putInt((int) (v >>> 32));
+      putInt((int) v);
+    }
+
+    void writeNil() {
+      ensure(1);
+      put(0xc0);
+    }
+
+    void writeArrayHeader(int size) {
+      ensure(5);
+      if (size < 16) {
+        put(0x90 | size);
+      } else if (size < 0x10000) {
+        put(0xdc);
+        putShort(size);
+      } else {
+        put(0xdd);
+        putInt(size);
+      }
+    }
+
+    void writeLong(long v) {
+      ensure(9);
+      if (v >= 0 && v < 128) {
+        put((int) v);
+      } else if (v < 0 && v >= -32) {
+        put((int) v);
+      } else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) {
+        put(0xd0);
+        put((int) v);
+      } else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+        put(0xd1);
+        putShort((int) v);
+      } else if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+        put(0xd2);
+        putInt((int) v);
+      } else {
+        put(0xd3);
+        putLong(v);
+      }
+    }
+
+    void writeString(String s) {
+      if (s == null) {
+        writeNil();
+        return;
+      }
+      int length = s.length();
+      boolean ascii = true;
+      for (int i = 0; i < length; ++i) {
+        if (s.charAt(i) >= 0x80) {
+          ascii = false;
+          break;
+        }
+      }
+      if (ascii) {
+        writeStringHeader(length);
+        ensure(length);
+        for (int i = 0; i < length; ++i) {
+          buf[pos++] = (byte) s.charAt(i);
+        }
+      } else {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeStringHeader(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+      }
+    }
+
+    void writeStringHeader(int length) {
+      ensure(5);
+      if (length < 32) {
+        put(0xa0 | length);
+      } else if (length < 0x100) {
+        put(0xd9);
+        put(length);
+      } else if (length < 0x10000) {
+        put(0xda);
+        putShort(length);
+      } else {
+        put(0xdb);
+        putInt(length);
+      }
+    }
+
+    void writeExtHeader(byte type, int length) {
+      ensure(6);
+      if (length < 0x100) {
+        put(0xc7);
+        put(length);
+      } else if (length < 0x10000) {
+        put(0xc8);
+        putShort(length);
+      } else {
+        put(0xc9);
+        putInt(length);
+      }
+      put(type);
+    }
+
+    void writeJson(String json) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      writeExtHeader(EXT_JSON, bytes.length);
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, buf, pos, bytes.length);
+      pos += bytes.length;
+    }
+
+    void writeValue(Object o) {
+      if (o == null) {
+        writeNil();
+      } else if (o instanceof String) {
+        writeString((String) o);
+      } else if (o instanceof Double) {
+        ensure(9);
+        put(0xcb);
+        putLong(Double.doubleToRawLongBits((Double) o));
+      } else if (o instanceof Float) {
+        ensure(5);
+        put(0xca);
+        putInt(Float.floatToRawIntBits((Float) o));
+      } else if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte) {
+        writeLong(((Number) o).longValue());
+      } else if (o instanceof Boolean) {
+        ensure(1);
+        put(((Boolean) o) ? 0xc3 : 0xc2);
+      } else if (o instanceof byte[]) {
+        byte[] b = (byte[]) o;
+        ensure(5 + b.length);
+        if (b.length < 0x100) {
+          put(0xc4);
+          put(b.length);
+        } else if (b.length < 0x10000) {
+          put(0xc5);
+          putShort(b.length);
+        } else {
+          put(0xc6);
+          putInt(b.length);
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+      } else if (o instanceof int[]) {
+        int[] a = (int[]) o;
+        writeExtHeader(EXT_INT_ARRAY, a.length * 4);
+        ensure(a.length * 4);
+        ByteBuffer.wrap(buf, pos, a.length * 4).asIntBuffer().put(a);
+        pos += a.length * 4;
+      } else if (o instanceof long[]) {
+        long[] a = (long[]) o;
+        writeExtHeader(EXT_LONG_ARRAY, a.length * 8);
+        ensure(a.length * 8);
+        ByteBuffer.wrap(buf, pos, a.length * 8).asLongBuffer().put(a);
+        pos += a.length * 8;
+      } else if (o instanceof float[]) {
+        float[] a = (float[]) o;
+        writeExtHeader(EXT_FLOAT_ARRAY, a.length * 4);
+        ensure(a.length * 4);
+        ByteBuffer.wrap(buf, pos, a.length * 4).asFloatBuffer().put(a);
+        pos += a.length * 4;
+      } else if (o instanceof double[]) {
+        double[] a = (double[]) o;
+        writeExtHeader(EXT_DOUBLE_ARRAY, a.length * 8);
+        ensure(a.length * 8);
+        ByteBuffer.wrap(buf, pos, a.length * 8).asDoubleBuffer().put(a);
+        pos += a.length * 8;
+      } else {
+        // json fallback
+        writeJson(CodecUtils.toJson(o));
+      }
+    }
+  }
+
+  /**
+   * reader over a byte array - only the subset of MessagePack this codec
+   * writes (plus fixext and unsigned ints) is supported
+   */
+  static class Input {
+    final byte[] buf;
+    int pos;
+    final int end;
+
+    Input(byte[] buf, int offset, int end) {
+      this.buf = buf;
+      this.pos = offset;
+      this.end = end;
+    }
+
+    int get() {
+      if (pos >= end) {
+        throw new ArrayIndexOutOfBoundsException(pos);
+      }
+      return buf[pos++] & 0xff;
+    }
+
+    int getShort() {
+      return (get() << 8) | get();
+    }
+
+    int getInt() {
+      return (get() << 24) | (get() << 16) | (get() << 8) | get();
+    }
+
+    long getLong() {
+      return ((long) getInt() << 32) | (getInt() & 0xffffffffL);
+    }
+
+    int checkLength(int length) {
+      if (length < 0 || pos + length > end) {
+        throw new ArrayIndexOutOfBoundsException(pos + length);
+      }
+      return length;
+    }
+
+    boolean readNil() {
+      if (pos < end && (buf[pos] & 0xff) == 0xc0) {
+        ++pos;
+        return true;
+      }
+      return false;
+    }
+
+    int readArrayHeader() throws IOException {
+      int b = get();
+      if ((b & 0xf0) == 0x90) {
+        return b & 0x0f;
+      } else if (b == 0xdc) {
+        return getShort();
+      } else if (b == 0xdd) {
+        return getInt();
+      }
+      throw new IOException(String.format("expected array at %d found 0x%02x", pos - 1, b));
+    }
+
+    long readLong() throws IOException {
+      Object o = readValue();
+      if (o instanceof Integer || o instanceof Long) {
+        return ((Number) o).longValue();
+      }
+      throw new IOException(String.format("expected integer before %d", pos));
+    }
+
+    String readString() throws IOException {
+      int b = get();
+      int length;
+      if (b == 0xc0) {
+        return null;
+      } else if ((b & 0xe0) == 0xa0) {
+        length = b & 0x1f;
+      } else if (b == 0xd9) {
+        length = get();
+      } else if (b == 0xda) {
+        length = getShort();
+      } else if (b == 0xdb) {
+        length = getInt();
+      } else {
+        throw new IOException(String.format("expected string at %d found 0x%02x", pos - 1, b));
+      }
+      return utf8(checkLength(length));
+    }
+
+    String utf8(int length) {
+      String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return s;
+    }
+
+    /**
+     * a parameter in the MessageCodec representation - strings as json text
+     */
+    Object readParameter() throws IOException {
+      int b = buf[pos] & 0xff;
+      if ((b & 0xe0) == 0xa0 || b == 0xd9 || b == 0xda || b == 0xdb) {
+        return CodecUtils.toJson(readString());
+      }
+      return readValue();
+    }
+
+    Object readValue() throws IOException {
+      int b = get();
+      if (b < 0x80) {
+        return b;
+      } else if (b >= 0xe0) {
+        return (int) (byte) b;
+      } else if ((b & 0xe0) == 0xa0) {
+        return utf8(checkLength(b & 0x1f));
+      }
+      switch (b) {
+        case 0xc0:
+          return null;
+        case 0xc2:
+          return false;
+        case 0xc3:
+          return true;
+        case 0xc4:
+          return bin(get());
+        case 0xc5:
+          return bin(getShort());
+        case 0xc6:
+          return bin(getInt());
+        case 0xc7:
+          return ext(get());
+        case 0xc8:
+          return ext(getShort());
+        case 0xc9:
+          return ext(getInt());
+        case 0xca:
+          return Float.intBitsToFloat(getInt());
+        case 0xcb:
+          return Double.longBitsToDouble(getLong());
+        case 0xcc:
+          return get();
+        case 0xcd:
+          return getShort();
+        case 0xce: {
+          long v = getInt() & 0xffffffffL;
+          return (v > Integer.MAX_VALUE) ? (Object) v : (Object) (int) v;
+        }
+        case 0xcf:
+          return getLong();
+        case 0xd0:
+          return (int) (byte) get();
+        case 0xd1:
+          return (int) (short) getShort();
+        case 0xd2:
+          return getInt();
+        case 0xd3: {
+          long v = getLong();
+          return (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) ? (Object) v : (Object) (int) v;
+        }
+        case 0xd4:
+          return ext(1);
+        case 0xd5:
+          return ext(2);
+        case 0xd6:
+          return ext(4);
+        case 0xd7:
+          return ext(8);
+        case 0xd8:
+          return ext(16);
+        case 0xd9:
+          return utf8(checkLength(get()));
+        case 0xda:
+          return utf8(checkLength(getShort()));
+        case 0xdb:
+          return utf8(checkLength(getInt()));
+        default:
+          throw new IOException(String.format("unsupported msgpack type 0x%02x at %d", b, pos - 1));
+      }
+    }
+
+    byte[] bin(int length) {
+      checkLength(length);
+      byte[] b = Arrays.copyOfRange(buf, pos, pos + length);
+      pos += length;
+      return b;
+    }
+
+    Object ext(int length) throws IOException {
+      byte type = (byte) get();
+      checkLength(length);
+      ByteBuffer bb = ByteBuffer.wrap(buf, pos, length);
+      Object ret;
+      switch (type) {
+        case EXT_JSON:
+          ret = new String(buf, pos, length, StandardCharsets.UTF_8);
+          break;
+        case EXT_INT_ARRAY: {
+          int[] a = new int[length / 4];
+          bb.asIntBuffer().get(a);
+          ret = a;
+          break;
+        }
+        case EXT_LONG_ARRAY: {
+          long[] a = new long[length / 8];
+          bb.asLongBuffer().get(a);
+          ret = a;
+          break;
+        }
+        case EXT_FLOAT_ARRAY: {
+          float[] a = new float[length / 4];
+          bb.asFloatBuffer().get(a);
+          ret = a;
+          break;
+        }
+        case EXT_DOUBLE_ARRAY: {
+          double[] a = new double[length / 8];
+          bb.asDoubleBuffer().get(a);
+          ret = a;
+          break;
+        }
+        default:
+          throw new IOException(String.format("unsupported ext type %d", type));
+      }
+      pos += length;
+      return ret;
+    }
+  }
+
+}
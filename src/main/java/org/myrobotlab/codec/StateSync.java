@@ -0,0 +1,178 @@
+package org.myrobotlab.codec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.Runtime;
+import org.slf4j.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Keeps the last state of each service sent to a client and turns the next
+ * onState msg into a json patch of it. A full state is sent the first time,
+ * every resyncMs after that, when the patch would not be smaller than the
+ * state and when the client asks for one (reset).
+ *
+ * A full state carries its sequence in the msg property "stateSeq", a patch is
+ * an onStatePatch msg with
+ *
+ * <pre>
+ * {"gateway":"webgui@id","base":4,"seq":5,"ops":[{"op":"replace","path":"/rest","value":90.0}]}
+ * </pre>
+ *
+ * A client applies it to the state with sequence base, anything else it asks
+ * the gateway to resync. Only clients which connect with statePatch=true get
+ * patches - other peers get every onState in full.
+ */
+public class StateSync {
+
+  public final static Logger log = LoggerFactory.getLogger(StateSync.class);
+
+  public final static String METHOD_STATE = "onState";
+
+  public final static String METHOD_PATCH = "onStatePatch";
+
+  public final static String PROPERTY_SEQ = "stateSeq";
+
+  /**
+   * connection parameter and key of clients which apply patches
+   */
+  public final static String PATCH = "statePatch";
+
+  static class Snapshot {
+    JsonElement state;
+    long seq = 0;
+    long fullTs = 0;
+    int fullSize = 0;
+  }
+
+  /**
+   * full name of the gateway - where clients ask for a resync
+   */
+  String gateway;
+
+  long resyncMs = 10000;
+
+  final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  final AtomicLong fullCount = new AtomicLong();
+
+  final AtomicLong patchCount = new AtomicLong();
+
+  final AtomicLong unchangedCount = new AtomicLong();
+
+  public StateSync(String gateway) {
+    this.gateway = gateway;
+  }
+
+  /**
+   * @param ms
+   *          time between full states of a service - 0 is never
+   */
+  public void setResyncMs(long ms) {
+    resyncMs = ms;
+  }
+
+  public long getResyncMs() {
+    return resyncMs;
+  }
+
+  /**
+   * @param msg
+   *          msg about to be sent to the client
+   * @return msg, a full state or a patch of it to send - null if the state has
+   *         not changed since it was sent
+   */
+  public Message encode(Message msg) {
+    if (!METHOD_STATE.equals(msg.method) || msg.data == null || msg.data.length != 1 || msg.data[0] == null) {
+      return msg;
+    }
+    JsonElement state = (msg.data[0] instanceof String) ? CodecUtils.parseJson((String) msg.data[0]) : CodecUtils.toJsonTree(msg.data[0]);
+    Snapshot s = snapshots.computeIfAbsent(Runtime.getFullName(msg.sender), k -> new Snapshot());
+    long now = System.currentTimeMillis();
+    synchronized (s) {
+      if (s.state != null && (resyncMs <= 0 || now - s.fullTs < resyncMs)) {
+        JsonArray ops = JsonPatch.diff(s.state, state);
+        if (ops.size() == 0) {
+          unchangedCount.incrementAndGet();
+          return null;
+        }
+        String patch = ops.toString();
+        if (patch.length() < s.fullSize / 2) {
+          JsonObject data = new JsonObject();
+          data.addProperty("gateway", gateway);
+          data.addProperty("base", s.seq);
+          data.addProperty("seq", ++s.seq);
+          data.add("ops", ops);
+          s.state = state;
+          patchCount.incrementAndGet();
+          Message out = copy(msg);
+          out.method = METHOD_PATCH;
+          out.data = new Object[] { data };
+          return out;
+        }
+      }
+      s.state = state;
+      s.fullTs = now;
+      s.fullSize = state.toString().length();
+      Message out = copy(msg);
+      out.data = new Object[] { state };
+      out.setProperty(PROPERTY_SEQ, ++s.seq);
+      fullCount.incrementAndGet();
+      return out;
+    }
+  }
+
+  static Message copy(Message msg) {
+    Message out = new Message(msg);
+    // data is replaced by a json tree - written inline
+    out.encoding = null;
+    if (msg.getProperties() != null) {
+      for (Map.Entry<String, Object> e : msg.getProperties().entrySet()) {
+        out.setProperty(e.getKey(), e.getValue());
+      }
+    }
+    return out;
+  }
+
+  /**
+   * the next state of the service is sent in full
+   *
+   * @param name
+   *          service name
+   */
+  public void reset(String name) {
+    Snapshot s = snapshots.get(Runtime.getFullName(name));
+    if (s != null) {
+      synchronized (s) {
+        s.state = null;
+      }
+    }
+  }
+
+  /**
+   * the next state of every service is sent in full
+   */
+  public void reset() {
+    snapshots.clear();
+  }
+
+  public long getFullCount() {
+    return fullCount.get();
+  }
+
+  public long getPatchCount() {
+    return patchCount.get();
+  }
+
+  public long getUnchangedCount() {
+    return unchangedCount.get();
+  }
+
+}
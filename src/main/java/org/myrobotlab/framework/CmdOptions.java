@@ -64,6 +64,15 @@ public class CmdOptions {
   @Option(names = { "-d", "--daemon" }, description = "daemon - fork process from current process - no inherited io no cli")
   public boolean daemon = false;
 
+  @Option(names = { "--double-encode-json" }, description = "remote messages use the original double encoded json format - for clients or instances which do not read json-inline messages")
+  public boolean doubleEncodeJson = false;
+
+  @Option(names = { "--enable-metrics" }, description = "record per service queue depth, latency and publish metrics - available from runtime getStats and WebGui /metrics")
+  public boolean enableMetrics = false;
+
+  @Option(names = { "--execution-mode" }, description = "how services process messages [thread pooled virtual] - thread (default) a thread per inbox and outbox, pooled a shared thread pool, virtual a virtual thread per inbox and outbox (Java 21+)")
+  public String executionMode = null;
+
   // if --from-launcher knows to createAndStart service on -s
   @Option(names = { "--from-launcher" }, description = "prevents starting in interactive mode - reading from stdin")
   @Deprecated /* no more java launcher - we use scripts now */
@@ -173,6 +182,19 @@ public class CmdOptions {
       cmd.add("-d");
     }
 
+    if (doubleEncodeJson) {
+      cmd.add("--double-encode-json");
+    }
+
+    if (enableMetrics) {
+      cmd.add("--enable-metrics");
+    }
+
+    if (executionMode != null) {
+      cmd.add("--execution-mode");
+      cmd.add(executionMode);
+    }
+
     if (invoke != null) {
       cmd.add("-I");
       for (int i = 0; i < invoke.length; ++i) {
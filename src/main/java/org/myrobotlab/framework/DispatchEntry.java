@@ -0,0 +1,145 @@
+package org.myrobotlab.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * A resolved method for one class, method name and set of runtime argument
+ * classes. The MethodCache resolves a method once (including overload
+ * selection and parameter coercion) and stores the result in a per class
+ * dispatch table, so repeated invokes of the same signature do no key building
+ * or lookup through the string based indexes.
+ *
+ * When possible the method is invoked through a MethodHandle adapted to
+ * (Object, Object[])Object, otherwise it falls back to Method.invoke.
+ */
+public class DispatchEntry {
+
+  public final static Logger log = LoggerFactory.getLogger(DispatchEntry.class);
+
+  static final MethodType GENERIC_INVOKER = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  /**
+   * runtime classes of the arguments this entry was resolved for - null
+   * entries are null arguments
+   */
+  final Class<?>[] argTypes;
+
+  final Method method;
+
+  /**
+   * spread invoker, null if the method can only be called reflectively
+   */
+  final MethodHandle handle;
+
+  DispatchEntry(Method method, Class<?>[] argTypes) {
+    this.method = method;
+    this.argTypes = argTypes;
+    this.handle = createHandle(method, argTypes);
+  }
+
+  static MethodHandle createHandle(Method method, Class<?>[] argTypes) {
+    Class<?>[] paramTypes = method.getParameterTypes();
+    if (paramTypes.length != argTypes.length || method.isVarArgs()) {
+      return null;
+    }
+
+    // only use a handle when every argument converts without error - otherwise
+    // let Method.invoke report the mismatch as it always has
+    for (int i = 0; i < paramTypes.length; ++i) {
+      if (argTypes[i] == null) {
+        if (paramTypes[i].isPrimitive()) {
+          return null;
+        }
+      } else {
+        Class<?> p = (paramTypes[i].isPrimitive()) ? MethodCache.boxPrimitive(paramTypes[i]) : paramTypes[i];
+        if (!p.isAssignableFrom(argTypes[i])) {
+          return null;
+        }
+      }
+    }
+
+    try {
+      if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+        method.setAccessible(true);
+      }
+      MethodHandle mh = MethodHandles.lookup().unreflect(method);
+      if (Modifier.isStatic(method.getModifiers())) {
+        mh = MethodHandles.dropArguments(mh, 0, Object.class);
+      }
+      mh = mh.asType(mh.type().generic());
+      return mh.asSpreader(Object[].class, paramTypes.length).asType(GENERIC_INVOKER);
+    } catch (Exception e) {
+      log.debug("could not create method handle for {} - using reflection", method, e);
+    }
+    return null;
+  }
+
+  /**
+   * @param params
+   *          actual arguments
+   * @return true if this entry was resolved for the runtime classes of params
+   */
+  final boolean matches(Object[] params) {
+    int len = (params == null) ? 0 : params.length;
+    if (len != argTypes.length) {
+      return false;
+    }
+    for (int i = 0; i < len; ++i) {
+      Object p = params[i];
+      if (p == null) {
+        if (argTypes[i] != null) {
+          return false;
+        }
+      } else if (p.getClass() != argTypes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Invoke on obj with the same exception contract as Method.invoke - errors
+   * thrown by the invoked method are wrapped in an InvocationTargetException
+   *
+   * @param obj
+   *          the object to invoke on
+   * @param params
+   *          the arguments
+   * @return the return value, null for void methods
+   * @throws IllegalAccessException
+   *           when not accessible
+   * @throws InvocationTargetException
+   *           when the invoked method throws
+   */
+  public Object invoke(Object obj, Object... params) throws IllegalAccessException, InvocationTargetException {
+    if (handle == null) {
+      return method.invoke(obj, params);
+    }
+    // must be a local of exactly Object[] - invokeExact matches the static
+    // types at the call site
+    Object[] args = (params == null) ? MethodCache.NO_PARAMS : params;
+    try {
+      return (Object) handle.invokeExact(obj, args);
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MethodEntry.getPrettySignature(method.getName(), argTypes, method.getReturnType());
+  }
+
+}
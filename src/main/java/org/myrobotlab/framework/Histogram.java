@@ -0,0 +1,153 @@
+package org.myrobotlab.framework;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram in the style of HdrHistogram. Values below 16
+ * are counted exactly, above that every power of 2 is split into 8 buckets -
+ * so any recorded value is reported within 12.5%. Values are typically
+ * nanoseconds, anything above 2^40 (about 18 minutes) lands in the last
+ * bucket. Max, count and sum are exact.
+ *
+ * Recording is a few arithmetic operations and two atomic increments - it can
+ * be called from any number of threads.
+ *
+ */
+public class Histogram {
+
+  final static int SUB_BUCKET_BITS = 3;
+  final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  final static int LINEAR = SUB_BUCKETS * 2;
+  final static int MAX_MSB = 40;
+  final static int BUCKETS = LINEAR + (MAX_MSB - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  final LongAdder count = new LongAdder();
+  final LongAdder sum = new LongAdder();
+  final AtomicLong max = new AtomicLong();
+
+  /**
+   * count, mean, percentiles and max of a histogram at one point in time
+   */
+  public static class Summary {
+    public long count;
+    public long sum;
+    public double mean;
+    public long p50;
+    public long p90;
+    public long p99;
+    public long max;
+  }
+
+  static int getBucket(long value) {
+    if (value < LINEAR) {
+      return (int) value;
+    }
+    int msb = 63 - Long.numberOfLeadingZeros(value);
+    if (msb > MAX_MSB) {
+      return BUCKETS - 1;
+    }
+    int shift = msb - SUB_BUCKET_BITS;
+    int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return LINEAR + (msb - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * @return highest value counted in a bucket
+   */
+  static long getBucketValue(int bucket) {
+    if (bucket < LINEAR) {
+      return bucket;
+    }
+    int msb = (bucket - LINEAR) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    int sub = (bucket - LINEAR) % SUB_BUCKETS;
+    int shift = msb - SUB_BUCKET_BITS;
+    return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+  }
+
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(getBucket(value));
+    count.increment();
+    sum.add(value);
+    long m = max.get();
+    while (value > m && !max.compareAndSet(m, value)) {
+      m = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getSum() {
+    return sum.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @param percentile
+   *          0 to 100
+   * @return value at or below which percentile percent of recorded values
+   *         fall - never more than the max recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    return getValueAtPercentile(snapshot, total, percentile);
+  }
+
+  long getValueAtPercentile(long[] snapshot, long total, double percentile) {
+    if (total == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return Math.min(getBucketValue(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  public Summary getSummary() {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    Summary s = new Summary();
+    s.count = total;
+    s.sum = getSum();
+    s.mean = (total == 0) ? 0 : (double) s.sum / total;
+    s.p50 = getValueAtPercentile(snapshot, total, 50);
+    s.p90 = getValueAtPercentile(snapshot, total, 90);
+    s.p99 = getValueAtPercentile(snapshot, total, 99);
+    s.max = getMax();
+    return s;
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+}
@@ -27,10 +27,13 @@ package org.myrobotlab.framework;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.framework.interfaces.Mailbox.OverflowPolicy;
 import org.myrobotlab.framework.interfaces.MessageListener;
 import org.myrobotlab.logging.LoggerFactory;
 import org.slf4j.Logger;
@@ -42,24 +45,42 @@ public class Inbox implements Serializable {
   public final static Logger log = LoggerFactory.getLogger(Inbox.class.getCanonicalName());
 
   String name;
-  LinkedList<Message> msgBox = new LinkedList<Message>();
+  transient Mailbox msgBox;
   boolean isRunning = false;
   boolean bufferOverrun = false;
   boolean blocking = false;
   int maxQueue = 1024; // will need to adjust unit test if you change this
   // value
 
+  /**
+   * overflow policy used when not blocking
+   */
+  OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
   // support remote blocking... in-process blocking uses invoke
-  public HashMap<String, Object[]> blockingList = new HashMap<>();
+  // keyed by {fullName}.{callbackMethod} of the expected return msg
+  public Map<String, Object[]> blockingList = new ConcurrentHashMap<>();
 
   List<MessageListener> listeners = new ArrayList<MessageListener>();
 
+  /**
+   * set when the inbox is drained by the shared pool instead of a service
+   * thread
+   */
+  transient ServiceExecutor.Drain drain = null;
+
+  /**
+   * queue metrics of the owning service - updated only when Metrics are enabled
+   */
+  transient ServiceMetrics metrics = null;
+
   public Inbox() {
     this("Inbox");
   }
 
   public Inbox(String name) {
     this.name = name;
+    msgBox = new MpscMailbox(maxQueue, overflowPolicy);
   }
 
   public void add(Message msg) {
@@ -73,28 +94,32 @@ public class Inbox implements Serializable {
      * msg.historyList.add(name);
      */
 
-    synchronized (msgBox) {
-      while (blocking && (msgBox.size() >= maxQueue)) // queue "full"
-      {
-        try {
-          msgBox.wait();
-        } catch (InterruptedException ex) {
-          log.debug("inbox enque msg INTERRUPTED " + name);
-        }
-      }
+    ServiceMetrics m = (Metrics.enabled) ? metrics : null;
+    if (m != null) {
+      // stamped before it is visible to the consumer
+      msg.enqueued = System.nanoTime();
+    }
 
-      if (msgBox.size() > maxQueue) {
-        bufferOverrun = true;
-        log.warn("inbox size {} BUFFER OVERRUN dumping msg from {} To {}.{}", msgBox.size(), msg.sender, msg.name, msg.method);
-      } else {
-        msgBox.addFirst(msg);
-        // Logging.logTime(String.format("inbox - %s size %d", name,
-        // msgBox.size()));
-        if (log.isDebugEnabled()) {
-          log.debug("{}.msgBox + 1 = {}", name, msgBox.size());
-        }
-        msgBox.notifyAll(); // must own the lock
+    if (!msgBox.add(msg)) {
+      if (m != null) {
+        m.recordDropped();
       }
+      bufferOverrun = true;
+      log.warn("inbox size {} BUFFER OVERRUN dumping msg from {} To {}.{}", msgBox.size(), msg.sender, msg.name, msg.method);
+      return;
+    }
+
+    if (m != null) {
+      m.recordEnqueued();
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("{}.msgBox + 1 = {}", name, msgBox.size());
+    }
+
+    ServiceExecutor.Drain d = drain;
+    if (d != null) {
+      d.signal();
     }
 
     // TODO: move this to a base class Inbox/Outbox are very similar.
@@ -143,45 +168,68 @@ public class Inbox implements Serializable {
      * Message came from should be hidden and interfaces should be exposed only-
      */
 
-    Message msg = null;
+    while (true) {
+      Message msg = msgBox.take();
+      if (log.isDebugEnabled()) {
+        log.debug("{}.msgBox -1 {}", name, msgBox.size());
+      }
 
-    synchronized (msgBox) {
-
-      while (msg == null) { // while no messages && no messages that are
-        // blocking
-        if (msgBox.size() == 0) {
-          msgBox.wait(); // must own the lock
-        } else {
-          msg = msgBox.removeLast();
-          log.debug("{}.msgBox -1 {}", name, msgBox.size());
-
-          // --- sendBlocking support begin --------------------
-          // TODO - possible safety check msg.status == Message.RETURN
-          // &&
-          String blockingKey = String.format("%s.%s", msg.getFullName(), msg.getMethod());
-          if (blockingList.containsKey(blockingKey)) {
-            Object[] returnContainer = blockingList.get(blockingKey);
-            if (msg.data == null) {
-              returnContainer[0] = null;
-            } else {
-              // transferring data
-              returnContainer[0] = msg.data[0];
-            }
-
-            synchronized (returnContainer) {
-              blockingList.remove(blockingKey);
-              returnContainer.notifyAll(); // addListener sender
-            }
-            msg = null; // do not invoke this msg - sendBlocking has
-            // been notified data returned
-          }
-          // --- sendBlocking support end --------------------
-
-        }
+      if (!isBlockingReturn(msg)) {
+        return msg;
       }
-      msgBox.notifyAll();
+      // do not invoke this msg - sendBlocking has
+      // been notified data returned
+    }
+  }
+
+  /**
+   * sendBlocking support - if a thread is waiting for this msg, hand it the
+   * returned data
+   * 
+   * @param msg
+   *          msg taken off the queue
+   * @return true if msg was a return for a waiting sendBlocking and should not
+   *         be invoked
+   */
+  public boolean isBlockingReturn(Message msg) {
+    // only build a key when something is actually waiting
+    if (blockingList.isEmpty()) {
+      return false;
+    }
+
+    Object[] returnContainer = blockingList.remove(msg.getFullName() + "." + msg.getMethod());
+    if (returnContainer == null) {
+      return false;
+    }
+
+    synchronized (returnContainer) {
+      // transferring data
+      returnContainer[0] = (msg.data == null) ? null : msg.data[0];
+      returnContainer.notifyAll(); // addListener sender
+    }
+    return true;
+  }
+
+  /**
+   * Have the shared pool drain this inbox - used in POOLED execution mode
+   * instead of a service thread calling getMsg
+   * 
+   * @param handler
+   *          processes each message, null to stop pooled draining
+   */
+  public void setPooledHandler(Consumer<Message> handler) {
+    if (handler == null) {
+      drain = null;
+      return;
+    }
+    drain = new ServiceExecutor.Drain(name, () -> msgBox, (msg) -> {
+      if (!isBlockingReturn(msg)) {
+        handler.accept(msg);
+      }
+    });
+    if (msgBox.size() > 0) {
+      drain.signal();
     }
-    return msg;
   }
 
   public boolean isBufferOverrun() {
@@ -190,6 +238,55 @@ public class Inbox implements Serializable {
 
   public void setBlocking(boolean toBlock) {
     blocking = toBlock;
+    msgBox.setOverflowPolicy((blocking) ? OverflowPolicy.BLOCK : overflowPolicy);
+  }
+
+  /**
+   * set what happens to new messages when the inbox is full and not blocking
+   * 
+   * @param policy
+   *          DROP_NEWEST (default), DROP_OLDEST, COALESCE or BLOCK
+   */
+  public void setOverflowPolicy(OverflowPolicy policy) {
+    overflowPolicy = policy;
+    blocking = (policy == OverflowPolicy.BLOCK);
+    msgBox.setOverflowPolicy(policy);
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return msgBox.getOverflowPolicy();
+  }
+
+  /**
+   * replace the queue implementation, any pending messages are moved to the
+   * new mailbox
+   * 
+   * @param mailbox
+   *          the new queue
+   */
+  public void setMailbox(Mailbox mailbox) {
+    Mailbox old = msgBox;
+    msgBox = mailbox;
+    Message msg = null;
+    while ((msg = old.poll()) != null) {
+      msgBox.add(msg);
+    }
+  }
+
+  public Mailbox getMailbox() {
+    return msgBox;
+  }
+
+  public long getDropCount() {
+    return msgBox.getDropCount();
+  }
+
+  public ServiceMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(ServiceMetrics metrics) {
+    this.metrics = metrics;
   }
 
   public int size() {
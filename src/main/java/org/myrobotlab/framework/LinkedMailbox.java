@@ -0,0 +1,134 @@
+package org.myrobotlab.framework;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * The original Inbox/Outbox queue - a LinkedList guarded by its own monitor
+ * with wait/notifyAll. Kept as a pluggable alternative to MpscMailbox and as
+ * a baseline for comparison.
+ */
+public class LinkedMailbox implements Mailbox {
+
+  public final static Logger log = LoggerFactory.getLogger(LinkedMailbox.class);
+
+  final LinkedList<Message> msgBox = new LinkedList<Message>();
+  final int capacity;
+  OverflowPolicy policy;
+  long dropCount = 0;
+
+  public LinkedMailbox(int capacity) {
+    this(capacity, OverflowPolicy.DROP_NEWEST);
+  }
+
+  public LinkedMailbox(int capacity, OverflowPolicy policy) {
+    this.capacity = capacity;
+    this.policy = policy;
+  }
+
+  @Override
+  public boolean add(Message msg) {
+    synchronized (msgBox) {
+      if (policy == OverflowPolicy.COALESCE) {
+        MailboxKey key = new MailboxKey(msg);
+        ListIterator<Message> it = msgBox.listIterator();
+        while (it.hasNext()) {
+          if (key.equals(new MailboxKey(it.next()))) {
+            it.set(msg);
+            return true;
+          }
+        }
+      }
+
+      while (policy == OverflowPolicy.BLOCK && msgBox.size() >= capacity) {
+        try {
+          msgBox.wait();
+        } catch (InterruptedException ex) {
+          log.debug("mailbox add INTERRUPTED - dropping msg");
+          Thread.currentThread().interrupt();
+          ++dropCount;
+          return false;
+        }
+      }
+
+      if (msgBox.size() >= capacity) {
+        if (policy == OverflowPolicy.DROP_OLDEST) {
+          msgBox.removeLast();
+          ++dropCount;
+        } else {
+          ++dropCount;
+          return false;
+        }
+      }
+
+      msgBox.addFirst(msg);
+      msgBox.notifyAll(); // must own the lock
+      return true;
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    synchronized (msgBox) {
+      while (msgBox.size() == 0) {
+        msgBox.wait(); // must own the lock
+      }
+      Message msg = msgBox.removeLast();
+      msgBox.notifyAll();
+      return msg;
+    }
+  }
+
+  @Override
+  public Message poll() {
+    synchronized (msgBox) {
+      if (msgBox.size() == 0) {
+        return null;
+      }
+      Message msg = msgBox.removeLast();
+      msgBox.notifyAll();
+      return msg;
+    }
+  }
+
+  @Override
+  public int size() {
+    return msgBox.size();
+  }
+
+  @Override
+  public int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public void clear() {
+    synchronized (msgBox) {
+      msgBox.clear();
+      msgBox.notifyAll();
+    }
+  }
+
+  @Override
+  public long getDropCount() {
+    return dropCount;
+  }
+
+  @Override
+  public OverflowPolicy getOverflowPolicy() {
+    return policy;
+  }
+
+  @Override
+  public void setOverflowPolicy(OverflowPolicy policy) {
+    synchronized (msgBox) {
+      this.policy = policy;
+      msgBox.notifyAll();
+    }
+  }
+
+}
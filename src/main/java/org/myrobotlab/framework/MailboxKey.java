@@ -0,0 +1,45 @@
+package org.myrobotlab.framework;
+
+import java.util.Objects;
+
+/**
+ * Identity of a message "topic" used by mailboxes to coalesce messages. Two
+ * messages with the same destination, method, sender and sending method are
+ * considered updates of the same value. Fields are compared directly so no
+ * string building is needed per message.
+ */
+final class MailboxKey {
+
+  final String name;
+  final String method;
+  final String sender;
+  final String sendingMethod;
+  final int hash;
+
+  MailboxKey(Message msg) {
+    name = msg.name;
+    method = msg.method;
+    sender = msg.sender;
+    sendingMethod = msg.sendingMethod;
+    hash = Objects.hash(name, method, sender, sendingMethod);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MailboxKey)) {
+      return false;
+    }
+    MailboxKey k = (MailboxKey) o;
+    return hash == k.hash && Objects.equals(name, k.name) && Objects.equals(method, k.method) && Objects.equals(sender, k.sender)
+        && Objects.equals(sendingMethod, k.sendingMethod);
+  }
+
+}
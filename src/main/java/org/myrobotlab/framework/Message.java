@@ -106,6 +106,11 @@ public class Message implements Serializable {
    */
   public Object[] data;
 
+  /**
+   * nanoTime the msg entered an inbox - only set when Metrics are enabled
+   */
+  transient public long enqueued;
+
   public Message() {
     msgId = System.currentTimeMillis();
     name = new String(); // FIXME - allow NULL !
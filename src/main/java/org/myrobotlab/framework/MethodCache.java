@@ -3,12 +3,14 @@ package org.myrobotlab.framework;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.myrobotlab.codec.CodecUtils;
@@ -86,6 +88,18 @@ public class MethodCache {
 
   private static MethodCache instance;
 
+  static final Object[] NO_PARAMS = new Object[0];
+
+  static final DispatchEntry[] EMPTY_DISPATCH = new DispatchEntry[0];
+
+  /**
+   * order of overloads with the same number of parameters - primitives (and
+   * arrays of them) before boxed types, then by signature - so which overload
+   * decodes a parameter does not depend on the order reflection lists methods
+   */
+  static final Comparator<MethodEntry> OVERLOAD_ORDER = Comparator.comparingInt((MethodEntry me) -> -getPrimitiveCount(me.method))
+      .thenComparing(MethodEntry::getSignature);
+
   public final static Logger log = LoggerFactory.getLogger(MethodCache.class);
 
   final public static Class<?> boxPrimitive(Class<?> clazz) {
@@ -130,6 +144,13 @@ public class MethodCache {
 
   Map<String, MethodIndex> objectCache = new TreeMap<>();
 
+  /**
+   * per class dispatch tables - method name to the entries resolved so far for
+   * that name, one entry per distinct set of runtime argument classes. Filled
+   * lazily from getMethod and copy-on-write so reads need no lock.
+   */
+  Map<Class<?>, Map<String, DispatchEntry[]>> dispatchTables = new ConcurrentHashMap<>();
+
   protected MethodCache() {
   }
 
@@ -211,11 +232,55 @@ public class MethodCache {
     } else {
       List<MethodEntry> mel = index.get(ordinalKey);
       mel.add(me);
+      mel.sort(OVERLOAD_ORDER);
       // FIXME - output more info on collisions
       // log.warn("{} method ordinal parameters collision ", ordinalKey);
     }
   }
 
+  /**
+   * @return number of parameters which are primitives or arrays of primitives
+   */
+  static int getPrimitiveCount(Method m) {
+    int count = 0;
+    for (Class<?> type : m.getParameterTypes()) {
+      while (type.isArray()) {
+        type = type.getComponentType();
+      }
+      if (type.isPrimitive()) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return index of the first overload which takes every natively carried
+   *         parameter as it is - -1 if there is none
+   */
+  static int getExactMatch(List<MethodEntry> possible, Object[] encodedParams) {
+    for (int p = 0; p < possible.size(); ++p) {
+      Class<?>[] paramTypes = possible.get(p).getParameterTypes();
+      boolean exact = false;
+      for (int i = 0; i < encodedParams.length; ++i) {
+        Object param = encodedParams[i];
+        if (param == null || param instanceof String || param.getClass() == LinkedTreeMap.class) {
+          // json text - decoded against the type
+          continue;
+        }
+        Class<?> type = (paramTypes[i].isPrimitive()) ? boxPrimitive(paramTypes[i]) : paramTypes[i];
+        exact = type.isInstance(param);
+        if (!exact) {
+          break;
+        }
+      }
+      if (exact) {
+        return p;
+      }
+    }
+    return -1;
+  }
+
   private boolean hasInterface(Method m) {
     Class<?>[] paramTypes = m.getParameterTypes();
     boolean hasInterfaceInParamList = false;
@@ -239,6 +304,7 @@ public class MethodCache {
    */
   public void clear() {
     objectCache.clear();
+    dispatchTables.clear();
   }
 
   public int getObjectSize() {
@@ -299,6 +365,60 @@ public class MethodCache {
     return getMethod(objectType, methodName, paramTypes);
   }
 
+  /**
+   * Hot path for invoking - returns a previously resolved entry for this class,
+   * method name and runtime argument classes. Only the first call for a new
+   * signature goes through the string keyed getMethod resolution.
+   * 
+   * @param objectType
+   *          - the class to invoke against
+   * @param methodName
+   *          - method name
+   * @param params
+   *          - actual parameters
+   * @return the entry to invoke or null if no method could be resolved
+   * @throws ClassNotFoundException
+   *           if the class isn't found
+   */
+  public DispatchEntry getDispatchEntry(Class<?> objectType, String methodName, Object... params) throws ClassNotFoundException {
+    Map<String, DispatchEntry[]> table = dispatchTables.get(objectType);
+    if (table == null) {
+      table = new ConcurrentHashMap<>();
+      Map<String, DispatchEntry[]> existing = dispatchTables.putIfAbsent(objectType, table);
+      if (existing != null) {
+        table = existing;
+      }
+    }
+
+    DispatchEntry[] entries = table.get(methodName);
+    if (entries != null) {
+      for (int i = 0; i < entries.length; ++i) {
+        if (entries[i].matches(params)) {
+          return entries[i];
+        }
+      }
+    }
+
+    // slow path - resolve and add to the table
+    Class<?>[] paramTypes = getParamTypes(params);
+    Method method = getMethod(objectType, methodName, paramTypes);
+    if (method == null) {
+      return null;
+    }
+    DispatchEntry entry = new DispatchEntry(method, paramTypes);
+    synchronized (table) {
+      entries = table.get(methodName);
+      if (entries == null) {
+        entries = EMPTY_DISPATCH;
+      }
+      DispatchEntry[] grown = new DispatchEntry[entries.length + 1];
+      System.arraycopy(entries, 0, grown, 0, entries.length);
+      grown[entries.length] = entry;
+      table.put(methodName, grown);
+    }
+    return entry;
+  }
+
   public Class<?>[] getParamTypes(Object... params) {
     Class<?>[] paramTypes = null;
     if (params != null) {
@@ -450,8 +570,8 @@ public class MethodCache {
 
     Object retobj = null;
     MethodCache cache = MethodCache.getInstance();
-    Method method = cache.getMethod(obj.getClass(), methodName, params);
-    retobj = method.invoke(obj, params);
+    DispatchEntry entry = cache.getDispatchEntry(obj.getClass(), methodName, params);
+    retobj = entry.invoke(obj, params);
     return retobj;
   }
 
@@ -547,12 +667,29 @@ public class MethodCache {
       log.error("getOrdinalMethods -> {}.{} with ordinal {} does not exist", clazz, methodName, encodedParams);
       return null;
     }
+    if (possible.size() > 1) {
+      // a natively carried parameter goes to the overload which takes it as it
+      // is - not one it can be converted to
+      int exact = getExactMatch(possible, encodedParams);
+      if (exact > 0) {
+        possible = new ArrayList<>(possible);
+        possible.add(0, possible.remove(exact));
+      }
+    }
     Object[] params = new Object[encodedParams.length];
-    // iterate through templates - attempt to decode
+    // iterate through templates - attempt to decode - overloads are in
+    // OVERLOAD_ORDER
     for (int p = 0; p < possible.size(); ++p) {
       Class<?>[] paramTypes = possible.get(p).getParameterTypes();
       try {
         for (int i = 0; i < encodedParams.length; ++i) {
+          if (encodedParams[i] == null) {
+            if (paramTypes[i].isPrimitive()) {
+              throw new IllegalArgumentException(String.format("null can not be a %s", paramTypes[i]));
+            }
+            params[i] = null;
+            continue;
+          }
           if (encodedParams[i].getClass() == LinkedTreeMap.class) {
             // specific gson implementation
             // rather than double encode everything - i have chosen
@@ -561,7 +698,16 @@ public class MethodCache {
             // this will probably need to change too
             encodedParams[i] = CodecUtils.toJson(encodedParams[i]);
           }
-          params[i] = CodecUtils.fromJson((String) encodedParams[i], paramTypes[i]);
+          if (encodedParams[i] instanceof String) {
+            params[i] = CodecUtils.fromJson((String) encodedParams[i], paramTypes[i]);
+            if (params[i] == null && paramTypes[i].isPrimitive()) {
+              // gson decodes a json null to null whatever the type
+              throw new IllegalArgumentException(String.format("null can not be a %s", paramTypes[i]));
+            }
+          } else {
+            // carried natively by a binary codec
+            params[i] = coerce(encodedParams[i], paramTypes[i]);
+          }
         }
         // successfully decoded params
         return params;
@@ -575,6 +721,42 @@ public class MethodCache {
     return null;
   }
 
+  /**
+   * converts a natively decoded parameter to the parameter type of a method -
+   * numbers are widened or narrowed to the declared number type
+   * 
+   * @param value
+   *          decoded parameter
+   * @param type
+   *          declared parameter type
+   * @return value as type
+   * @throws IllegalArgumentException
+   *           if value can not be converted
+   */
+  static Object coerce(Object value, Class<?> type) {
+    Class<?> boxed = (type.isPrimitive()) ? boxPrimitive(type) : type;
+    if (boxed.isInstance(value)) {
+      return value;
+    }
+    if (value instanceof Number) {
+      Number n = (Number) value;
+      if (boxed == Double.class) {
+        return n.doubleValue();
+      } else if (boxed == Float.class) {
+        return n.floatValue();
+      } else if (boxed == Long.class) {
+        return n.longValue();
+      } else if (boxed == Integer.class) {
+        return n.intValue();
+      } else if (boxed == Short.class) {
+        return n.shortValue();
+      } else if (boxed == Byte.class) {
+        return n.byteValue();
+      }
+    }
+    throw new IllegalArgumentException(String.format("cannot convert %s to %s", value.getClass().getSimpleName(), type.getSimpleName()));
+  }
+
   public static String formatParams(Object[] params) {
     StringBuilder sb = new StringBuilder();
     if (params != null) {
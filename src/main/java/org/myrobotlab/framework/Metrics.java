@@ -0,0 +1,166 @@
+package org.myrobotlab.framework;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Switch and exposition of the per service ServiceMetrics. Metrics are off by
+ * default - when off every hook in Inbox, Outbox and Service is a single
+ * volatile read. Enable with --enable-metrics or Runtime.setMetricsEnabled.
+ *
+ * toPrometheus renders a set of ServiceStats in the Prometheus text exposition
+ * format (version 0.0.4) - WebGui serves it on /metrics.
+ *
+ */
+public class Metrics {
+
+  public final static String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  static volatile boolean enabled = false;
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean b) {
+    enabled = b;
+  }
+
+  /**
+   * samples of one metric family - rendered together under a single HELP and
+   * TYPE header
+   */
+  static class Family {
+    final String name;
+    final String type;
+    final String help;
+    final List<String> samples = new ArrayList<>();
+
+    Family(String name, String type, String help) {
+      this.name = name;
+      this.type = type;
+      this.help = help;
+    }
+  }
+
+  final Map<String, Family> families = new LinkedHashMap<>();
+
+  Metrics family(String name, String type, String help) {
+    families.put(name, new Family(name, type, help));
+    return this;
+  }
+
+  void sample(String family, String suffix, String labels, double value) {
+    StringBuilder sb = new StringBuilder(family);
+    sb.append(suffix);
+    if (labels != null) {
+      sb.append('{').append(labels).append('}');
+    }
+    sb.append(' ').append(format(value));
+    families.get(family).samples.add(sb.toString());
+  }
+
+  void summary(String family, String labels, Histogram.Summary s) {
+    if (s == null) {
+      return;
+    }
+    String prefix = labels + ",";
+    sample(family, "", prefix + "quantile=\"0.5\"", seconds(s.p50));
+    sample(family, "", prefix + "quantile=\"0.9\"", seconds(s.p90));
+    sample(family, "", prefix + "quantile=\"0.99\"", seconds(s.p99));
+    sample(family, "_sum", labels, seconds(s.sum));
+    sample(family, "_count", labels, s.count);
+  }
+
+  static double seconds(long ns) {
+    return ns / 1e9;
+  }
+
+  static String format(double value) {
+    if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  /**
+   * label value escaping of the text format - backslash, double-quote and line
+   * feed
+   */
+  static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder sb = null;
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '\\' || c == '"' || c == '\n') {
+        if (sb == null) {
+          sb = new StringBuilder(value.length() + 8);
+          sb.append(value, 0, i);
+        }
+        sb.append('\\').append((c == '\n') ? 'n' : c);
+      } else if (sb != null) {
+        sb.append(c);
+      }
+    }
+    return (sb == null) ? value : sb.toString();
+  }
+
+  /**
+   * @param stats
+   *          snapshots of the services to expose
+   * @return Prometheus text exposition
+   */
+  public static String toPrometheus(Collection<ServiceStats> stats) {
+    Metrics m = new Metrics();
+    m.family("mrl_inbox_depth", "gauge", "messages waiting in the inbox");
+    m.family("mrl_inbox_enqueued_total", "counter", "messages added to the inbox");
+    m.family("mrl_inbox_dropped_total", "counter", "messages dropped by a full inbox");
+    m.family("mrl_inbox_processed_total", "counter", "messages taken from the inbox");
+    m.family("mrl_inbox_latency_seconds", "summary", "time from inbox to invoke");
+    m.family("mrl_outbox_depth", "gauge", "messages waiting in the outbox");
+    m.family("mrl_outbox_dropped_total", "counter", "messages dropped by a full outbox");
+    m.family("mrl_invoke_duration_seconds", "summary", "method invoke duration");
+    m.family("mrl_publish_total", "counter", "messages published per topic");
+    m.family("mrl_publish_deliveries_total", "counter", "messages delivered to subscribers per topic");
+    m.family("mrl_publish_fanout_seconds", "summary", "time to send a published message to all subscribers");
+
+    for (ServiceStats s : stats) {
+      String service = "service=\"" + escape(s.name) + "\"";
+      m.sample("mrl_inbox_depth", "", service, s.currentQueueCount);
+      m.sample("mrl_inbox_enqueued_total", "", service, s.enqueued);
+      m.sample("mrl_inbox_dropped_total", "", service, s.dropped);
+      m.sample("mrl_inbox_processed_total", "", service, s.processed);
+      m.summary("mrl_inbox_latency_seconds", service, s.inboxLatency);
+      m.sample("mrl_outbox_depth", "", service, s.outboxDepth);
+      m.sample("mrl_outbox_dropped_total", "", service, s.outboxDropped);
+      for (Map.Entry<String, Histogram.Summary> e : s.invoke.entrySet()) {
+        m.summary("mrl_invoke_duration_seconds", service + ",method=\"" + escape(e.getKey()) + "\"", e.getValue());
+      }
+      for (Map.Entry<String, ServiceStats.TopicStats> e : s.topics.entrySet()) {
+        String topic = service + ",topic=\"" + escape(e.getKey()) + "\"";
+        m.sample("mrl_publish_total", "", topic, e.getValue().published);
+        m.sample("mrl_publish_deliveries_total", "", topic, e.getValue().deliveries);
+        m.summary("mrl_publish_fanout_seconds", topic, e.getValue().fanOut);
+      }
+    }
+
+    StringBuilder sb = new StringBuilder();
+    for (Family f : m.families.values()) {
+      if (f.samples.isEmpty()) {
+        continue;
+      }
+      sb.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+      sb.append("# TYPE ").append(f.name).append(' ').append(f.type).append('\n');
+      for (String sample : f.samples) {
+        sb.append(sample).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,354 @@
+package org.myrobotlab.framework;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Bounded lock-free ring buffer mailbox. Producers claim slots with a CAS on
+ * the enqueue counter, each slot carries a sequence number which tells
+ * consumers when it has been published (Vyukov bounded queue). No monitor is
+ * held on add or take - idle consumers and blocked producers are parked and
+ * unparked with LockSupport. Each freed slot wakes a different blocked
+ * producer, and a blocked producer parks for at most PRODUCER_PARK_NS before
+ * it looks for room again, so no wakeup is lost to a producer which has
+ * already returned.
+ *
+ * Although any thread may dequeue (the DROP_OLDEST policy has producers discard
+ * the head), it is intended to be drained by a single Inbox/Outbox thread.
+ *
+ * With the COALESCE policy the ring holds one slot per pending topic, a newer
+ * message for a topic already queued replaces the queued value in place.
+ */
+public class MpscMailbox implements Mailbox {
+
+  public final static Logger log = LoggerFactory.getLogger(MpscMailbox.class);
+
+  /**
+   * longest a blocked producer parks before trying again
+   */
+  static final long PRODUCER_PARK_NS = 10000000L;
+
+  /**
+   * a queued, replaceable value for the COALESCE policy
+   */
+  static final class Slot extends AtomicReference<Message> {
+    private static final long serialVersionUID = 1L;
+    final MailboxKey key;
+
+    Slot(MailboxKey key, Message msg) {
+      super(msg);
+      this.key = key;
+    }
+  }
+
+  final int capacity;
+  final int mask;
+  final AtomicReferenceArray<Object> buffer;
+  final AtomicLongArray sequences;
+  final AtomicLong enqueuePos = new AtomicLong();
+  final AtomicLong dequeuePos = new AtomicLong();
+  final AtomicLong dropCount = new AtomicLong();
+
+  final ConcurrentLinkedQueue<Thread> consumers = new ConcurrentLinkedQueue<>();
+  final ConcurrentLinkedQueue<Thread> producers = new ConcurrentLinkedQueue<>();
+  final ConcurrentHashMap<MailboxKey, Slot> pending = new ConcurrentHashMap<>();
+
+  volatile OverflowPolicy policy;
+
+  public MpscMailbox(int capacity) {
+    this(capacity, OverflowPolicy.DROP_NEWEST);
+  }
+
+  /**
+   * @param capacity
+   *          requested size - rounded up to the next power of 2
+   * @param policy
+   *          overflow policy
+   */
+  public MpscMailbox(int capacity, OverflowPolicy policy) {
+    if (capacity < 2) {
+      capacity = 2;
+    }
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    this.capacity = size;
+    this.mask = size - 1;
+    this.policy = policy;
+    buffer = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; ++i) {
+      sequences.set(i, i);
+    }
+  }
+
+  @Override
+  public boolean add(Message msg) {
+    OverflowPolicy p = policy;
+    if (p == OverflowPolicy.COALESCE) {
+      return coalesce(msg);
+    }
+
+    if (offer(msg)) {
+      return true;
+    }
+
+    switch (p) {
+      case BLOCK:
+        return waitToOffer(msg);
+      case DROP_OLDEST:
+        while (!offer(msg)) {
+          if (dequeue() != null) {
+            dropCount.incrementAndGet();
+          }
+        }
+        return true;
+      default:
+        dropCount.incrementAndGet();
+        return false;
+    }
+  }
+
+  private boolean coalesce(Message msg) {
+    MailboxKey key = new MailboxKey(msg);
+    while (true) {
+      Slot slot = pending.get(key);
+      if (slot == null) {
+        slot = new Slot(key, msg);
+        if (pending.putIfAbsent(key, slot) != null) {
+          continue;
+        }
+        if (offer(slot)) {
+          return true;
+        }
+        // full of distinct topics
+        pending.remove(key, slot);
+        dropCount.incrementAndGet();
+        return false;
+      }
+      Message current = slot.get();
+      if (current == null) {
+        // consumer has already taken this slot
+        pending.remove(key, slot);
+        continue;
+      }
+      if (slot.compareAndSet(current, msg)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * lets a ForkJoinPool add a spare thread while a pool thread waits for room -
+   * otherwise a pooled service publishing into a full outbox could block the
+   * thread which would drain it
+   */
+  final class OfferBlocker implements ManagedBlocker {
+    final Message msg;
+    boolean done = false;
+
+    OfferBlocker(Message msg) {
+      this.msg = msg;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (!done) {
+        done = offer(msg);
+      }
+      return done;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      Thread me = Thread.currentThread();
+      producers.add(me);
+      if (!isReleasable()) {
+        LockSupport.parkNanos(this, PRODUCER_PARK_NS);
+      }
+      producers.remove(me);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      return done;
+    }
+  }
+
+  private boolean waitToOffer(Message msg) {
+    Thread me = Thread.currentThread();
+    if (me instanceof ForkJoinWorkerThread) {
+      try {
+        ForkJoinPool.managedBlock(new OfferBlocker(msg));
+        return true;
+      } catch (InterruptedException e) {
+        log.debug("mailbox add INTERRUPTED - dropping msg");
+        me.interrupt();
+        dropCount.incrementAndGet();
+        return false;
+      }
+    }
+    while (true) {
+      producers.add(me);
+      if (offer(msg)) {
+        producers.remove(me);
+        return true;
+      }
+      LockSupport.parkNanos(this, PRODUCER_PARK_NS);
+      producers.remove(me);
+      if (Thread.interrupted()) {
+        log.debug("mailbox add INTERRUPTED - dropping msg");
+        me.interrupt();
+        dropCount.incrementAndGet();
+        return false;
+      }
+    }
+  }
+
+  private boolean offer(Object e) {
+    long pos = enqueuePos.get();
+    int idx;
+    while (true) {
+      idx = (int) (pos & mask);
+      long dif = sequences.get(idx) - pos;
+      if (dif == 0) {
+        if (enqueuePos.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = enqueuePos.get();
+      } else if (dif < 0) {
+        return false;
+      } else {
+        pos = enqueuePos.get();
+      }
+    }
+    buffer.lazySet(idx, e);
+    sequences.set(idx, pos + 1);
+    if (!consumers.isEmpty()) {
+      Thread t = consumers.peek();
+      if (t != null) {
+        LockSupport.unpark(t);
+      }
+    }
+    return true;
+  }
+
+  private Object dequeue() {
+    long pos = dequeuePos.get();
+    int idx;
+    while (true) {
+      idx = (int) (pos & mask);
+      long dif = sequences.get(idx) - (pos + 1);
+      if (dif == 0) {
+        if (dequeuePos.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = dequeuePos.get();
+      } else if (dif < 0) {
+        return null;
+      } else {
+        pos = dequeuePos.get();
+      }
+    }
+    Object e = buffer.get(idx);
+    buffer.lazySet(idx, null);
+    sequences.set(idx, pos + mask + 1);
+    if (!producers.isEmpty()) {
+      // taken off the queue - the next freed slot wakes another producer
+      Thread t = producers.poll();
+      if (t != null) {
+        LockSupport.unpark(t);
+      }
+    }
+    return e;
+  }
+
+  @Override
+  public Message poll() {
+    while (true) {
+      Object e = dequeue();
+      if (e == null) {
+        return null;
+      }
+      if (e instanceof Slot) {
+        Slot slot = (Slot) e;
+        Message msg = slot.getAndSet(null);
+        pending.remove(slot.key, slot);
+        if (msg == null) {
+          continue;
+        }
+        return msg;
+      }
+      return (Message) e;
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    Thread me = Thread.currentThread();
+    while (true) {
+      Message msg = poll();
+      if (msg != null) {
+        return msg;
+      }
+      consumers.add(me);
+      msg = poll();
+      if (msg != null) {
+        consumers.remove(me);
+        return msg;
+      }
+      LockSupport.park(this);
+      consumers.remove(me);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    // read dequeue first so the difference can not go negative
+    long deq = dequeuePos.get();
+    long size = enqueuePos.get() - deq;
+    if (size < 0) {
+      return 0;
+    }
+    return (size > capacity) ? capacity : (int) size;
+  }
+
+  @Override
+  public int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public void clear() {
+    while (poll() != null) {
+    }
+  }
+
+  @Override
+  public long getDropCount() {
+    return dropCount.get();
+  }
+
+  @Override
+  public OverflowPolicy getOverflowPolicy() {
+    return policy;
+  }
+
+  @Override
+  public void setOverflowPolicy(OverflowPolicy policy) {
+    this.policy = policy;
+  }
+
+}
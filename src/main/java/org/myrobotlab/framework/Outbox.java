@@ -29,13 +29,16 @@ import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.framework.interfaces.Mailbox.OverflowPolicy;
 import org.myrobotlab.framework.interfaces.MessageListener;
 import org.myrobotlab.framework.interfaces.NameProvider;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
@@ -62,20 +65,79 @@ public class Outbox implements Runnable, Serializable {
   static public final String BROADCAST = "BROADCAST";
   static public final String PROCESSANDBROADCAST = "PROCESSANDBROADCAST";
 
+  /**
+   * subscriber of a publish policy for all subscribers of a topic
+   */
+  static public final String ALL = "*";
+
+  /**
+   * subscriber of a publish policy for all remote subscribers of a topic -
+   * those reached through a gateway, e.g. a ui
+   */
+  static public final String REMOTE = "@";
+
   NameProvider myService = null;
-  LinkedList<Message> msgBox = new LinkedList<Message>();
+  transient Mailbox msgBox;
   private boolean isRunning = false;
-  private boolean blocking = false;
   int maxQueue = 1024;
+  /**
+   * a full outbox drops its oldest msg with a warning - the newest state is
+   * kept, and publishers such as serial readers, clocks and capture threads
+   * never wait on a slow subscriber. A service which must not lose msgs opts
+   * in to BLOCK with setBlocking(true) or setOverflowPolicy
+   */
+  OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
   int initialThreadCount = 1;
   transient ArrayList<Thread> outboxThreadPool = new ArrayList<Thread>();
 
+  /**
+   * set when the outbox is drained by the shared pool instead of outbox threads
+   */
+  transient ServiceExecutor.Drain drain = null;
+
+  /**
+   * queue and publish metrics of the owning service - updated only when
+   * Metrics are enabled
+   */
+  transient ServiceMetrics metrics = null;
+
   /**
    * pub/sub listeners - HashMap &lt; {topic}, List {listeners} &gt;
    */
   public Map<String, List<MRLListener>> notifyList = new HashMap<String, List<MRLListener>>();
 
   List<MessageListener> listeners = new ArrayList<MessageListener>();
+
+  /**
+   * topic - subscriber (ALL, REMOTE or a name) - policy
+   */
+  transient final Map<String, Map<String, PublishPolicy>> policies = new ConcurrentHashMap<>();
+
+  /**
+   * what was sent to each subscriber with a filtering policy - a listener is
+   * one subscriber of one topic
+   */
+  transient final Map<MRLListener, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+  /**
+   * newest message of a conflated topic - one message of the topic is waiting
+   * in the queue while there is an entry
+   */
+  transient final Map<String, Message> conflated = new ConcurrentHashMap<>();
+
+  /**
+   * values not sent because of publish policies
+   */
+  transient final AtomicLong suppressed = new AtomicLong();
+
+  static class Subscription {
+    boolean sent = false;
+    long lastSentNs;
+    String lastJson;
+    Message pending;
+    String pendingJson;
+    boolean flushScheduled = false;
+  }
   
   private boolean autoClean = true;
 
@@ -89,6 +151,7 @@ public class Outbox implements Runnable, Serializable {
 
   public Outbox(NameProvider myService) {
     this.myService = myService;
+    msgBox = new MpscMailbox(maxQueue, overflowPolicy);
   }
 
   public Set<String> getAttached(String publishingPoint) {
@@ -112,40 +175,47 @@ public class Outbox implements Runnable, Serializable {
     return unique;
   }
 
-  // TODO - config to put message in block mode - with no buffer overrun
-  // TODO - config to drop message without buffer overrun e.g. like UDP
   public void add(Message msg) {
     // chase network bugs
     // log.error(String.format("%s.outbox.add(msg) %s.%s --> %s.%s",
     // myService.getName(), msg.sender, msg.sendingMethod, msg.name,
     // msg.method));
-    synchronized (msgBox) {
-      while (blocking && (msgBox.size() >= maxQueue)) {
-        // queue "full"
-        try {
-          // log.debug("outbox enque msg WAITING ");
-          msgBox.wait(); // Limit the size
-        } catch (InterruptedException ex) {
-          log.debug("outbox add enque msg INTERRUPTED ");
-        }
+    if (msg.getName() == null && !policies.isEmpty()) {
+      PublishPolicy policy = getPublishPolicy(msg.sendingMethod, ALL);
+      if (policy != null && policy.latest && conflated.put(msg.sendingMethod, msg) != null) {
+        // the one waiting in the queue will be sent as this
+        suppressed.incrementAndGet();
+        return;
       }
-
-      // we warn if over 10 messages are in the queue - but we will still
-      // process them
-      if (msgBox.size() > maxQueue) {
-        // log.warn("{} outbox BUFFER OVERRUN size {} Dropping message to
-        // {}.{}", myService.getName(), msgBox.size(), msg.name, msg.method);
-        log.warn("{} outbox BUFFER OVERRUN size {} Dropping message to {}", myService.getName(), msgBox.size(), msg);
+    }
+    long dropped = msgBox.getDropCount();
+    if (!msgBox.add(msg)) {
+      conflated.remove(msg.sendingMethod, msg);
+      ServiceMetrics m = metrics;
+      if (Metrics.enabled && m != null) {
+        m.recordOutboxDropped();
+      }
+      log.warn("{} outbox BUFFER OVERRUN size {} Dropping message to {}", myService.getName(), msgBox.size(), msg);
+      return;
+    }
+    if (msgBox.getDropCount() != dropped) {
+      // an older msg was dropped - it may have been the one a conflated
+      // topic was waiting on
+      conflated.clear();
+      ServiceMetrics m = metrics;
+      if (Metrics.enabled && m != null) {
+        m.recordOutboxDropped();
       }
-      msgBox.addFirst(msg);
+      log.warn("{} outbox BUFFER OVERRUN size {} dropped oldest message", myService.getName(), msgBox.size());
+    }
 
-      // Logging.logTime(String.format("outbox %s size %d",myService.getName(),
-      // msgBox.size()));
+    if (log.isDebugEnabled()) {
+      log.debug("msg [{}]", msg.toString());
+    }
 
-      if (log.isDebugEnabled()) {
-        log.debug("msg [{}]", msg.toString());
-      }
-      msgBox.notifyAll(); // must own the lock
+    ServiceExecutor.Drain d = drain;
+    if (d != null) {
+      d.signal();
     }
 
     // now that it's actually in the queue. let's notify the listeners
@@ -154,77 +224,87 @@ public class Outbox implements Runnable, Serializable {
     }
   }
 
-  // FIXME - consider using a blocking queue now that we are using Java 5.0
   @Override
   public void run() {
     isRunning = true;
     while (isRunning) {
       Message msg = null;
-      synchronized (msgBox) {
-        try {
-          while (msgBox.size() == 0) {
-            // log.debug("outbox run WAITING ");
-            msgBox.wait(); // must own the lock
-          }
-        } catch (InterruptedException ex) {
-          log.debug("outbox run INTERRUPTED ");
-          // msgBox.notifyAll();
-          isRunning = false;
-          return;
-        }
-        msg = msgBox.removeLast();
-        // chase network bugs
-        // log.error(String.format("%s.outbox.run(msg) %s.%s -- %s.%s ",
-        // myService.getName(), msg.sender, msg.sendingMethod, msg.name,
-        // msg.method));
-        // log.debug(String.format("removed from msgBox size now %d",
-        // msgBox.size()));
-        msgBox.notifyAll();
+      try {
+        msg = msgBox.take();
+      } catch (InterruptedException ex) {
+        log.debug("outbox run INTERRUPTED ");
+        isRunning = false;
+        return;
+      }
+      process(msg);
+    } // while (isRunning)
+  }
+
+  /**
+   * relay or fan out a single message to its subscribers
+   * 
+   * @param msg
+   *          msg taken off the queue
+   */
+  void process(Message msg) {
+    // RELAY OTHER SERVICE'S MSGS
+    // if the msg name is not my name - then
+    // relay it
+    // WARNING - broadcast apparently means name == ""
+    // why would a message with my name be in my outbox ??? - FIXME
+    // deprecate that logic
+    if (msg.getName() != null) {
+      log.debug("{} configured to RELAY ", msg.getName());
+      send(msg);
+      // recently added -
+      // if I'm relaying I'm not broadcasting...(i think)
+      return;
+    }
+
+    // BROADCASTS name=="" WILL DROP DOWN and be processed here
+    if (notifyList.size() != 0) {
+      // get the value for the source method
+      List<MRLListener> subList = notifyList.get(msg.sendingMethod);
+      if (subList == null) {
+        log.debug("no additional routes for {}.{} ", msg.sender, msg.sendingMethod);
+        // This will cause issues in broadcasts
+        return;
       }
 
-      // RELAY OTHER SERVICE'S MSGS
-      // if the msg name is not my name - then
-      // relay it
-      // WARNING - broadcast apparently means name == ""
-      // why would a message with my name be in my outbox ??? - FIXME
-      // deprecate that logic
-      if (msg.getName() != null) {
-        log.debug("{} configured to RELAY ", msg.getName());
-        send(msg);
-        // recently added -
-        // if I'm relaying I'm not broadcasting...(i think)
-        continue;
+      ServiceMetrics m = (Metrics.enabled) ? metrics : null;
+      long start = (m != null) ? System.nanoTime() : 0;
+      String topic = msg.sendingMethod;
+
+      Message latest = conflated.remove(topic);
+      if (latest != null) {
+        msg = latest;
       }
 
-      // BROADCASTS name=="" WILL DROP DOWN and be processed here
-      if (notifyList.size() != 0) {
-        // get the value for the source method
-        List<MRLListener> subList = notifyList.get(msg.sendingMethod);
-        if (subList == null) {
-          log.debug("no additional routes for {}.{} ", msg.sender, msg.sendingMethod);
-          // This will cause issues in broadcasts
-          continue;
-        }
+      // the same data goes to every subscriber - compared once
+      String json = (isChangeOnly(topic)) ? CodecUtils.toJson(msg.data) : null;
 
-        for (int i = 0; i < subList.size(); ++i) {
-          MRLListener listener = subList.get(i);
-          msg.setName(listener.callbackName);
-          msg.method = listener.callbackMethod;
+      for (int i = 0; i < subList.size(); ++i) {
+        MRLListener listener = subList.get(i);
+        msg.setName(listener.callbackName);
+        msg.method = listener.callbackMethod;
+        if (admit(topic, listener, msg, json)) {
           send(msg);
-
-          // must make new for internal queues
-          // otherwise you'll change the name on
-          // existing enqueued messages
-          msg = new Message(msg);
-        }
-      } else {
-        if (log.isDebugEnabled()) {
-          log.debug("{}/{}({}) notifyList is empty", msg.getName(), msg.method, CodecUtils.getParameterSignature(msg.data));
         }
-        continue;
+
+        // must make new for internal queues
+        // otherwise you'll change the name on
+        // existing enqueued messages
+        msg = new Message(msg);
       }
 
-    } // while (isRunning)
+      if (m != null) {
+        m.recordPublish(topic, subList.size(), System.nanoTime() - start);
+      }
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug("{}/{}({}) notifyList is empty", msg.getName(), msg.method, CodecUtils.getParameterSignature(msg.data));
+      }
+    }
   }
 
   public int size() {
@@ -232,8 +312,16 @@ public class Outbox implements Runnable, Serializable {
   }
 
   public void start() {
+    if (ServiceExecutor.isPooled()) {
+      isRunning = true;
+      drain = new ServiceExecutor.Drain(myService.getName() + "_outbox", () -> msgBox, this::process);
+      if (msgBox.size() > 0) {
+        drain.signal();
+      }
+      return;
+    }
     for (int i = outboxThreadPool.size(); i < initialThreadCount; ++i) {
-      Thread t = new Thread(this, myService.getName() + "_outbox_" + i);
+      Thread t = ServiceExecutor.newThread(this, myService.getName() + "_outbox_" + i);
       outboxThreadPool.add(t);
       t.start();
     }
@@ -241,6 +329,7 @@ public class Outbox implements Runnable, Serializable {
 
   public void stop() {
     isRunning = false;
+    drain = null;
     for (int i = 0; i < outboxThreadPool.size(); ++i) {
       Thread t = outboxThreadPool.get(i);
       t.interrupt();
@@ -249,24 +338,62 @@ public class Outbox implements Runnable, Serializable {
     }
   }
 
-  public LinkedList<Message> getMsgBox() {
+  public Mailbox getMsgBox() {
     return msgBox;
   }
 
+  /**
+   * replace the queue implementation, any pending messages are moved to the
+   * new mailbox
+   * 
+   * @param mailbox
+   *          the new queue
+   */
+  public void setMailbox(Mailbox mailbox) {
+    Mailbox old = msgBox;
+    msgBox = mailbox;
+    maxQueue = mailbox.capacity();
+    Message msg = null;
+    while ((msg = old.poll()) != null) {
+      msgBox.add(msg);
+    }
+  }
+
   public int getMaxQueueSize() {
     return maxQueue;
   }
 
+  /**
+   * resizes the outbox - the ring is re-allocated so this is best done before
+   * the service is started
+   * 
+   * @param size
+   *          max number of queued messages
+   */
   public void setMaxQueueSize(int size) {
     maxQueue = size;
+    setMailbox(new MpscMailbox(size, msgBox.getOverflowPolicy()));
   }
 
   public boolean isBlocking() {
-    return blocking;
+    return msgBox.getOverflowPolicy() == OverflowPolicy.BLOCK;
   }
 
   public void setBlocking(boolean blocking) {
-    this.blocking = blocking;
+    msgBox.setOverflowPolicy((blocking) ? OverflowPolicy.BLOCK : OverflowPolicy.DROP_OLDEST);
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return msgBox.getOverflowPolicy();
+  }
+
+  public void setOverflowPolicy(OverflowPolicy policy) {
+    overflowPolicy = policy;
+    msgBox.setOverflowPolicy(policy);
+  }
+
+  public long getDropCount() {
+    return msgBox.getDropCount();
   }
 
   public boolean isRunning() {
@@ -320,11 +447,166 @@ public class Outbox implements Runnable, Serializable {
     }
   }
 
+  /**
+   * @param topic
+   *          publishing method
+   * @param subscriber
+   *          name of a subscriber, REMOTE for all remote subscribers or ALL
+   * @param policy
+   *          null removes it
+   */
+  public void setPublishPolicy(String topic, String subscriber, PublishPolicy policy) {
+    if (subscriber == null) {
+      subscriber = ALL;
+    }
+    if (policy == null) {
+      Map<String, PublishPolicy> topicPolicies = policies.get(topic);
+      if (topicPolicies != null) {
+        topicPolicies.remove(subscriber);
+        if (topicPolicies.isEmpty()) {
+          policies.remove(topic);
+        }
+      }
+    } else {
+      policies.computeIfAbsent(topic, t -> new ConcurrentHashMap<>()).put(subscriber, policy);
+    }
+  }
+
+  /**
+   * @return the policy applied to the subscriber - its own, then REMOTE for a
+   *         remote one, then ALL - null if there is none
+   */
+  public PublishPolicy getPublishPolicy(String topic, String subscriber) {
+    Map<String, PublishPolicy> topicPolicies = policies.get(topic);
+    if (topicPolicies == null) {
+      return null;
+    }
+    PublishPolicy policy = (subscriber == null) ? null : topicPolicies.get(subscriber);
+    if (policy == null && subscriber != null && subscriber.contains("@")) {
+      policy = topicPolicies.get(REMOTE);
+    }
+    if (policy == null) {
+      policy = topicPolicies.get(ALL);
+    }
+    return policy;
+  }
+
+  /**
+   * @param topic
+   *          publishing method
+   * @return true if a subscriber of the topic is only sent changed values
+   */
+  boolean isChangeOnly(String topic) {
+    if (policies.isEmpty()) {
+      return false;
+    }
+    Map<String, PublishPolicy> topicPolicies = policies.get(topic);
+    if (topicPolicies == null) {
+      return false;
+    }
+    for (PublishPolicy policy : topicPolicies.values()) {
+      if (policy.changeOnly) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  boolean admit(String topic, MRLListener listener, Message msg) {
+    return admit(topic, listener, msg, (isChangeOnly(topic)) ? CodecUtils.toJson(msg.data) : null);
+  }
+
+  /**
+   * applies the publish policy of the subscriber - a value over its rate may be
+   * kept and sent later
+   *
+   * @param topic
+   *          publishing method
+   * @param listener
+   *          the subscriber
+   * @param msg
+   *          message addressed to the subscriber - not changed after this
+   * @param json
+   *          the data of the message as json - null if no subscriber of the
+   *          topic is change only
+   * @return true if it is to be sent now
+   */
+  boolean admit(String topic, MRLListener listener, Message msg, String json) {
+    if (policies.isEmpty()) {
+      return true;
+    }
+    PublishPolicy policy = getPublishPolicy(topic, listener.callbackName);
+    if (policy == null || !policy.isFiltered()) {
+      return true;
+    }
+    Subscription s = subscriptions.computeIfAbsent(listener, k -> new Subscription());
+    if (!policy.changeOnly) {
+      json = null;
+    }
+    synchronized (s) {
+      if (policy.changeOnly && json.equals(s.lastJson)) {
+        // back to what it has - nothing newer to send
+        s.pending = null;
+        suppressed.incrementAndGet();
+        return false;
+      }
+      long now = System.nanoTime();
+      if (policy.maxRateHz > 0) {
+        long due = s.lastSentNs + (long) (1000000000L / policy.maxRateHz);
+        if (s.sent && now - due < 0) {
+          suppressed.incrementAndGet();
+          if (policy.latest) {
+            s.pending = msg;
+            s.pendingJson = json;
+            if (!s.flushScheduled) {
+              s.flushScheduled = true;
+              TaskScheduler.getInstance().schedule(() -> flush(s), due - now);
+            }
+          }
+          return false;
+        }
+      }
+      s.sent = true;
+      s.lastSentNs = now;
+      s.lastJson = json;
+      s.pending = null;
+      return true;
+    }
+  }
+
+  /**
+   * sends the newest value kept for a subscriber when it is due
+   */
+  void flush(Subscription s) {
+    Message msg;
+    synchronized (s) {
+      s.flushScheduled = false;
+      msg = s.pending;
+      if (msg == null) {
+        return;
+      }
+      s.pending = null;
+      s.sent = true;
+      s.lastSentNs = System.nanoTime();
+      s.lastJson = s.pendingJson;
+    }
+    suppressed.decrementAndGet();
+    send(msg);
+  }
+
+  /**
+   * @return values not sent (yet) because of publish policies
+   */
+  public long getSuppressedCount() {
+    return suppressed.get();
+  }
+
   /**
    * remove ALL listeners/subscribers
    */
   public void reset() {
     notifyList = new HashMap<String, List<MRLListener>>();
+    subscriptions.clear();
   }
 
   /**
@@ -345,6 +627,7 @@ public class Outbox implements Runnable, Serializable {
       }
       notifyList.put(topic, smallerList);
     }
+    subscriptions.keySet().removeIf(listener -> listener.callbackName.equals(name));
   }
 
 }
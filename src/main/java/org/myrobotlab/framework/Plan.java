@@ -22,6 +22,7 @@ public class Plan {
 
   public final static Logger log = LoggerFactory.getLogger(Plan.class);
   
+  // guarded by this - services of a config set are loaded in parallel
   LinkedHashMap<String, ServiceConfig> config = new LinkedHashMap<>();
   
   @Deprecated /* use definition in config and contract of String fieldnames */
@@ -33,7 +34,7 @@ public class Plan {
     this.name = name;
   }
 
-  public String toString() {
+  synchronized public String toString() {
     StringBuilder sb = new StringBuilder("\n");
     for (Map.Entry<String, ServiceConfig> e : config.entrySet()) {
       sb.append(e.getKey()).append("=").append(e.getValue()).append("\n");
@@ -41,29 +42,29 @@ public class Plan {
     return sb.toString();
   }
 
-  public ServiceConfig put(String name, ServiceConfig sc) {
+  synchronized public ServiceConfig put(String name, ServiceConfig sc) {
     return config.put(name, sc);
   }
 
-  public void putAll(Map<String, ServiceConfig> c) {
+  synchronized public void putAll(Map<String, ServiceConfig> c) {
     config.putAll(c);
   }
 
-  public ServiceConfig get(String name) {
+  synchronized public ServiceConfig get(String name) {
     return config.get(name);
   }
 
-  public Set<String> keySet() {
+  synchronized public Set<String> keySet() {
     // return a copy of the keyset to avoid concurrent modification
     Set<String> ret = new LinkedHashSet<>(config.keySet());
     return ret;
   }
 
-  public void clear() {
+  synchronized public void clear() {
     config.clear();
   }
 
-  public void setConfig(LinkedHashMap<String, ServiceConfig> config) {
+  synchronized public void setConfig(LinkedHashMap<String, ServiceConfig> config) {
     this.config = config;
   }
 
@@ -71,7 +72,7 @@ public class Plan {
     merge(ret, null);
   }
 
-  public void merge(Plan ret, Boolean replaceMatching) {
+  synchronized public void merge(Plan ret, Boolean replaceMatching) {
     if (ret == null) {
       return;
     }
@@ -110,19 +111,23 @@ public class Plan {
     return config.get(actualName);
   }
 
-  public ServiceConfig remove(String name) {
+  synchronized public ServiceConfig remove(String name) {
     return config.remove(name);
   }
 
-  public boolean containsKey(String name) {
+  synchronized public boolean containsKey(String name) {
     return config.containsKey(name);
   }
 
-  public LinkedHashMap<String, ServiceConfig> getConfig() {
-    return config;
+  /**
+   * @return a copy of the planned configs - the configs themselves are not
+   *         copied
+   */
+  synchronized public LinkedHashMap<String, ServiceConfig> getConfig() {
+    return new LinkedHashMap<>(config);
   }
 
-  public ServiceConfig addPeer(String name, ServiceConfig sc) {
+  synchronized public ServiceConfig addPeer(String name, ServiceConfig sc) {
     config.put(name, sc);
     return sc;
   }
@@ -169,7 +174,7 @@ public class Plan {
     return addConfig(actualName, sr.type);  
   }
 
-  public ServiceConfig addConfig(ServiceConfig sc) {
+  synchronized public ServiceConfig addConfig(ServiceConfig sc) {
     return config.put(name, sc);
   }
 
@@ -188,7 +193,7 @@ public class Plan {
     return config.get(actualName);
   }
 
-  public ServiceConfig removeConfig(String actualName) {
+  synchronized public ServiceConfig removeConfig(String actualName) {
     return config.remove(actualName);
   }
 
@@ -196,7 +201,7 @@ public class Plan {
     return peers;
   }
 
-  public int size() {
+  synchronized public int size() {
     return config.size();
   }
 
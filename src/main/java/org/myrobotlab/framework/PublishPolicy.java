@@ -0,0 +1,68 @@
+package org.myrobotlab.framework;
+
+import java.io.Serializable;
+
+/**
+ * How a topic is published to a subscriber. Without a policy every value is
+ * sent. Policies are set with Service.setPublishPolicy for a topic, for one
+ * subscriber of it or for all its remote subscribers - e.g. a ui gets a
+ * servo's positions at 10 Hz while a control loop gets every one.
+ *
+ * <pre>
+ *   maxRateHz   at most this many values a second - 0 is no limit
+ *   latest      a value over the rate is not dropped - the newest one is sent
+ *               when the subscriber is due. For all subscribers of a topic it
+ *               also conflates values waiting in the outbox to the newest
+ *   changeOnly  a value equal (as json) to the last one sent is not sent
+ * </pre>
+ */
+public class PublishPolicy implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public double maxRateHz = 0;
+
+  public boolean latest = false;
+
+  public boolean changeOnly = false;
+
+  public PublishPolicy() {
+  }
+
+  public PublishPolicy(double maxRateHz, boolean latest, boolean changeOnly) {
+    this.maxRateHz = maxRateHz;
+    this.latest = latest;
+    this.changeOnly = changeOnly;
+  }
+
+  /**
+   * values over the rate are dropped
+   */
+  public static PublishPolicy maxRate(double hz) {
+    return new PublishPolicy(hz, false, false);
+  }
+
+  /**
+   * the newest value at most hz times a second - 0 only conflates the queue
+   */
+  public static PublishPolicy latest(double hz) {
+    return new PublishPolicy(hz, true, false);
+  }
+
+  public static PublishPolicy changeOnly() {
+    return new PublishPolicy(0, false, true);
+  }
+
+  /**
+   * true if it has to keep state per subscriber
+   */
+  boolean isFiltered() {
+    return maxRateHz > 0 || changeOnly;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s%s%s", (maxRateHz > 0) ? String.format("%.1f Hz ", maxRateHz) : "", (latest) ? "latest " : "", (changeOnly) ? "changeOnly" : "").trim();
+  }
+
+}
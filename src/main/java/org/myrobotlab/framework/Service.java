@@ -51,6 +51,7 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.myrobotlab.codec.CodecUtils;
@@ -134,6 +135,11 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
 
   transient protected Outbox outbox = null;
 
+  /**
+   * queue and latency metrics - recorded only when Metrics are enabled
+   */
+  transient protected ServiceMetrics metrics = null;
+
   protected String serviceVersion = null;
 
   /**
@@ -173,7 +179,7 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
   /**
    * a more capable task handler
    */
-  transient Map<String, Timer> tasks = new HashMap<String, Timer>();
+  transient Map<String, Task> tasks = new ConcurrentHashMap<String, Task>();
 
   /**
    * used as a static cache for quick method name testing FIXME - if you make
@@ -667,6 +673,9 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
 
     this.inbox = new Inbox(getFullName());
     this.outbox = new Outbox(this);
+    this.metrics = new ServiceMetrics(getName());
+    inbox.metrics = metrics;
+    outbox.metrics = metrics;
 
     File versionFile = new File(getResourceDir() + fs + "version.txt");
     if (versionFile.exists()) {
@@ -811,20 +820,33 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
    */
   @Override
   synchronized public void addTask(String taskName, long intervalMs, long delayMs, String method, Object... params) {
+    addTask(taskName, false, intervalMs, delayMs, method, params);
+  }
+
+  @Override
+  synchronized public void addTask(String taskName, boolean fixedRate, long intervalMs, long delayMs, String method, Object... params) {
     if (tasks.containsKey(taskName)) {
       log.info("already have active task \"{}\"", taskName);
       return;
     }
-    Timer timer = new Timer(String.format("%s.timer", String.format("%s.%s", getName(), taskName)));
     Message msg = Message.createMessage(getName(), getName(), method, params);
-    Task task = new Task(this, taskName, intervalMs, msg);
-    timer.schedule(task, delayMs);
-    tasks.put(taskName, timer);
+    Task task = new Task(this, taskName, intervalMs, fixedRate, msg);
+    tasks.put(taskName, task);
+    task.start(delayMs);
   }
 
   @Override
   public Map<String, Timer> getTasks() {
-    return tasks;
+    Map<String, Timer> ret = new TreeMap<>();
+    for (String taskName : tasks.keySet()) {
+      ret.put(taskName, null);
+    }
+    return ret;
+  }
+
+  @Override
+  public Map<String, Task> getTaskStats() {
+    return new TreeMap<>(tasks);
   }
 
   @Override
@@ -844,39 +866,23 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
 
   @Override
   synchronized public void purgeTask(String taskName) {
-    if (tasks.containsKey(taskName)) {
+    Task task = tasks.remove(taskName);
+    if (task != null) {
       log.debug("remove task {}", taskName);
-      Timer timer = tasks.get(taskName);
-      if (timer != null) {
-        try {
-          timer.cancel();
-          timer.purge();
-          timer = null;
-        } catch (Exception e) {
-          log.info(e.getMessage());
-        }
-      }
+      task.cancel();
     } else {
       log.debug("purgeTask - task {} does not exist", taskName);
     }
-    tasks.remove(taskName);
   }
 
   @Override
   public void purgeTasks() {
     for (String taskName : tasks.keySet()) {
-      Timer timer = tasks.get(taskName);
-      if (timer != null) {
-        try {
-          timer.purge();
-          timer.cancel();
-          timer = null;
-        } catch (Exception e) {
-          log.info(e.getMessage());
-        }
+      Task task = tasks.remove(taskName);
+      if (task != null) {
+        task.cancel();
       }
     }
-    tasks.clear();
   }
 
   @Override
@@ -1080,6 +1086,27 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
     return outbox;
   }
 
+  public ServiceMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @return snapshot of this service's metrics - rates are since counting
+   *         started
+   */
+  public ServiceStats getStats() {
+    return metrics.snapshot(inbox.size(), outbox.size());
+  }
+
+  /**
+   * @param previous
+   *          snapshot taken before by the caller
+   * @return snapshot of this service's metrics - rates are since previous
+   */
+  public ServiceStats getStats(ServiceStats previous) {
+    return metrics.snapshot(inbox.size(), outbox.size(), previous);
+  }
+
   @Override
   public String getSimpleName() {
     return simpleName;
@@ -1238,12 +1265,21 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
         log.error("cannot invoke on a null object ! {}({})", methodName, MethodCache.formatParams(params));
         return null;
       }
-      Method method = cache.getMethod(obj.getClass(), methodName, params);
-      if (method == null) {
+      DispatchEntry entry = cache.getDispatchEntry(obj.getClass(), methodName, params);
+      if (entry == null) {
         error("could not find method %s.%s(%s)", obj.getClass().getSimpleName(), methodName, MethodCache.formatParams(params));
         return null; // should this be allowed to throw to a higher level ?
       }
-      retobj = method.invoke(obj, params);
+      if (Metrics.enabled) {
+        long start = System.nanoTime();
+        retobj = entry.invoke(obj, params);
+        ServiceMetrics m = (obj instanceof Service) ? ((Service) obj).metrics : metrics;
+        if (m != null) {
+          m.recordInvoke(methodName, System.nanoTime() - start);
+        }
+      } else {
+        retobj = entry.invoke(obj, params);
+      }
       if (blockLocally) {
         List<MRLListener> subList = outbox.notifyList.get(methodName);
         // correct? get local (default?) gateway
@@ -1255,16 +1291,19 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
               log.error("Unable to create message.. null message created");
             }
             msg.sendingMethod = methodName;
+            if (!outbox.admit(methodName, listener, msg)) {
+              continue;
+            }
             if (runtime.isLocal(msg)) {
               ServiceInterface si = Runtime.getService(listener.callbackName);
               if (si == null) {
                 log.info("{} cannot callback to listener {} does not exist for {} ", getName(), listener.callbackName, listener.callbackMethod);
               } else {
-                Method m = cache.getMethod(si.getClass(), listener.callbackMethod, retobj);
-                if (m == null) {
+                DispatchEntry callback = cache.getDispatchEntry(si.getClass(), listener.callbackMethod, retobj);
+                if (callback == null) {
 
                   // attempt to get defaultInvokeMethod
-                  m = cache.getDefaultInvokeMethod(si.getClass().getCanonicalName());
+                  Method m = cache.getDefaultInvokeMethod(si.getClass().getCanonicalName());
                   if (m != null) {
                     m.invoke(si, listener.callbackMethod, new Object[] { retobj });
                   } else {
@@ -1272,12 +1311,12 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
                   }
                 } else {
                   try {
-                    m.invoke(si, retobj);
+                    callback.invoke(si, retobj);
                   } catch (Throwable e) {
                     // we attempted to invoke this , it blew up. Catch it here,
                     // continue
                     // through the rest of the listeners instead of bombing out.
-                    log.error("Invoke blew up! on: {} calling method {} ", si.getName(), m.toString(), e);
+                    log.error("Invoke blew up! on: {} calling method {} ", si.getName(), callback.getMethod().toString(), e);
                   }
                 }
               }
@@ -1366,6 +1405,38 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
     outbox.add(msg);
   }
 
+  /**
+   * how a topic is published to all its subscribers - e.g.
+   * setPublishPolicy("publishState", PublishPolicy.latest(10))
+   *
+   * @param topic
+   *          publishing method
+   * @param policy
+   *          null removes it
+   */
+  public void setPublishPolicy(String topic, PublishPolicy policy) {
+    outbox.setPublishPolicy(topic, Outbox.ALL, policy);
+  }
+
+  /**
+   * how a topic is published to one subscriber
+   *
+   * @param topic
+   *          publishing method
+   * @param subscriber
+   *          name of the subscriber, Outbox.REMOTE for all remote subscribers
+   *          or Outbox.ALL
+   * @param policy
+   *          null removes it
+   */
+  public void setPublishPolicy(String topic, String subscriber, PublishPolicy policy) {
+    outbox.setPublishPolicy(topic, subscriber, policy);
+  }
+
+  public PublishPolicy getPublishPolicy(String topic, String subscriber) {
+    return outbox.getPublishPolicy(topic, subscriber);
+  }
+
   /**
    * Creating a message function call - without specifying the recipients -
    * static routes will be applied this is good for Motor drivers - you can swap
@@ -1447,6 +1518,7 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
         MRLListener target = nel.get(i);
         if (target.callbackName.compareTo(serviceName) == 0) {
           nel.remove(i);
+          outbox.subscriptions.remove(target);
           log.info("removeListener requested {}.{} to be removed", serviceName, outMethod);
         }
       }
@@ -1468,39 +1540,7 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
 
     try {
       while (isRunning) {
-        // TODO should this declaration be outside the while loop? if
-        // so, make sure to release prior to continue
-        Message m = getMsg();
-
-        if (!preRoutingHook(m)) {
-          continue;
-        }
-
-        // nameless Runtime messages
-        if (m.getName() == null) {
-          // don't know if this is "correct"
-          // but we are substituting the Runtime name as soon as we
-          // see that its a null
-          // name message
-          m.setName(Runtime.getInstance().getFullName());
-        }
-
-        // route if necessary
-        if (!m.getName().equals(this.getName())) // && RELAY
-        {
-          outbox.add(m); // RELAYING
-          continue; // sweet - that was a long time coming fix !
-        }
-
-        if (!preProcessHook(m)) {
-          // if preProcessHook returns false
-          // the message does not need to continue
-          // processing
-          continue;
-        }
-
-        Object ret = invoke(m);
-
+        processMessage(getMsg());
       }
     } catch (InterruptedException edown) {
       info("shutting down");
@@ -1509,6 +1549,48 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
     }
   }
 
+  /**
+   * route, pre-process and invoke a single message from the inbox - called by
+   * the service thread, or by the shared pool in POOLED execution mode
+   * 
+   * @param m
+   *          the message
+   */
+  final protected void processMessage(Message m) {
+    if (Metrics.enabled && m.enqueued != 0 && metrics != null) {
+      metrics.recordProcessed(System.nanoTime() - m.enqueued);
+    }
+
+    if (!preRoutingHook(m)) {
+      return;
+    }
+
+    // nameless Runtime messages
+    if (m.getName() == null) {
+      // don't know if this is "correct"
+      // but we are substituting the Runtime name as soon as we
+      // see that its a null
+      // name message
+      m.setName(Runtime.getInstance().getFullName());
+    }
+
+    // route if necessary
+    if (!m.getName().equals(this.getName())) // && RELAY
+    {
+      outbox.add(m); // RELAYING
+      return; // sweet - that was a long time coming fix !
+    }
+
+    if (!preProcessHook(m)) {
+      // if preProcessHook returns false
+      // the message does not need to continue
+      // processing
+      return;
+    }
+
+    invoke(m);
+  }
+
   /**
    * method of serializing default will be simple xml to name file
    */
@@ -1654,14 +1736,12 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
     // put in-process lock in map
     String callbackMethod = CodecUtils.getCallbackTopicName(method);
     String blockingKey = String.format("%s.%s", subscriber, callbackMethod);
-    Object[] blockingLockContainer = null;
-    if (!inbox.blockingList.containsKey(blockingKey)) {
-      blockingLockContainer = new Object[1];
-      inbox.blockingList.put(blockingKey, blockingLockContainer);
-    } else {
+    Object[] blockingLockContainer = new Object[1];
+    Object[] existing = inbox.blockingList.putIfAbsent(blockingKey, blockingLockContainer);
+    if (existing != null) {
       // if it already exists - other threads are already waiting for the
       // same callback ...
-      blockingLockContainer = inbox.blockingList.get(blockingKey);
+      blockingLockContainer = existing;
     }
 
     // send subscription
@@ -1685,6 +1765,7 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
         long startTs = System.currentTimeMillis();
         blockingLockContainer.wait(timeout);
         if (System.currentTimeMillis() - startTs >= timeout) {
+          inbox.blockingList.remove(blockingKey, blockingLockContainer);
           throw new TimeoutException("timeout of %d for %s.%s exceeded", timeout, fullName, method);
         }
       }
@@ -1761,10 +1842,14 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
 
     if (!isRunning()) {
       outbox.start();
-      if (thisThread == null) {
-        thisThread = new Thread(this, name);
+      if (ServiceExecutor.isPooled()) {
+        inbox.setPooledHandler(this::processMessage);
+      } else {
+        if (thisThread == null) {
+          thisThread = ServiceExecutor.newThread(this, name);
+        }
+        thisThread.start();
       }
-      thisThread.start();
       isRunning = true;
       Runtime runtime = Runtime.getInstance();
       if (runtime != null) {
@@ -1783,6 +1868,7 @@ public abstract class Service implements Runnable, Serializable, ServiceInterfac
   @Override
   synchronized public void stopService() {
     isRunning = false;
+    inbox.setPooledHandler(null);
     outbox.stop();
     if (thisThread != null) {
       thisThread.interrupt();
@@ -0,0 +1,192 @@
+package org.myrobotlab.framework;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Decides which threads drain service inboxes and outboxes.
+ *
+ * <pre>
+ * THREAD  - default, every service has a dedicated inbox thread and outbox thread
+ * POOLED  - mailboxes are drained by a shared work-stealing pool. A mailbox is
+ *           scheduled at most once at a time so messages for a service are
+ *           still processed one at a time and in order (actor style)
+ * VIRTUAL - dedicated threads as in THREAD mode but they are virtual threads,
+ *           requires a Java 21+ runtime - otherwise POOLED is used
+ * </pre>
+ *
+ * The mode must be set before services are started, typically with the
+ * --execution-mode command line flag. In POOLED mode a service method which
+ * blocks for a long time (sleeping, waiting on hardware) holds a pool thread
+ * while it does, VIRTUAL mode does not have this limitation.
+ *
+ * Helper threads of services can be created with newThread so they also become
+ * virtual in VIRTUAL mode.
+ */
+public class ServiceExecutor {
+
+  public final static Logger log = LoggerFactory.getLogger(ServiceExecutor.class);
+
+  public enum ExecutionMode {
+    THREAD, POOLED, VIRTUAL
+  }
+
+  /**
+   * max number of messages processed per scheduling of a mailbox - keeps a
+   * busy service from starving others on the same pool thread
+   */
+  static int batchSize = 64;
+
+  private static volatile ExecutionMode mode = ExecutionMode.THREAD;
+
+  private static ForkJoinPool pool;
+
+  /**
+   * Thread.ofVirtual() - looked up reflectively, this code is compiled for
+   * Java 8
+   */
+  private static Method ofVirtual;
+  private static Method unstarted;
+  private static Method builderName;
+
+  static {
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      unstarted = builder.getMethod("unstarted", Runnable.class);
+      builderName = builder.getMethod("name", String.class);
+    } catch (Exception e) {
+      ofVirtual = null;
+    }
+  }
+
+  public static boolean isVirtualThreadAvailable() {
+    return ofVirtual != null;
+  }
+
+  public static ExecutionMode getMode() {
+    return mode;
+  }
+
+  /**
+   * set how services are run - must be called before services are started
+   *
+   * @param requested
+   *          the execution mode
+   * @return the mode actually used
+   */
+  public static ExecutionMode setMode(ExecutionMode requested) {
+    if (requested == ExecutionMode.VIRTUAL && !isVirtualThreadAvailable()) {
+      log.warn("virtual threads need Java 21+ - running {} with POOLED execution mode", System.getProperty("java.version"));
+      requested = ExecutionMode.POOLED;
+    }
+    mode = requested;
+    log.info("service execution mode {}", mode);
+    return mode;
+  }
+
+  public static ExecutionMode setMode(String requested) {
+    if (requested == null) {
+      return mode;
+    }
+    return setMode(ExecutionMode.valueOf(requested.toUpperCase()));
+  }
+
+  public static boolean isPooled() {
+    return mode == ExecutionMode.POOLED;
+  }
+
+  public static synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      // asyncMode - FIFO scheduling of tasks which are never joined
+      pool = new ForkJoinPool(java.lang.Runtime.getRuntime().availableProcessors(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+    return pool;
+  }
+
+  /**
+   * Creates an unstarted thread - virtual in VIRTUAL mode, a regular platform
+   * thread otherwise.
+   *
+   * @param r
+   *          the runnable
+   * @param threadName
+   *          name of thread
+   * @return unstarted thread
+   */
+  public static Thread newThread(Runnable r, String threadName) {
+    if (mode == ExecutionMode.VIRTUAL) {
+      try {
+        Object builder = builderName.invoke(ofVirtual.invoke(null), threadName);
+        return (Thread) unstarted.invoke(builder, r);
+      } catch (Exception e) {
+        log.error("could not create virtual thread {}", threadName, e);
+      }
+    }
+    return new Thread(r, threadName);
+  }
+
+  /**
+   * Drains a single mailbox on the shared pool. signal() is called after a
+   * message is added, the drain is submitted only if it is not already
+   * scheduled or running, so a mailbox is never processed by two threads at
+   * once.
+   */
+  public static class Drain implements Runnable {
+
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    final Supplier<Mailbox> mailbox;
+    final Consumer<Message> handler;
+    final String name;
+
+    /**
+     * @param name
+     *          for logging
+     * @param mailbox
+     *          supplies the current mailbox - it can be replaced while running
+     * @param handler
+     *          processes each message
+     */
+    public Drain(String name, Supplier<Mailbox> mailbox, Consumer<Message> handler) {
+      this.name = name;
+      this.mailbox = mailbox;
+      this.handler = handler;
+    }
+
+    public void signal() {
+      if (scheduled.compareAndSet(false, true)) {
+        getPool().execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        Mailbox box = mailbox.get();
+        Message msg = null;
+        for (int i = 0; i < batchSize && (msg = box.poll()) != null; ++i) {
+          try {
+            handler.accept(msg);
+          } catch (Exception e) {
+            log.error("{} processing {} threw", name, msg, e);
+          }
+        }
+      } finally {
+        scheduled.set(false);
+        // a message may have been added after the last poll but before
+        // scheduled was cleared - its signal was ignored
+        if (mailbox.get().size() > 0) {
+          signal();
+        }
+      }
+    }
+  }
+
+}
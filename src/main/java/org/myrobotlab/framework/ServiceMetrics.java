@@ -0,0 +1,192 @@
+package org.myrobotlab.framework;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live queue and latency metrics of one service - updated by Inbox, Outbox and
+ * Service when Metrics are enabled.
+ *
+ * <pre>
+ * inbox     - enqueued, dropped, enqueue to invoke latency
+ * invoke    - count and duration per method
+ * outbox    - dropped, per topic publish count, deliveries (fan out) and fan out duration
+ * </pre>
+ *
+ * All counters are LongAdders and all distributions Histograms, recording
+ * never locks. snapshot() turns them into a ServiceStats and changes nothing -
+ * counters are cumulative, a consumer which wants interval rates keeps its own
+ * previous snapshot and passes it in.
+ *
+ */
+public class ServiceMetrics {
+
+  /**
+   * invocations of one method
+   */
+  public static class MethodMetrics {
+    public final Histogram duration = new Histogram();
+  }
+
+  /**
+   * publishing on one topic
+   */
+  public static class TopicMetrics {
+    public final LongAdder published = new LongAdder();
+    public final LongAdder deliveries = new LongAdder();
+    public final Histogram fanOut = new Histogram();
+  }
+
+  final String name;
+
+  public final LongAdder enqueued = new LongAdder();
+  public final LongAdder dropped = new LongAdder();
+  public final LongAdder processed = new LongAdder();
+  public final LongAdder outboxDropped = new LongAdder();
+  public final Histogram inboxLatency = new Histogram();
+
+  final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+  final Map<String, TopicMetrics> topics = new ConcurrentHashMap<>();
+
+  /**
+   * when counting started - the baseline of rates without a previous snapshot
+   */
+  private volatile long startTs = System.currentTimeMillis();
+
+  public ServiceMetrics(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void recordEnqueued() {
+    enqueued.increment();
+  }
+
+  public void recordDropped() {
+    dropped.increment();
+  }
+
+  public void recordOutboxDropped() {
+    outboxDropped.increment();
+  }
+
+  /**
+   * a msg was taken from the inbox to be invoked
+   *
+   * @param latencyNs
+   *          time it waited in the inbox
+   */
+  public void recordProcessed(long latencyNs) {
+    processed.increment();
+    inboxLatency.record(latencyNs);
+  }
+
+  public void recordInvoke(String method, long durationNs) {
+    MethodMetrics mm = methods.get(method);
+    if (mm == null) {
+      mm = methods.computeIfAbsent(method, k -> new MethodMetrics());
+    }
+    mm.duration.record(durationNs);
+  }
+
+  /**
+   * a msg was fanned out to the subscribers of a topic
+   *
+   * @param topic
+   *          the publishing method
+   * @param deliveries
+   *          number of subscribers it was sent to
+   * @param durationNs
+   *          time to send it to all of them
+   */
+  public void recordPublish(String topic, int deliveries, long durationNs) {
+    TopicMetrics tm = topics.get(topic);
+    if (tm == null) {
+      tm = topics.computeIfAbsent(topic, k -> new TopicMetrics());
+    }
+    tm.published.increment();
+    tm.deliveries.add(deliveries);
+    tm.fanOut.record(durationNs);
+  }
+
+  public Map<String, MethodMetrics> getMethods() {
+    return new TreeMap<>(methods);
+  }
+
+  public Map<String, TopicMetrics> getTopics() {
+    return new TreeMap<>(topics);
+  }
+
+  /**
+   * @param inboxDepth
+   *          current inbox size
+   * @param outboxDepth
+   *          current outbox size
+   * @return current values - rates are per second since counting started
+   */
+  public ServiceStats snapshot(int inboxDepth, int outboxDepth) {
+    return snapshot(inboxDepth, outboxDepth, null);
+  }
+
+  /**
+   * @param inboxDepth
+   *          current inbox size
+   * @param outboxDepth
+   *          current outbox size
+   * @param previous
+   *          snapshot the caller took before - null for rates since counting
+   *          started
+   * @return current values - rates are per second since the previous snapshot
+   */
+  public ServiceStats snapshot(int inboxDepth, int outboxDepth, ServiceStats previous) {
+    ServiceStats stats = new ServiceStats();
+    stats.name = name;
+    stats.ts = System.currentTimeMillis();
+    stats.lastTS = (previous == null) ? startTs : previous.ts;
+    stats.delta = stats.ts - stats.lastTS;
+    stats.currentQueueCount = inboxDepth;
+    stats.outboxDepth = outboxDepth;
+    stats.enqueued = enqueued.sum();
+    stats.dropped = dropped.sum();
+    stats.outboxDropped = outboxDropped.sum();
+    stats.processed = processed.sum();
+    stats.total = (int) stats.processed;
+    stats.interval = (int) (stats.processed - ((previous == null) ? 0 : previous.processed));
+    stats.lineSpeed = (stats.delta > 0) ? stats.interval * 1000 / stats.delta : 0;
+    stats.inboxLatency = inboxLatency.getSummary();
+
+    for (Map.Entry<String, MethodMetrics> e : getMethods().entrySet()) {
+      stats.invoke.put(e.getKey(), e.getValue().duration.getSummary());
+    }
+
+    for (Map.Entry<String, TopicMetrics> e : getTopics().entrySet()) {
+      TopicMetrics tm = e.getValue();
+      ServiceStats.TopicStats ts = new ServiceStats.TopicStats();
+      ts.published = tm.published.sum();
+      ts.deliveries = tm.deliveries.sum();
+      ServiceStats.TopicStats last = (previous == null) ? null : previous.topics.get(e.getKey());
+      ts.rate = (stats.delta > 0) ? (ts.published - ((last == null) ? 0 : last.published)) * 1000.0 / stats.delta : 0;
+      ts.fanOut = tm.fanOut.getSummary();
+      stats.topics.put(e.getKey(), ts);
+    }
+
+    return stats;
+  }
+
+  public void reset() {
+    enqueued.reset();
+    dropped.reset();
+    processed.reset();
+    outboxDropped.reset();
+    inboxLatency.reset();
+    methods.clear();
+    topics.clear();
+    startTs = System.currentTimeMillis();
+  }
+
+}
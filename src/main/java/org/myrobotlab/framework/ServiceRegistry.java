@@ -0,0 +1,254 @@
+package org.myrobotlab.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.myrobotlab.codec.ClassUtil;
+import org.myrobotlab.framework.interfaces.ServiceInterface;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * The registry of all services known to a Runtime, local and remote, keyed by
+ * full name {name}@{id}.
+ *
+ * Lookups by full name, by local short name, by type, by interface and by
+ * instance id are all hash lookups - secondary indexes are maintained on put
+ * and remove. All listing methods return snapshots, so services can be
+ * registered or released while a caller iterates over the result.
+ */
+public class ServiceRegistry {
+
+  public final static Logger log = LoggerFactory.getLogger(ServiceRegistry.class);
+
+  /**
+   * interfaces of a service class - computed once per class
+   */
+  static final Map<Class<?>, Set<String>> interfaceCache = new ConcurrentHashMap<>();
+
+  final Map<String, ServiceInterface> services = new ConcurrentHashMap<>();
+
+  /**
+   * short name to service for services of the local instance - saves building
+   * a full name for every local lookup
+   */
+  final Map<String, ServiceInterface> localServices = new ConcurrentHashMap<>();
+
+  /**
+   * type to full names
+   */
+  final Map<String, Set<String>> byType = new ConcurrentHashMap<>();
+
+  /**
+   * interface canonical name to full names
+   */
+  final Map<String, Set<String>> byInterface = new ConcurrentHashMap<>();
+
+  /**
+   * instance id to full names
+   */
+  final Map<String, Set<String>> byId = new ConcurrentHashMap<>();
+
+  static String getShortName(String fullname) {
+    int pos = fullname.indexOf('@');
+    return (pos < 0) ? fullname : fullname.substring(0, pos);
+  }
+
+  static String getId(String fullname, ServiceInterface si) {
+    int pos = fullname.indexOf('@');
+    return (pos < 0) ? si.getId() : fullname.substring(pos + 1);
+  }
+
+  static Set<String> getInterfaces(Class<?> type) {
+    Set<String> interfaces = interfaceCache.get(type);
+    if (interfaces == null) {
+      interfaces = Collections.unmodifiableSet(ClassUtil.getInterfaces(type, null));
+      interfaceCache.put(type, interfaces);
+    }
+    return interfaces;
+  }
+
+  static void addIndex(Map<String, Set<String>> index, String key, String fullname) {
+    if (key == null) {
+      return;
+    }
+    index.compute(key, (k, names) -> {
+      if (names == null) {
+        names = ConcurrentHashMap.newKeySet();
+      }
+      names.add(fullname);
+      return names;
+    });
+  }
+
+  static void removeIndex(Map<String, Set<String>> index, String key, String fullname) {
+    if (key == null) {
+      return;
+    }
+    index.computeIfPresent(key, (k, names) -> {
+      names.remove(fullname);
+      return (names.isEmpty()) ? null : names;
+    });
+  }
+
+  /**
+   * add or replace a service
+   *
+   * @param fullname
+   *          {name}@{id}
+   * @param si
+   *          the service
+   * @return the service previously registered with this name or null
+   */
+  public ServiceInterface put(String fullname, ServiceInterface si) {
+    fullname = fullname.intern();
+    ServiceInterface previous = services.put(fullname, si);
+    if (previous != null) {
+      unindex(fullname, previous);
+    }
+    index(fullname, si);
+    return previous;
+  }
+
+  public ServiceInterface remove(String fullname) {
+    ServiceInterface si = services.remove(fullname);
+    if (si != null) {
+      unindex(fullname, si);
+    }
+    return si;
+  }
+
+  private void index(String fullname, ServiceInterface si) {
+    String id = getId(fullname, si);
+    if (id != null && id.equals(Platform.getLocalInstance().getId())) {
+      localServices.put(getShortName(fullname), si);
+    }
+    addIndex(byType, si.getType(), fullname);
+    addIndex(byId, id, fullname);
+    for (String interfaze : getInterfaces(si.getClass())) {
+      addIndex(byInterface, interfaze, fullname);
+    }
+  }
+
+  private void unindex(String fullname, ServiceInterface si) {
+    localServices.remove(getShortName(fullname), si);
+    removeIndex(byType, si.getType(), fullname);
+    removeIndex(byId, getId(fullname, si), fullname);
+    for (String interfaze : getInterfaces(si.getClass())) {
+      removeIndex(byInterface, interfaze, fullname);
+    }
+  }
+
+  /**
+   * @param name
+   *          full name, or short name of a local service
+   * @return the service or null
+   */
+  public ServiceInterface get(String name) {
+    if (name == null) {
+      return null;
+    }
+    if (name.indexOf('@') < 0) {
+      ServiceInterface si = localServices.get(name);
+      if (si != null) {
+        return si;
+      }
+      name = name + "@" + Platform.getLocalInstance().getId();
+    }
+    return services.get(name);
+  }
+
+  public boolean containsKey(String fullname) {
+    return services.containsKey(fullname);
+  }
+
+  public int size() {
+    return services.size();
+  }
+
+  public void clear() {
+    services.clear();
+    localServices.clear();
+    byType.clear();
+    byInterface.clear();
+    byId.clear();
+  }
+
+  /**
+   * @return snapshot of all full names - sorted
+   */
+  public List<String> getNames() {
+    List<String> names = new ArrayList<>(services.keySet());
+    Collections.sort(names);
+    return names;
+  }
+
+  /**
+   * @return snapshot of all services - sorted by full name
+   */
+  public List<ServiceInterface> getServices() {
+    return new ArrayList<>(snapshot().values());
+  }
+
+  /**
+   * @return sorted copy of the registry
+   */
+  public Map<String, ServiceInterface> snapshot() {
+    return new TreeMap<>(services);
+  }
+
+  /**
+   * @param type
+   *          full type name e.g. org.myrobotlab.service.Servo
+   * @return services of this type
+   */
+  public List<ServiceInterface> getByType(String type) {
+    return resolve(byType.get(type));
+  }
+
+  /**
+   * @param interfaze
+   *          interface canonical name
+   * @return services which implement the interface - directly or through a
+   *         super class or super interface
+   */
+  public List<ServiceInterface> getByInterface(String interfaze) {
+    return resolve(byInterface.get(interfaze));
+  }
+
+  public List<ServiceInterface> getByInterface(Class<?> interfaze) {
+    return getByInterface(interfaze.getCanonicalName());
+  }
+
+  /**
+   * @param id
+   *          instance id
+   * @return services of this instance
+   */
+  public List<ServiceInterface> getById(String id) {
+    return resolve(byId.get(id));
+  }
+
+  private List<ServiceInterface> resolve(Set<String> names) {
+    if (names == null) {
+      return new ArrayList<>();
+    }
+    List<String> sorted = new ArrayList<>(names);
+    Collections.sort(sorted);
+    List<ServiceInterface> ret = new ArrayList<>(sorted.size());
+    for (String name : sorted) {
+      ServiceInterface si = services.get(name);
+      // may have been released since the index was read
+      if (si != null) {
+        ret.add(si);
+      }
+    }
+    return ret;
+  }
+
+}
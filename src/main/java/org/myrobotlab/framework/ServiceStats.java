@@ -0,0 +1,45 @@
+package org.myrobotlab.framework;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of a service's ServiceMetrics - published on the publishStats topic
+ * and returned by Runtime.getStats. The QueueStats fields keep their meaning -
+ * currentQueueCount is the inbox depth, total the processed msgs, interval the
+ * msgs processed since the previous snapshot (or since counting started when
+ * there was none) and lineSpeed msgs/s. Counters are cumulative. Durations are
+ * in nanoseconds.
+ *
+ */
+public class ServiceStats extends QueueStats {
+
+  public static class TopicStats {
+    public long published;
+    public long deliveries;
+    /**
+     * published msgs/s since the previous snapshot
+     */
+    public double rate;
+    public Histogram.Summary fanOut;
+  }
+
+  public int outboxDepth;
+  public long enqueued;
+  public long dropped;
+  public long processed;
+  public long outboxDropped;
+
+  /**
+   * time from inbox to invoke
+   */
+  public Histogram.Summary inboxLatency;
+
+  /**
+   * invoke duration per method
+   */
+  public Map<String, Histogram.Summary> invoke = new TreeMap<>();
+
+  public Map<String, TopicStats> topics = new TreeMap<>();
+
+}
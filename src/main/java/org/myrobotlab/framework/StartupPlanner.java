@@ -0,0 +1,371 @@
+package org.myrobotlab.framework;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.config.ServiceConfig;
+import org.myrobotlab.service.meta.abstracts.MetaData;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Plans the start of a config set. Every service of the runtime registry is a
+ * node, a service waits for the nodes it depends on:
+ *
+ *   peers        - a parent starts after its peers, as the recursion in
+ *                  Runtime.create always did
+ *   references   - a config field naming a service earlier in the registry
+ *                  (e.g. a servo's controller) - the order they were always
+ *                  started in
+ *   startAfter   - declared in the config
+ *
+ * Services which do not depend on each other (a serial port opening, a voice
+ * loading, a bot loading) start at the same time on a small pool. With one
+ * thread everything is started in registry order on the calling thread, the
+ * same as before.
+ *
+ * The timeline of a start has the wall time of every service and the critical
+ * path - the chain of services each one waited on which finished last.
+ * </pre>
+ */
+public class StartupPlanner {
+
+  public final static Logger log = LoggerFactory.getLogger(StartupPlanner.class);
+
+  public interface Starter {
+    void start(String name) throws Exception;
+  }
+
+  /**
+   * start of one service
+   */
+  public static class Entry {
+    public String name;
+    public String type;
+    public List<String> dependsOn = new ArrayList<>();
+    /**
+     * ms after the start of the plan
+     */
+    public long beginMs;
+    public long endMs;
+    public String thread;
+    public String error;
+    public boolean critical = false;
+
+    public long getWallMs() {
+      return endMs - beginMs;
+    }
+
+    public String toString() {
+      return String.format("%s%-24s %6d ms %6d - %6d %s%s", (critical) ? "* " : "  ", name, getWallMs(), beginMs, endMs, thread, (error == null) ? "" : " " + error);
+    }
+  }
+
+  public static class Timeline {
+    public boolean parallel;
+    public int threads;
+    public long wallMs;
+    /**
+     * sum of the wall times of all services - about what a sequential start
+     * would take
+     */
+    public long serviceMs;
+    public List<Entry> entries = new ArrayList<>();
+    public List<String> criticalPath = new ArrayList<>();
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("started %d services in %d ms (%d ms of service starts, %s %d threads)\n", entries.size(), wallMs, serviceMs, (parallel) ? "parallel" : "sequential",
+          threads));
+      for (Entry e : entries) {
+        sb.append(e).append("\n");
+      }
+      sb.append("critical path ").append(String.join(" -> ", criticalPath));
+      return sb.toString();
+    }
+  }
+
+  /**
+   * nodes in registry order
+   */
+  final Map<String, ServiceConfig> configs = new LinkedHashMap<>();
+
+  final Map<String, Set<String>> dependsOn = new LinkedHashMap<>();
+
+  /**
+   * adds a service in registry order
+   *
+   * @param name
+   *          name of the service
+   * @param config
+   *          its config - null if it has none, it then only has the edges of
+   *          others
+   */
+  public void add(String name, ServiceConfig config) {
+    configs.put(name, config);
+  }
+
+  /**
+   * @param name
+   *          service
+   * @param after
+   *          service which must be started before it
+   */
+  public void addEdge(String name, String after) {
+    if (!configs.containsKey(name) || !configs.containsKey(after) || name.equals(after)) {
+      return;
+    }
+    dependsOn.computeIfAbsent(name, n -> new LinkedHashSet<>()).add(after);
+  }
+
+  /**
+   * builds the edges from peers, references and startAfter
+   */
+  public void plan() {
+    List<String> earlier = new ArrayList<>();
+    for (String name : configs.keySet()) {
+      ServiceConfig sc = configs.get(name);
+      if (sc != null) {
+        if (sc.startAfter != null) {
+          for (String after : sc.startAfter) {
+            addEdge(name, after);
+          }
+        }
+        if (sc.autoStartPeers && sc.type != null) {
+          MetaData md = MetaData.get(sc.type);
+          if (md != null) {
+            Map<String, ServiceReservation> peers = md.getPeers();
+            for (String peer : peers.keySet()) {
+              String peerName = Runtime.getPeerName(peer, sc, peers, name);
+              addEdge(name, (peerName == null) ? String.format("%s.%s", name, peer) : peerName);
+            }
+          }
+        }
+        for (Field f : sc.getClass().getFields()) {
+          if (f.getDeclaringClass() == ServiceConfig.class || Modifier.isStatic(f.getModifiers())) {
+            continue;
+          }
+          try {
+            Object o = f.get(sc);
+            if (o instanceof String) {
+              addReference(name, (String) o, earlier);
+            } else if (o instanceof String[]) {
+              for (String s : (String[]) o) {
+                addReference(name, s, earlier);
+              }
+            } else if (o instanceof Collection) {
+              for (Object s : (Collection<?>) o) {
+                if (s instanceof String) {
+                  addReference(name, (String) s, earlier);
+                }
+              }
+            }
+          } catch (Exception e) {
+            log.warn("could not read {}.{}", name, f.getName());
+          }
+        }
+      }
+      earlier.add(name);
+    }
+  }
+
+  void addReference(String name, String reference, List<String> earlier) {
+    if (earlier.contains(reference)) {
+      addEdge(name, reference);
+    }
+  }
+
+  public Set<String> getDependsOn(String name) {
+    Set<String> ret = dependsOn.get(name);
+    return (ret == null) ? new LinkedHashSet<>() : ret;
+  }
+
+  /**
+   * starts every service
+   *
+   * @param threads
+   *          size of the pool - 1 or less starts them in registry order on
+   *          this thread
+   * @param starter
+   *          starts one service
+   * @return the timeline
+   * @throws InterruptedException
+   *           interrupted waiting for the pool
+   */
+  public Timeline start(int threads, Starter starter) throws InterruptedException {
+    Timeline timeline = new Timeline();
+    timeline.parallel = threads > 1;
+    timeline.threads = Math.max(1, threads);
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (String name : configs.keySet()) {
+      Entry e = new Entry();
+      e.name = name;
+      e.type = (configs.get(name) == null) ? null : configs.get(name).type;
+      e.dependsOn.addAll(getDependsOn(name));
+      entries.put(name, e);
+    }
+    long begin = System.nanoTime();
+
+    if (!timeline.parallel) {
+      for (Entry e : entries.values()) {
+        run(e, starter, begin);
+      }
+    } else {
+      new Run(entries, starter, begin, timeline.threads).await();
+    }
+
+    timeline.wallMs = (System.nanoTime() - begin) / 1000000;
+    timeline.entries.addAll(entries.values());
+    for (Entry e : timeline.entries) {
+      timeline.serviceMs += e.getWallMs();
+    }
+    criticalPath(timeline, entries);
+    return timeline;
+  }
+
+  void run(Entry e, Starter starter, long begin) {
+    e.thread = Thread.currentThread().getName();
+    e.beginMs = (System.nanoTime() - begin) / 1000000;
+    try {
+      starter.start(e.name);
+    } catch (Exception ex) {
+      log.error("starting {} threw", e.name, ex);
+      e.error = ex.getMessage();
+    }
+    e.endMs = (System.nanoTime() - begin) / 1000000;
+  }
+
+  /**
+   * a parallel start - a service is submitted when the last service it depends
+   * on has finished
+   */
+  class Run {
+    final Map<String, Entry> entries;
+    final Starter starter;
+    final long begin;
+    final ExecutorService pool;
+    final Map<String, Integer> waitingOn = new LinkedHashMap<>();
+    final Map<String, List<String>> dependents = new LinkedHashMap<>();
+    int running = 0;
+    int done = 0;
+
+    Run(Map<String, Entry> entries, Starter starter, long begin, int threads) {
+      this.entries = entries;
+      this.starter = starter;
+      this.begin = begin;
+      AtomicInteger count = new AtomicInteger();
+      pool = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        Thread t = new Thread(r, "startup-" + count.getAndIncrement());
+        t.setDaemon(true);
+        return t;
+      });
+      for (Entry e : entries.values()) {
+        waitingOn.put(e.name, e.dependsOn.size());
+        for (String after : e.dependsOn) {
+          dependents.computeIfAbsent(after, n -> new ArrayList<>()).add(e.name);
+        }
+      }
+    }
+
+    synchronized void await() throws InterruptedException {
+      try {
+        submitReady();
+        while (done < entries.size()) {
+          if (running == 0) {
+            // nothing running and nothing ready - the rest wait on each other
+            String next = null;
+            for (String name : waitingOn.keySet()) {
+              if (waitingOn.get(name) > 0) {
+                next = name;
+                break;
+              }
+            }
+            log.error("startAfter cycle - starting {} without waiting for {}", next, entries.get(next).dependsOn);
+            submit(next);
+          }
+          wait();
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    void submitReady() {
+      for (String name : waitingOn.keySet()) {
+        if (waitingOn.get(name) == 0) {
+          submit(name);
+        }
+      }
+    }
+
+    void submit(String name) {
+      // -1 is submitted
+      waitingOn.put(name, -1);
+      ++running;
+      Entry e = entries.get(name);
+      pool.execute(() -> {
+        run(e, starter, begin);
+        finished(name);
+      });
+    }
+
+    synchronized void finished(String name) {
+      --running;
+      ++done;
+      List<String> waiting = dependents.get(name);
+      if (waiting != null) {
+        for (String dependent : waiting) {
+          int count = waitingOn.get(dependent);
+          if (count > 0) {
+            waitingOn.put(dependent, count - 1);
+          }
+        }
+      }
+      submitReady();
+      notifyAll();
+    }
+  }
+
+  /**
+   * from the service which finished last back through the dependency each one
+   * waited for longest
+   */
+  void criticalPath(Timeline timeline, Map<String, Entry> entries) {
+    Entry last = null;
+    for (Entry e : entries.values()) {
+      if (last == null || e.endMs > last.endMs) {
+        last = e;
+      }
+    }
+    List<String> path = new ArrayList<>();
+    Set<String> seen = new LinkedHashSet<>();
+    while (last != null && seen.add(last.name)) {
+      last.critical = true;
+      path.add(0, last.name);
+      Entry waitedOn = null;
+      for (String after : last.dependsOn) {
+        Entry e = entries.get(after);
+        if (e.endMs <= last.beginMs && (waitedOn == null || e.endMs > waitedOn.endMs)) {
+          waitedOn = e;
+        }
+      }
+      last = waitedOn;
+    }
+    timeline.criticalPath = path;
+  }
+
+}
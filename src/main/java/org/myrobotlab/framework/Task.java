@@ -1,54 +1,202 @@
 package org.myrobotlab.framework;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.Serializable;
+import java.util.concurrent.ScheduledFuture;
 
-public class Task extends TimerTask {
+/**
+ * A named, possibly repeating, invoke of a service method. Tasks are timed by
+ * the shared TaskScheduler and run on its elastic pool - a run which blocks
+ * delays only the next run of its own task.
+ * 
+ * Repeating tasks run either with a fixed delay (interval measured from the end
+ * of the previous run - the original Timer behavior) or at a fixed rate, where
+ * each run is scheduled from the previous planned time so the period does not
+ * drift. If a fixed rate run starts later than the following planned time the
+ * missed periods are skipped and counted as overruns rather than run in a
+ * burst.
+ * 
+ * Timing statistics are kept for each task and are visible through
+ * Service.getTaskStats().
+ */
+public class Task implements Runnable, Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   String taskName;
+  String serviceName;
   Message msg;
   long interval = 0;
-  Service myService;
+  boolean fixedRate = false;
+
+  // statistics - all times in ms
+  long runCount = 0;
+  long overrunCount = 0;
+  long lastJitter = 0;
+  long maxJitter = 0;
+  double avgJitter = 0;
+  long lastDuration = 0;
+  long maxDuration = 0;
+  long lastRunTs = 0;
+
+  transient Service myService;
+  transient ScheduledFuture<?> future;
+  transient volatile boolean cancelled = false;
 
-  // FIXME upgrade to ScheduledExecutorService
-  // http://howtodoinjava.com/2015/03/25/task-scheduling-with-executors-scheduledthreadpoolexecutor-example/
+  /**
+   * planned start of the next run in System.nanoTime()
+   */
+  transient long nextRunNs;
 
   public Task(Service myService, String taskName, long interval, Message msg) {
+    this(myService, taskName, interval, false, msg);
+  }
+
+  public Task(Service myService, String taskName, long interval, boolean fixedRate, Message msg) {
     this.myService = myService;
+    this.serviceName = myService.getName();
     this.taskName = taskName;
     this.interval = interval;
+    this.fixedRate = fixedRate;
     this.msg = msg;
   }
 
-  public Task(Task s) {
-    this.msg = s.msg;
-    this.interval = s.interval;
-    this.taskName = s.taskName;
-    this.myService = s.myService;
+  /**
+   * schedule first run
+   * 
+   * @param delayMs
+   *          delay until the first run
+   */
+  synchronized void start(long delayMs) {
+    TaskScheduler scheduler = TaskScheduler.getInstance();
+    scheduler.register(this);
+    nextRunNs = System.nanoTime() + delayMs * 1000000L;
+    future = scheduler.schedule(this, delayMs * 1000000L);
+  }
+
+  /**
+   * cancel any future runs - a run already in progress completes
+   */
+  synchronized public void cancel() {
+    if (cancelled) {
+      return;
+    }
+    cancelled = true;
+    if (future != null) {
+      future.cancel(false);
+    }
+    TaskScheduler.getInstance().unregister(this);
   }
 
   @Override
   public void run() {
+    if (cancelled) {
+      return;
+    }
+
+    long startNs = System.nanoTime();
+    long jitter = (startNs - nextRunNs) / 1000000L;
+    lastJitter = jitter;
+    if (jitter > maxJitter) {
+      maxJitter = jitter;
+    }
+    ++runCount;
+    avgJitter += (jitter - avgJitter) / runCount;
+    lastRunTs = System.currentTimeMillis();
+
     // info("task %s running - next run %s", taskName,
     // MathUtils.msToString(interval));
-    myService.invoke(msg);
+    try {
+      myService.invoke(msg);
+    } catch (Exception e) {
+      Service.log.error("task {}.{} threw", serviceName, taskName, e);
+    }
 
     // GroG commented out 2019.07.14 for preferrable "blocking" task
     // myService.getInbox().add(msg);
 
-    if (interval > 0) {
-      Task t = new Task(this);
-      // clear history list - becomes "new" message
-      t.msg.historyList.clear();
-      Timer timer = myService.tasks.get(taskName);
-      if (timer != null) {
-        // timer = new Timer(String.format("%s.timer", getName()));
-        try {
-          timer.schedule(t, interval);
-        } catch (IllegalStateException e) {
-        }
+    long endNs = System.nanoTime();
+    lastDuration = (endNs - startNs) / 1000000L;
+    if (lastDuration > maxDuration) {
+      maxDuration = lastDuration;
+    }
+
+    if (interval <= 0) {
+      // one shot - done
+      myService.tasks.remove(taskName, this);
+      cancel();
+      return;
+    }
+
+    // clear history list - becomes "new" message
+    msg.historyList.clear();
+
+    long intervalNs = interval * 1000000L;
+    if (fixedRate) {
+      // next planned time is relative to the previous planned time - not to
+      // when we actually ran, so lateness does not accumulate
+      long next = nextRunNs + intervalNs;
+      if (next <= endNs) {
+        long missed = (endNs - next) / intervalNs + 1;
+        overrunCount += missed;
+        next += missed * intervalNs;
+      }
+      nextRunNs = next;
+    } else {
+      nextRunNs = endNs + intervalNs;
+    }
+
+    synchronized (this) {
+      if (!cancelled) {
+        future = TaskScheduler.getInstance().schedule(this, nextRunNs - System.nanoTime());
       }
     }
   }
 
+  public String getTaskName() {
+    return taskName;
+  }
+
+  public long getInterval() {
+    return interval;
+  }
+
+  public boolean isFixedRate() {
+    return fixedRate;
+  }
+
+  public long getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @return number of fixed rate periods skipped because a run was late
+   */
+  public long getOverrunCount() {
+    return overrunCount;
+  }
+
+  public long getLastJitter() {
+    return lastJitter;
+  }
+
+  public long getMaxJitter() {
+    return maxJitter;
+  }
+
+  public double getAvgJitter() {
+    return avgJitter;
+  }
+
+  public long getLastDuration() {
+    return lastDuration;
+  }
+
+  public long getMaxDuration() {
+    return maxDuration;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
 }
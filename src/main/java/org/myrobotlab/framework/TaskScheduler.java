@@ -0,0 +1,170 @@
+package org.myrobotlab.framework;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Process wide scheduler for service tasks. Before this every Service.addTask
+ * and invokeFuture created its own java.util.Timer thread - now all tasks of
+ * all services share one timing thread.
+ *
+ * The timing thread only keeps time - when a run is due it is handed to an
+ * elastic pool of daemon threads. A task which blocks (on the network, or a
+ * long invoke) holds a thread of that pool, not the timing thread, so it does
+ * not delay the tasks of other services. Idle pool threads end after a minute.
+ */
+public class TaskScheduler {
+
+  public final static Logger log = LoggerFactory.getLogger(TaskScheduler.class);
+
+  private static volatile TaskScheduler instance;
+
+  /**
+   * number of active tasks per service
+   */
+  final Map<String, AtomicInteger> serviceTaskCounts = new ConcurrentHashMap<>();
+
+  /**
+   * keeps time only
+   */
+  final ScheduledThreadPoolExecutor executor;
+
+  /**
+   * runs what is due - a thread for each run in progress
+   */
+  final ThreadPoolExecutor runner;
+
+  public static TaskScheduler getInstance() {
+    if (instance != null) {
+      return instance;
+    }
+    synchronized (TaskScheduler.class) {
+      if (instance == null) {
+        instance = new TaskScheduler(1);
+      }
+    }
+    return instance;
+  }
+
+  protected TaskScheduler(int poolSize) {
+    executor = new ScheduledThreadPoolExecutor(poolSize, newThreadFactory("task-scheduler-"));
+    executor.setRemoveOnCancelPolicy(true);
+    runner = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), newThreadFactory("task-runner-"));
+  }
+
+  static ThreadFactory newThreadFactory(final String prefix) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, prefix + threadCount.getAndIncrement());
+        t.setDaemon(true);
+        return t;
+      }
+    };
+  }
+
+  /**
+   * schedule a single run of a task
+   *
+   * @param task
+   *          task to run
+   * @param delayNs
+   *          delay in ns - less than 0 is run immediately
+   * @return the future to cancel with
+   */
+  ScheduledFuture<?> schedule(Task task, long delayNs) {
+    return schedule((Runnable) task, delayNs);
+  }
+
+  /**
+   * schedule a single run of a framework callback
+   *
+   * @param runnable
+   *          what to run
+   * @param delayNs
+   *          delay in ns - less than 0 is run immediately
+   * @return the future to cancel with
+   */
+  ScheduledFuture<?> schedule(Runnable runnable, long delayNs) {
+    return executor.schedule(() -> runner.execute(runnable), Math.max(0, delayNs), TimeUnit.NANOSECONDS);
+  }
+
+  void register(Task task) {
+    AtomicInteger count = serviceTaskCounts.get(task.serviceName);
+    if (count == null) {
+      count = new AtomicInteger();
+      AtomicInteger existing = serviceTaskCounts.putIfAbsent(task.serviceName, count);
+      if (existing != null) {
+        count = existing;
+      }
+    }
+    count.incrementAndGet();
+  }
+
+  void unregister(Task task) {
+    AtomicInteger count = serviceTaskCounts.get(task.serviceName);
+    if (count != null && count.decrementAndGet() <= 0) {
+      serviceTaskCounts.remove(task.serviceName, count);
+    }
+  }
+
+  /**
+   * @return active task count per service name
+   */
+  public Map<String, Integer> getServiceTaskCounts() {
+    Map<String, Integer> ret = new TreeMap<>();
+    for (String name : serviceTaskCounts.keySet()) {
+      AtomicInteger count = serviceTaskCounts.get(name);
+      if (count != null) {
+        ret.put(name, count.get());
+      }
+    }
+    return ret;
+  }
+
+  public int getTaskCount(String serviceName) {
+    AtomicInteger count = serviceTaskCounts.get(serviceName);
+    return (count == null) ? 0 : count.get();
+  }
+
+  public int getPoolSize() {
+    return executor.getCorePoolSize();
+  }
+
+  /**
+   * number of threads keeping time - runs are not done on them
+   *
+   * @param size
+   *          thread count
+   */
+  public void setPoolSize(int size) {
+    executor.setCorePoolSize(size);
+  }
+
+  /**
+   * @return number of scheduled runs waiting in the queue
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * @return number of runs in progress
+   */
+  public int getActiveCount() {
+    return runner.getActiveCount();
+  }
+
+}
@@ -0,0 +1,75 @@
+package org.myrobotlab.framework.interfaces;
+
+import org.myrobotlab.framework.Message;
+
+/**
+ * A Mailbox is the message queue behind a service's Inbox or Outbox. Many
+ * threads may add messages, but it is drained by the thread(s) of the owning
+ * Inbox/Outbox. Implementations are pluggable so a queue can be swapped without
+ * changing Inbox/Outbox routing logic.
+ */
+public interface Mailbox {
+
+  /**
+   * what to do when a message is added to a full mailbox
+   */
+  public enum OverflowPolicy {
+    /**
+     * the adding thread waits until there is room
+     */
+    BLOCK,
+    /**
+     * the oldest queued message is discarded to make room
+     */
+    DROP_OLDEST,
+    /**
+     * the message being added is discarded
+     */
+    DROP_NEWEST,
+    /**
+     * a queued message with the same topic (name, method, sender and sending
+     * method) is replaced with the newer one - only the latest value is
+     * delivered
+     */
+    COALESCE
+  }
+
+  /**
+   * add a message, applying the current overflow policy
+   * 
+   * @param msg
+   *          message to queue
+   * @return false if the message was dropped
+   */
+  public boolean add(Message msg);
+
+  /**
+   * Blocks until a message is available and returns it.
+   * 
+   * @return the next message
+   * @throws InterruptedException
+   *           if the waiting thread is interrupted
+   */
+  public Message take() throws InterruptedException;
+
+  /**
+   * @return the next message or null if the mailbox is empty
+   */
+  public Message poll();
+
+  public int size();
+
+  public int capacity();
+
+  public void clear();
+
+  /**
+   * @return number of messages discarded due to overflow
+   */
+  public long getDropCount();
+
+  public OverflowPolicy getOverflowPolicy();
+
+  public void setOverflowPolicy(OverflowPolicy policy);
+
+}
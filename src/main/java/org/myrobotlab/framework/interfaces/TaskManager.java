@@ -2,15 +2,26 @@ package org.myrobotlab.framework.interfaces;
 
 import java.util.Map;
 import java.util.Timer;
+import java.util.TreeMap;
+
+import org.myrobotlab.framework.Task;
 
 public interface TaskManager {
   
   /**
    * get all timed tasks for this service
-   * @return - returns all currently defined tasks
+   * @return - returns the names of all currently defined tasks - tasks no longer run on a Timer each, the values are null
    */
   public Map<String, Timer> getTasks();
 
+  /**
+   * get all timed tasks for this service with their statistics
+   * @return - returns all currently defined tasks with their run count, jitter and overrun statistics
+   */
+  default public Map<String, Task> getTaskStats() {
+    return new TreeMap<>();
+  }
+
   /**
    * purge a task
    * @param taskName - name of task to be purged
@@ -50,4 +61,24 @@ public interface TaskManager {
    */
   public void addTask(String taskName, long intervalMs, long delayMs, String method, Object... params);
 
+  /**
+   * add a task which can be fixed rate - fixed rate tasks are scheduled from
+   * the previous planned run so the period does not drift, fixed delay tasks
+   * wait intervalMs after the previous run finishes
+   * 
+   * @param taskName
+   *          task name
+   * @param fixedRate
+   *          true for fixed rate, false for fixed delay
+   * @param intervalMs
+   *          how frequent in milliseconds
+   * @param delayMs
+   *          the delay
+   * @param method
+   *          the method
+   * @param params
+   *          the params to pass
+   */
+  public void addTask(String taskName, boolean fixedRate, long intervalMs, long delayMs, String method, Object... params);
+
 }
@@ -72,7 +72,8 @@ public class ServiceData implements Serializable {
    * Develop-Time can simply filter and process the files on the file system
    * given by the code source location
    * 
-   * Run-Time must extract itself and scan/filter zip entries which is
+   * Run-Time reads the list from the ServiceIndex built with the jar - without
+   * it, it must extract itself and scan/filter zip entries which is
    * potentially a lengthy process, and should only have to be done once for the
    * lifetime of the version or mrl
    * 
@@ -84,10 +85,11 @@ public class ServiceData implements Serializable {
     log.info("================ generating serviceData.json begin ================");
     ServiceData sd = new ServiceData();
 
-    // get services - all this could be done during Runtime
-    // although running through zip entries would be a bit of a pain
+    // get services - the index built with the jar lists them, without it
+    // we have to scan - running through zip entries would be a bit of a pain
     // Especially if you have to spin through 50 megs of data
-    List<String> services = FileIO.getServiceList();
+    ServiceIndex index = ServiceIndex.getInstance();
+    List<String> services = (index != null) ? index.getServiceTypes() : FileIO.getServiceList();
 
     log.info("found {} services", services.size());
     for (int i = 0; i < services.size(); ++i) {
@@ -0,0 +1,235 @@
+package org.myrobotlab.framework.repo;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.ServiceReservation;
+import org.myrobotlab.io.FileIO;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.meta.abstracts.MetaData;
+import org.slf4j.Logger;
+
+/**
+ * Index of every service type - its categories, peers, dependencies and
+ * config class - generated at build time from the classes in
+ * org.myrobotlab.service.meta into resource/framework/serviceIndex.json.
+ *
+ * Without it a list of services is a scan of the classpath (possibly the zip
+ * entries of the jar) and a MetaData class loaded and instantiated for every
+ * service. The index is loaded the first time it is asked for - if it is not
+ * on the classpath (running from an IDE without a build), or it is in a
+ * classes directory and older than the meta classes there, everything falls
+ * back to the scan.
+ */
+public class ServiceIndex {
+
+  transient public final static Logger log = LoggerFactory.getLogger(ServiceIndex.class);
+
+  public final static String RESOURCE = "/resource/framework/serviceIndex.json";
+
+  static private ServiceIndex instance = null;
+
+  static private boolean loaded = false;
+
+  public static class Entry {
+    /**
+     * full type name of the service
+     */
+    public String type;
+    public String simpleName;
+    /**
+     * full type name of its config - null if it uses ServiceConfig
+     */
+    public String configType;
+    public boolean available;
+    public List<String> categories = new ArrayList<>();
+    /**
+     * peer key to peer type
+     */
+    public Map<String, String> peers = new TreeMap<>();
+    /**
+     * keys of ServiceDependency
+     */
+    public List<String> dependencies = new ArrayList<>();
+  }
+
+  /**
+   * time of the build
+   */
+  public long generated;
+
+  public TreeMap<String, Entry> types = new TreeMap<>();
+
+  /**
+   * @return the index on the classpath - null if there is none
+   */
+  static public synchronized ServiceIndex getInstance() {
+    if (loaded) {
+      return instance;
+    }
+    loaded = true;
+    URL url = ServiceIndex.class.getResource(RESOURCE);
+    if (url == null) {
+      log.info("no {} - service types will be scanned", RESOURCE);
+      return null;
+    }
+    try (InputStream is = url.openStream()) {
+      ServiceIndex index = CodecUtils.fromJson(new String(FileIO.toByteArray(is), "UTF-8"), ServiceIndex.class);
+      if (isStale(url, index)) {
+        log.info("{} does not match the meta classes - service types will be scanned", url);
+        return null;
+      }
+      instance = index;
+      log.info("loaded {} with {} types", RESOURCE, instance.types.size());
+    } catch (Exception e) {
+      log.error("loading {} threw", RESOURCE, e);
+    }
+    return instance;
+  }
+
+  /**
+   * An index in a jar was built with it. An index in a classes directory is
+   * stale when a meta class was compiled (or added) after it, or an indexed
+   * type has no meta class anymore.
+   *
+   * @param url
+   *          location of the index
+   * @param index
+   *          the index read from url
+   * @return true if the index does not match the meta classes beside it
+   */
+  static boolean isStale(URL url, ServiceIndex index) {
+    URL metaUrl = ServiceIndex.class.getResource("/org/myrobotlab/service/meta");
+    if (!"file".equals(url.getProtocol()) || metaUrl == null || !"file".equals(metaUrl.getProtocol())) {
+      return false;
+    }
+    try {
+      File[] metas = new File(metaUrl.toURI()).listFiles((dir, name) -> name.endsWith("Meta.class") && !name.contains("$"));
+      if (metas == null) {
+        return false;
+      }
+      if (index == null) {
+        return true;
+      }
+      long built = new File(url.toURI()).lastModified();
+      Set<String> simpleNames = new HashSet<>();
+      for (File meta : metas) {
+        if (meta.lastModified() > built) {
+          return true;
+        }
+        simpleNames.add(meta.getName().substring(0, meta.getName().length() - "Meta.class".length()));
+      }
+      for (Entry entry : index.types.values()) {
+        if (!simpleNames.contains(entry.simpleName)) {
+          return true;
+        }
+      }
+    } catch (Exception e) {
+      log.error("checking {} threw", url, e);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return full type names of all services
+   */
+  public List<String> getServiceTypes() {
+    return new ArrayList<>(types.keySet());
+  }
+
+  /**
+   * @param type
+   *          simple or full type name of the service
+   * @return its entry - null if it is not indexed
+   */
+  public Entry get(String type) {
+    if (type == null) {
+      return null;
+    }
+    if (!type.contains(".")) {
+      type = "org.myrobotlab.service." + type;
+    }
+    return types.get(type);
+  }
+
+  public void add(MetaData meta) {
+    Entry entry = new Entry();
+    entry.type = meta.getType();
+    entry.simpleName = meta.getSimpleName();
+    entry.available = meta.isAvailable();
+    entry.categories.addAll(new TreeSet<>(meta.categories));
+    for (Map.Entry<String, ServiceReservation> peer : meta.getPeers().entrySet()) {
+      entry.peers.put(peer.getKey(), peer.getValue().type);
+    }
+    for (ServiceDependency dependency : meta.getDependencies()) {
+      entry.dependencies.add(dependency.getKey());
+    }
+    String configType = "org.myrobotlab.service.config." + meta.getSimpleName() + "Config";
+    try {
+      Class.forName(configType, false, ServiceIndex.class.getClassLoader());
+      entry.configType = configType;
+    } catch (ClassNotFoundException e) {
+      // uses ServiceConfig
+    }
+    types.put(entry.type, entry);
+  }
+
+  /**
+   * builds the index from the MetaData classes - the reflective scan the index
+   * replaces at runtime
+   *
+   * @return the index
+   * @throws Exception
+   *           could not list the meta package
+   */
+  static public ServiceIndex generate() throws Exception {
+    ServiceIndex index = new ServiceIndex();
+    index.generated = System.currentTimeMillis();
+    List<URL> urls = FileIO.listContents(FileIO.getRoot(), "org/myrobotlab/service/meta", false, new String[] { ".*Meta\\.class" }, new String[] {});
+    for (URL url : urls) {
+      String path = url.getPath();
+      if (path.contains("$")) {
+        continue;
+      }
+      String simpleName = path.substring(path.lastIndexOf("/") + 1, path.lastIndexOf("Meta."));
+      MetaData meta = MetaData.get(simpleName);
+      if (meta == null) {
+        log.error("could not index {}", simpleName);
+        continue;
+      }
+      index.add(meta);
+    }
+    log.info("indexed {} service types", index.types.size());
+    return index;
+  }
+
+  /**
+   * build time generation - run after compile with the output directory as
+   * the argument, e.g. target/classes/resource/framework. It runs in the
+   * maven jvm (exec:java) - a failure is thrown to fail the build, not exited.
+   *
+   * @param args
+   *          output directory
+   * @throws Exception
+   *           the index could not be generated or written
+   */
+  public static void main(String[] args) throws Exception {
+    String dir = (args.length > 0) ? args[0] : ".";
+    new File(dir).mkdirs();
+    ServiceIndex index = generate();
+    String filename = dir + File.separator + "serviceIndex.json";
+    FileIO.toFile(filename, CodecUtils.toJson(index));
+    log.info("wrote {}", filename);
+  }
+
+}
@@ -35,8 +35,14 @@ import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
 import javax.imageio.stream.MemoryCacheImageInputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 
@@ -76,6 +82,17 @@ public class SerializableImage implements Serializable {
   private long timestamp;
   public int frameIndex;
 
+  /**
+   * the image encoded by format and quality - a frame sent to many viewers is
+   * encoded once for all of them
+   */
+  transient private Map<String, byte[]> encoded;
+
+  /**
+   * encodes done by getBytes(format, quality) in this process
+   */
+  static final AtomicLong encodeCount = new AtomicLong();
+
   public static void main(String[] args) throws Exception {
     try {
       LoggingFactory.init();
@@ -161,6 +178,80 @@ public class SerializableImage implements Serializable {
     return null;
   }
 
+  /**
+   * @param format
+   *          ImageIO format name e.g. jpg png
+   * @param quality
+   *          0.0 - 1.0 compression quality - null is the default of the writer
+   * @return the image encoded - once, later calls with the same format and
+   *         quality get the same bytes
+   */
+  public byte[] getBytes(String format, Float quality) {
+    if (image == null) {
+      getImage();
+    }
+    if (image == null) {
+      return null;
+    }
+    synchronized (this) {
+      if (encoded == null) {
+        encoded = new ConcurrentHashMap<>();
+      }
+    }
+    // the first caller encodes - the others of the same key wait for it
+    return encoded.computeIfAbsent((quality == null) ? format : format + ":" + quality, k -> {
+      try {
+        return encode(image, format, quality);
+      } catch (IOException e) {
+        log.error("could not encode {} as {}", source, format, e);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * @param img
+   *          image
+   * @param format
+   *          ImageIO format name e.g. jpg png
+   * @param quality
+   *          0.0 - 1.0 compression quality - null is the default of the writer
+   * @return the encoded image
+   * @throws IOException
+   *           no writer of the format or the write failed
+   */
+  public static byte[] encode(BufferedImage img, String format, Float quality) throws IOException {
+    encodeCount.incrementAndGet();
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    if (quality == null) {
+      // closing the stream flushes it to bos
+      try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bos)) {
+        if (!ImageIO.write(img, format, out)) {
+          throw new IOException("no ImageIO writer for " + format);
+        }
+      }
+      return bos.toByteArray();
+    }
+    ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+    try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bos)) {
+      ImageWriteParam writeParam = writer.getDefaultWriteParam();
+      writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      writeParam.setCompressionQuality(quality);
+      writer.setOutput(out);
+      writer.write(null, new IIOImage(img, null, null), writeParam);
+    } finally {
+      writer.dispose();
+    }
+    return bos.toByteArray();
+  }
+
+  /**
+   * @return encodes done by getBytes(format, quality) in this process
+   */
+  public static long getEncodeCount() {
+    return encodeCount.get();
+  }
+
   public int getHeight() {
     return image.getHeight();
   }
@@ -37,6 +37,26 @@ public class WebImage {
     this(img, source, frameIndex, null, null);
   }
 
+  /**
+   * from an image already encoded - e.g. by SerializableImage.getBytes(type,
+   * quality), shared with the other viewers of the frame
+   * 
+   * @param encoded
+   *          the encoded image
+   * @param source
+   *          name of the source
+   * @param frameIndex
+   *          frame index
+   * @param type
+   *          format of the encoded image e.g. jpg png
+   */
+  public WebImage(final byte[] encoded, final String source, Integer frameIndex, final String type) {
+    ts = System.currentTimeMillis();
+    this.frameIndex = frameIndex;
+    this.source = source;
+    data = String.format("data:image/%s;base64,%s", ("jpg".equals(type)) ? "jpeg" : type, Base64.getEncoder().encodeToString(encoded));
+  }
+
   public WebImage(final BufferedImage img, final String source, Integer frameIndex, final String type, final Double quality) {
     try {
       ts = System.currentTimeMillis();
@@ -1,16 +1,17 @@
 package org.myrobotlab.net;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.myrobotlab.image.SerializableImage;
 import org.myrobotlab.logging.Level;
@@ -28,9 +29,20 @@ import org.slf4j.Logger;
  *         http://www.servlets.com/cos/
  *         http://www.damonkohler.com/2010/10/mjpeg-streaming-protocol.html
  * 
+ *         Each frame is encoded once - the jpg is kept by the frame and
+ *         written to every viewer of the feed. A viewer is handed only the
+ *         latest frame, one it has not sent when the next comes is dropped, so
+ *         a slow browser slows only itself.
+ * 
  */
 public class MjpegServer extends NanoHTTPD {
 
+  static final byte[] STREAM_HEADER = ("HTTP/1.0 200 OK\r\n" + "Server: YourServerName\r\n" + "Connection: close\r\n" + "Max-Age: 0\r\n" + "Expires: 0\r\n"
+      + "Cache-Control: no-cache, private\r\n" + "Pragma: no-cache\r\n" + "Content-Type: multipart/x-mixed-replace; " + "boundary=--BoundaryString\r\n\r\n")
+          .getBytes(StandardCharsets.US_ASCII);
+
+  static final byte[] PART_END = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
   public class Connection {
     boolean initialized = false;
     Socket socket;
@@ -38,7 +50,8 @@ public class MjpegServer extends NanoHTTPD {
 
     public Connection(Socket socket) throws IOException {
       this.socket = socket;
-      os = socket.getOutputStream();
+      // headers and the jpg go out in one write
+      os = new BufferedOutputStream(socket.getOutputStream(), 8192);
     }
 
     public void close() {
@@ -52,74 +65,104 @@ public class MjpegServer extends NanoHTTPD {
 
   public class VideoWebClient extends Thread {
     String feed;
-    ArrayList<Connection> connections = new ArrayList<Connection>();
-    BlockingQueue<SerializableImage> videoFeed;
+    Connection connection;
+    /**
+     * the next frame to send - replaced if it has not been sent when the next
+     * one comes
+     */
+    SerializableImage latest;
+    long sent = 0;
+    long dropped = 0;
 
-    VideoWebClient(BlockingQueue<SerializableImage> videoFeed, String feed, Socket socket) throws IOException {
+    VideoWebClient(String feed, Socket socket) throws IOException {
       // super(String.format("stream_%s:%s",
       // socket.getInetAddress().getHostAddress(), socket.getPort()));
       super(String.format("stream_%s", feed));
-      this.videoFeed = videoFeed;
+      setDaemon(true);
       this.feed = feed;
-      connections.add(new Connection(socket));
+      connection = new Connection(socket);
+    }
+
+    synchronized void offer(SerializableImage frame) {
+      if (latest != null) {
+        ++dropped;
+      }
+      latest = frame;
+      notifyAll();
+    }
+
+    synchronized SerializableImage take() throws InterruptedException {
+      while (latest == null) {
+        wait();
+      }
+      SerializableImage frame = latest;
+      latest = null;
+      return frame;
+    }
+
+    public synchronized long getSent() {
+      return sent;
+    }
+
+    public synchronized long getDropped() {
+      return dropped;
     }
 
-    // TODO - look into buffered output stream
     @Override
     public void run() {
+      Connection c = connection;
       try {
+        c.os.write(STREAM_HEADER);
+        c.initialized = true;
         while (true) {
-          SerializableImage frame = videoFeed.take();
+          SerializableImage frame = take();
           // ++frameIndex;
           // log.info("frame {}", frameIndex);
           Logging.logTime(String.format("Mjpeg frameIndex %d %d", frame.frameIndex, System.currentTimeMillis()));
-          for (Iterator<Connection> iterator = connections.iterator(); iterator.hasNext();) {
-            Connection c = iterator.next();
-
-            try {
-
-              if (!c.initialized) {
-                c.os.write(
-                    ("HTTP/1.0 200 OK\r\n" + "Server: YourServerName\r\n" + "Connection: close\r\n" + "Max-Age: 0\r\n" + "Expires: 0\r\n" + "Cache-Control: no-cache, private\r\n"
-                        + "Pragma: no-cache\r\n" + "Content-Type: multipart/x-mixed-replace; " + "boundary=--BoundaryString\r\n\r\n").getBytes());
-                c.initialized = true;
-              }
-
-              byte[] bytes = frame.getBytes();
-
-              // begin jpg
-              c.os.write(("--BoundaryString\r\n" + "Content-type: image/jpg\r\n" + "Content-Length: " + bytes.length + "\r\n\r\n").getBytes());
-              // write the jpg
-              c.os.write(bytes);
-
-              // end
-              c.os.write("\r\n\r\n".getBytes());
-
-              // flush or not to flush that is the question
-              c.os.flush();
-              Logging.logTime(String.format("Mjpeg frameIndex %d %d SENT", frame.frameIndex, System.currentTimeMillis()));
-            } catch (Exception e) {
-              Logging.logError(e);
-              log.info("removing socket");
-              iterator.remove();
-              c.close();
-            }
-
-          } // for each socket
+
+          // the first viewer encodes it - the others get the same bytes
+          byte[] bytes = frame.getBytes("jpg", quality);
+          if (bytes == null) {
+            continue;
+          }
+
+          // begin jpg
+          c.os.write(("--BoundaryString\r\n" + "Content-type: image/jpeg\r\n" + "Content-Length: " + bytes.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+          // write the jpg
+          c.os.write(bytes);
+          // end
+          c.os.write(PART_END);
+          c.os.flush();
+          synchronized (this) {
+            ++sent;
+          }
+          Logging.logTime(String.format("Mjpeg frameIndex %d %d SENT", frame.frameIndex, System.currentTimeMillis()));
         }
+      } catch (InterruptedException e) {
+        log.info("stopping stream {}", feed);
       } catch (Exception e) {
-        // FIXME remove socket from list - continue to run
-        Logging.logError(e);
+        log.info("removing socket - {}", e.getMessage());
       }
-
+      List<VideoWebClient> viewers = feeds.get(feed);
+      if (viewers != null) {
+        viewers.remove(this);
+      }
+      c.close();
     }
   }
 
   public final static Logger log = LoggerFactory.getLogger(MjpegServer.class.getCanonicalName());
 
-  transient public HashMap<String, BlockingQueue<SerializableImage>> videoFeeds = new HashMap<String, BlockingQueue<SerializableImage>>();
+  /**
+   * viewers of each feed
+   */
+  transient public Map<String, List<VideoWebClient>> feeds = new ConcurrentHashMap<>();
 
-  transient public HashMap<String, VideoWebClient> clients = new HashMap<String, VideoWebClient>();
+  /**
+   * 0.0 - 1.0 jpg quality - null is the default of the writer, the same as the
+   * WebGui display of an OpenCV service so both share the encode
+   */
+  Float quality = null;
 
   public static void main(String[] args) {
     try {
@@ -138,6 +181,41 @@ public class MjpegServer extends NanoHTTPD {
     super(port);
   }
 
+  /**
+   * hands a frame to every viewer of its feed
+   * 
+   * @param frame
+   *          the frame - its source is the feed
+   */
+  public void publish(SerializableImage frame) {
+    List<VideoWebClient> viewers = feeds.computeIfAbsent(frame.getSource(), k -> new CopyOnWriteArrayList<>());
+    for (VideoWebClient viewer : viewers) {
+      viewer.offer(frame);
+    }
+  }
+
+  /**
+   * @param quality
+   *          0.0 - 1.0 jpg quality - null is the default of the writer
+   */
+  public void setQuality(Float quality) {
+    this.quality = quality;
+  }
+
+  public Float getQuality() {
+    return quality;
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    for (List<VideoWebClient> viewers : feeds.values()) {
+      for (VideoWebClient viewer : viewers) {
+        viewer.interrupt();
+      }
+    }
+  }
+
   @Override
   public Response serve(String uri, String method, Properties header, Properties parms, Socket socket) {
     log.info(method + " '" + uri + "' ");
@@ -165,25 +243,25 @@ public class MjpegServer extends NanoHTTPD {
       feed = uri.substring(pos0 + 1);
     }
 
-    if (!videoFeeds.containsKey(feed)) {
+    if (!feeds.containsKey(feed)) {
       StringBuffer response = new StringBuffer(String.format("<html><body align=center>video feeds<br/>", feed));
-      for (Map.Entry<String, BlockingQueue<SerializableImage>> o : videoFeeds.entrySet()) {
+      for (String key : feeds.keySet()) {
         // Map.Entry<String,SerializableImage> pairs = o;
         // response.append(String.format("<a href=\"http://%\" >%s</a><br/>",
         // o.getKey()));
-        response.append(String.format("<img src=\"%s\" /><br/>%s<br/>", o.getKey(), o.getKey()));
-        log.info(o.getKey());
+        response.append(String.format("<img src=\"%s\" /><br/>%s<br/>", key, key));
+        log.info(key);
       }
-      if (videoFeeds.size() == 0) {
+      if (feeds.size() == 0) {
         response.append("no video feed exist - try attaching a VideoSource to the VideoStreamer");
       }
       response.append("</body></html>");
       return new Response(HTTP_OK, MIME_HTML, response.toString());
     } else {
       try {
-        VideoWebClient client = new VideoWebClient(videoFeeds.get(feed), feed, socket);
+        VideoWebClient client = new VideoWebClient(feed, socket);
+        feeds.get(feed).add(client);
         client.start();
-        clients.put(feed, client);
       } catch (IOException e1) {
         Logging.logError(e1);
       }
@@ -1,50 +1,41 @@
 package org.myrobotlab.net;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.HashSet;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.serial.SerialReactor;
 import org.myrobotlab.service.Serial;
 import org.slf4j.Logger;
 
-public class TcpSerialHub implements Runnable {
+/**
+ * Shares a Serial service over tcp - what clients send is written to the
+ * serial port and what the port receives is broadcast to every client. The
+ * listening socket and the clients are serviced by the SerialReactor.
+ */
+public class TcpSerialHub {
 
-  private class TcpThread implements Runnable {
-    private Socket socket;
-
-    TcpThread(Socket socket) {
-      this.socket = socket;
-    }
+  private class TcpClient implements SerialReactor.Listener {
+    SerialReactor.Connection connection;
 
     @Override
-    public void run() {
-      log.info("connected: " + socket);
+    public void onBytes(byte[] bytes) {
       try {
-
-        InputStream netIn = socket.getInputStream();
-
-        int c;
-        while ((c = netIn.read()) != -1) {
-          serial.write(c);
+        if (serial != null) {
+          serial.write(bytes);
         }
-
       } catch (Exception e) {
-        log.info("error:" + socket);
-      } finally {
-        try {
-          socket.close();
-        } catch (IOException e) {
-        }
-        log.info("closed: " + socket);
+        log.warn("writing from {} to serial threw", connection, e);
       }
+    }
 
+    @Override
+    public void onClose() {
+      log.info("closed: {}", connection);
       clients.remove(this);
     }
   }
@@ -60,19 +51,13 @@ public class TcpSerialHub implements Runnable {
     }
   }
 
-  ServerSocket listener;
+  ServerSocketChannel listener;
   boolean listening;
-  int nThreads = 2; // 20
-  transient ExecutorService pool;
 
   int port = 32323;
   transient Serial serial;
 
-  transient private Thread serverThread;
-
-  Set<TcpThread> clients = new HashSet<TcpThread>();
-
-  // Map<String, Socket> socketsx = new HashMap<>();
+  Set<TcpClient> clients = ConcurrentHashMap.newKeySet();
 
   public TcpSerialHub() {
   }
@@ -88,25 +73,12 @@ public class TcpSerialHub implements Runnable {
     // serial.addByteListener(this);
   }
 
-  synchronized public void run() {
-    try {
-      listener = new ServerSocket(port);
-      log.info("started server port {}", port);
-      pool = Executors.newFixedThreadPool(nThreads);
-      listening = true;
-      while (listening) {
-        TcpThread client = new TcpThread(listener.accept());
-        clients.add(client);
-        pool.execute(client);
-      }
-    } catch (Exception e) {
-      log.error("TcpSerialHub threw", e);
-    }
-    serverThread = null;
-    try {
-      listener.close();
-    } catch (IOException e) {
-    }
+  void accept(SocketChannel channel) throws IOException {
+    channel.socket().setTcpNoDelay(true);
+    TcpClient client = new TcpClient();
+    client.connection = SerialReactor.getInstance().register(channel, client);
+    clients.add(client);
+    log.info("connected: {}", client.connection);
   }
 
   public void start() throws IOException {
@@ -119,28 +91,27 @@ public class TcpSerialHub implements Runnable {
 
   /**
    * Maximum complexity start
-   * 
+   *
    * @param inPort
    *          - listening port
    * @param inThreads
-   *          - number of handler threads
+   *          - unused - clients are serviced by the SerialReactor's thread
    * @throws IOException
    *           boom
    */
   synchronized public void start(Integer inPort, Integer inThreads) throws IOException {
 
-    if (inThreads != null) {
-      nThreads = inThreads;
-    }
-
     if (inPort != null && port != inPort) {
       stop();
       port = inPort;
     }
 
-    if (serverThread == null) {
-      serverThread = new Thread(this, "tcpserialhub-");
-      serverThread.start();
+    if (!listening) {
+      listener = ServerSocketChannel.open();
+      listener.bind(new InetSocketAddress(port));
+      SerialReactor.getInstance().accept(listener, this::accept);
+      listening = true;
+      log.info("started server port {}", port);
     }
   }
 
@@ -148,15 +119,29 @@ public class TcpSerialHub implements Runnable {
     listening = false;
     if (listener != null) {
       listener.close();
+      listener = null;
+    }
+    for (TcpClient client : clients) {
+      client.connection.close();
     }
-    pool.shutdown();
   }
 
   public void broadcast(Integer newByte) throws IOException {
-    for (TcpThread client : clients) {
-      OutputStream out = client.socket.getOutputStream();
-      out.write(newByte);
+    broadcast(new byte[] { newByte.byteValue() }, 0, 1);
+  }
+
+  /**
+   * one write per client for a whole chunk of rx data
+   */
+  public void broadcast(byte[] data, int offset, int length) throws IOException {
+    for (TcpClient client : clients) {
+      try {
+        client.connection.write(data, offset, length);
+      } catch (IOException e) {
+        log.info("dropping {} - {}", client.connection, e.getMessage());
+        client.connection.close();
+      }
     }
   }
 
-}
\ No newline at end of file
+}
@@ -15,11 +15,44 @@ public class CloseableFrameConverter implements AutoCloseable {
   private OpenCVFrameConverter.ToIplImage converterToImage = new OpenCVFrameConverter.ToIplImage();
   OpenCVFrameConverter.ToMat converterToMat = new OpenCVFrameConverter.ToMat();
 
+  /**
+   * a converter per thread - making one per conversion allocates native
+   * buffers for every frame
+   */
+  private static final ThreadLocal<CloseableFrameConverter> threadConverter = ThreadLocal.withInitial(CloseableFrameConverter::new);
   
   public CloseableFrameConverter() {
     // default constructor
   }
   
+  /**
+   * The converter of the calling thread. What it returns is only good until its
+   * next conversion of something else - it must not be closed.
+   * 
+   * @return the converter
+   */
+  public static CloseableFrameConverter getThreadConverter() {
+    return threadConverter.get();
+  }
+  
+  /**
+   * converting to a BufferedImage nothing else will write to - for displays and
+   * subscribers which keep it
+   * 
+   * @param src
+   *          the source image
+   * @return a new buffered image
+   */
+  public BufferedImage toNewBufferedImage(IplImage src) {
+    return toNewBufferedImage(converterToImage.convert(src));
+  }
+
+  public BufferedImage toNewBufferedImage(Frame inputFrame) {
+    try (Java2DFrameConverter java2d = new Java2DFrameConverter()) {
+      return java2d.getBufferedImage(inputFrame, 1);
+    }
+  }
+  
   
   /**
    * converting IplImages to BufferedImages
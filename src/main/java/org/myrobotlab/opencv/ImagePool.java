@@ -0,0 +1,238 @@
+package org.myrobotlab.opencv;
+
+import static org.bytedeco.opencv.global.opencv_core.cvCopy;
+import static org.bytedeco.opencv.global.opencv_core.cvResetImageROI;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.opencv.opencv_core.IplImage;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Process wide pool of native images. Images are kept by size, depth and
+ * channels - a frame acquires the images it needs and releases them when it is
+ * disposed, so the next frame of the same video gets the same buffers instead
+ * of a new cvCreateImage and a free by the garbage collector for each.
+ *
+ * An image not released is not lost - javacpp frees it when it is collected -
+ * it is only not reused. The pool keeps no reference to the images in use.
+ */
+public class ImagePool {
+
+  public final static Logger log = LoggerFactory.getLogger(ImagePool.class);
+
+  private static volatile ImagePool instance;
+
+  static class Shape {
+    final int width;
+    final int height;
+    final int depth;
+    final int channels;
+
+    Shape(int width, int height, int depth, int channels) {
+      this.width = width;
+      this.height = height;
+      this.depth = depth;
+      this.channels = channels;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Shape)) {
+        return false;
+      }
+      Shape s = (Shape) o;
+      return width == s.width && height == s.height && depth == s.depth && channels == s.channels;
+    }
+
+    @Override
+    public int hashCode() {
+      return ((width * 31 + height) * 31 + depth) * 31 + channels;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%dx%dx%d depth %d", width, height, channels, depth);
+    }
+  }
+
+  public static class Stats {
+    public long hits;
+    public long misses;
+    public double hitRate;
+    /**
+     * images waiting to be reused
+     */
+    public int idle;
+    /**
+     * native bytes of the idle images
+     */
+    public long idleBytes;
+    /**
+     * native bytes javacpp has allocated - all images, converters, grabbers ...
+     */
+    public long totalBytes;
+    /**
+     * resident memory of the process
+     */
+    public long physicalBytes;
+
+    @Override
+    public String toString() {
+      return String.format("hits %d misses %d hit rate %.3f idle %d %s native %s physical %s", hits, misses, hitRate, idle, Pointer.formatBytes(idleBytes),
+          Pointer.formatBytes(totalBytes), Pointer.formatBytes(physicalBytes));
+    }
+  }
+
+  final Map<Shape, ArrayDeque<IplImage>> idle = new ConcurrentHashMap<>();
+
+  /**
+   * idle images kept of each shape - enough for the frames of a pipeline
+   */
+  int maxIdle = 8;
+
+  final AtomicLong hits = new AtomicLong();
+
+  final AtomicLong misses = new AtomicLong();
+
+  final AtomicLong idleBytes = new AtomicLong();
+
+  public static ImagePool getInstance() {
+    if (instance != null) {
+      return instance;
+    }
+    synchronized (ImagePool.class) {
+      if (instance == null) {
+        instance = new ImagePool();
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @param width
+   *          width
+   * @param height
+   *          height
+   * @param depth
+   *          IPL_DEPTH_*
+   * @param channels
+   *          channels
+   * @return an idle image of the shape or a new one - contents undefined
+   */
+  public IplImage acquire(int width, int height, int depth, int channels) {
+    Shape shape = new Shape(width, height, depth, channels);
+    ArrayDeque<IplImage> images = idle.get(shape);
+    if (images != null) {
+      synchronized (images) {
+        IplImage image = images.poll();
+        if (image != null) {
+          idleBytes.addAndGet(-image.imageSize());
+          hits.incrementAndGet();
+          return image;
+        }
+      }
+    }
+    misses.incrementAndGet();
+    return IplImage.create(width, height, depth, channels);
+  }
+
+  /**
+   * @param like
+   *          image to match
+   * @return an image of the same size, depth and channels
+   */
+  public IplImage acquire(IplImage like) {
+    IplImage image = acquire(like.width(), like.height(), like.depth(), like.nChannels());
+    image.origin(like.origin());
+    return image;
+  }
+
+  /**
+   * @param src
+   *          image to copy - only its region of interest if it has one
+   * @return a pooled copy
+   */
+  public IplImage copy(IplImage src) {
+    IplImage copy = (src.roi() == null) ? acquire(src) : acquire(src.roi().width(), src.roi().height(), src.depth(), src.nChannels());
+    cvCopy(src, copy, null);
+    return copy;
+  }
+
+  /**
+   * hands an image back - it must not be used after
+   *
+   * @param image
+   *          image from acquire or copy - never one which wraps the buffer of
+   *          a Frame or Mat
+   */
+  public void release(IplImage image) {
+    if (image == null || image.isNull()) {
+      return;
+    }
+    if (image.roi() != null) {
+      cvResetImageROI(image);
+    }
+    Shape shape = new Shape(image.width(), image.height(), image.depth(), image.nChannels());
+    ArrayDeque<IplImage> images = idle.computeIfAbsent(shape, k -> new ArrayDeque<>());
+    synchronized (images) {
+      if (images.size() < maxIdle) {
+        images.add(image);
+        idleBytes.addAndGet(image.imageSize());
+        return;
+      }
+    }
+    // enough of this shape - the video changed size or a burst is over
+    image.release();
+  }
+
+  /**
+   * @param max
+   *          idle images kept of each shape
+   */
+  public void setMaxIdle(int max) {
+    maxIdle = Math.max(0, max);
+  }
+
+  /**
+   * frees all idle images
+   */
+  public void clear() {
+    for (ArrayDeque<IplImage> images : idle.values()) {
+      synchronized (images) {
+        IplImage image;
+        while ((image = images.poll()) != null) {
+          idleBytes.addAndGet(-image.imageSize());
+          image.release();
+        }
+      }
+    }
+  }
+
+  public Stats getStats() {
+    Stats stats = new Stats();
+    stats.hits = hits.get();
+    stats.misses = misses.get();
+    long total = stats.hits + stats.misses;
+    stats.hitRate = (total > 0) ? (double) stats.hits / total : 0;
+    for (ArrayDeque<IplImage> images : idle.values()) {
+      synchronized (images) {
+        stats.idle += images.size();
+      }
+    }
+    stats.idleBytes = idleBytes.get();
+    stats.totalBytes = Pointer.totalBytes();
+    try {
+      stats.physicalBytes = Pointer.physicalBytes();
+    } catch (Throwable e) {
+      // no javacpp natives for this platform
+    }
+    return stats;
+  }
+
+}
@@ -0,0 +1,492 @@
+package org.myrobotlab.opencv;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.myrobotlab.framework.Histogram;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Process wide executor of the neural nets of the OpenCV filters. A filter
+ * submits the frame of a source (its OpenCV service) and gets a future of the
+ * result - the frame is queued for the model, and a worker thread runs the
+ * frames waiting for a model as one batch, from all sources. Only the newest
+ * frames of a source wait - by default one, a frame not yet started when the
+ * next comes is dropped and its future cancelled.
+ *
+ * A model runs on one worker at a time, different models run at the same time
+ * on as many workers as there are threads - at most one per core.
+ *
+ * Models are shared - filters of the same model on different cameras get the
+ * same instance from getModel, which is what lets their frames be batched.
+ */
+public class InferenceExecutor {
+
+  public final static Logger log = LoggerFactory.getLogger(InferenceExecutor.class);
+
+  private static volatile InferenceExecutor instance;
+
+  /**
+   * a neural net
+   *
+   * @param <I>
+   *          input - e.g. a Mat
+   * @param <O>
+   *          result of an input
+   */
+  public interface Model<I, O> {
+
+    String getModelName();
+
+    /**
+     * @return most inputs infer is given at once - 1 if the net can not batch
+     */
+    int getMaxBatch();
+
+    /**
+     * @param inputs
+     *          one or more inputs
+     * @return a result for each input in order
+     * @throws Exception
+     *           the batch failed - all its futures complete with it
+     */
+    List<O> infer(List<I> inputs) throws Exception;
+
+    /**
+     * frees the net - the last user released it
+     */
+    default void close() {
+    }
+  }
+
+  /**
+   * metrics of a model at one point in time
+   */
+  public static class ModelStats {
+    public String name;
+    public long submitted;
+    public long completed;
+    public long dropped;
+    public long failed;
+    public long batches;
+    public double meanBatch;
+    /**
+     * results per second since the first submit
+     */
+    public double throughput;
+    /**
+     * ns from submit to result
+     */
+    public Histogram.Summary latency;
+    /**
+     * ns of a batch in the net
+     */
+    public Histogram.Summary inference;
+
+    @Override
+    public String toString() {
+      return String.format("%-24s %7d done %6d dropped %6.1f/s batch %4.2f latency mean %7.2f ms p99 %7.2f ms inference mean %7.2f ms", name, completed, dropped, throughput,
+          meanBatch, (latency.mean / 1e6), (latency.p99 / 1e6), (inference.mean / 1e6));
+    }
+  }
+
+  static class Request {
+    final String source;
+    final int frameIndex;
+    final Object input;
+    final long submitNs = System.nanoTime();
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+
+    Request(String source, int frameIndex, Object input) {
+      this.source = source;
+      this.frameIndex = frameIndex;
+      this.input = input;
+    }
+  }
+
+  static class ModelQueue {
+    final Model<Object, Object> model;
+    /**
+     * frames waiting by source
+     */
+    final Map<String, ArrayDeque<Request>> pending = new LinkedHashMap<>();
+    /**
+     * the latest futures by source and frame index
+     */
+    final Map<String, LinkedHashMap<Integer, CompletableFuture<Object>>> recent = new HashMap<>();
+    boolean busy = false;
+    int users = 0;
+    long startNs = 0;
+    long submitted = 0;
+    long completed = 0;
+    long dropped = 0;
+    long failed = 0;
+    long batches = 0;
+    final Histogram latency = new Histogram();
+    final Histogram inference = new Histogram();
+
+    @SuppressWarnings("unchecked")
+    ModelQueue(Model<?, ?> model) {
+      this.model = (Model<Object, Object>) model;
+    }
+
+    /**
+     * @return submit time of the oldest frame waiting - Long.MAX_VALUE if none
+     */
+    long oldest() {
+      long oldest = Long.MAX_VALUE;
+      for (ArrayDeque<Request> requests : pending.values()) {
+        Request r = requests.peek();
+        if (r != null && r.submitNs < oldest) {
+          oldest = r.submitNs;
+        }
+      }
+      return oldest;
+    }
+
+    /**
+     * @return up to max frames waiting - oldest first, from any source
+     */
+    List<Request> take(int max) {
+      List<Request> batch = new ArrayList<>();
+      while (batch.size() < max) {
+        ArrayDeque<Request> from = null;
+        for (ArrayDeque<Request> requests : pending.values()) {
+          Request r = requests.peek();
+          if (r != null && (from == null || r.submitNs < from.peek().submitNs)) {
+            from = requests;
+          }
+        }
+        if (from == null) {
+          break;
+        }
+        batch.add(from.poll());
+      }
+      return batch;
+    }
+  }
+
+  final Object lock = new Object();
+
+  final Map<String, ModelQueue> queues = new LinkedHashMap<>();
+
+  /**
+   * worker threads by id
+   */
+  final Map<Integer, Thread> workers = new HashMap<>();
+
+  /**
+   * frames of a source waiting for a model - 1 is latest frame wins
+   */
+  int depth = 1;
+
+  /**
+   * futures kept by frame index for each source of a model
+   */
+  int recentSize = 32;
+
+  int threads;
+
+  public static InferenceExecutor getInstance() {
+    if (instance != null) {
+      return instance;
+    }
+    synchronized (InferenceExecutor.class) {
+      if (instance == null) {
+        // nets use more than one core for a batch themselves
+        instance = new InferenceExecutor(Math.max(1, java.lang.Runtime.getRuntime().availableProcessors() / 2));
+      }
+    }
+    return instance;
+  }
+
+  InferenceExecutor(int threads) {
+    setThreads(threads);
+  }
+
+  /**
+   * @param threads
+   *          workers - from 1 to the number of cores
+   */
+  public void setThreads(int threads) {
+    synchronized (lock) {
+      this.threads = Math.max(1, Math.min(threads, java.lang.Runtime.getRuntime().availableProcessors()));
+      // workers above the count exit when they are next idle
+      for (int i = 0; i < this.threads; ++i) {
+        if (workers.containsKey(i)) {
+          continue;
+        }
+        final int id = i;
+        Thread worker = new Thread(() -> work(id), "inference-" + id);
+        worker.setDaemon(true);
+        workers.put(id, worker);
+        worker.start();
+      }
+      lock.notifyAll();
+    }
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @param depth
+   *          frames of a source waiting for a model - 1 is latest frame wins,
+   *          more lets frames of a source be batched together
+   */
+  public void setDepth(int depth) {
+    synchronized (lock) {
+      this.depth = Math.max(1, depth);
+    }
+  }
+
+  /**
+   * the shared instance of a model - made the first time it is asked for
+   *
+   * @param name
+   *          model name - e.g. the file of the net
+   * @param factory
+   *          makes the model
+   * @param <M>
+   *          type of model
+   * @return the model - releaseModel when done with it
+   */
+  @SuppressWarnings("unchecked")
+  public <M extends Model<?, ?>> M getModel(String name, Supplier<M> factory) {
+    synchronized (lock) {
+      ModelQueue q = queues.get(name);
+      if (q == null) {
+        q = new ModelQueue(factory.get());
+        queues.put(name, q);
+      }
+      ++q.users;
+      return (M) q.model;
+    }
+  }
+
+  /**
+   * one user less - the model is closed and its frames cancelled when it has
+   * none
+   *
+   * @param name
+   *          model name
+   */
+  public void releaseModel(String name) {
+    ModelQueue q;
+    synchronized (lock) {
+      q = queues.get(name);
+      if (q == null || --q.users > 0) {
+        return;
+      }
+      queues.remove(name);
+      for (ArrayDeque<Request> requests : q.pending.values()) {
+        for (Request r : requests) {
+          r.future.cancel(false);
+        }
+      }
+      q.pending.clear();
+      // a worker running it closes it when done
+      if (q.busy) {
+        return;
+      }
+    }
+    q.model.close();
+  }
+
+  /**
+   * queues a frame for a model
+   *
+   * @param model
+   *          the model - from getModel
+   * @param source
+   *          where the frame is from - e.g. the OpenCV service
+   * @param frameIndex
+   *          index of the frame
+   * @param input
+   *          input of the model - must not change until the future is done
+   * @param <I>
+   *          input type
+   * @param <O>
+   *          result type
+   * @return the result - cancelled if a newer frame of the source replaced it
+   */
+  @SuppressWarnings("unchecked")
+  public <I, O> CompletableFuture<O> submit(Model<I, O> model, String source, int frameIndex, I input) {
+    Request request = new Request(source, frameIndex, input);
+    synchronized (lock) {
+      ModelQueue q = queues.get(model.getModelName());
+      if (q == null) {
+        // not from getModel - keep it as long as the process
+        q = new ModelQueue(model);
+        q.users = 1;
+        queues.put(model.getModelName(), q);
+      }
+      if (q.startNs == 0) {
+        q.startNs = request.submitNs;
+      }
+      ++q.submitted;
+      ArrayDeque<Request> requests = q.pending.computeIfAbsent(source, k -> new ArrayDeque<>());
+      while (requests.size() >= depth) {
+        requests.poll().future.cancel(false);
+        ++q.dropped;
+      }
+      requests.add(request);
+      LinkedHashMap<Integer, CompletableFuture<Object>> recent = q.recent.computeIfAbsent(source, k -> new LinkedHashMap<Integer, CompletableFuture<Object>>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<Object>> eldest) {
+          return size() > recentSize;
+        }
+      });
+      recent.put(frameIndex, request.future);
+      lock.notifyAll();
+    }
+    return (CompletableFuture<O>) (CompletableFuture<?>) request.future;
+  }
+
+  /**
+   * @param modelName
+   *          model name
+   * @param source
+   *          where the frame is from
+   * @param frameIndex
+   *          index of the frame
+   * @param <O>
+   *          result type
+   * @return the future of a frame submitted lately - null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public <O> Future<O> getResult(String modelName, String source, int frameIndex) {
+    synchronized (lock) {
+      ModelQueue q = queues.get(modelName);
+      if (q == null || !q.recent.containsKey(source)) {
+        return null;
+      }
+      return (Future<O>) (Future<?>) q.recent.get(source).get(frameIndex);
+    }
+  }
+
+  /**
+   * @return the model with the oldest frame waiting which is not running
+   */
+  ModelQueue next() {
+    ModelQueue next = null;
+    long oldest = Long.MAX_VALUE;
+    for (ModelQueue q : queues.values()) {
+      if (q.busy) {
+        continue;
+      }
+      long o = q.oldest();
+      if (o < oldest) {
+        oldest = o;
+        next = q;
+      }
+    }
+    return next;
+  }
+
+  void work(int id) {
+    while (true) {
+      ModelQueue q;
+      List<Request> batch;
+      synchronized (lock) {
+        while ((q = next()) == null || id >= threads) {
+          if (id >= threads) {
+            workers.remove(id);
+            return;
+          }
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            workers.remove(id);
+            return;
+          }
+        }
+        batch = q.take(Math.max(1, q.model.getMaxBatch()));
+        q.busy = true;
+      }
+
+      List<Object> inputs = new ArrayList<>(batch.size());
+      for (Request r : batch) {
+        inputs.add(r.input);
+      }
+      long start = System.nanoTime();
+      List<Object> results = null;
+      Exception error = null;
+      try {
+        results = q.model.infer(inputs);
+        if (results == null || results.size() != inputs.size()) {
+          throw new IllegalStateException(String.format("%s returned %s results for %d inputs", q.model.getModelName(), (results == null) ? null : results.size(), inputs.size()));
+        }
+      } catch (Exception e) {
+        log.error("{} batch of {} threw", q.model.getModelName(), inputs.size(), e);
+        error = e;
+      }
+      long now = System.nanoTime();
+
+      boolean closed;
+      synchronized (lock) {
+        q.busy = false;
+        ++q.batches;
+        q.inference.record(now - start);
+        if (error == null) {
+          q.completed += batch.size();
+        } else {
+          q.failed += batch.size();
+        }
+        closed = queues.get(q.model.getModelName()) != q;
+        lock.notifyAll();
+      }
+      for (int i = 0; i < batch.size(); ++i) {
+        Request r = batch.get(i);
+        q.latency.record(now - r.submitNs);
+        if (error == null) {
+          r.future.complete(results.get(i));
+        } else {
+          r.future.completeExceptionally(error);
+        }
+      }
+      if (closed) {
+        q.model.close();
+      }
+    }
+  }
+
+  /**
+   * @return metrics of each model by name
+   */
+  public Map<String, ModelStats> getStats() {
+    Map<String, ModelStats> stats = new TreeMap<>();
+    long now = System.nanoTime();
+    synchronized (lock) {
+      for (ModelQueue q : queues.values()) {
+        ModelStats s = new ModelStats();
+        s.name = q.model.getModelName();
+        s.submitted = q.submitted;
+        s.completed = q.completed;
+        s.dropped = q.dropped;
+        s.failed = q.failed;
+        s.batches = q.batches;
+        s.meanBatch = (q.batches > 0) ? (double) (q.completed + q.failed) / q.batches : 0;
+        double seconds = (q.startNs == 0) ? 0 : (now - q.startNs) / 1e9;
+        s.throughput = (seconds > 0) ? q.completed / seconds : 0;
+        s.latency = q.latency.getSummary();
+        s.inference = q.inference.getSummary();
+        stats.put(s.name, s);
+      }
+    }
+    return stats;
+  }
+
+}
@@ -9,10 +9,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
@@ -158,7 +160,18 @@ public class OpenCVData extends CvData {
   // for use with text detection / ocr filters.
   protected ArrayList<DetectedText> detectedText;
   
-  transient private CloseableFrameConverter firstImageConverter = new CloseableFrameConverter();
+  /**
+   * images from the ImagePool this frame owns - released when the last
+   * reference to it is disposed
+   */
+  transient final List<IplImage> pooled = new ArrayList<>();
+
+  transient final AtomicInteger refs = new AtomicInteger(1);
+
+  /**
+   * nanoTime the frame entered an OpenCVPipeline
+   */
+  transient long pipelineNs;
 
   public OpenCVData() {
   }
@@ -174,7 +187,7 @@ public class OpenCVData extends CvData {
     sources.put(String.format("%s.input.Frame", name), frame);
     sources.put(String.format("%s.output.Frame", name), frame);
 
-    IplImage firstImage = firstImageConverter.toImage(frame);
+    IplImage firstImage = CloseableFrameConverter.getThreadConverter().toImage(frame);
     if (firstImage == null) {
       log.error("could not convert frame to image !!!!");
     }
@@ -184,12 +197,77 @@ public class OpenCVData extends CvData {
   }
 
   /**
-   * resource cleanup
+   * something else holds on to this frame for a while - each retain needs a
+   * dispose before its images are reused
+   * 
+   * @return this
+   */
+  public OpenCVData retain() {
+    refs.incrementAndGet();
+    return this;
+  }
+
+  /**
+   * resource cleanup - when the last reference is disposed the pooled images
+   * go back to the ImagePool
    */
   public void dispose() {
+    if (refs.decrementAndGet() != 0) {
+      return;
+    }
     for (Graphics2D g : g2ds.values()) {
       g.dispose();
     }
+    ImagePool pool = ImagePool.getInstance();
+    synchronized (pooled) {
+      for (IplImage image : pooled) {
+        pool.release(image);
+      }
+      pooled.clear();
+    }
+  }
+
+  /**
+   * a copy of this frame for subscribers, which keep it as long as they like -
+   * its images from the ImagePool are cloned (freed when the copy is garbage
+   * collected), so this frame can be disposed and its images reused
+   * 
+   * @return copy which owns no pooled images
+   */
+  public OpenCVData detach() {
+    OpenCVData copy = fork();
+    copy.blurriness = blurriness;
+    copy.detectedText = detectedText;
+    synchronized (pooled) {
+      if (pooled.isEmpty()) {
+        return copy;
+      }
+      Map<IplImage, IplImage> clones = new IdentityHashMap<>();
+      for (IplImage image : pooled) {
+        clones.put(image, null);
+      }
+      for (Map.Entry<String, Object> e : copy.sources.entrySet()) {
+        if (e.getValue() instanceof IplImage && clones.containsKey(e.getValue())) {
+          e.setValue(clones.computeIfAbsent((IplImage) e.getValue(), image -> image.clone()));
+        }
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * a copy from the ImagePool owned by this frame
+   * 
+   * @param image
+   *          image to copy
+   * @return the copy - good until the frame is disposed
+   */
+  public IplImage copy(IplImage image) {
+    IplImage copy = ImagePool.getInstance().copy(image);
+    synchronized (pooled) {
+      pooled.add(copy);
+    }
+    return copy;
   }
 
   public IplImage get(String fullKey) {
@@ -223,8 +301,7 @@ public class OpenCVData extends CvData {
       // 1st selected ? 2nd output ?
       // TODO: find a good way to close this converter
       log.info("Get buffered Image");
-      CloseableFrameConverter sourceConverter = new CloseableFrameConverter();
-      image = sourceConverter.toBufferedImage(getImage(filterKey));
+      image = CloseableFrameConverter.getThreadConverter().toNewBufferedImage(getImage(filterKey));
       sources.put(key, image);
     }
     return (BufferedImage) sources.get(key);
@@ -251,18 +328,17 @@ public class OpenCVData extends CvData {
 
       IplImage image = getImage(); // <- should be output or "selected Filter ..
                                    // i guess"
-      CloseableFrameConverter displayConverter = new CloseableFrameConverter();
+      CloseableFrameConverter displayConverter = CloseableFrameConverter.getThreadConverter();
       if (image != null) {
         // bi = converterToJava.convert(getInputFrame());
-        bi = displayConverter.toBufferedImage(image);
+        bi = displayConverter.toNewBufferedImage(image);
       } else {
-        bi = displayConverter.toBufferedImage(getInputFrame()); // logic should probably
+        bi = displayConverter.toNewBufferedImage(getInputFrame()); // logic should probably
                                                       // not be buried down
       }
       // cache result
       sources.put(key, bi);
       // put(String.format("%s.display", name), bi);
-      displayConverter.close();
     }
     return (BufferedImage) sources.get(key);
   }
@@ -315,9 +391,7 @@ public class OpenCVData extends CvData {
     IplImage image = null;
     if (!sources.containsKey(key)) {
       log.info("Get Image");
-      // TODO: find a good way to close this converter!
-      CloseableFrameConverter sourceConverter = new CloseableFrameConverter();
-      image = sourceConverter.toImage(getFrame(filterKey));
+      image = CloseableFrameConverter.getThreadConverter().toImage(getFrame(filterKey));
       sources.put(key, image);
     }
     return (IplImage) sources.get(key);
@@ -452,6 +526,72 @@ public class OpenCVData extends CvData {
     sources.put(String.format("%s.video", OpenCV.INPUT_KEY), video);
   }
 
+  /**
+   * a copy of this data for a filter running at the same time as others on the
+   * same frame - the filter's results are merged back in the order of the
+   * filters
+   * 
+   * @return shallow copy - images are shared
+   */
+  public OpenCVData fork() {
+    OpenCVData fork = new OpenCVData();
+    fork.name = name;
+    fork.timestamp = timestamp;
+    fork.frameIndex = frameIndex;
+    fork.selectedFilter = selectedFilter;
+    fork.sources.putAll(sources);
+    fork.filters.addAll(filters);
+    return fork;
+  }
+
+  /**
+   * puts everything a fork added or changed
+   * 
+   * @param fork
+   *          data from fork()
+   */
+  public void merge(OpenCVData fork) {
+    for (Map.Entry<String, Object> e : fork.sources.entrySet()) {
+      if (sources.get(e.getKey()) != e.getValue()) {
+        sources.put(e.getKey(), e.getValue());
+      }
+    }
+    for (int i = filters.size(); i < fork.filters.size(); ++i) {
+      filters.add(fork.filters.get(i));
+    }
+    g2ds.putAll(fork.g2ds);
+    if (fork.blurriness != null) {
+      blurriness = fork.blurriness;
+    }
+    if (fork.detectedText != null) {
+      detectedText = fork.detectedText;
+    }
+    synchronized (pooled) {
+      pooled.addAll(fork.pooled);
+    }
+  }
+
+  /**
+   * replaces the image a filter put with a copy owned by this data - the filter
+   * reuses its image for the next frame while this one is still further down
+   * a pipeline
+   * 
+   * @param filterName
+   *          name of the filter
+   */
+  public void keepImage(String filterName) {
+    IplImage image = (IplImage) sources.get(String.format("%s.%s.IplImage", name, filterName));
+    if (image == null || image == sources.get(String.format("%s.input.IplImage", name))) {
+      return;
+    }
+    IplImage copy = copy(image);
+    for (Map.Entry<String, Object> e : sources.entrySet()) {
+      if (e.getValue() == image) {
+        e.setValue(copy);
+      }
+    }
+  }
+
   public void setFrameIndex(int frameIndex) {
     this.frameIndex = frameIndex;
   }
@@ -236,7 +236,16 @@ public abstract class OpenCVFilter implements Serializable, CvFilter {
     }
   }
 
+  /**
+   * @param image
+   *          image to copy
+   * @return a copy - from the ImagePool while a frame is processed, it is good
+   *         until the frame is disposed
+   */
   public IplImage copy(final IplImage image) {
+    if (data != null) {
+      return data.copy(image);
+    }
     IplImage copy = cvCreateImage(image.cvSize(), image.depth(), image.nChannels());
     cvCopy(image, copy, null);
     return copy;
@@ -404,10 +413,15 @@ public abstract class OpenCVFilter implements Serializable, CvFilter {
   public IplImage setData(OpenCVData data) {
     this.data = data;
     data.setSelectedFilter(name);
-    // FIXME - determine source of incoming image ...
-    // FIXME - getImage(filter.sourceKey) => if null then use getImage()
-    // grab the incoming image ..
-    IplImage image = data.getOutputImage(); // <-- getting input from output
+    // the image of the filter named by sourceKey - if there is none the
+    // previous filter's output
+    IplImage image = null;
+    if (sourceKey != null && !sourceKey.isEmpty()) {
+      image = data.get(String.format("%s.%s.IplImage", data.getName(), sourceKey));
+    }
+    if (image == null) {
+      image = data.getOutputImage(); // <-- getting input from output
+    }
     if (image != null && (image.width() != width || image.nChannels() != channels)) {
       width = image.width();
       channels = image.nChannels();
@@ -457,6 +471,15 @@ public abstract class OpenCVFilter implements Serializable, CvFilter {
     data.put(pc);
   }
 
+  /**
+   * the data a filter's display is processed with - after its results are
+   * merged from a fork
+   */
+  void setDisplayData(OpenCVData data) {
+    this.data = data;
+    data.setSelectedFilter(name);
+  }
+
   public String getSourceKey() {
     return sourceKey;
   }
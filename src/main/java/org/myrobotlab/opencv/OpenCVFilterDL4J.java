@@ -11,7 +11,9 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import org.bytedeco.opencv.opencv_core.CvScalar;
 import org.bytedeco.opencv.opencv_core.IplImage;
@@ -24,20 +26,51 @@ import org.myrobotlab.service.Solr;
 import org.slf4j.Logger;
 
 // FIXME - should be OpenCVFilterDl4j
-public class OpenCVFilterDL4J extends OpenCVFilter implements Runnable {
+public class OpenCVFilterDL4J extends OpenCVFilter {
 
   private static final long serialVersionUID = 1L;
   transient public final static Logger log = LoggerFactory.getLogger(OpenCVFilterDL4J.class.getCanonicalName());
 
-  protected Boolean running;
+  /**
+   * vgg16 of the Deeplearning4j service - one image at a time
+   */
+  public static class Vgg16Model implements InferenceExecutor.Model<IplImage, Map<String, Double>> {
+
+    final transient Deeplearning4j dl4j;
+
+    public Vgg16Model(Deeplearning4j dl4j) {
+      this.dl4j = dl4j;
+    }
+
+    @Override
+    public String getModelName() {
+      return String.format("%s.vgg16", dl4j.getName());
+    }
+
+    @Override
+    public int getMaxBatch() {
+      return 1;
+    }
+
+    @Override
+    public List<Map<String, Double>> infer(List<IplImage> inputs) throws IOException {
+      List<Map<String, Double>> results = new ArrayList<>();
+      for (IplImage image : inputs) {
+        results.add(dl4j.classifyImageVGG16(image));
+      }
+      return results;
+    }
+  }
 
   private transient Deeplearning4j dl4j;
+  private transient Vgg16Model model;
+  private transient int count = 0;
+  private transient long start = 0;
   private transient CvFont font = cvFont(CV_FONT_HERSHEY_PLAIN);
 
   public Map<String, Double> lastResult = null;
 
   public ArrayList<YoloDetectedObject> yoloLastResult = null;
-  private transient volatile IplImage lastImage = null;
 
   public OpenCVFilterDL4J(String name) {
     super(name);
@@ -62,10 +95,7 @@ public class OpenCVFilterDL4J extends OpenCVFilter implements Runnable {
       return;
     }
     log.info("Done loading model..");
-    // start classifier thread
-    Thread classifier = new Thread(this, "DL4JClassifierThread");
-    classifier.start();
-    log.info("DL4J Classifier thread started : {}", this.name);
+    model = InferenceExecutor.getInstance().getModel(String.format("%s.vgg16", dl4j.getName()), () -> new Vgg16Model(dl4j));
   }
 
   @Override
@@ -79,12 +109,40 @@ public class OpenCVFilterDL4J extends OpenCVFilter implements Runnable {
     if (yoloLastResult != null) {
       displayResultYolo(image, yoloLastResult);
     }
-    // ok now we just need to update the image that the current thread is
-    // processing (if the current thread is idle i guess?)
-    lastImage = image;
+    if (model == null) {
+      return image;
+    }
+    // the executor classifies a pooled copy - the frame goes on and only the
+    // latest one waits for the net
+    IplImage copy = ImagePool.getInstance().copy(image);
+    if (start == 0) {
+      start = System.currentTimeMillis();
+    }
+    InferenceExecutor.getInstance().submit(model, String.format("%s.%s", data.getName(), name), data.getFrameIndex(), copy).thenAccept(result -> classified(result))
+        .whenComplete((v, e) -> {
+          ImagePool.getInstance().release(copy);
+          if (e != null && !(e.getCause() instanceof CancellationException)) {
+            log.warn("Exception classifying image!", e);
+          }
+        });
     return image;
   }
 
+  /**
+   * the classification of a frame is in - on the inference thread
+   */
+  private void classified(Map<String, Double> result) {
+    count++;
+    lastResult = result;
+    if (count % 100 == 0) {
+      double rate = 1000.0 * count / (System.currentTimeMillis() - start);
+      log.info("DL4J Filter Rate: {}", rate);
+    }
+    invoke("publishClassification", lastResult);
+    if (lastResult != null)
+      log.info(formatResultString(lastResult));
+  }
+
   public static String padRight(String s, int n) {
     return String.format("%1$-" + n + "s", s);
   }
@@ -133,67 +191,9 @@ public class OpenCVFilterDL4J extends OpenCVFilter implements Runnable {
 
   @Override
   public void release() {
-    running = false;
-  }
-
-  @Override
-  public void run() {
-
-    int count = 0;
-    long start = System.currentTimeMillis();
-    log.info("Starting the DL4J classifier thread...");
-    running = true;
-    // in a loop, grab the current image and classify it and update the result.
-    while (running) {// FIXME - must be able to release !!
-
-      if (!enabled) {
-        // sleep to avoid cpu usage
-        // TODO: come up with a better way of doing this (maybe shutdown this
-        // thread and restart when it enables/disbales?)
-        try {
-          Thread.sleep(10);
-        } catch (InterruptedException e) {
-          log.info("Dl4j classifier thread interrupted", e);
-        }
-        continue;
-      }
-      // log.info("Running!!!");
-      // now we need to know which image we should classify
-      // there likely needs to be some synchronization on this too.. o/w the
-      // main thread will
-      // be updating it while it's being classified maybe?!
-      if (lastImage != null) {
-        try {
-          // dl4j.yoloImage(lastImage);
-          // yoloLastResult = dl4j.classifyImageTinyYolo(lastImage,
-          // getVideoProcessor().frameIndex);
-          // dl4j.classifyImageDarknet(lastImage);
-          count++;
-          lastResult = dl4j.classifyImageVGG16(lastImage);
-          if (count % 100 == 0) {
-            double rate = 1000.0 * count / (System.currentTimeMillis() - start);
-            log.info("DL4J Filter Rate: {}", rate);
-          }
-          invoke("publishClassification", lastResult);
-          if (lastResult != null)
-            log.info(formatResultString(lastResult));
-        } catch (IOException e) {
-          // TODO Auto-generated catch block
-          log.warn("Exception classifying image!");
-          e.printStackTrace();
-        }
-      } else {
-        // log.info("No Image to classify...");
-      }
-      // TODO: see why there's a race condition. i seem to need a little delay
-      // here o/w the recognition never seems to start.
-      // maybe lastImage needs to be marked as volatile ?
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        // TODO Auto-generated catch block
-        e.printStackTrace();
-      }
+    if (model != null) {
+      InferenceExecutor.getInstance().releaseModel(model.getModelName());
+      model = null;
     }
   }
 
@@ -26,7 +26,7 @@
 package org.myrobotlab.opencv;
 
 import static org.bytedeco.opencv.global.opencv_core.CV_32F;
-import static org.bytedeco.opencv.global.opencv_dnn.blobFromImage;
+import static org.bytedeco.opencv.global.opencv_dnn.blobFromImages;
 import static org.bytedeco.opencv.global.opencv_dnn.readNetFromCaffe;
 import static org.bytedeco.opencv.global.opencv_imgproc.resize;
 
@@ -38,11 +38,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.bytedeco.javacpp.indexer.FloatIndexer;
-import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.bytedeco.opencv.opencv_core.IplImage;
 import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.MatVector;
 import org.bytedeco.opencv.opencv_core.Scalar;
 import org.bytedeco.opencv.opencv_core.Size;
 import org.bytedeco.opencv.opencv_dnn.Net;
@@ -60,7 +62,106 @@ public class OpenCVFilterFaceDetectDNN extends OpenCVFilter {
 
   private String FACE_LABEL = "face";
 
-  transient private Net net;
+  /**
+   * the caffe ssd face detector - shared by the filters of all OpenCV services
+   * through the InferenceExecutor, so frames of different cameras run in one
+   * batch
+   */
+  public static class FaceDetectModel implements InferenceExecutor.Model<Mat, List<float[]>> {
+
+    final String name;
+    transient Net net;
+    int maxBatch = 8;
+
+    public FaceDetectModel(String protoTxt, String model) {
+      name = model;
+      net = readNetFromCaffe(protoTxt, model);
+      log.info("Caffe DNN Face Detector model loaded.");
+    }
+
+    @Override
+    public String getModelName() {
+      return name;
+    }
+
+    @Override
+    public int getMaxBatch() {
+      return maxBatch;
+    }
+
+    /**
+     * @param maxBatch
+     *          most frames run through the net at once
+     */
+    public void setMaxBatch(int maxBatch) {
+      this.maxBatch = Math.max(1, maxBatch);
+    }
+
+    /**
+     * @param inputs
+     *          300x300 images
+     * @return for each image its detections - confidence, then the top left
+     *         and bottom right corners from 0.0 to 1.0
+     */
+    @Override
+    public List<List<float[]>> infer(List<Mat> inputs) {
+      List<List<float[]>> results = new ArrayList<>();
+      MatVector images = new MatVector(inputs.size());
+      for (int i = 0; i < inputs.size(); ++i) {
+        images.put(i, inputs.get(i));
+        results.add(new ArrayList<>());
+      }
+      // create a 4-dimensional blob from image with NCHW (Number of images in
+      // the batch, Channel, Height, Width)
+      // dimensions order,
+      // for more details read the official docs at
+      // https://docs.opencv.org/trunk/d6/d0f/group__dnn.html#gabd0e76da3c6ad15c08b01ef21ad55dd8
+      Mat blob = blobFromImages(images, 1.0, new Size(300, 300), new Scalar(104.0, 177.0, 123.0, 0), false, false, CV_32F);
+      // set the input to network model
+      net.setInput(blob);
+      // feed forward the input to the network to get the output matrix
+      Mat output = net.forward();
+      // extract a 2d matrix for 4d output matrix with form of (number of
+      // detections x 7) - the first column is the image in the batch
+      Mat ne = new Mat(new Size(output.size(3), output.size(2)), CV_32F, output.ptr(0, 0));
+      FloatIndexer srcIndexer = ne.createIndexer();
+      for (int i = 0; i < output.size(2); i++) {
+        int image = (int) srcIndexer.get(i, 0);
+        if (image < 0 || image >= inputs.size()) {
+          // padding of an empty output
+          continue;
+        }
+        results.get(image).add(new float[] { srcIndexer.get(i, 2), srcIndexer.get(i, 3), srcIndexer.get(i, 4), srcIndexer.get(i, 5), srcIndexer.get(i, 6) });
+      }
+      srcIndexer.release();
+      ne.close();
+      blob.close();
+      output.close();
+      return results;
+    }
+
+    @Override
+    public void close() {
+      if (net != null) {
+        net.close();
+        net = null;
+      }
+    }
+  }
+
+  transient private FaceDetectModel net;
+
+  /**
+   * wait for the detections of a frame - otherwise the latest detections are
+   * used and a frame the net has not got to yet is dropped
+   */
+  boolean blocking = true;
+
+  /**
+   * latest detections - used when not blocking
+   */
+  transient private volatile List<float[]> lastDetections = null;
+
   /**
    * bounding boxes of faces
    */
@@ -97,8 +198,7 @@ public class OpenCVFilterFaceDetectDNN extends OpenCVFilter {
       log.warn("Caffe DNN Face Detector model not found {}", model);
       return;
     }
-    net = readNetFromCaffe(protoTxt, model);
-    log.info("Caffe DNN Face Detector model loaded.");
+    net = InferenceExecutor.getInstance().getModel(model, () -> new FaceDetectModel(protoTxt, model));
   }
 
   @Override
@@ -119,93 +219,79 @@ public class OpenCVFilterFaceDetectDNN extends OpenCVFilter {
 
     int h = image.height();
     int w = image.width();
-    // TODO: cv2.resize(image, (300, 300))
     Mat srcMat = converter1.toMat(image);
+    // resize the image to match the input size of the model - the executor
+    // owns it until its future is done
     Mat inputMat = new Mat();
-    resize(srcMat, inputMat, new Size(300, 300));// resize the image to match
-    // the input size of the model
-    // create a 4-dimensional blob from image with NCHW (Number of images in the
-    // batch -for training only-, Channel, Height, Width)
-    // dimensions order,
-    // for more details read the official docs at
-    // https://docs.opencv.org/trunk/d6/d0f/group__dnn.html#gabd0e76da3c6ad15c08b01ef21ad55dd8
-    Mat blob = blobFromImage(inputMat, 1.0, new Size(300, 300), new Scalar(104.0, 177.0, 123.0, 0), false, false, CV_32F);
-    // log.info("Input Blob : {}", blob);
-    // set the input to network model
-    if (blob == null) {
-      return image;
+    resize(srcMat, inputMat, new Size(300, 300));
+    CompletableFuture<List<float[]>> future = InferenceExecutor.getInstance().submit(net, String.format("%s.%s", data.getName(), name), data.getFrameIndex(), inputMat);
+    future.whenComplete((detections, e) -> inputMat.close());
+    future.thenAccept(detections -> lastDetections = detections);
+
+    List<float[]> detections = lastDetections;
+    if (blocking) {
+      try {
+        detections = future.get(10, TimeUnit.SECONDS);
+      } catch (Exception e) {
+        log.warn("no detections for frame {} - {}", data.getFrameIndex(), e.toString());
+        detections = null;
+      }
     }
 
-    net.setInput(blob);
-    // feed forward the input to the network to get the output matrix
-    Mat output = net.forward();
-    Mat ne = new Mat(new Size(output.size(3), output.size(2)), CV_32F, output.ptr(0, 0));// extract
-    // a
-    // 2d
-    // matrix
-    // for
-    // 4d
-    // output
-    // matrix
-    // with
-    // form
-    // of
-    // (number
-    // of
-    // detections
-    // x
-    // 7)
-    FloatIndexer srcIndexer = ne.createIndexer(); // create indexer to access
-    // elements of the matrix
-    // log.info("Output Size: {}", output.size(3));
     bb.clear();
     classifications.clear();
-    for (int i = 0; i < output.size(3); i++) {// iterate to extract elements
-      float confidence = srcIndexer.get(i, 2);
-      // log.info("Getting element {} confidence {}", i, confidence);
-      float f1 = srcIndexer.get(i, 3);
-      float f2 = srcIndexer.get(i, 4);
-      float f3 = srcIndexer.get(i, 5);
-      float f4 = srcIndexer.get(i, 6);
-
-      if (confidence > threshold) {
-        // log.info("Passes the threshold test.");
-        float tx = f1 * w;// top left point's x
-        float ty = f2 * h;// top left point's y
-        float bx = f3 * w;// bottom right point's x
-        float by = f4 * h;// bottom right point's y
-        Rectangle rect = new Rectangle(tx, ty, bx - tx, by - ty);
-        List<Classification> cl = null;
-        
-        // coordinate system is typical 4 quadrant
-        // x -1.0 to 1.0 y -1.0 to 1.0 with 0,0 middle
-        double centerX = ((rect.x + rect.width/2)- w/2)/w;
-        // many displays are in the inverted y
-        double centerY = -1 * ((rect.y + rect.height/2)-h/2)/h;
-        Classification classification = new Classification(FACE_LABEL, confidence, rect, centerX, centerY);
-        classification.setTs(getOpenCV().getFrameStartTs());
-        if (classifications.containsKey(FACE_LABEL)) {
-          classifications.get(FACE_LABEL).add(classification);
-        } else {
-          cl = new ArrayList<>();
-          cl.add(classification);
-          classifications.put(FACE_LABEL, cl);
+    if (detections != null) {
+      for (float[] detection : detections) {
+        float confidence = detection[0];
+        if (confidence > threshold) {
+          float tx = detection[1] * w;// top left point's x
+          float ty = detection[2] * h;// top left point's y
+          float bx = detection[3] * w;// bottom right point's x
+          float by = detection[4] * h;// bottom right point's y
+          Rectangle rect = new Rectangle(tx, ty, bx - tx, by - ty);
+          List<Classification> cl = null;
+
+          // coordinate system is typical 4 quadrant
+          // x -1.0 to 1.0 y -1.0 to 1.0 with 0,0 middle
+          double centerX = ((rect.x + rect.width / 2) - w / 2) / w;
+          // many displays are in the inverted y
+          double centerY = -1 * ((rect.y + rect.height / 2) - h / 2) / h;
+          Classification classification = new Classification(FACE_LABEL, confidence, rect, centerX, centerY);
+          classification.setTs(getOpenCV().getFrameStartTs());
+          if (classifications.containsKey(FACE_LABEL)) {
+            classifications.get(FACE_LABEL).add(classification);
+          } else {
+            cl = new ArrayList<>();
+            cl.add(classification);
+            classifications.put(FACE_LABEL, cl);
+          }
+          bb.add(rect);
+          data.putBoundingBoxArray(bb);
         }
-        bb.add(rect);
-        data.putBoundingBoxArray(bb);
       }
     }
 
     publishClassification(classifications);
-    IplImage result = converter2.toImage(srcMat);
-    ne.close();
-    return result;
+    return converter2.toImage(srcMat);
+  }
+
+  /**
+   * @param blocking
+   *          wait for the detections of each frame - false uses the latest
+   *          detections and lets the video run faster than the net
+   */
+  public void setBlocking(boolean blocking) {
+    this.blocking = blocking;
   }
 
   @Override
   public void release() {
     // TODO Auto-generated method stub
     super.release();
+    if (net != null) {
+      InferenceExecutor.getInstance().releaseModel(net.getModelName());
+      net = null;
+    }
     converter1.close();
     converter2.close();
   }
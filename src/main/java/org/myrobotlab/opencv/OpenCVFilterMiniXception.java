@@ -10,8 +10,10 @@ import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.bytedeco.opencv.opencv_core.CvScalar;
@@ -35,15 +37,16 @@ import org.slf4j.Logger;
  * @author kwatters
  *
  */
-public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
+public class OpenCVFilterMiniXception extends OpenCVFilter {
 
   private static final long serialVersionUID = 1L;
   public transient final static Logger log = LoggerFactory.getLogger(OpenCVFilterMiniXception.class.getCanonicalName());
   private transient Deeplearning4j dl4j;
   private transient CvFont font = cvFont(CV_FONT_HERSHEY_PLAIN);
-  protected Boolean running;
-  public Map<String, Double> lastResult = null;
-  private volatile IplImage lastImage = null;
+  public volatile Map<String, Double> lastResult = null;
+  private transient MiniXceptionModel model;
+  private transient int count = 0;
+  private transient long start = 0;
   // the additional border around the face detection to include in the emotion
   // classification. (in pixels)
   private int boxSlop = 10;
@@ -53,6 +56,50 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
   transient private CloseableFrameConverter converter1 = new CloseableFrameConverter();
   transient private CloseableFrameConverter converter2 = new CloseableFrameConverter();
 
+  /**
+   * a face to classify and the confidence the emotions must have
+   */
+  public static class Face {
+    final IplImage image;
+    final double confidence;
+
+    public Face(IplImage image, double confidence) {
+      this.image = image;
+      this.confidence = confidence;
+    }
+  }
+
+  /**
+   * mini XCEPTION of the Deeplearning4j service - one face at a time
+   */
+  public static class MiniXceptionModel implements InferenceExecutor.Model<Face, Map<String, Double>> {
+
+    final transient Deeplearning4j dl4j;
+
+    public MiniXceptionModel(Deeplearning4j dl4j) {
+      this.dl4j = dl4j;
+    }
+
+    @Override
+    public String getModelName() {
+      return String.format("%s.miniXception", dl4j.getName());
+    }
+
+    @Override
+    public int getMaxBatch() {
+      return 1;
+    }
+
+    @Override
+    public List<Map<String, Double>> infer(List<Face> inputs) throws IOException {
+      List<Map<String, Double>> results = new ArrayList<>();
+      for (Face face : inputs) {
+        results.add(dl4j.classifyImageMiniEXCEPTION(face.image, face.confidence));
+      }
+      return results;
+    }
+  }
+
   public OpenCVFilterMiniXception(String name) {
     super(name);
     loadDL4j();
@@ -69,10 +116,7 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
       return;
     }
     log.info("Done loading model..");
-    // start classifier thread
-    Thread classifier = new Thread(this, "DL4JMiniXceptionClassifierThread");
-    classifier.start();
-    log.info("DL4J Mini Xception Classifier thread started : {}", this.name);
+    model = InferenceExecutor.getInstance().getModel(String.format("%s.miniXception", dl4j.getName()), () -> new MiniXceptionModel(dl4j));
   }
 
   @Override
@@ -84,8 +128,7 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
       displayResult(image, lastResult);
     }
 
-    // there's something currently being processed.. skip
-    if (lastImage != null) {
+    if (model == null) {
       return image;
     }
     // here we want to update the lastImage as the one with the bounding box.
@@ -93,6 +136,7 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
     // we should grab the center of the first box..
     // crop a square around that center.. and set that as the last image to pass
     // to the emotion detector.
+    Rect miniBox = null;
     if (boxes != null) {
       for (Rectangle box : boxes) {
         // log.info("Processing Box : {}", box);
@@ -102,19 +146,53 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
         // create a new box
         int miniExceptionWidth = (int) Math.max(box.width, box.height) + boxSlop;
         // int miniExceptionWidth = 64;
-        Rect miniBox = new Rect(x - miniExceptionWidth / 2, y - miniExceptionWidth / 2, miniExceptionWidth, miniExceptionWidth);
-        // now.. we need to crap the image for this bounding box..
-        lastImage = extractSubImage(converter1.toMat(image), miniBox);
+        miniBox = new Rect(x - miniExceptionWidth / 2, y - miniExceptionWidth / 2, miniExceptionWidth, miniExceptionWidth);
         // Here
       }
     }
 
+    if (miniBox != null) {
+      // now.. we need to crap the image for this bounding box..
+      // only the latest face waits for the net - the one before is dropped if
+      // it has not started
+      IplImage face = extractSubImage(converter1.toMat(image), miniBox);
+      if (start == 0) {
+        start = System.currentTimeMillis();
+      }
+      InferenceExecutor.getInstance().submit(model, String.format("%s.%s", data.getName(), name), data.getFrameIndex(), new Face(face, confidence))
+          .thenAccept(result -> classified(result)).whenComplete((v, e) -> {
+            ImagePool.getInstance().release(face);
+            if (e != null && !(e.getCause() instanceof CancellationException)) {
+              log.warn("Exception classifying image!", e);
+            }
+          });
+    }
+
     return image;
   }
 
+  /**
+   * the emotions of a face are in - on the inference thread
+   */
+  private void classified(Map<String, Double> result) {
+    count++;
+    lastResult = result;
+    // Sort this lastResult based on it's value..
+    if (count % 100 == 0) {
+      double rate = 1000.0 * count / (System.currentTimeMillis() - start);
+      log.info("DL4J Filter Rate: {}", rate);
+    }
+    invoke("publishClassification", lastResult);
+    if (lastResult != null && lastResult.size() > 0)
+      log.info(formatResultString(lastResult));
+  }
+
+  /**
+   * @return a pooled copy of the box - the frame goes on while it is classified
+   */
   private IplImage extractSubImage(Mat inputMat, Rect boundingBox) {
     Mat cropped = new Mat(inputMat, boundingBox);
-    IplImage image = converter2.toImage(cropped);
+    IplImage image = ImagePool.getInstance().copy(converter2.toImage(cropped));
     show(image, "sub image from miniXception.");
     return image;
   }
@@ -156,70 +234,14 @@ public class OpenCVFilterMiniXception extends OpenCVFilter implements Runnable {
 
   @Override
   public void release() {
-    running = false;
+    if (model != null) {
+      InferenceExecutor.getInstance().releaseModel(model.getModelName());
+      model = null;
+    }
     converter1.close();
     converter2.close();
   }
 
-  @Override
-  public void run() {
-
-    int count = 0;
-    long start = System.currentTimeMillis();
-    log.info("Starting the DL4J classifier thread...");
-    running = true;
-    // in a loop, grab the current image and classify it and update the result.
-    while (running) {// FIXME - must be able to release !!
-
-      if (!enabled) {
-        // sleep to avoid cpu usage
-        // TODO: come up with a better way of doing this (maybe shutdown this
-        // thread and restart when it enables/disbales?)
-        try {
-          Thread.sleep(10);
-        } catch (InterruptedException e) {
-          log.info("Dl4j classifier thread interrupted", e);
-        }
-        continue;
-      }
-      // log.info("Running!!!");
-      // now we need to know which image we should classify
-      // there likely needs to be some synchronization on this too.. o/w the
-      // main thread will
-      // be updating it while it's being classified maybe?!
-      if (lastImage != null) {
-        try {
-          count++;
-          lastResult = dl4j.classifyImageMiniEXCEPTION(lastImage, confidence);
-          // Sort this lastResult based on it's value..
-          if (count % 100 == 0) {
-            double rate = 1000.0 * count / (System.currentTimeMillis() - start);
-            log.info("DL4J Filter Rate: {}", rate);
-          }
-          invoke("publishClassification", lastResult);
-          if (lastResult != null && lastResult.size() > 0)
-            log.info(formatResultString(lastResult));
-        } catch (IOException e) {
-          log.warn("Exception classifying image!", e);
-        }
-        // at this point, presumably we've finished classifying this image.. we
-        // should null it out.
-        lastImage = null;
-      } else {
-        // log.info("No Image to classify...");
-      }
-      // TODO: see why there's a race condition. i seem to need a little delay
-      // here o/w the recognition never seems to start.
-      // maybe lastImage needs to be marked as volatile ?
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        // TODO Auto-generated catch block
-        e.printStackTrace();
-      }
-    }
-  }
-
   @Override
   public BufferedImage processDisplay(Graphics2D graphics, BufferedImage image) {
     return image;
@@ -1,6 +1,8 @@
 package org.myrobotlab.opencv;
 
 import static org.bytedeco.opencv.global.opencv_core.CV_32F;
+import static org.bytedeco.opencv.global.opencv_core.cvCopy;
+import static org.bytedeco.opencv.global.opencv_core.cvIplImage;
 import static org.bytedeco.opencv.global.opencv_dnn.blobFromImage;
 import static org.bytedeco.opencv.global.opencv_dnn.readNetFromDarknet;
 
@@ -16,7 +18,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 
+import org.bytedeco.javacpp.indexer.FloatIndexer;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.bytedeco.opencv.opencv_core.IplImage;
 import org.bytedeco.opencv.opencv_core.Mat;
@@ -25,18 +29,15 @@ import org.bytedeco.opencv.opencv_core.Scalar;
 import org.bytedeco.opencv.opencv_core.Size;
 import org.bytedeco.opencv.opencv_dnn.Net;
 import org.myrobotlab.document.Classification;
-import org.myrobotlab.framework.Service;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.math.geometry.Rectangle;
 import org.slf4j.Logger;
 
-public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
+public class OpenCVFilterYolo extends OpenCVFilter {
 
   private static final long serialVersionUID = 1L;
   public final static Logger log = LoggerFactory.getLogger(OpenCVFilterYolo.class);
 
-  protected Boolean running;
-
   // zero offset to where the confidence level is in the output matrix of the
   // darknet.
   private static final int CONFIDENCE_INDEX = 4;
@@ -62,15 +63,102 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
 
   transient DecimalFormat df2 = new DecimalFormat("#.###");
 
-  transient private OpenCVFrameConverter.ToIplImage converterToIpl = new OpenCVFrameConverter.ToIplImage();
-
   boolean debug = false;
-  transient private Net net;
-  ArrayList<String> classNames;
-  public ArrayList<Classification> lastResult = null;
-  transient private volatile IplImage lastImage = null;
-  private volatile boolean pending = false;
-  transient private Thread classifier;
+  transient private YoloModel model;
+  public volatile ArrayList<Classification> lastResult = null;
+
+  /**
+   * classifications done and when the first was asked for - for the rate
+   */
+  transient private int count = 0;
+  transient private long start = 0;
+
+  /**
+   * yolo darknet - loaded by the InferenceExecutor worker the first time it
+   * runs, the weights take a while. The region layer is given one frame at a
+   * time.
+   */
+  public static class YoloModel implements InferenceExecutor.Model<Mat, float[][]> {
+
+    final String modelConfig;
+    final String modelWeights;
+    final String modelNames;
+    transient Net net;
+    volatile ArrayList<String> classNames;
+
+    public YoloModel(String modelConfig, String modelWeights, String modelNames) {
+      this.modelConfig = modelConfig;
+      this.modelWeights = modelWeights;
+      this.modelNames = modelNames;
+    }
+
+    @Override
+    public String getModelName() {
+      return modelWeights;
+    }
+
+    @Override
+    public int getMaxBatch() {
+      return 1;
+    }
+
+    private void loadYolo() throws IOException {
+      log.info("loadYolo - begin");
+      net = readNetFromDarknet(modelConfig, modelWeights);
+      log.info("Loaded yolo darknet model to opencv");
+      // load the class names
+      classNames = loadClassNames(modelNames);
+      log.info("loadYolo - end");
+    }
+
+    /**
+     * @param inputs
+     *          frames
+     * @return rows of the detection matrix of each frame
+     */
+    @Override
+    public List<float[][]> infer(List<Mat> inputs) throws IOException {
+      if (net == null) {
+        loadYolo();
+      }
+      List<float[][]> results = new ArrayList<>();
+      for (Mat inputMat : inputs) {
+        // TODO: I think yolo expects RGB color (which is inverted in the next
+        // step) so if the input image isn't in RGB color, we might need a
+        // cvCutColor
+        Mat inputBlob = blobFromImage(inputMat, 1 / 255.F, new Size(416, 416), new Scalar(), true, false, CV_32F);
+        // put our frame/input blob into the model.
+        net.setInput(inputBlob);
+        // ask for the detection_out layer i guess? not sure the details of the
+        // forward method, but this computes everything like magic!
+        Mat detectionMat = net.forward("detection_out");
+        FloatIndexer indexer = detectionMat.createIndexer();
+        float[][] rows = new float[detectionMat.rows()][detectionMat.cols()];
+        for (int i = 0; i < rows.length; i++) {
+          for (int c = 0; c < rows[i].length; c++) {
+            rows[i][c] = indexer.get(i, c);
+          }
+        }
+        indexer.release();
+        detectionMat.close();
+        inputBlob.close();
+        results.add(rows);
+      }
+      return results;
+    }
+
+    public List<String> getClassNames() {
+      return classNames;
+    }
+
+    @Override
+    public void close() {
+      if (net != null) {
+        net.deallocate();
+        net = null;
+      }
+    }
+  }
 
   public OpenCVFilterYolo(String name) {
     super(name);
@@ -81,28 +169,7 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
     this(null);
   }
 
-  private void loadYolo() {
-    log.info("loadYolo - begin");
-
-    try {
-      net = readNetFromDarknet(darknetHome + File.separator + modelConfig, darknetHome + File.separator + modelWeights);
-      log.info("Loaded yolo darknet model to opencv");
-    } catch (Exception e) {
-      log.error("readNetFromDarknet could not read", e);
-      return;
-    }
-    // load the class names
-    try {
-      classNames = loadClassNames(darknetHome + File.separator + modelNames);
-    } catch (IOException e) {
-      log.warn("Error unable to load class names from file {}", modelNames, e);
-      return;
-    }
-    log.info("Done loading model..");
-    log.info("loadYolo - end");
-  }
-
-  private ArrayList<String> loadClassNames(String filename) throws IOException {
+  private static ArrayList<String> loadClassNames(String filename) throws IOException {
     log.info("loadClassNames - begin");
     ArrayList<String> names = new ArrayList<String>();
     FileReader fileReader = new FileReader(filename);
@@ -122,17 +189,23 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
 
   @Override
   public IplImage process(IplImage image) throws InterruptedException {
-    if (lastResult != null) {
-      // the thread running will be updating lastResult for it as fast as it
-      // can.
-      // displayResult(image, lastResult);
+    if (!enabled || model == null) {
+      return image;
     }
-    // ok now we just need to update the image that the current thread is
-    // processing (if the current thread is idle i guess?)
-    lastImage = image;
-    if (enabled) {
-      pending = true;
+    // the worker has its own copy - the video goes on with the next frame
+    Mat inputMat = grabberConverter.convertToMat(grabberConverter.convert(image)).clone();
+    String source = String.format("%s.%s", data.getName(), name);
+    int frameIndex = data.getFrameIndex();
+    if (start == 0) {
+      start = System.currentTimeMillis();
     }
+    InferenceExecutor.getInstance().submit(model, source, frameIndex, inputMat).thenAccept(rows -> classified(yoloFrame(inputMat, rows, source, frameIndex))).whenComplete((v, e) -> {
+      inputMat.close();
+      // a newer frame took its place - not an error
+      if (e != null && !(e.getCause() instanceof CancellationException)) {
+        log.warn("yolo frame {} failed", frameIndex, e);
+      }
+    });
     return image;
   }
 
@@ -140,108 +213,41 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
   public void imageChanged(IplImage image) {
   }
 
-  @Override
-  public void run() {
-    log.info("yolo run - begin");
-    try {
-      int count = 0;
-      long start = System.currentTimeMillis();
-      loadYolo();
-      log.info("Starting the Yolo classifier thread...");
-      // in a loop, grab the current image and classify it and update the
-      // result.
-      running = true;
-      // loading the model takes a lot of time, we want to block enable/disable
-      // until we are actually running - then we notifyAll
-
-      while (running && enabled) {
-        if (!pending) {
-          log.debug("Skipping frame");
-          Thread.sleep(10);
-          continue;
-        }
-
-        log.info("process - begin");
-        // only classify this if we haven't already classified it.
-        if (lastImage != null) {
-          // lastResult = dl4j.classifyImageVGG16(lastImage);
-          log.debug("Doing yolo...");
-          lastResult = yoloFrame(lastImage);
-          // log.info("Yolo done.");
-          // we processed, next object we'll pick up.
-          pending = false;
-          count++;
-          if (count % 10 == 0) {
-            double rate = 1000.0 * count / (float) (System.currentTimeMillis() - start);
-            log.info("Yolo Classification Rate : {}", rate);
-          }
-
-          Map<String, List<Classification>> ret = new TreeMap<>();
-          for (Classification c : lastResult) {
-            List<Classification> nl = null;
-            if (ret.containsKey(c.getLabel())) {
-              nl = ret.get(c.getLabel());
-            } else {
-              nl = new ArrayList<>();
-              ret.put(c.getLabel(), nl);
-            }
-            nl.add(c);
-          }
-
-          invoke("publishClassification", ret);
-        } else {
-          log.info("No Image to classify...");
-        }
-        // TODO: see why there's a race condition. i seem to need a little delay
-        // here o/w the recognition never seems to start.
-        // maybe lastImage needs to be marked as volatile ?
-
-        Thread.sleep(1);
-      } // while (running)
-
-    } catch (Exception e) {
-      log.error("yolo thread threw", e);
+  /**
+   * the detections of a frame are in - on the inference thread
+   */
+  private void classified(ArrayList<Classification> result) {
+    lastResult = result;
+    count++;
+    if (count % 10 == 0) {
+      double rate = 1000.0 * count / (float) (System.currentTimeMillis() - start);
+      log.info("Yolo Classification Rate : {}", rate);
     }
 
-    synchronized (lock) {
-      classifier = null;
+    Map<String, List<Classification>> ret = new TreeMap<>();
+    for (Classification c : result) {
+      List<Classification> nl = null;
+      if (ret.containsKey(c.getLabel())) {
+        nl = ret.get(c.getLabel());
+      } else {
+        nl = new ArrayList<>();
+        ret.put(c.getLabel(), nl);
+      }
+      nl.add(c);
     }
 
-    log.info("yolo exiting classifier thread");
-    log.info("run - end");
+    invoke("publishClassification", ret);
   }
 
-  private ArrayList<Classification> yoloFrame(IplImage frame) {
+  private ArrayList<Classification> yoloFrame(Mat inputMat, float[][] rows, String source, int frameIndex) {
     log.debug("Starting yolo on frame...");
-    log.info("yoloFrame - begin");
     // this is our list of objects that have been detected in a given frame.
     ArrayList<Classification> yoloObjects = new ArrayList<Classification>();
-    // convert that frame to a matrix (Mat) using the frame converters in javacv
-
-    log.info("yoloFrame - grabberConverter {}", frame);
-    // log.info("Yolo frame start");
-    Mat inputMat = grabberConverter.convertToMat(grabberConverter.convert(frame));
-    // log.info("Input mat created");
-    // TODO: I think yolo expects RGB color (which is inverted in the next step)
-    // so if the input image isn't in RGB color, we might need a cvCutColor
-    log.info("yoloFrame - blobFromImage");
-    Mat inputBlob = blobFromImage(inputMat, 1 / 255.F, new Size(416, 416), new Scalar(), true, false, CV_32F);
-    // put our frame/input blob into the model.
-    // log.info("input blob created");
-    log.info("yoloFrame - blob {}", inputBlob);
-    net.setInput(inputBlob);
-
-    log.debug("Feed forward!");
-    // log.info("Input blob set on network.");
-    // ask for the detection_out layer i guess? not sure the details of the
-    // forward method, but this computes everything like magic!
-    Mat detectionMat = net.forward("detection_out");
-    // log.info("output detection matrix produced");
-    log.debug("detection matrix computed");
+    List<String> classNames = model.getClassNames();
     // iterate the rows of the detection matrix.
-    for (int i = 0; i < detectionMat.rows(); i++) {
-      Mat currentRow = detectionMat.row(i);
-      float confidence = currentRow.getFloatBuffer().get(CONFIDENCE_INDEX);
+    for (int i = 0; i < rows.length; i++) {
+      float[] currentRow = rows[i];
+      float confidence = currentRow[CONFIDENCE_INDEX];
       if (confidence < confidenceThreshold) {
         // skip the noise
         continue;
@@ -256,8 +262,8 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
       // String className = getWithDefault(classNames, i);
       // System.out.print("\nROW (" + className + "): " +
       // currentRow.getFloatBuffer().get(4) + " -- \t\t");
-      for (int c = CONFIDENCE_INDEX + 1; c < currentRow.size().get(); c++) {
-        float val = currentRow.getFloatBuffer().get(c);
+      for (int c = CONFIDENCE_INDEX + 1; c < currentRow.length; c++) {
+        float val = currentRow[c];
         // TODO: this filtering logic is probably wrong.
         if (val > 0.0) {
           String label = classNames.get(c - CONFIDENCE_INDEX - 1);
@@ -271,11 +277,11 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
           // classNames.get(c-probability_index) );
           // let's just say this is something we've detected..
           // ok. in theory this is something we think it might actually be.
-          float x = currentRow.getFloatBuffer().get(0);
-          float y = currentRow.getFloatBuffer().get(1);
+          float x = currentRow[0];
+          float y = currentRow[1];
 
-          float width = currentRow.getFloatBuffer().get(2);
-          float height = currentRow.getFloatBuffer().get(3);
+          float width = currentRow[2];
+          float height = currentRow[3];
           int xLeftBottom = (int) ((x - width / 2) * inputMat.cols());
           int yLeftBottom = (int) ((y - height / 2) * inputMat.rows());
           int xRightTop = (int) ((x + width / 2) * inputMat.cols());
@@ -308,18 +314,17 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
             debug = false;
             show(cropped, "detected img");
           }
-          Classification obj = new Classification(String.format("%s.%s-%d", data.getName(), name, data.getFrameIndex()));
+          Classification obj = new Classification(String.format("%s-%d", source, frameIndex));
           obj.setLabel(label);
           obj.setBoundingBox(xLeftBottom, yLeftBottom, xRightTop - xLeftBottom, yRightTop - yLeftBottom);
           obj.setConfidence(confidence);
           // obj.setImage(data.getDisplay());
           // for non-serializable "local" image objects
-          obj.setObject(frame);
+          obj.setObject(cropped);
           yoloObjects.add(obj);
         }
       }
     }
-    log.info("yoloFrame - end");
     return yoloObjects;
   }
 
@@ -332,8 +337,11 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
     // out of bounds
     Mat cropped = new Mat(inputMat, boundingBox);
 
-    IplImage image = converterToIpl.convertToIplImage(converterToIpl.convert(cropped));
-    // This mat should be the cropped image!
+    // a copy - the frame is freed when the detections are done
+    IplImage roi = cvIplImage(cropped);
+    IplImage image = IplImage.create(roi.width(), roi.height(), roi.depth(), roi.nChannels());
+    cvCopy(roi, image, null);
+    cropped.close();
 
     log.info("extractSubImage - end");
     return image;
@@ -341,54 +349,25 @@ public class OpenCVFilterYolo extends OpenCVFilter implements Runnable {
 
   @Override
   public void release() {
-    // synchronized (lock) {
     log.info("release - begin");
-    disable(); // blocks until ready
-
-    // while(isRunning){ sleep(30) .. check again }
-    // bleed out the thread before deallocating
-
-    if (net != null) {
-      net.deallocate();
-      net = null;
+    disable();
+    if (model != null) {
+      InferenceExecutor.getInstance().releaseModel(model.getModelName());
+      model = null;
     }
     log.info("release - end");
-    // }
   }
 
-  volatile Object lock = new Object();
-
   @Override
   public void enable() {
-    if (classifier != null) {
-      // already enabled
-      return;
-    }
     log.info("enabling yolo");
-    synchronized (lock) {
-      log.info("enable - begin");
-      super.enable();
-      if (classifier == null) {
-        classifier = new Thread(this, "YoloClassifierThread");
-        classifier.start();
-      }
-      log.info("enable - end");
-    }
-  }
-
-  @Override
-  public void disable() {
-    if (classifier == null) {
-      // already disabled
-      return;
-    }
-    super.disable();
-    int waitTime = 0;
-    while (classifier != null && waitTime < 1000) {
-      ++waitTime;
-      Service.sleep(10);
+    super.enable();
+    if (model == null) {
+      String modelConfig = darknetHome + File.separator + this.modelConfig;
+      String modelWeights = darknetHome + File.separator + this.modelWeights;
+      String modelNames = darknetHome + File.separator + this.modelNames;
+      model = InferenceExecutor.getInstance().getModel(modelWeights, () -> new YoloModel(modelConfig, modelWeights, modelNames));
     }
-    log.info("capture - waited {} times", waitTime);
   }
 
   @Override
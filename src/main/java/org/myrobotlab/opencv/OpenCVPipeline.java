@@ -0,0 +1,369 @@
+package org.myrobotlab.opencv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.myrobotlab.framework.Histogram;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.OpenCV;
+import org.slf4j.Logger;
+
+/**
+ * Runs the filters of an OpenCV service as a pipeline - each stage on its own
+ * thread with a bounded queue of frames in front of it, so while a stage works
+ * on frame k the stage before it works on frame k+1 and the grabber is already
+ * on frame k+2. Throughput is 1/(slowest stage) instead of 1/(grab + all
+ * filters + display).
+ *
+ * A stage is a filter, or a run of consecutive filters with a sourceKey which
+ * is not the output of another filter in the run - those read their own input
+ * and are run at the same time on a pool, each on a fork of the frame's data
+ * which is merged back in filter order. The last stage is the display and the
+ * publishing of the frame.
+ *
+ * Filters reuse their output image from frame to frame, so the image a stage
+ * puts is copied into the frame before it is handed on.
+ *
+ * When the first queue is full and latest is set the oldest frame waiting is
+ * dropped - real time tracking wants the newest frame, not every frame.
+ * Otherwise the grabber waits.
+ */
+public class OpenCVPipeline {
+
+  public final static Logger log = LoggerFactory.getLogger(OpenCVPipeline.class);
+
+  static final AtomicInteger branchThreadId = new AtomicInteger();
+
+  /**
+   * metrics of a stage at one point in time
+   */
+  public static class StageStats {
+    public String name;
+    public long frames;
+    public int queued;
+    public double fps;
+    /**
+     * ns a frame spent in the stage
+     */
+    public Histogram.Summary busy;
+
+    @Override
+    public String toString() {
+      return String.format("%-24s %6d frames %6.1f fps queued %d busy mean %6.2f ms p99 %6.2f ms", name, frames, fps, queued, (busy.mean / 1e6), (busy.p99 / 1e6));
+    }
+  }
+
+  public static class Stats {
+    public long frames;
+    public long dropped;
+    public double fps;
+    /**
+     * ns from the frame's grab to the end of the last stage
+     */
+    public Histogram.Summary latency;
+    public List<StageStats> stages = new ArrayList<>();
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("%d frames %d dropped %.1f fps latency mean %.2f ms p99 %.2f ms\n", frames, dropped, fps, (latency.mean / 1e6), (latency.p99 / 1e6)));
+      for (StageStats stage : stages) {
+        sb.append("  ").append(stage).append("\n");
+      }
+      return sb.toString();
+    }
+  }
+
+  class Stage implements Runnable {
+    final String name;
+    /**
+     * more than one are branches run at the same time - none is the display
+     * and publishing stage
+     */
+    final List<OpenCVFilter> filters;
+    final BlockingQueue<OpenCVData> in;
+    final Histogram busy = new Histogram();
+    Stage next;
+    Thread thread;
+    volatile boolean closing = false;
+
+    Stage(String name, List<OpenCVFilter> filters) {
+      this.name = name;
+      this.filters = filters;
+      this.in = new ArrayBlockingQueue<>(ringSize);
+    }
+
+    @Override
+    public void run() {
+      while (!closing || !in.isEmpty()) {
+        OpenCVData data;
+        try {
+          data = in.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          break;
+        }
+        if (data == null) {
+          continue;
+        }
+        long start = System.nanoTime();
+        try {
+          process(data);
+        } catch (InterruptedException e) {
+          break;
+        } catch (Exception e) {
+          log.error("{} stage {} frame {} threw", opencv.getName(), name, data.getFrameIndex(), e);
+        }
+        busy.record(System.nanoTime() - start);
+        try {
+          if (next != null) {
+            next.in.put(data);
+          }
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+
+    void process(OpenCVData data) throws Exception {
+      if (filters.isEmpty()) {
+        opencv.publishVideo(data);
+        data.dispose();
+        latency.record(System.nanoTime() - data.pipelineNs);
+        frames.incrementAndGet();
+        return;
+      }
+      if (filters.size() == 1) {
+        OpenCVFilter filter = filters.get(0);
+        if (opencv.processFilter(filter, data)) {
+          opencv.processFilterDisplay(filter);
+          data.keepImage(filter.name);
+        }
+        return;
+      }
+      List<OpenCVData> forks = new ArrayList<>();
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (OpenCVFilter filter : filters) {
+        OpenCVData fork = data.fork();
+        forks.add(fork);
+        results.add(branches.submit(() -> opencv.processFilter(filter, fork)));
+      }
+      for (int i = 0; i < filters.size(); ++i) {
+        OpenCVFilter filter = filters.get(i);
+        boolean processed = results.get(i).get();
+        data.merge(forks.get(i));
+        if (processed) {
+          filter.setDisplayData(data);
+          opencv.processFilterDisplay(filter);
+          data.keepImage(filter.name);
+        }
+      }
+    }
+  }
+
+  final OpenCV opencv;
+
+  final List<OpenCVFilter> filters;
+
+  final int ringSize;
+
+  final boolean latest;
+
+  final List<Stage> stages = new ArrayList<>();
+
+  final ExecutorService branches;
+
+  final Histogram latency = new Histogram();
+
+  final AtomicLong frames = new AtomicLong();
+
+  final AtomicLong dropped = new AtomicLong();
+
+  long startNs;
+
+  volatile boolean stale = false;
+
+  /**
+   * @param opencv
+   *          service the filters are in
+   * @param filters
+   *          enabled filters in order
+   * @param ringSize
+   *          frames waiting in front of each stage
+   * @param latest
+   *          drop the oldest frame waiting when the first stage is full
+   * @param branchThreads
+   *          threads for filters run at the same time
+   */
+  public OpenCVPipeline(OpenCV opencv, List<OpenCVFilter> filters, int ringSize, boolean latest, int branchThreads) {
+    this.opencv = opencv;
+    this.filters = new ArrayList<>(filters);
+    this.ringSize = Math.max(1, ringSize);
+    this.latest = latest;
+
+    List<OpenCVFilter> group = new ArrayList<>();
+    for (OpenCVFilter filter : filters) {
+      if (!group.isEmpty() && !isBranch(group, filter)) {
+        addStage(group);
+        group = new ArrayList<>();
+      }
+      group.add(filter);
+    }
+    if (!group.isEmpty()) {
+      addStage(group);
+    }
+    addStage(new ArrayList<>());
+
+    boolean parallel = false;
+    for (Stage stage : stages) {
+      parallel |= stage.filters.size() > 1;
+    }
+    branches = (parallel) ? Executors.newFixedThreadPool(Math.max(1, branchThreads), r -> {
+      Thread t = new Thread(r, String.format("%s-branch-%d", opencv.getName(), branchThreadId.incrementAndGet()));
+      t.setDaemon(true);
+      return t;
+    }) : null;
+  }
+
+  /**
+   * @return true if the filter can run at the same time as the group - they
+   *         all read an image named by their sourceKey, none of them the
+   *         output of another in the group
+   */
+  static boolean isBranch(List<OpenCVFilter> group, OpenCVFilter filter) {
+    List<OpenCVFilter> all = new ArrayList<>(group);
+    all.add(filter);
+    for (OpenCVFilter f : all) {
+      String sourceKey = f.getSourceKey();
+      if (sourceKey == null || sourceKey.isEmpty()) {
+        return false;
+      }
+      for (OpenCVFilter other : all) {
+        if (sourceKey.equals(other.name)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  void addStage(List<OpenCVFilter> group) {
+    StringBuilder name = new StringBuilder();
+    for (OpenCVFilter filter : group) {
+      if (name.length() > 0) {
+        name.append("|");
+      }
+      name.append(filter.name);
+    }
+    Stage stage = new Stage((group.isEmpty()) ? "display" : name.toString(), group);
+    if (!stages.isEmpty()) {
+      stages.get(stages.size() - 1).next = stage;
+    }
+    stages.add(stage);
+  }
+
+  public void start() {
+    startNs = System.nanoTime();
+    for (Stage stage : stages) {
+      stage.thread = new Thread(stage, String.format("%s-stage-%s", opencv.getName(), stage.name));
+      stage.thread.setDaemon(true);
+      stage.thread.start();
+    }
+  }
+
+  /**
+   * hands a grabbed frame to the first stage
+   *
+   * @param data
+   *          the frame
+   * @throws InterruptedException
+   *           stopped while waiting for room
+   */
+  public void offer(OpenCVData data) throws InterruptedException {
+    data.pipelineNs = System.nanoTime();
+    BlockingQueue<OpenCVData> in = stages.get(0).in;
+    if (!latest) {
+      in.put(data);
+      return;
+    }
+    while (!in.offer(data)) {
+      OpenCVData old = in.poll();
+      if (old != null) {
+        old.dispose();
+        dropped.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * @param enabled
+   *          the enabled filters of the service
+   * @return true if this pipeline runs those filters
+   */
+  public boolean isFor(List<OpenCVFilter> enabled) {
+    if (stale || enabled.size() != filters.size()) {
+      return false;
+    }
+    for (int i = 0; i < enabled.size(); ++i) {
+      if (enabled.get(i) != filters.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * its settings have changed - the service makes a new one
+   */
+  public void setStale() {
+    stale = true;
+  }
+
+  /**
+   * stops the stages in order - each finishes the frames already handed to it
+   */
+  public void stop() {
+    for (Stage stage : stages) {
+      stage.closing = true;
+      try {
+        stage.thread.join(5000);
+      } catch (InterruptedException e) {
+        break;
+      }
+      if (stage.thread.isAlive()) {
+        log.warn("{} stage {} did not stop", opencv.getName(), stage.name);
+        stage.thread.interrupt();
+      }
+    }
+    if (branches != null) {
+      branches.shutdownNow();
+    }
+  }
+
+  public Stats getStats() {
+    Stats stats = new Stats();
+    double seconds = (System.nanoTime() - startNs) / 1e9;
+    stats.frames = frames.get();
+    stats.dropped = dropped.get();
+    stats.fps = (seconds > 0) ? stats.frames / seconds : 0;
+    stats.latency = latency.getSummary();
+    for (Stage stage : stages) {
+      StageStats s = new StageStats();
+      s.name = stage.name;
+      s.busy = stage.busy.getSummary();
+      s.frames = s.busy.count;
+      s.fps = (seconds > 0) ? s.frames / seconds : 0;
+      s.queued = stage.in.size();
+      stats.stages.add(s);
+    }
+    return stats;
+  }
+
+}
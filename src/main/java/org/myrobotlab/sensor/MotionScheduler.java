@@ -0,0 +1,348 @@
+package org.myrobotlab.sensor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.myrobotlab.framework.Histogram;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.data.ServoMove;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Process wide motion clock. Every TimeEncoder used to have its own thread
+ * sleeping between samples of its move - now one thread advances every active
+ * move in the same tick:
+ *
+ *   - each motion updates its position and publishes its encoder data
+ *   - JointStateListeners get the positions of all of them in one call
+ *   - motions which write their controller are sent as one onServoMoveGroup
+ *     per controller
+ *
+ * The thread waits while nothing is moving. Lateness of every tick is kept in
+ * a histogram (getJitter). In deterministic mode there is no thread - time
+ * only moves with advance(ms), which runs the ticks, so tests do not depend
+ * on the machine they run on.
+ * </pre>
+ */
+public class MotionScheduler implements Runnable {
+
+  public final static Logger log = LoggerFactory.getLogger(MotionScheduler.class);
+
+  public final static double DEFAULT_TICK_RATE_HZ = 10;
+
+  /**
+   * something moving on the clock - a TimeEncoder. Updates are made holding
+   * the lock of the motion, a motion schedules itself holding it too - so a
+   * new move is never removed as the end of the one before.
+   */
+  public interface Motion {
+
+    /**
+     * advances the motion to now
+     *
+     * @param nowMs
+     *          time of the tick
+     * @return false when it has finished
+     */
+    boolean update(long nowMs);
+
+    /**
+     * @return name of the joint
+     */
+    String getName();
+
+    /**
+     * @return position after the last update
+     */
+    Double getPos();
+
+    /**
+     * @return the controller the position of each tick is written to - null if
+     *         the controller moves the joint itself
+     */
+    String getController();
+
+    /**
+     * @return the write of this tick for the controller
+     */
+    ServoMove getMove();
+  }
+
+  /**
+   * positions of everything which moved in a tick
+   */
+  public interface JointStateListener {
+    void onJointStates(long tick, Map<String, Double> positions);
+  }
+
+  private static volatile MotionScheduler instance;
+
+  final Set<Motion> motions = new LinkedHashSet<>();
+
+  /**
+   * reused by every tick
+   */
+  final List<Motion> active = new ArrayList<>();
+
+  final List<JointStateListener> listeners = new CopyOnWriteArrayList<>();
+
+  final Histogram jitter = new Histogram();
+
+  volatile long periodNs = (long) (1000000000L / DEFAULT_TICK_RATE_HZ);
+
+  transient Thread thread = null;
+
+  boolean deterministic = false;
+
+  /**
+   * time of deterministic mode
+   */
+  long timeMs = 0;
+
+  long tickCount = 0;
+
+  long missedTicks = 0;
+
+  public static MotionScheduler getInstance() {
+    if (instance != null) {
+      return instance;
+    }
+    synchronized (MotionScheduler.class) {
+      if (instance == null) {
+        instance = new MotionScheduler();
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @return time of the clock in ms
+   */
+  synchronized public long now() {
+    return (deterministic) ? timeMs : System.currentTimeMillis();
+  }
+
+  /**
+   * adds a motion - the next tick starts updating it
+   *
+   * @return false if it was already moving
+   */
+  synchronized public boolean schedule(Motion motion) {
+    boolean added = motions.add(motion);
+    if (!deterministic && thread == null) {
+      thread = new Thread(this, "motion-clock");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    notifyAll();
+    return added;
+  }
+
+  synchronized public boolean isScheduled(Motion motion) {
+    return motions.contains(motion);
+  }
+
+  synchronized public void remove(Motion motion) {
+    motions.remove(motion);
+  }
+
+  synchronized public int getActiveCount() {
+    return motions.size();
+  }
+
+  @Override
+  public void run() {
+    try {
+      long next = System.nanoTime();
+      while (true) {
+        synchronized (this) {
+          if (deterministic || thread != Thread.currentThread()) {
+            break;
+          }
+          if (motions.isEmpty()) {
+            wait();
+            next = System.nanoTime();
+            continue;
+          }
+        }
+        long sleepNs = next - System.nanoTime();
+        if (sleepNs > 0) {
+          Thread.sleep(sleepNs / 1000000, (int) (sleepNs % 1000000));
+        }
+        long late = System.nanoTime() - next;
+        jitter.record(Math.max(0, late));
+        tick(System.currentTimeMillis());
+        next += periodNs;
+        if (System.nanoTime() - next > periodNs) {
+          // too far behind to catch up - drop the ticks rather than bunch them
+          long behind = (System.nanoTime() - next) / periodNs;
+          synchronized (this) {
+            missedTicks += behind;
+          }
+          next += behind * periodNs;
+        }
+      }
+    } catch (InterruptedException e) {
+      log.info("stopping motion clock");
+    }
+  }
+
+  /**
+   * advances every motion to nowMs
+   */
+  void tick(long nowMs) {
+    long tick;
+    synchronized (this) {
+      active.clear();
+      active.addAll(motions);
+      tick = ++tickCount;
+    }
+    Map<String, Double> positions = (listeners.isEmpty()) ? null : new LinkedHashMap<>();
+    Map<String, List<ServoMove>> writes = null;
+    for (Motion motion : active) {
+      String controller;
+      ServoMove move = null;
+      synchronized (motion) {
+        boolean moving;
+        try {
+          moving = motion.update(nowMs);
+        } catch (Exception e) {
+          log.error("{} update threw", motion.getName(), e);
+          moving = false;
+        }
+        if (!moving) {
+          remove(motion);
+        }
+        if (positions != null) {
+          positions.put(motion.getName(), motion.getPos());
+        }
+        controller = motion.getController();
+        if (controller != null) {
+          move = motion.getMove();
+        }
+      }
+      if (move != null) {
+        if (writes == null) {
+          writes = new LinkedHashMap<>();
+        }
+        writes.computeIfAbsent(controller, c -> new ArrayList<>()).add(move);
+      }
+    }
+    if (positions != null && !positions.isEmpty()) {
+      for (JointStateListener listener : listeners) {
+        listener.onJointStates(tick, positions);
+      }
+    }
+    if (writes != null) {
+      for (Map.Entry<String, List<ServoMove>> entry : writes.entrySet()) {
+        Runtime.getInstance().send(entry.getKey(), "onServoMoveGroup", entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * moves the clock of deterministic mode forward one tick at a time
+   *
+   * @param ms
+   *          time to advance
+   */
+  public void advance(long ms) {
+    long periodMs = Math.max(1, periodNs / 1000000);
+    long end;
+    synchronized (this) {
+      if (!deterministic) {
+        throw new IllegalStateException("advance is only for deterministic mode");
+      }
+      end = timeMs + ms;
+    }
+    while (true) {
+      long now;
+      synchronized (this) {
+        if (timeMs >= end) {
+          return;
+        }
+        timeMs = Math.min(end, timeMs + periodMs);
+        now = timeMs;
+      }
+      tick(now);
+    }
+  }
+
+  /**
+   * @param deterministic
+   *          true stops the thread - the clock starts at 0 and only moves with
+   *          advance
+   */
+  synchronized public void setDeterministic(boolean deterministic) {
+    this.deterministic = deterministic;
+    if (deterministic) {
+      timeMs = 0;
+      if (thread != null) {
+        thread.interrupt();
+        thread = null;
+      }
+    } else if (!motions.isEmpty() && thread == null) {
+      thread = new Thread(this, "motion-clock");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  synchronized public boolean isDeterministic() {
+    return deterministic;
+  }
+
+  /**
+   * @param hz
+   *          ticks per second
+   */
+  public void setTickRate(double hz) {
+    if (hz <= 0) {
+      log.error("tick rate must be more than 0 - not {}", hz);
+      return;
+    }
+    periodNs = (long) (1000000000L / hz);
+  }
+
+  public double getTickRate() {
+    return 1000000000.0 / periodNs;
+  }
+
+  public void addJointStateListener(JointStateListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeJointStateListener(JointStateListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * @return how late ticks started in ns
+   */
+  public Histogram.Summary getJitter() {
+    return jitter.getSummary();
+  }
+
+  synchronized public long getTickCount() {
+    return tickCount;
+  }
+
+  synchronized public long getMissedTicks() {
+    return missedTicks;
+  }
+
+  public void resetStats() {
+    jitter.reset();
+    synchronized (this) {
+      missedTicks = 0;
+    }
+  }
+
+}
@@ -2,10 +2,11 @@ package org.myrobotlab.sensor;
 
 import java.util.Set;
 
-import org.myrobotlab.framework.Service;
 import org.myrobotlab.framework.interfaces.Attachable;
 import org.myrobotlab.framework.interfaces.Broadcaster;
 import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.math.interfaces.Mapper;
+import org.myrobotlab.service.data.ServoMove;
 import org.myrobotlab.service.interfaces.EncoderControl;
 import org.myrobotlab.service.interfaces.EncoderController;
 import org.myrobotlab.service.interfaces.ServoControl;
@@ -13,26 +14,28 @@ import org.slf4j.Logger;
 
 /**
  * TimeEncoder - a universal time encoder used for doing estimations and
- * planning of trajectories and paths. It works on a persistent thread put in a
- * wait state, waiting for requested estimations.
+ * planning of trajectories and paths. Each move is a precomputed Trajectory
+ * advanced by the process wide MotionScheduler - there is no thread per
+ * encoder.
+ * 
+ * The profile is LINEAR unless an acceleration is set. With controller writes
+ * the position of every tick is sent to the servo's controller at full speed,
+ * so a controller which only knows constant speed moves follows a TRAPEZOIDAL
+ * or S_CURVE profile - set the tick rate of the scheduler to suit.
  * 
  * @author GroG
  * 
  *         FIXME controlled clear units (degrees cm per s vs ms .. etc)
- * 
- *         FIXME - THIS SHOULD BE A SERVICE - similar to PID where it can manage
- *         multiple calculations/trajectories/encoding for many other services
  *
  */
-public class TimeEncoder implements Runnable, EncoderControl {
+public class TimeEncoder implements MotionScheduler.Motion, EncoderControl {
 
   public final static Logger log = LoggerFactory.getLogger(TimeEncoder.class);
 
   // FIXME - remove type specific references
   EncoderListener servo = null;
 
-  boolean isRunning = false;
-  transient Thread myThread = null;
+  transient MotionScheduler scheduler = MotionScheduler.getInstance();
 
   // default max speed
   // Common servos have operating speeds in the range of 0.05 to 0.2 s/60
@@ -43,9 +46,6 @@ public class TimeEncoder implements Runnable, EncoderControl {
   // default max speed
   double defaultMaxSpeedDegreesPerMs = 0.5;
 
-  // time between next evaluation
-  int sampleIntervalMs = 200;
-
   // where we are
   double beginPos;
 
@@ -71,10 +71,7 @@ public class TimeEncoder implements Runnable, EncoderControl {
   long endMoveTs;
 
   // our estimated position
-  Double estimatedPos = null;
-
-  // current time
-  long now;
+  volatile Double estimatedPos = null;
 
   // name of encoder data source
   String name;
@@ -83,7 +80,29 @@ public class TimeEncoder implements Runnable, EncoderControl {
 
   boolean enabled = true;
 
-  protected boolean stopMove = false;
+  protected volatile boolean stopMove = false;
+
+  /**
+   * the move in progress
+   */
+  Trajectory trajectory = null;
+
+  Trajectory.Profile profile = Trajectory.Profile.LINEAR;
+
+  /**
+   * degrees per second per second - null is LINEAR
+   */
+  Double acceleration = null;
+
+  /**
+   * write the position of every tick to the controller
+   */
+  boolean controllerWrites = false;
+
+  /**
+   * a move started has been published
+   */
+  boolean started = false;
 
   public TimeEncoder(ServoControl servo) {
     this.servo = servo;
@@ -92,7 +111,7 @@ public class TimeEncoder implements Runnable, EncoderControl {
   }
 
   // TODO - cool this works deprecate other
-  public long calculateTrajectory(double inBeginPos, double inTargetPos, Double inSpeed) {
+  public synchronized long calculateTrajectory(double inBeginPos, double inTargetPos, Double inSpeed) {
     // find current distance - // make a plan ...
     beginPos = inBeginPos;
     targetPos = inTargetPos;
@@ -101,19 +120,19 @@ public class TimeEncoder implements Runnable, EncoderControl {
     tspeed = (inSpeed == null) ? defaultMaxSpeedDegreesPerMs : inSpeed / 1000;
     speedDegreesPerMs = (beginPos > targetPos) ? -1 * tspeed : tspeed;
 
-    moveTimeMs = Math.abs(distance / speedDegreesPerMs);
-    beginMoveTs = System.currentTimeMillis();
+    beginMoveTs = scheduler.now();
+    if (tspeed > 0) {
+      trajectory = new Trajectory(beginPos, targetPos, tspeed * 1000, acceleration, profile);
+      moveTimeMs = trajectory.getDurationMs();
+    } else {
+      moveTimeMs = 0;
+    }
     endMoveTs = beginMoveTs + (long) moveTimeMs;
 
     // log.debug("{}", this);
 
     estimatedPos = inBeginPos;
 
-    // while not done ... do
-    // leave if timets > endMoveTs or if canceled with new move
-    // while()
-    now = beginMoveTs;
-
     if (autoProcess) { // vs buffer ?
       processTrajectory(name);
     }
@@ -124,84 +143,117 @@ public class TimeEncoder implements Runnable, EncoderControl {
   }
 
   // TODO - processTrajectory()
-  void processTrajectory(String name) {
-    synchronized (this) { // TODO - change to "this" when not a service
-      // this starts the time encoder thread waiting for move commands
-      // to start the process of processing a "planned move" sequence
-      this.notifyAll();
+  synchronized void processTrajectory(String name) {
+    if (speedDegreesPerMs == 0) {
+      // FIXME may need some adjustment in this - should a stop event with 0
+      // pos change be sent ?
+      log.info("speed is 0 - not moving");
+      if (scheduler.isScheduled(this)) {
+        stopMove = true;
+      }
+      return;
+    }
+    if (!enabled) {
+      return;
+    }
+    stopMove = false;
+    // a new move while moving carries on without another started event
+    if (!scheduler.isScheduled(this)) {
+      started = false;
     }
+    scheduler.schedule(this);
   }
 
+  /**
+   * called by the MotionScheduler every tick of a move
+   */
   @Override
-  public void run() {
-    try {
-
-      isRunning = true;
-      while (isRunning) {
-        
-        
-        // wait for next move ...
-        synchronized (this) {
-          stopMove  = false;
-          this.wait();
-          stopMove  = false;
-        }
-
-        if (speedDegreesPerMs == 0) {
-          // FIXME may need some adjustment in this - should a stop event with 0
-          // pos change be sent ?
-          log.info("speed is 0 - not moving");
-          continue;
-        }
-
-        boolean started = true;
-
-        while (now < endMoveTs && isRunning) {
-          
-          if (stopMove) {
-            endMoveTs = now;
-            break;
-          }
-
-          now = System.currentTimeMillis();
-          // speed has +/- direction
-          estimatedPos = beginPos + speedDegreesPerMs * (now - beginMoveTs);
-
-          if (beginPos < targetPos && estimatedPos > targetPos) {
-            estimatedPos = targetPos;
-          }
-          if (beginPos > targetPos && estimatedPos < targetPos) {
-            estimatedPos = targetPos;
-          }
-
-          // log.info(String.format("new pos %.2f", estimatedPos)); helpful to
-          // - Kwatters - SHOULD PROBABLY BE -> EncoderData(name, null,
-          // targetPos, estimatedPos) !!!
-          EncoderData d = new EncoderData(name, null, estimatedPos, estimatedPos);
-
-          if (started) {
-            // ((Broadcaster)servo).broadcast("publishedServoStopped",
-            // ServoStatus.SERVO_STOPPED, estimatedPos);
-            ((Broadcaster) servo).broadcast("publishServoStarted", servo.getName(), estimatedPos);
-            started = false;
-          }
-          servo.onEncoderData(d);// FIXME !! - broadcast this
-          Service.sleep(sampleIntervalMs);
-        }
-
-        // when we are leaving - its a "finished move"
-        // log.info("finished moved");
-        EncoderData d = new EncoderData(name, null, estimatedPos, estimatedPos);
-        servo.onEncoderData(d);
-        // ((Broadcaster)servo).broadcast("publishedServoStopped",
-        // ServoStatus.SERVO_STOPPED, estimatedPos);
-        // FYI - broadcast by-passes queues, but can publish based on notify entries
-        ((Broadcaster) servo).broadcast("publishServoStopped", servo.getName(), estimatedPos);
-      }
-    } catch (InterruptedException e) {
-      log.info("stopping TimeEncoder Timer ...");
+  public synchronized boolean update(long nowMs) {
+    boolean finished = stopMove || nowMs >= endMoveTs;
+    if (stopMove) {
+      endMoveTs = nowMs;
+    } else {
+      estimatedPos = (finished) ? targetPos : trajectory.getPos(nowMs - beginMoveTs);
+    }
+
+    // log.info(String.format("new pos %.2f", estimatedPos)); helpful to
+    // - Kwatters - SHOULD PROBABLY BE -> EncoderData(name, null,
+    // targetPos, estimatedPos) !!!
+    EncoderData d = new EncoderData(name, null, estimatedPos, estimatedPos);
+
+    if (finished) {
+      stopMove = false;
+      // when we are leaving - its a "finished move"
+      servo.onEncoderData(d);
+      // FYI - broadcast by-passes queues, but can publish based on notify
+      // entries
+      ((Broadcaster) servo).broadcast("publishServoStopped", servo.getName(), estimatedPos);
+      return false;
     }
-    myThread = null;
+
+    if (!started) {
+      ((Broadcaster) servo).broadcast("publishServoStarted", servo.getName(), estimatedPos);
+      started = true;
+    }
+    servo.onEncoderData(d);// FIXME !! - broadcast this
+    return true;
+  }
+
+  @Override
+  public String getController() {
+    return (controllerWrites) ? ((ServoControl) servo).getController() : null;
+  }
+
+  @Override
+  public ServoMove getMove() {
+    Mapper mapper = ((ServoControl) servo).getMapper();
+    Double input = (mapper == null) ? null : mapper.calcInput(estimatedPos);
+    // full speed to each point of the trajectory
+    return new ServoMove(name, input, estimatedPos, null);
+  }
+
+  /**
+   * @param profile
+   *          shape of the moves - LINEAR unless an acceleration is set
+   * @param acceleration
+   *          degrees per second per second, null is LINEAR
+   */
+  public synchronized void setProfile(Trajectory.Profile profile, Double acceleration) {
+    this.profile = profile;
+    this.acceleration = acceleration;
+  }
+
+  public Trajectory.Profile getProfile() {
+    return profile;
+  }
+
+  public Double getAcceleration() {
+    return acceleration;
+  }
+
+  /**
+   * @param controllerWrites
+   *          true sends the position of every tick to the controller instead
+   *          of the servo sending the target with its speed
+   */
+  public void setControllerWrites(boolean controllerWrites) {
+    this.controllerWrites = controllerWrites;
+  }
+
+  public boolean isControllerWrites() {
+    return controllerWrites;
+  }
+
+  /**
+   * @param scheduler
+   *          the clock moving this encoder - a deterministic one for tests
+   */
+  public void setScheduler(MotionScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  public MotionScheduler getScheduler() {
+    return scheduler;
   }
 
   public String toString() {
@@ -268,19 +320,14 @@ public class TimeEncoder implements Runnable, EncoderControl {
   }
 
   @Override
-  public void disable() {
-    isRunning = false;
-    if (myThread != null) {
-      myThread.interrupt();
-    }
+  public synchronized void disable() {
+    enabled = false;
+    scheduler.remove(this);
   }
 
   @Override
   public void enable() {
-    if (myThread == null) {
-      myThread = new Thread(this, String.format("%s.%s.time-encoder", servo.getName(), getName()));
-      myThread.start();
-    }
+    enabled = true;
   }
 
   @Override
@@ -291,8 +338,7 @@ public class TimeEncoder implements Runnable, EncoderControl {
 
   @Override
   public Boolean isEnabled() {
-    // TODO Auto-generated method stub
-    return null;
+    return enabled;
   }
 
   @Override
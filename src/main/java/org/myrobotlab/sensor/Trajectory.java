@@ -0,0 +1,151 @@
+package org.myrobotlab.sensor;
+
+/**
+ * <pre>
+ * A precomputed move of one joint from begin to target - its position at any
+ * time since the move began, without stepping through it.
+ *
+ *   LINEAR       full speed from the start to the end (infinite acceleration)
+ *   TRAPEZOIDAL  constant acceleration up to speed, cruise, constant deceleration
+ *   S_CURVE      the same phases with raised cosine speed ramps - no jumps in
+ *                acceleration, peak acceleration is pi/2 of the average
+ *
+ * A move too short to reach its speed is a triangle - it accelerates half the
+ * way and decelerates the other half.
+ * </pre>
+ *
+ * Positions are degrees, speeds degrees per second and accelerations degrees
+ * per second per second.
+ */
+public class Trajectory {
+
+  public enum Profile {
+    LINEAR, TRAPEZOIDAL, S_CURVE
+  }
+
+  final Profile profile;
+
+  final double begin;
+
+  final double target;
+
+  /**
+   * distance to travel - always positive
+   */
+  final double distance;
+
+  /**
+   * +1 or -1
+   */
+  final double direction;
+
+  /**
+   * top speed reached in degrees per ms
+   */
+  final double peakSpeed;
+
+  /**
+   * length of each ramp in ms
+   */
+  final double rampMs;
+
+  /**
+   * length of the constant speed part in ms
+   */
+  final double cruiseMs;
+
+  final double durationMs;
+
+  /**
+   * @param begin
+   *          where the joint is
+   * @param target
+   *          where it is going
+   * @param speed
+   *          top speed - must be more than 0
+   * @param acceleration
+   *          null or 0 is LINEAR whatever the profile
+   * @param profile
+   *          shape of the speed ramps
+   */
+  public Trajectory(double begin, double target, double speed, Double acceleration, Profile profile) {
+    this.begin = begin;
+    this.target = target;
+    distance = Math.abs(target - begin);
+    direction = (target < begin) ? -1 : 1;
+
+    double speedPerMs = speed / 1000;
+    if (profile == Profile.LINEAR || acceleration == null || acceleration <= 0) {
+      this.profile = Profile.LINEAR;
+      peakSpeed = speedPerMs;
+      rampMs = 0;
+      cruiseMs = distance / speedPerMs;
+    } else {
+      this.profile = profile;
+      double accelerationPerMs = acceleration / 1000000;
+      // distance covered by both ramps at full speed
+      double rampsDistance = speedPerMs * speedPerMs / accelerationPerMs;
+      if (rampsDistance >= distance) {
+        peakSpeed = Math.sqrt(distance * accelerationPerMs);
+        rampMs = peakSpeed / accelerationPerMs;
+        cruiseMs = 0;
+      } else {
+        peakSpeed = speedPerMs;
+        rampMs = speedPerMs / accelerationPerMs;
+        cruiseMs = (distance - rampsDistance) / speedPerMs;
+      }
+    }
+    durationMs = 2 * rampMs + cruiseMs;
+  }
+
+  /**
+   * distance covered t ms into the first ramp
+   */
+  double ramp(double t) {
+    if (profile == Profile.S_CURVE) {
+      return peakSpeed * (t / 2 - rampMs / (2 * Math.PI) * Math.sin(Math.PI * t / rampMs));
+    }
+    return peakSpeed * t * t / (2 * rampMs);
+  }
+
+  /**
+   * @param elapsedMs
+   *          time since the move began
+   * @return position of the joint
+   */
+  public double getPos(double elapsedMs) {
+    if (elapsedMs <= 0) {
+      return begin;
+    }
+    if (elapsedMs >= durationMs) {
+      return target;
+    }
+    double travelled;
+    if (elapsedMs < rampMs) {
+      travelled = ramp(elapsedMs);
+    } else if (elapsedMs <= rampMs + cruiseMs) {
+      travelled = peakSpeed * rampMs / 2 + peakSpeed * (elapsedMs - rampMs);
+    } else {
+      // deceleration mirrors acceleration
+      travelled = distance - ramp(durationMs - elapsedMs);
+    }
+    return begin + direction * travelled;
+  }
+
+  public double getDurationMs() {
+    return durationMs;
+  }
+
+  public Profile getProfile() {
+    return profile;
+  }
+
+  public double getTarget() {
+    return target;
+  }
+
+  public String toString() {
+    return String.format("%s %.1f to %.1f in %.1f ms (ramps %.1f ms)", profile, begin, target, durationMs, rampMs);
+  }
+
+}
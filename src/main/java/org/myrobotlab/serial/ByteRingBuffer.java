@@ -0,0 +1,201 @@
+package org.myrobotlab.serial;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed size ring of primitive bytes between a port's reading thread and
+ * blocking readers - nothing is boxed and bulk reads copy with arraycopy.
+ *
+ * Writes never block - when the ring is full the overrun is dropped and
+ * counted, the same as the old BUFFER_SIZE limit. Every read takes a timeout in
+ * ms - negative waits forever, 0 returns immediately.
+ */
+public class ByteRingBuffer {
+
+  byte[] buffer;
+  int head = 0;
+  int count = 0;
+  long overruns = 0;
+
+  public ByteRingBuffer(int capacity) {
+    buffer = new byte[capacity];
+  }
+
+  synchronized public int available() {
+    return count;
+  }
+
+  synchronized public int capacity() {
+    return buffer.length;
+  }
+
+  synchronized public void clear() {
+    head = 0;
+    count = 0;
+  }
+
+  /**
+   * @return number of bytes dropped because the ring was full
+   */
+  synchronized public long getOverrunCount() {
+    return overruns;
+  }
+
+  /**
+   * change the capacity - pending bytes are kept up to the new capacity
+   */
+  synchronized public void resize(int capacity) {
+    byte[] resized = new byte[capacity];
+    int keep = Math.min(count, capacity);
+    copyOut(resized, 0, keep);
+    overruns += count - keep;
+    buffer = resized;
+    head = 0;
+    count = keep;
+  }
+
+  /**
+   * @return number of bytes stored - less than length if the ring is full
+   */
+  synchronized public int write(byte[] data, int offset, int length) {
+    int free = buffer.length - count;
+    int n = Math.min(length, free);
+    int tail = (head + count) % buffer.length;
+    int first = Math.min(n, buffer.length - tail);
+    System.arraycopy(data, offset, buffer, tail, first);
+    System.arraycopy(data, offset + first, buffer, 0, n - first);
+    count += n;
+    overruns += length - n;
+    if (n > 0) {
+      notifyAll();
+    }
+    return n;
+  }
+
+  public int write(byte[] data) {
+    return write(data, 0, data.length);
+  }
+
+  /**
+   * @return the next byte 0-255 or -1 on timeout
+   */
+  synchronized public int read(long timeoutMs) throws InterruptedException {
+    if (!await(1, timeoutMs)) {
+      return -1;
+    }
+    int b = buffer[head] & 0xFF;
+    head = (head + 1) % buffer.length;
+    --count;
+    return b;
+  }
+
+  /**
+   * waits for at least one byte, then copies what is there up to length - like
+   * InputStream.read
+   *
+   * @return bytes copied - 0 on timeout
+   */
+  synchronized public int read(byte[] data, int offset, int length, long timeoutMs) throws InterruptedException {
+    if (length == 0 || !await(1, timeoutMs)) {
+      return 0;
+    }
+    int n = Math.min(length, count);
+    copyOut(data, offset, n);
+    head = (head + n) % buffer.length;
+    count -= n;
+    return n;
+  }
+
+  /**
+   * @return everything pending - null when empty
+   */
+  synchronized public byte[] readAvailable() {
+    if (count == 0) {
+      return null;
+    }
+    byte[] data = new byte[count];
+    copyOut(data, 0, count);
+    head = 0;
+    count = 0;
+    return data;
+  }
+
+  /**
+   * @return the bytes up to and including the delimiter, or null on timeout -
+   *         the pending bytes are left for the next read
+   */
+  synchronized public byte[] readToDelimiter(byte[] delimiter, long timeoutMs) throws InterruptedException {
+    long deadline = System.nanoTime() + timeoutMs * 1000000;
+    int from = 0;
+    while (true) {
+      int end = indexOf(delimiter, from);
+      if (end >= 0) {
+        byte[] data = new byte[end];
+        copyOut(data, 0, end);
+        head = (head + end) % buffer.length;
+        count -= end;
+        return data;
+      }
+      // no need to search the same bytes again
+      from = Math.max(0, count - delimiter.length + 1);
+      if (count == buffer.length || !awaitMore(count, timeoutMs, deadline)) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * @return the length up to and including the first delimiter at or after
+   *         from, -1 if there is none
+   */
+  int indexOf(byte[] delimiter, int from) {
+    int last = count - delimiter.length;
+    for (int i = from; i <= last; ++i) {
+      int j = 0;
+      while (j < delimiter.length && buffer[(head + i + j) % buffer.length] == delimiter[j]) {
+        ++j;
+      }
+      if (j == delimiter.length) {
+        return i + delimiter.length;
+      }
+    }
+    return -1;
+  }
+
+  void copyOut(byte[] data, int offset, int length) {
+    int first = Math.min(length, buffer.length - head);
+    System.arraycopy(buffer, head, data, offset, first);
+    System.arraycopy(buffer, 0, data, offset + first, length - first);
+  }
+
+  boolean await(int size, long timeoutMs) throws InterruptedException {
+    long deadline = System.nanoTime() + timeoutMs * 1000000;
+    while (count < size) {
+      if (!awaitMore(count, timeoutMs, deadline)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * waits until more than seen bytes are pending
+   *
+   * @return false on timeout
+   */
+  boolean awaitMore(int seen, long timeoutMs, long deadline) throws InterruptedException {
+    while (count <= seen) {
+      if (timeoutMs < 0) {
+        wait();
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+
+}
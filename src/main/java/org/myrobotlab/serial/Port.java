@@ -18,6 +18,12 @@ import org.slf4j.Logger;
 public abstract class Port implements Runnable, SerialControl {
 
   public final static Logger log = LoggerFactory.getLogger(Port.class);
+
+  /**
+   * how long the reading thread blocks for data before it checks it is still
+   * listening - close() also interrupts it
+   */
+  public final static int READ_TIMEOUT_MS = 100;
   public String portName;
   transient HashMap<String, SerialDataListener> listeners = new HashMap<>();
 
@@ -132,10 +138,31 @@ public abstract class Port implements Runnable, SerialControl {
 
   abstract public byte[] readBytes() throws Exception;
 
+  /**
+   * read for the reading thread - waits up to timeoutMs for data. The default
+   * polls readBytes() with a 1 ms sleep, ports which can block on their source
+   * override it so an idle port does not wake up 1000 times a second.
+   * 
+   * @param timeoutMs
+   *          max wait
+   * @return data or null if there was none
+   * @throws Exception
+   *           e
+   */
+  public byte[] readBytes(int timeoutMs) throws Exception {
+    byte[] buffer = readBytes();
+    if (buffer == null) {
+      // We want to have a small delay to spare the cpu,
+      // give it a millisecond for data to arrive.
+      Thread.sleep(1);
+    }
+    return buffer;
+  }
+
   /**
    * reads from Ports input stream and puts it on the Serials main RX line - to
    * be published and buffered - PortJSSC uses the thread of the library to
-   * "push" serial data
+   * "push" serial data and PortSocket the SerialReactor's
    */
   @Override
   public void run() {
@@ -146,37 +173,11 @@ public abstract class Port implements Runnable, SerialControl {
     try {
       while (listening) {
         // read everything that's available on the port.
-        byte[] buffer = readBytes();
+        byte[] buffer = readBytes(READ_TIMEOUT_MS);
         if (buffer == null) {
-          // We want to have a small delay to spare the cpu,
-          // give it a millisecond for data to arrive.
-          Thread.sleep(1);
           continue;
         }
-        // debug
-        if (debug && debugRX) {
-          log.info("RX Data: {}", buffer);
-        }
-        // we have data.. let's publish it.
-        if (listeners.size() == 0) {
-          log.warn("NO LISTENERS for serial port {} data getting dropped! {}", portName, buffer);
-        }
-        for (String key : listeners.keySet()) {
-          listeners.get(key).onBytes(buffer);
-        }
-        // TODO: better stats.. for now.. keeping previous behavior.
-        for (int i = 0; i < buffer.length; i++) {
-          ++stats.total;
-          if (stats.total % stats.interval == 0) {
-            stats.ts = System.currentTimeMillis();
-            stats.delta = stats.ts - stats.lastTS;
-            stats.lineSpeed = (8 * stats.interval) / stats.delta;
-            for (String key : listeners.keySet()) {
-              listeners.get(key).updateStats(stats);
-            }
-            stats.lastTS = stats.ts;
-          }
-        }
+        publish(buffer);
       }
       log.info("Port: {} no longer listening.", portName);
     } catch (InterruptedException e) {
@@ -188,6 +189,43 @@ public abstract class Port implements Runnable, SerialControl {
     }
   }
 
+  /**
+   * hands a chunk of received data to the listeners and updates the stats -
+   * called by whichever thread reads the port
+   * 
+   * @param buffer
+   *          data read
+   */
+  void publish(byte[] buffer) {
+    // debug
+    if (debug && debugRX) {
+      log.info("RX Data: {}", buffer);
+    }
+    // we have data.. let's publish it.
+    if (listeners.size() == 0) {
+      log.warn("NO LISTENERS for serial port {} data getting dropped! {}", portName, buffer);
+    }
+    for (SerialDataListener listener : listeners.values()) {
+      listener.onBytes(buffer);
+    }
+    // TODO: better stats.. for now.. keeping previous behavior.
+    // once per chunk - updated when the total passes an interval
+    int before = stats.total;
+    stats.total += buffer.length;
+    if (stats.total / stats.interval != before / stats.interval) {
+      stats.ts = System.currentTimeMillis();
+      stats.delta = stats.ts - stats.lastTS;
+      // a fast port can pass an interval within a ms
+      if (stats.delta > 0) {
+        stats.lineSpeed = (8 * stats.interval) / stats.delta;
+      }
+      for (SerialDataListener listener : listeners.values()) {
+        listener.updateStats(stats);
+      }
+      stats.lastTS = stats.ts;
+    }
+  }
+
   /**
    * "real" serial function stubbed out in the abstract class in case the serial
    * implementation does not actually implement this method e.g. (bluetooth,
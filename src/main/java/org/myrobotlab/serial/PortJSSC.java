@@ -193,28 +193,10 @@ public class PortJSSC extends Port implements SerialControl, SerialPortEventList
           // no data available.
           return;
         }
-        // we have data, let's notify the listeners.
+        // we have data, let's notify the listeners and gather stats per
+        // chunk
         // log.info("Reading Data from port {} - Data:>{}<", getName(), buffer);
-        for (String key : listeners.keySet()) {
-          // TODO: feels like this should be synchronized or maybe the buffer
-          // should be immutable?
-          listeners.get(key).onBytes(buffer);
-        }
-        // gather stats about this serial event (bytes read...)
-        for (int i = 0; i < buffer.length; i++) {
-          ++stats.total;
-          if (stats.total % stats.interval == 0) {
-            stats.ts = System.currentTimeMillis();
-            long delta = stats.ts - stats.lastTS;
-            // avoid the divide by zero
-            if (delta != 0) {
-              log.debug("===stats - dequeued total {} - {} bytes in {} ms {} Kbps", stats.total, stats.interval, delta, 8 * stats.interval / delta);
-            }
-            // TODO: should we be calling this still?
-            // publishQueueStats(stats);
-            stats.lastTS = stats.ts;
-          }
-        }
+        publish(buffer);
       } catch (Exception e) {
         log.error("serialEvent readBytes threw", e);
       }
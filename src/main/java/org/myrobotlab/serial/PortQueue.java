@@ -2,8 +2,10 @@ package org.myrobotlab.serial;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.myrobotlab.logging.LoggerFactory;
 import org.slf4j.Logger;
@@ -71,6 +73,26 @@ public class PortQueue extends Port {
     }
   }
 
+  /**
+   * blocks on the queue for the first byte then takes what else is there
+   */
+  @Override
+  public byte[] readBytes(int timeoutMs) throws InterruptedException {
+    Integer first = in.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    if (first == null) {
+      return null;
+    }
+    int size = in.size();
+    byte[] data = new byte[size + 1];
+    data[0] = first.byteValue();
+    int count = 1;
+    Integer next;
+    while (count < data.length && (next = in.poll()) != null) {
+      data[count++] = next.byteValue();
+    }
+    return (count == data.length) ? data : Arrays.copyOf(data, count);
+  }
+
   public boolean setParams(int rate, int databits, int stopbits, int parity) {
     log.debug("setSerialPortParams {} {} {} {}", rate, databits, stopbits, parity);
     return true;
@@ -0,0 +1,117 @@
+package org.myrobotlab.serial;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.interfaces.SerialDataListener;
+import org.slf4j.Logger;
+
+/**
+ * A tcp socket as a serial port. It has no reading thread - the socket is
+ * serviced by the SerialReactor together with all the others.
+ */
+public class PortSocket extends Port implements SerialReactor.Listener {
+
+  public final static Logger log = LoggerFactory.getLogger(PortSocket.class);
+
+  final InetSocketAddress address;
+  transient SocketChannel channel = null;
+  transient SerialReactor.Connection connection = null;
+
+  public PortSocket(String portName, String host, int port) {
+    super(portName);
+    address = new InetSocketAddress(host, port);
+  }
+
+  @Override
+  public List<String> getPortNames() {
+    return new ArrayList<String>();
+  }
+
+  @Override
+  public boolean isHardware() {
+    return false;
+  }
+
+  /**
+   * connects - reading starts with listen
+   */
+  @Override
+  public void open() throws IOException {
+    if (channel == null || !channel.isOpen()) {
+      channel = SocketChannel.open(address);
+      channel.socket().setTcpNoDelay(true);
+    }
+    super.open();
+  }
+
+  @Override
+  public void listen(Map<String, SerialDataListener> listeners) {
+    this.listeners.putAll(listeners);
+    if (connection != null) {
+      log.info("{} already listening", portName);
+      return;
+    }
+    try {
+      connection = SerialReactor.getInstance().register(channel, this);
+      listening = true;
+    } catch (IOException e) {
+      log.error("{} could not register with the serial reactor", portName, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    SerialReactor.Connection c = connection;
+    connection = null;
+    if (c != null) {
+      c.close();
+    } else if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+      }
+    }
+    channel = null;
+    super.close();
+  }
+
+  @Override
+  public void onBytes(byte[] bytes) {
+    publish(bytes);
+  }
+
+  @Override
+  public void onClose() {
+    log.info("{} closed", portName);
+    listening = false;
+  }
+
+  /**
+   * data is pushed by the reactor
+   */
+  @Override
+  public byte[] readBytes() {
+    return null;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] { (byte) b });
+  }
+
+  @Override
+  public void write(byte[] data) throws IOException {
+    SerialReactor.Connection c = connection;
+    if (c == null) {
+      throw new IOException(String.format("%s is not connected", portName));
+    }
+    c.write(data);
+  }
+
+}
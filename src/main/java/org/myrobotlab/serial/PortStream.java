@@ -26,6 +26,7 @@ public class PortStream extends Port {
 
   private InputStream in;
   private OutputStream out;
+  private final byte[] readBuffer = new byte[4096];
 
   public PortStream(String portName) throws IOException {
     super(portName);
@@ -81,6 +82,25 @@ public class PortStream extends Port {
     return null;
   }
 
+  /**
+   * blocks in the stream's read - a stream has no timeout, so after close()
+   * the reading thread ends when the read returns. -1 is the end of the stream
+   * and stops listening.
+   */
+  @Override
+  public byte[] readBytes(int timeoutMs) throws IOException {
+    int size = in.read(readBuffer);
+    if (size < 0) {
+      log.info("end of stream on {}", portName);
+      listening = false;
+      return null;
+    }
+    if (size == 0 || !listening) {
+      return null;
+    }
+    return Arrays.copyOf(readBuffer, size);
+  }
+
   public void setInputStream(InputStream in) {
     this.in = in;
   }
@@ -0,0 +1,298 @@
+package org.myrobotlab.serial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * One thread and one Selector for every socket backed serial connection - tcp
+ * ports (PortSocket) and the clients of TcpSerialHub - instead of a reading
+ * thread per socket.
+ *
+ * Reads go through a single reusable direct buffer, listeners get a byte[] of
+ * each chunk. Writes are tried immediately on the caller's thread, what the
+ * socket does not take is queued and written when the channel is writable.
+ * Listeners are called on the reactor thread and must not block.
+ */
+public class SerialReactor implements Runnable {
+
+  public final static Logger log = LoggerFactory.getLogger(SerialReactor.class);
+
+  public final static int BUFFER_SIZE = 64 * 1024;
+
+  public interface Listener {
+
+    /**
+     * @param bytes
+     *          a chunk read from the socket - the listener may keep it
+     */
+    void onBytes(byte[] bytes);
+
+    /**
+     * the peer closed the connection or it failed
+     */
+    void onClose();
+  }
+
+  public interface Acceptor {
+    void onAccept(SocketChannel channel) throws IOException;
+  }
+
+  /**
+   * a registered socket
+   */
+  public class Connection {
+
+    final SocketChannel channel;
+    final Listener listener;
+    final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    SelectionKey key;
+    boolean open = true;
+
+    Connection(SocketChannel channel, Listener listener) {
+      this.channel = channel;
+      this.listener = listener;
+    }
+
+    public void write(byte[] data) throws IOException {
+      write(data, 0, data.length);
+    }
+
+    synchronized public void write(byte[] data, int offset, int length) throws IOException {
+      if (!open) {
+        throw new IOException(String.format("%s is closed", channel));
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+      if (pending.isEmpty()) {
+        channel.write(buffer);
+        if (!buffer.hasRemaining()) {
+          return;
+        }
+      }
+      // the caller may reuse data
+      ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+      copy.put(buffer).flip();
+      pending.add(copy);
+      interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * reactor thread - writes what is queued
+     */
+    synchronized void flush() throws IOException {
+      while (!pending.isEmpty()) {
+        ByteBuffer buffer = pending.peek();
+        channel.write(buffer);
+        if (buffer.hasRemaining()) {
+          return;
+        }
+        pending.poll();
+      }
+      interestOps(SelectionKey.OP_READ);
+    }
+
+    void interestOps(int ops) {
+      submit(() -> {
+        if (key != null && key.isValid()) {
+          key.interestOps(ops);
+        }
+      });
+    }
+
+    synchronized public boolean isOpen() {
+      return open;
+    }
+
+    /**
+     * closes the socket - onClose is called once, whoever closes it
+     */
+    public void close() {
+      synchronized (this) {
+        if (!open) {
+          return;
+        }
+        open = false;
+        pending.clear();
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        log.warn("closing {} threw", channel, e);
+      }
+      listener.onClose();
+    }
+
+    @Override
+    public String toString() {
+      return channel.toString();
+    }
+  }
+
+  private static SerialReactor instance = null;
+
+  final Selector selector;
+  final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  final Thread thread;
+  long reads = 0;
+
+  /**
+   * @return the reactor - started on first use
+   * @throws IOException
+   *           no selector
+   */
+  synchronized public static SerialReactor getInstance() throws IOException {
+    if (instance == null) {
+      instance = new SerialReactor();
+    }
+    return instance;
+  }
+
+  SerialReactor() throws IOException {
+    selector = Selector.open();
+    thread = new Thread(this, "serial-reactor");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * @return number of reads done - one per chunk, not per byte
+   */
+  public long getReadCount() {
+    return reads;
+  }
+
+  /**
+   * start reading a connected socket
+   *
+   * @param channel
+   *          connected socket
+   * @param listener
+   *          gets the data
+   * @return the connection to write to
+   * @throws IOException
+   *           e
+   */
+  public Connection register(SocketChannel channel, Listener listener) throws IOException {
+    channel.configureBlocking(false);
+    Connection connection = new Connection(channel, listener);
+    submit(() -> {
+      try {
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+      } catch (IOException e) {
+        log.error("register {} threw", channel, e);
+        connection.close();
+      }
+    });
+    return connection;
+  }
+
+  /**
+   * accept connections on a bound server socket - close the server socket to
+   * stop
+   *
+   * @param server
+   *          bound server socket
+   * @param acceptor
+   *          gets each new socket
+   * @throws IOException
+   *           e
+   */
+  public void accept(ServerSocketChannel server, Acceptor acceptor) throws IOException {
+    server.configureBlocking(false);
+    submit(() -> {
+      try {
+        server.register(selector, SelectionKey.OP_ACCEPT, acceptor);
+      } catch (IOException e) {
+        log.error("register {} threw", server, e);
+      }
+    });
+  }
+
+  void submit(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    log.info("serial reactor started");
+    while (true) {
+      try {
+        selector.select();
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          task.run();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isValid()) {
+            process(key);
+          }
+        }
+      } catch (Exception e) {
+        log.error("serial reactor threw", e);
+      }
+    }
+  }
+
+  void process(SelectionKey key) {
+    if (key.attachment() instanceof Acceptor) {
+      try {
+        SocketChannel channel;
+        while ((channel = ((ServerSocketChannel) key.channel()).accept()) != null) {
+          ((Acceptor) key.attachment()).onAccept(channel);
+        }
+      } catch (IOException e) {
+        log.error("accept on {} threw", key.channel(), e);
+        key.cancel();
+      }
+      return;
+    }
+    Connection connection = (Connection) key.attachment();
+    try {
+      if (key.isWritable()) {
+        connection.flush();
+      }
+      if (key.isValid() && key.isReadable()) {
+        read(connection);
+      }
+    } catch (IOException e) {
+      log.info("{} failed - {}", connection, e.getMessage());
+      connection.close();
+    }
+  }
+
+  void read(Connection connection) throws IOException {
+    buffer.clear();
+    int size = connection.channel.read(buffer);
+    if (size < 0) {
+      connection.close();
+      return;
+    }
+    if (size == 0) {
+      return;
+    }
+    ++reads;
+    buffer.flip();
+    byte[] bytes = new byte[size];
+    buffer.get(bytes);
+    try {
+      connection.listener.onBytes(bytes);
+    } catch (Exception e) {
+      log.error("{} listener threw", connection, e);
+    }
+  }
+
+}
@@ -356,6 +356,12 @@ public class Ads1115 extends Service implements I2CControl, PinArrayControl {
   public String deviceBus = "1";
 
   public List<String> deviceBusList = Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7");
+
+  /**
+   * deviceBus and deviceAddress resolved at attach
+   */
+  transient int i2cBus;
+  transient int i2cAddress;
   public boolean isAttached = false;
   // Publisher
   boolean isPublishing = false;
@@ -497,6 +503,8 @@ public class Ads1115 extends Service implements I2CControl, PinArrayControl {
     }
 
     this.controller = controller;
+    i2cBus = Integer.parseInt(deviceBus);
+    i2cAddress = Integer.decode(deviceAddress);
     isAttached = true;
     controller.attachI2CControl(this);
     log.info("Attached {} device on bus: {} address {}", controllerName, deviceBus, deviceAddress);
@@ -716,7 +724,7 @@ public class Ads1115 extends Service implements I2CControl, PinArrayControl {
 
   void i2cWrite(int reg) {
     byte[] writebuffer = { (byte) reg };
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), writebuffer, writebuffer.length);
+    controller.i2cWrite(this, i2cBus, i2cAddress, writebuffer, writebuffer.length);
   }
 
   /**
@@ -964,9 +972,10 @@ public class Ads1115 extends Service implements I2CControl, PinArrayControl {
   }
 
   int readRegister(int reg) {
-    i2cWrite(ADS1015_REG_POINTER_CONVERT);
+    // pointer write and read in one transaction
+    byte[] writebuffer = { (byte) ADS1015_REG_POINTER_CONVERT };
     byte[] readbuffer = new byte[2];
-    controller.i2cRead(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), readbuffer, readbuffer.length);
+    controller.i2cWriteRead(this, i2cBus, i2cAddress, writebuffer, writebuffer.length, readbuffer, readbuffer.length);
     return ((int) readbuffer[0]) << 8 | (int) (readbuffer[1] & 0xff);
   }
 
@@ -1115,7 +1124,7 @@ public class Ads1115 extends Service implements I2CControl, PinArrayControl {
 
   void writeRegister(int reg, int value) {
     byte[] writebuffer = { (byte) reg, (byte) (value >> 8), (byte) (value & 0xff) };
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), writebuffer, writebuffer.length);
+    controller.i2cWrite(this, i2cBus, i2cAddress, writebuffer, writebuffer.length);
   }
 
   @Override
@@ -17,11 +17,16 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.myrobotlab.arduino.BoardInfo;
 import org.myrobotlab.arduino.BoardType;
 import org.myrobotlab.arduino.DeviceSummary;
+import org.myrobotlab.arduino.I2CTransactions;
 import org.myrobotlab.arduino.Msg;
 import org.myrobotlab.framework.interfaces.Attachable;
 import org.myrobotlab.framework.interfaces.NameProvider;
@@ -113,6 +118,11 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
   public static final int MRL_IO_SERIAL_3 = 4;
   public static final int OUTPUT = 0x1;
   public static final int PULLUP = 0x2;
+  /**
+   * servos in a servoMoveGroup frame - 5 bytes each with the header and a
+   * sequence number in MAX_MSG_SIZE
+   */
+  public static final int SERVO_MOVE_GROUP_SIZE = (Msg.MAX_MSG_SIZE - 5) / 5;
 
   private static final long serialVersionUID = 1L;
 
@@ -150,15 +160,10 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
 
   I2CBus i2cBus = null;
 
-  volatile byte[] i2cData = new byte[64];
-
   /**
-   * i2c This needs to be volatile because it will be updated in a different
-   * threads
+   * MrlComm device id of each attached i2c bus - resolved once at attach
    */
-  volatile boolean i2cDataReturned = false;
-
-  volatile int i2cDataSize;
+  transient Map<Integer, Integer> i2cBusDeviceIds = new ConcurrentHashMap<Integer, Integer>();
 
   Map<String, I2CDeviceMap> i2cDevices = new ConcurrentHashMap<String, I2CDeviceMap>();
 
@@ -168,6 +173,38 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
 
   public transient Msg msg;
 
+  /**
+   * i2c transactions queued and in flight, correlated with their answers by
+   * transaction id
+   */
+  transient I2CTransactions i2cTransactions = new I2CTransactions((deviceId, txId, deviceAddress, readSize, writeData) -> {
+    if (msg.i2cTransaction(deviceId, txId, deviceAddress, readSize, writeData) == null) {
+      throw new IOException("could not send i2cTransaction");
+    }
+  });
+
+  /**
+   * first MrlComm version with the i2cTransaction msg - boards with an older
+   * MrlComm get the msgs they know
+   */
+  public static final int MRLCOMM_VERSION_TRANSACTIONS = 70;
+
+  /**
+   * first MrlComm version with the servoMoveGroup msg
+   */
+  public static final int MRLCOMM_VERSION_SERVO_MOVE_GROUP = 71;
+
+  /**
+   * answer of the single buffer i2cRead or i2cWriteRead of an older MrlComm
+   */
+  transient private volatile CompletableFuture<byte[]> legacyI2cRead = null;
+
+  /**
+   * one older MrlComm transaction at a time - not the Arduino's lock, which
+   * onBytes delivering the answer needs
+   */
+  transient private final Object legacyI2cLock = new Object();
+
   Integer nextDeviceId = 0;
 
   /**
@@ -800,6 +837,19 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
     msg.enableAcks(enabled);
   }
 
+  /**
+   * pipeline up to size commands instead of waiting for the ack of each one -
+   * needs a board which supports windowed acks, otherwise it stays in stop and
+   * wait
+   * 
+   * @param size
+   *          frames in flight, 0 for stop and wait
+   * @return true if the window is in use
+   */
+  public boolean setAckWindow(int size) {
+    return msg.setAckWindow(size);
+  }
+
   transient BoardInfoPoller poller = new BoardInfoPoller();
 
   public class BoardInfoPoller implements Runnable {
@@ -1184,122 +1234,153 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
     DeviceMapping dm = attachDevice(i2cBus, new Object[] { busAddress });
     Integer deviceId = dm.getId();
     msg.i2cBusAttach(deviceId, busAddress);
+    i2cBusDeviceIds.put(busAddress, deviceId);
   }
 
+  /**
+   * An i2c transaction - an optional write then an optional read in one
+   * MrlComm frame. Up to a window of transactions per bus are in flight, the
+   * future completes when the board answers.
+   */
   @Override
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  public CompletableFuture<byte[]> i2cTransaction(I2CControl control, int busAddress, int deviceAddress, byte[] writeBuffer, int writeSize, int readSize) {
+    Integer deviceId = i2cBusDeviceIds.get(busAddress);
+    if (deviceId == null) {
+      CompletableFuture<byte[]> future = new CompletableFuture<>();
+      future.completeExceptionally(new IOException(String.format("i2c bus %d is not attached to %s", busAddress, getName())));
+      return future;
+    }
+    if (!isMrlCommVersion(MRLCOMM_VERSION_TRANSACTIONS)) {
+      return legacyI2cTransaction(deviceId, deviceAddress, writeBuffer, writeSize, readSize);
+    }
+    return i2cTransactions.submit(deviceId, deviceAddress, writeBuffer, writeSize, readSize);
+  }
+
+  /**
+   * @param version
+   *          MrlComm version
+   * @return true if the board runs it or a newer one - false until the board
+   *         has said, the msgs of an older MrlComm are understood by all
+   */
+  public boolean isMrlCommVersion(int version) {
+    BoardInfo info = boardInfo;
+    return info != null && info.getVersion() != null && info.getVersion() >= version;
+  }
+
+  /**
+   * a transaction made of the i2cWrite, i2cRead and i2cWriteRead msgs of an
+   * older MrlComm - one at a time, the caller waits for the answer
+   */
+  // > i2cWrite/deviceId/deviceAddress/[] data
   // > i2cRead/deviceId/deviceAddress/size
-  public int i2cRead(I2CControl control, int busAddress, int deviceAddress, byte[] buffer, int size) {
-    i2cDataReturned = false;
-    // Get the device index to the MRL i2c bus
-    String i2cBus = String.format("I2CBus%s", busAddress);
-    int deviceId = getDeviceId(i2cBus);
-    log.info("i2cRead requesting {} bytes", size);
-    msg.i2cRead(deviceId, deviceAddress, size);
-
-    int retry = 0;
-    int retryMax = 1000; // ( About 1000ms = s)
-    try {
-      /**
-       * We will wait up to retryMax times to get the i2c data back from
-       * MrlComm.c and wait 1 ms between each try. A blocking queue is not
-       * needed, as this is only a single data element - and blocking is not
-       * necessary.
-       */
-      while ((retry < retryMax) && (!i2cDataReturned)) {
-        sleep(1);
-        ++retry;
-      }
-    } catch (Exception e) {
-      Logging.logError(e);
+  // > i2cWriteRead/deviceId/deviceAddress/readSize/writeValue
+  CompletableFuture<byte[]> legacyI2cTransaction(int deviceId, int deviceAddress, byte[] writeBuffer, int writeSize, int readSize) {
+    synchronized (legacyI2cLock) {
+      return legacyI2cWait(deviceId, deviceAddress, writeBuffer, writeSize, readSize);
     }
-    if (i2cDataReturned) {
-      log.debug("i2cReturnData returned {} bytes to caller {}.", i2cDataSize, control.getName());
-      for (int i = 0; i < i2cDataSize; i++) {
-        buffer[i] = i2cData[i];
-        log.debug("i2cReturnData returned ix {} value {}", i, buffer[i]);
+  }
+
+  private CompletableFuture<byte[]> legacyI2cWait(int deviceId, int deviceAddress, byte[] writeBuffer, int writeSize, int readSize) {
+    CompletableFuture<byte[]> future = new CompletableFuture<>();
+    if (writeSize > 0 && (writeSize != 1 || readSize == 0)) {
+      int[] data = new int[writeSize];
+      for (int i = 0; i < writeSize; ++i) {
+        data[i] = writeBuffer[i] & 0xff;
       }
-      return i2cDataSize;
+      msg.i2cWrite(deviceId, deviceAddress, data);
+    }
+    if (readSize == 0) {
+      future.complete(new byte[0]);
+      return future;
+    }
+
+    legacyI2cRead = future;
+    if (writeSize == 1) {
+      msg.i2cWriteRead(deviceId, deviceAddress, readSize, writeBuffer[0] & 0xff);
+    } else {
+      msg.i2cRead(deviceId, deviceAddress, readSize);
+    }
+    try {
+      future.get(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException e) {
+      future.completeExceptionally(new IOException(String.format("no i2c data from %s within 1 s", getName())));
+    } catch (ExecutionException e) {
+      // the caller gets it
+    }
+    legacyI2cRead = null;
+    return future;
+  }
+
+  /**
+   * waits for a transaction - the blocking i2cRead and i2cWriteRead
+   * 
+   * @return number of bytes read, -1 if the transaction failed or timed out
+   */
+  int i2cTransactionWait(I2CControl control, int busAddress, int deviceAddress, byte[] writeBuffer, int writeSize, byte[] readBuffer, int readSize) {
+    try {
+      byte[] data = i2cTransaction(control, busAddress, deviceAddress, writeBuffer, writeSize, readSize).get();
+      System.arraycopy(data, 0, readBuffer, 0, data.length);
+      return data.length;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      log.warn("i2c transaction for {} failed - {}", control.getName(), e.getCause().getMessage());
     }
-    // Time out, no data returned
     return -1;
   }
 
   /**
-   * This methods is called by the i2cBus object when data is returned from the
-   * i2cRead It populates the i2cData area and sets the i2cDataReturned flag to
-   * true so that the loop in i2cRead can return the data to the caller
+   * transactions in flight per i2c bus - 1 waits for each answer before the
+   * next transaction is sent
    * 
+   * @param size
+   *          transactions in flight
+   */
+  public void setI2cWindow(int size) {
+    i2cTransactions.setWindow(size);
+  }
+
+  @Override
+  public int i2cRead(I2CControl control, int busAddress, int deviceAddress, byte[] buffer, int size) {
+    return i2cTransactionWait(control, busAddress, deviceAddress, null, 0, buffer, size);
+  }
+
+  /**
+   * Data of the single buffer i2cRead and i2cWriteRead messages - only a board
+   * with an MrlComm older than MRLCOMM_VERSION_TRANSACTIONS answers with it
    */
   @Override
   public void i2cReturnData(int[] rawData) {
-    i2cDataSize = rawData.length;
-    for (int i = 0; i < i2cDataSize; i++) {
-      i2cData[i] = (byte) (rawData[i] & 0xff);
+    CompletableFuture<byte[]> future = legacyI2cRead;
+    if (future == null) {
+      log.debug("i2cReturnData {} bytes without a transaction", rawData.length);
+      return;
+    }
+    byte[] data = new byte[rawData.length];
+    for (int i = 0; i < rawData.length; ++i) {
+      data[i] = (byte) (rawData[i] & 0xff);
     }
-    log.debug("i2cReturnData invoked. i2cDataSize = {}", i2cDataSize);
-    i2cDataReturned = true;
+    future.complete(data);
   }
 
+  /**
+   * queues the write and returns, failures are logged
+   */
   @Override
-  // > i2cWrite/deviceId/deviceAddress/[] data
   public void i2cWrite(I2CControl control, int busAddress, int deviceAddress, byte[] buffer, int size) {
-    String i2cBus = String.format("I2CBus%s", busAddress);
-    int deviceId = getDeviceId(i2cBus);
-
-    int data[] = new int[size];
-    for (int i = 0; i < size; ++i) {
-      data[i] = buffer[i];// guess you want -128 to 127 ?? [ ] == unsigned
-      // char & 0xff;
-    }
-
-    msg.i2cWrite(deviceId, deviceAddress, data);
+    i2cTransaction(control, busAddress, deviceAddress, buffer, size, 0).whenComplete((data, e) -> {
+      if (e != null) {
+        log.warn("i2cWrite for {} failed - {}", control.getName(), e.getMessage());
+      }
+    });
   }
 
   @Override
-  // > i2cWriteRead/deviceId/deviceAddress/readSize/writeValue
   public int i2cWriteRead(I2CControl control, int busAddress, int deviceAddress, byte[] writeBuffer, int writeSize, byte[] readBuffer, int readSize) {
-    if (writeSize != 1) {
-      i2cWrite(control, busAddress, deviceAddress, writeBuffer, writeSize);
-      return i2cRead(control, busAddress, deviceAddress, readBuffer, readSize);
-    } else {
-      i2cDataReturned = false;
-      // Get the device index to the MRL i2c bus
-      String i2cBus = String.format("I2CBus%s", busAddress);
-      int deviceId = getDeviceId(i2cBus);
-
-      int msgBuffer[] = new int[4];
-      msgBuffer[0] = deviceId;
-      msgBuffer[1] = deviceAddress;
-      msgBuffer[2] = readSize;
-      msgBuffer[3] = writeBuffer[0];
-      msg.i2cWriteRead(deviceId, deviceAddress, readSize, writeBuffer[0] & 0xFF);
-      int retry = 0;
-      int retryMax = 1000; // ( About 1000ms = s)
-      try {
-        /**
-         * We will wait up to retryMax times to get the i2c data back from
-         * MrlComm.c and wait 1 ms between each try. A blocking queue is not
-         * needed, as this is only a single data element - and blocking is not
-         * necessary.
-         */
-        while ((retry < retryMax) && (!i2cDataReturned)) {
-          sleep(1);
-          ++retry;
-        }
-      } catch (Exception e) {
-        Logging.logError(e);
-      }
-      if (i2cDataReturned) {
-        log.debug("i2cReturnData returned %s bytes to caller {}.", i2cDataSize, control.getName());
-        for (int i = 0; i < i2cDataSize; i++) {
-          readBuffer[i] = i2cData[i];
-          log.debug("i2cReturnData returned ix {} value {}", i, readBuffer[i]);
-        }
-        return i2cDataSize;
-      }
-      // Time out, no data returned
-      return -1;
-    }
+    return i2cTransactionWait(control, busAddress, deviceAddress, writeBuffer, writeSize, readBuffer, readSize);
   }
 
   @Override
@@ -1472,6 +1553,7 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
   @Override
   public void onDisconnect(String portName) {
     msg.onDisconnect(portName);
+    i2cTransactions.clear();
     info("%s disconnected from %s", getName(), portName);
     enableBoardInfo(false);
     // chained...
@@ -1549,6 +1631,13 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
     }
   }
 
+  // < publishAckWindow/seq/b32 bitmap
+  public void publishAckWindow(Integer seq/* byte */, Integer bitmap/* b32 */) {
+    if (msg.debug) {
+      log.info("{} Ack window received: next {} bitmap {}", getName(), seq, Integer.toBinaryString(bitmap));
+    }
+  }
+
   // < publishBoardInfo/version/boardType/b16 microsPerLoop/b16 sram/[]
   // deviceSummary
   public BoardInfo publishBoardInfo(Integer version/* byte */,
@@ -1673,6 +1762,11 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
     i2cReturnData(data);
   }
 
+  // < publishI2cTransaction/deviceId/txId/[] data
+  public void publishI2cTransaction(Integer deviceId/* byte */, Integer txId/* byte */, int[] data/* [] */) {
+    i2cTransactions.onResponse(deviceId, txId, data);
+  }
+
   /**
    * error from mrlcom in string form
    * 
@@ -1903,6 +1997,51 @@ public class Arduino extends AbstractMicrocontroller implements I2CBusController
     msg.servoMoveToMicroseconds(deviceId, us);
   }
 
+  /**
+   * servos moving together in servoMoveGroup frames - as many as fit in a
+   * frame, 5 bytes each. A board with an older MrlComm gets the velocity and
+   * move of each servo.
+   */
+  @Override
+  // > servoMoveGroup/[] moves
+  public void onServoMoveGroup(List<ServoMove> moves) {
+    if (!isMrlCommVersion(MRLCOMM_VERSION_SERVO_MOVE_GROUP)) {
+      for (ServoMove move : moves) {
+        Integer deviceId = getDeviceId(move.name);
+        if (deviceId == null) {
+          log.warn("servoMoveGroup servo {} does not have a corresponding device currently - did you attach?", move.name);
+          continue;
+        }
+        msg.servoSetVelocity(deviceId, (move.speed == null) ? -1 : move.speed.intValue());
+        msg.servoMoveToMicroseconds(deviceId, degreeToMicroseconds(move.outputPos));
+      }
+      return;
+    }
+    int[] frame = new int[Math.min(moves.size(), SERVO_MOVE_GROUP_SIZE) * 5];
+    int size = 0;
+    for (ServoMove move : moves) {
+      Integer deviceId = getDeviceId(move.name);
+      if (deviceId == null) {
+        log.warn("servoMoveGroup servo {} does not have a corresponding device currently - did you attach?", move.name);
+        continue;
+      }
+      int us = degreeToMicroseconds(move.outputPos);
+      int speed = (move.speed == null) ? -1 : move.speed.intValue();
+      frame[size++] = deviceId;
+      frame[size++] = us >> 8 & 0xFF;
+      frame[size++] = us & 0xFF;
+      frame[size++] = speed >> 8 & 0xFF;
+      frame[size++] = speed & 0xFF;
+      if (size == frame.length) {
+        msg.servoMoveGroup(frame);
+        size = 0;
+      }
+    }
+    if (size > 0) {
+      msg.servoMoveGroup(Arrays.copyOf(frame, size));
+    }
+  }
+
   @Override
   // > servoSetVelocity/deviceId/b16 velocity
   public void onServoSetSpeed(ServoSpeed servoSpeed) {
@@ -63,6 +63,12 @@ public class Bno055 extends Service implements I2CControl, PinListener {
   public List<String> deviceBusList = Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8");
   public String deviceBus = "1";
 
+  /**
+   * deviceBus and deviceAddress resolved at attach
+   */
+  transient int i2cBus;
+  transient int i2cAddress;
+
   public List<String> controllers;
   public String controllerName;
   public boolean isAttached = false;
@@ -484,18 +490,18 @@ public class Bno055 extends Service implements I2CControl, PinListener {
   private void i2cWrite(register reg, byte value) {
     if (reg != register.PAGE_ID) {
       byte[] wbuffer = new byte[] { register.PAGE_ID.value, reg.pageId };
-      controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), wbuffer, wbuffer.length);
+      controller.i2cWrite(this, i2cBus, i2cAddress, wbuffer, wbuffer.length);
     }
     byte[] wbuffer1 = new byte[] { reg.value, value };
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), wbuffer1, wbuffer1.length);
+    controller.i2cWrite(this, i2cBus, i2cAddress, wbuffer1, wbuffer1.length);
   }
 
   private void i2cWriteReadReg(register reg, byte[] data, int length) {
     if (reg != register.PAGE_ID) {
       byte[] wbuffer = new byte[] { register.PAGE_ID.value, reg.pageId };
-      controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), wbuffer, wbuffer.length);
+      controller.i2cWrite(this, i2cBus, i2cAddress, wbuffer, wbuffer.length);
     }
-    controller.i2cWriteRead(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), new byte[] { reg.value }, 1, data, length);
+    controller.i2cWriteRead(this, i2cBus, i2cAddress, new byte[] { reg.value }, 1, data, length);
   }
 
   private byte i2cWriteReadRegByte(register reg) {
@@ -522,11 +528,11 @@ public class Bno055 extends Service implements I2CControl, PinListener {
     Bno055Event event = new Bno055Event();
     byte[] wbuffer = new byte[] { register.EUL_HEADING_LSB.value };
     byte[] rbuffer = new byte[6];
-    // controller.i2cWrite(this, Integer.parseInt(deviceBus),
-    // Integer.decode(deviceAddress), wbuffer, wbuffer.length);
-    // controller.i2cRead(this, Integer.parseInt(deviceBus),
-    // Integer.decode(deviceAddress), rbuffer, rbuffer.length);
-    controller.i2cWriteRead(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), wbuffer, wbuffer.length, rbuffer, rbuffer.length);
+    // controller.i2cWrite(this, i2cBus,
+    // i2cAddress, wbuffer, wbuffer.length);
+    // controller.i2cRead(this, i2cBus,
+    // i2cAddress, rbuffer, rbuffer.length);
+    controller.i2cWriteRead(this, i2cBus, i2cAddress, wbuffer, wbuffer.length, rbuffer, rbuffer.length);
     log.info("Bno055 i2c Read return {}", rbuffer);
     event.orientation.x = (((int) (rbuffer[0] & 0xFF)) | (((int) (rbuffer[1])) << 8)) / 16.0;
     event.orientation.y = (((int) (rbuffer[2] & 0xFF)) | (((int) (rbuffer[3])) << 8)) / 16.0;
@@ -1610,6 +1616,8 @@ public class Bno055 extends Service implements I2CControl, PinListener {
     }
 
     this.controller = controller;
+    i2cBus = Integer.parseInt(deviceBus);
+    i2cAddress = Integer.decode(deviceAddress);
     isAttached = true;
     controller.attachI2CControl(this);
     log.info("Attached {} device on bus: {} address {}", controllerName, deviceBus, deviceAddress);
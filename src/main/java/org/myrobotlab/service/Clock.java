@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.service.config.ClockConfig;
 import org.myrobotlab.service.config.ServiceConfig;
@@ -90,7 +91,7 @@ public class Clock extends Service {
 
     synchronized public void start() {
       if (thread == null) {
-        thread = new Thread(this, getName() + "_ticking_thread");
+        thread = ServiceExecutor.newThread(this, getName() + "_ticking_thread");
         thread.start();
       } else {
         log.info("{} already started", getName());
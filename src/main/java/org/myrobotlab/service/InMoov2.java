@@ -24,6 +24,7 @@ import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.LoggingFactory;
 import org.myrobotlab.opencv.OpenCVData;
 import org.myrobotlab.service.abstracts.AbstractSpeechSynthesis.Voice;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.config.InMoov2Config;
 import org.myrobotlab.service.config.ServiceConfig;
 import org.myrobotlab.service.config.WebGuiConfig;
@@ -547,7 +548,12 @@ public class InMoov2 extends Service implements ServiceLifeCycleListener, TextLi
     }
     subscribe(python.getName(), "publishStatus", this.getName(), "onGestureStatus");
     startedGesture(lastGestureExecuted);
-    return python.evalAndWait(gesture);
+    try {
+      return python.evalAndWait(gesture);
+    } finally {
+      // a gesture which did not get to its endMoveGroup
+      ServoMoveGroup.endAll();
+    }
   }
 
   public void finishedGesture() {
@@ -968,6 +974,32 @@ public class InMoov2 extends Service implements ServiceLifeCycleListener, TextLi
     hand.moveTo(thumb, index, majeure, ringFinger, pinky, wrist);
   }
 
+  /**
+   * starts a tick of a gesture - the moves up to endMoveGroup go out together,
+   * one command per servo controller
+   * 
+   * <pre>
+   * i01.beginMoveGroup()
+   * i01.moveHead(80,86)
+   * i01.moveArm("left",5,90,30,10)
+   * i01.moveHand("left",2,2,2,2,2,90)
+   * i01.endMoveGroup()
+   * sleep(1)
+   * </pre>
+   * 
+   * Groups belong to the calling thread - the script has to call both.
+   */
+  public void beginMoveGroup() {
+    ServoMoveGroup.begin();
+  }
+
+  public void endMoveGroup() {
+    ServoMoveGroup group = ServoMoveGroup.current();
+    if (group != null) {
+      group.end();
+    }
+  }
+
   public void moveHead(Double neck, Double rothead) {
     moveHead(neck, rothead, null, null, null, null);
   }
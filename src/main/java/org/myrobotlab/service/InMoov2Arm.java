@@ -15,6 +15,7 @@ import org.myrobotlab.kinematics.DHLink;
 import org.myrobotlab.kinematics.DHRobotArm;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.math.MathUtils;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.interfaces.IKJointAngleListener;
 import org.myrobotlab.service.config.InMoov2ArmConfig;
 import org.myrobotlab.service.config.ServiceConfig;
@@ -197,15 +198,21 @@ public class InMoov2Arm extends Service implements IKJointAngleListener {
   }
 
   public void moveTo(Double bicepPos, Double rotatePos, Double shoulderPos, Double omoplatePos) {
-    log.debug("{} moveTo {} {} {} {}", getName(), bicepPos, rotatePos, shoulderPos, omoplatePos);
-    if (bicep != null)
-      bicep.moveTo(bicepPos);
-    if (rotate != null)
-      rotate.moveTo(rotatePos);
-    if (shoulder != null)
-      shoulder.moveTo(shoulderPos);
-    if (omoplate != null)
-      omoplate.moveTo(omoplatePos);
+    // the arm moves with one command
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      log.debug("{} moveTo {} {} {} {}", getName(), bicepPos, rotatePos, shoulderPos, omoplatePos);
+      if (bicep != null)
+        bicep.moveTo(bicepPos);
+      if (rotate != null)
+        rotate.moveTo(rotatePos);
+      if (shoulder != null)
+        shoulder.moveTo(shoulderPos);
+      if (omoplate != null)
+        omoplate.moveTo(omoplatePos);
+    } finally {
+      group.end();
+    }
   }
 
   public void moveToBlocking(double bicep, double rotate, double shoulder, double omoplate) {
@@ -16,6 +16,7 @@ import org.myrobotlab.io.FileIO;
 import org.myrobotlab.logging.Level;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.data.LeapData;
 import org.myrobotlab.service.data.LeapHand;
 import org.myrobotlab.service.data.PinData;
@@ -293,26 +294,32 @@ public class InMoov2Hand extends Service implements LeapDataListener, PinArrayLi
   }
 
   public void moveTo(Double thumbPos, Double indexPos, Double majeurePos, Double ringFingerPos, Double pinkyPos, Double wristPos) {
-    if (log.isDebugEnabled()) {
-      log.debug("{}.moveTo {} {} {} {} {} {}", getName(), thumbPos, indexPos, majeurePos, ringFingerPos, pinkyPos, wristPos);
-    }
-    if (thumb != null && thumbPos != null) {
-      thumb.moveTo(thumbPos);
-    }
-    if (index != null && indexPos != null) {
-      index.moveTo(indexPos);
-    }
-    if (majeure != null && majeurePos != null) {
-      majeure.moveTo(majeurePos);
-    }
-    if (ringFinger != null && ringFingerPos != null) {
-      ringFinger.moveTo(ringFingerPos);
-    }
-    if (pinky != null && pinkyPos != null) {
-      pinky.moveTo(pinkyPos);
-    }
-    if (wrist != null && wristPos != null) {
-      wrist.moveTo(wristPos);
+    // the hand moves with one command
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("{}.moveTo {} {} {} {} {} {}", getName(), thumbPos, indexPos, majeurePos, ringFingerPos, pinkyPos, wristPos);
+      }
+      if (thumb != null && thumbPos != null) {
+        thumb.moveTo(thumbPos);
+      }
+      if (index != null && indexPos != null) {
+        index.moveTo(indexPos);
+      }
+      if (majeure != null && majeurePos != null) {
+        majeure.moveTo(majeurePos);
+      }
+      if (ringFinger != null && ringFingerPos != null) {
+        ringFinger.moveTo(ringFingerPos);
+      }
+      if (pinky != null && pinkyPos != null) {
+        pinky.moveTo(pinkyPos);
+      }
+      if (wrist != null && wristPos != null) {
+        wrist.moveTo(wristPos);
+      }
+    } finally {
+      group.end();
     }
   }
 
@@ -10,6 +10,7 @@ import org.myrobotlab.io.FileIO;
 import org.myrobotlab.logging.Level;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.interfaces.ServoControl;
 import org.slf4j.Logger;
 
@@ -227,27 +228,33 @@ public class InMoov2Head extends Service {
    * 
    */
   public void moveTo(Double neckPos, Double rotheadPos, Double eyeXPos, Double eyeYPos, Double jawPos, Double rollNeckPos) {
-    if (log.isDebugEnabled()) {
-      log.debug("head.moveTo {} {} {} {} {} {}", neckPos, rotheadPos, eyeXPos, eyeYPos, jawPos, rollNeckPos);
-    }
-    if (Runtime.getService(getName() + ".rothead") != null && rotheadPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".rothead")).moveTo(rotheadPos);
-    }
-    if (Runtime.getService(getName() + ".neck") != null && neckPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".neck")).moveTo(neckPos);
-    }
-    if (Runtime.getService(getName() + ".eyeX") != null && eyeXPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".eyeX")).moveTo(eyeXPos);
-    }
-    if (Runtime.getService(getName() + ".eyeY") != null && eyeYPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".eyeY")).moveTo(eyeYPos);
-    }
-    if (Runtime.getService(getName() + ".jaw") != null &&  jawPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".jaw")).moveTo(jawPos);
-    }
+    // the head moves with one command
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("head.moveTo {} {} {} {} {} {}", neckPos, rotheadPos, eyeXPos, eyeYPos, jawPos, rollNeckPos);
+      }
+      if (Runtime.getService(getName() + ".rothead") != null && rotheadPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".rothead")).moveTo(rotheadPos);
+      }
+      if (Runtime.getService(getName() + ".neck") != null && neckPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".neck")).moveTo(neckPos);
+      }
+      if (Runtime.getService(getName() + ".eyeX") != null && eyeXPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".eyeX")).moveTo(eyeXPos);
+      }
+      if (Runtime.getService(getName() + ".eyeY") != null && eyeYPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".eyeY")).moveTo(eyeYPos);
+      }
+      if (Runtime.getService(getName() + ".jaw") != null &&  jawPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".jaw")).moveTo(jawPos);
+      }
     
-    if (Runtime.getService(getName() + ".rollNeck") != null &&  rollNeckPos != null) {
-      ((ServoControl)Runtime.getService(getName() + ".rollNeck")).moveTo(rollNeckPos);
+      if (Runtime.getService(getName() + ".rollNeck") != null &&  rollNeckPos != null) {
+        ((ServoControl)Runtime.getService(getName() + ".rollNeck")).moveTo(rollNeckPos);
+      }
+    } finally {
+      group.end();
     }
   }
 
@@ -11,6 +11,7 @@ import org.myrobotlab.io.FileIO;
 import org.myrobotlab.logging.Level;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.config.InMoov2TorsoConfig;
 import org.myrobotlab.service.config.ServiceConfig;
 import org.myrobotlab.service.config.ServoConfig;
@@ -110,17 +111,23 @@ public class InMoov2Torso extends Service {
   }
 
   public void moveTo(Double topStomPos, Double midStomPos, Double lowStomPos) {
-    if (log.isDebugEnabled()) {
-      log.debug("{} moveTo {} {} {}", getName(), topStomPos, midStomPos, lowStomPos);
-    }
-    if (topStom != null && topStomPos != null) {
-      this.topStom.moveTo(topStomPos);
-    }
-    if (midStom != null && midStomPos != null) {
-      this.midStom.moveTo(midStomPos);
-    }
-    if (lowStom != null && lowStomPos != null) {
-      this.lowStom.moveTo(lowStomPos);
+    // the torso moves with one command
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("{} moveTo {} {} {}", getName(), topStomPos, midStomPos, lowStomPos);
+      }
+      if (topStom != null && topStomPos != null) {
+        this.topStom.moveTo(topStomPos);
+      }
+      if (midStom != null && midStomPos != null) {
+        this.midStom.moveTo(midStomPos);
+      }
+      if (lowStom != null && lowStomPos != null) {
+        this.lowStom.moveTo(lowStomPos);
+      }
+    } finally {
+      group.end();
     }
   }
 
@@ -61,6 +61,12 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
 
   protected String deviceBus = "1";
 
+  /**
+   * deviceBus and deviceAddress resolved at attach
+   */
+  protected transient int i2cBus;
+  protected transient int i2cAddress;
+
   final protected Mpu6050Data data = new Mpu6050Data();
 
   protected List<String> controllers;
@@ -249,14 +255,11 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   }
 
   public void getRaw() {
-    // Set the start address to read from
+    // Set the start address to read from and request 14 bytes from the
+    // MPU-6050 in one transaction
     byte[] writebuffer = { MPU6050_RA_ACCEL_XOUT_H };
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), writebuffer, writebuffer.length);
-    // The Arduino example executes a request_from()
-    // Not sure if this will do the trick
-    // Request 14 bytes from the MPU-6050
     byte[] readbuffer = new byte[14];
-    controller.i2cRead(this, Integer.parseInt(deviceBus), Integer.decode(deviceAddress), readbuffer, readbuffer.length);
+    controller.i2cWriteRead(this, i2cBus, i2cAddress, writebuffer, writebuffer.length, readbuffer, readbuffer.length);
     // Fill the variables with the result from the read operation
     data.accelX = (byte) readbuffer[0] << 8 | readbuffer[1] & 0xFF;
     data.accelY = (byte) readbuffer[2] << 8 | readbuffer[3] & 0xFF;
@@ -558,7 +561,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @return I2C supply voltage level (0=VLOGIC, 1=VDD)
    */
   public int getAuxVDDIOLevel() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_TC, MPU6050_TC_PWR_MODE_BIT) ? 1 : 0;
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_YG_OFFS_TC, MPU6050_TC_PWR_MODE_BIT) ? 1 : 0;
   }
 
   /**
@@ -572,7 +575,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   void setAuxVDDIOLevel(int level) {
     boolean bitbuffer = (level != 0);
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_TC, MPU6050_TC_PWR_MODE_BIT, bitbuffer);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_YG_OFFS_TC, MPU6050_TC_PWR_MODE_BIT, bitbuffer);
   }
 
   // SMPLRT_DIV register
@@ -599,7 +602,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SMPLRT_DIV
    */
   int getRate() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SMPLRT_DIV);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_SMPLRT_DIV);
   }
 
   /**
@@ -610,7 +613,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SMPLRT_DIV
    */
   void setRate(int rate) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_SMPLRT_DIV, rate);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_SMPLRT_DIV, rate);
   }
 
   // CONFIG register
@@ -643,7 +646,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @return FSYNC configuration value
    */
   int getExternalFrameSync() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_CONFIG, MPU6050_CFG_EXT_SYNC_SET_BIT, MPU6050_CFG_EXT_SYNC_SET_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_CONFIG, MPU6050_CFG_EXT_SYNC_SET_BIT, MPU6050_CFG_EXT_SYNC_SET_LENGTH);
   }
 
   /**
@@ -656,7 +659,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    *          New FSYNC configuration value
    */
   void setExternalFrameSync(int sync) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_CONFIG, MPU6050_CFG_EXT_SYNC_SET_BIT, MPU6050_CFG_EXT_SYNC_SET_LENGTH, sync);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_CONFIG, MPU6050_CFG_EXT_SYNC_SET_BIT, MPU6050_CFG_EXT_SYNC_SET_LENGTH, sync);
   }
 
   /**
@@ -688,7 +691,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_CFG_DLPF_CFG_LENGTH
    */
   int getDLPFMode() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_CONFIG, MPU6050_CFG_DLPF_CFG_BIT, MPU6050_CFG_DLPF_CFG_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_CONFIG, MPU6050_CFG_DLPF_CFG_BIT, MPU6050_CFG_DLPF_CFG_LENGTH);
   }
 
   /**
@@ -702,7 +705,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_CFG_DLPF_CFG_LENGTH
    */
   void setDLPFMode(int mode) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_CONFIG, MPU6050_CFG_DLPF_CFG_BIT, MPU6050_CFG_DLPF_CFG_LENGTH, mode);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_CONFIG, MPU6050_CFG_DLPF_CFG_BIT, MPU6050_CFG_DLPF_CFG_LENGTH, mode);
   }
 
   // GYRO_CONFIG register
@@ -725,7 +728,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_GCONFIG_FS_SEL_LENGTH
    */
   int getFullScaleGyroRange() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_GYRO_CONFIG, MPU6050_GCONFIG_FS_SEL_BIT, MPU6050_GCONFIG_FS_SEL_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_GYRO_CONFIG, MPU6050_GCONFIG_FS_SEL_BIT, MPU6050_GCONFIG_FS_SEL_LENGTH);
   }
 
   /**
@@ -739,7 +742,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_GCONFIG_FS_SEL_LENGTH
    */
   void setFullScaleGyroRange(int range) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_GYRO_CONFIG, MPU6050_GCONFIG_FS_SEL_BIT, MPU6050_GCONFIG_FS_SEL_LENGTH, range);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_GYRO_CONFIG, MPU6050_GCONFIG_FS_SEL_BIT, MPU6050_GCONFIG_FS_SEL_LENGTH, range);
   }
 
   // SELF TEST FACTORY TRIM VALUES
@@ -751,8 +754,8 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SELF_TEST_X
    */
   int getAccelXSelfTestFactoryTrim() {
-    int selftestX = I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_X);
-    int selftestA = I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_A);
+    int selftestX = I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_X);
+    int selftestA = I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_A);
     return (byte) selftestA >> 3 | ((selftestX >> 4) & 0x03);
   }
 
@@ -763,8 +766,8 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SELF_TEST_Y
    */
   int getAccelYSelfTestFactoryTrim() {
-    int selftestY = I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_Y);
-    int selftestA = I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_A);
+    int selftestY = I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_Y);
+    int selftestA = I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_A);
     return (byte) selftestY >> 3 | ((selftestA >> 2) & 0x03);
   }
 
@@ -776,7 +779,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getAccelZSelfTestFactoryTrim() {
     int[] readBuffer = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_Z, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_SELF_TEST_Z, 2, readBuffer);
     return (byte) readBuffer[0] >> 3 | (readBuffer[1] & 0x03);
   }
 
@@ -787,7 +790,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SELF_TEST_X
    */
   int getGyroXSelfTestFactoryTrim() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_X) & 0xff;
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_X) & 0xff;
   }
 
   /**
@@ -797,7 +800,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SELF_TEST_Y
    */
   int getGyroYSelfTestFactoryTrim() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_Y) & 0xff;
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_Y) & 0xff;
   }
 
   /**
@@ -807,7 +810,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_SELF_TEST_Z
    */
   int getGyroZSelfTestFactoryTrim() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_SELF_TEST_Z) & 0x1F;
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_SELF_TEST_Z) & 0x1F;
   }
 
   // ACCEL_CONFIG register
@@ -819,7 +822,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   boolean getAccelXSelfTest() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_XA_ST_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_XA_ST_BIT);
   }
 
   /**
@@ -830,7 +833,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   void setAccelXSelfTest(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_XA_ST_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_XA_ST_BIT, enabled);
   }
 
   /**
@@ -840,7 +843,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   boolean getAccelYSelfTest() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_YA_ST_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_YA_ST_BIT);
   }
 
   /**
@@ -851,7 +854,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   void setAccelYSelfTest(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_YA_ST_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_YA_ST_BIT, enabled);
   }
 
   /**
@@ -861,7 +864,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   boolean getAccelZSelfTest() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ZA_ST_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ZA_ST_BIT);
   }
 
   /**
@@ -872,7 +875,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   void setAccelZSelfTest(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ZA_ST_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ZA_ST_BIT, enabled);
   }
 
   /**
@@ -894,7 +897,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_ACONFIG_AFS_SEL_LENGTH
    */
   int getFullScaleAccelRange() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_AFS_SEL_BIT, MPU6050_ACONFIG_AFS_SEL_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_AFS_SEL_BIT, MPU6050_ACONFIG_AFS_SEL_LENGTH);
   }
 
   /**
@@ -905,7 +908,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    *          getFullScaleAccelRange()
    */
   void setFullScaleAccelRange(int range) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_AFS_SEL_BIT, MPU6050_ACONFIG_AFS_SEL_LENGTH, range);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_AFS_SEL_BIT, MPU6050_ACONFIG_AFS_SEL_LENGTH, range);
   }
 
   /**
@@ -945,7 +948,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   int getDHPFMode() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ACCEL_HPF_BIT, MPU6050_ACONFIG_ACCEL_HPF_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ACCEL_HPF_BIT, MPU6050_ACONFIG_ACCEL_HPF_LENGTH);
   }
 
   /**
@@ -957,7 +960,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ACCEL_CONFIG
    */
   void setDHPFMode(int bandwidth) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ACCEL_HPF_BIT, MPU6050_ACONFIG_ACCEL_HPF_LENGTH, bandwidth);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_ACCEL_CONFIG, MPU6050_ACONFIG_ACCEL_HPF_BIT, MPU6050_ACONFIG_ACCEL_HPF_LENGTH, bandwidth);
   }
 
   // FF_THR register
@@ -979,7 +982,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FF_THR
    */
   int getFreefallDetectionThreshold() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_FF_THR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_FF_THR);
   }
 
   /**
@@ -991,7 +994,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FF_THR
    */
   void setFreefallDetectionThreshold(int threshold) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_FF_THR, threshold);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_FF_THR, threshold);
   }
 
   // FF_DUR register
@@ -1014,7 +1017,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FF_DUR
    */
   int getFreefallDetectionDuration() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_FF_DUR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_FF_DUR);
   }
 
   /**
@@ -1026,7 +1029,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FF_DUR
    */
   void setFreefallDetectionDuration(int duration) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_FF_DUR, duration);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_FF_DUR, duration);
   }
 
   // MOT_THR register
@@ -1051,7 +1054,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MOT_THR
    */
   int getMotionDetectionThreshold() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_MOT_THR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_MOT_THR);
   }
 
   /**
@@ -1063,7 +1066,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MOT_THR
    */
   void setMotionDetectionThreshold(int threshold) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_MOT_THR, threshold);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_MOT_THR, threshold);
   }
 
   // MOT_DUR register
@@ -1084,7 +1087,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MOT_DUR
    */
   int getMotionDetectionDuration() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_MOT_DUR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_MOT_DUR);
   }
 
   /**
@@ -1096,7 +1099,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MOT_DUR
    */
   void setMotionDetectionDuration(int duration) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_MOT_DUR, duration);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_MOT_DUR, duration);
   }
 
   // ZRMOT_THR register
@@ -1130,7 +1133,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ZRMOT_THR
    */
   int getZeroMotionDetectionThreshold() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_ZRMOT_THR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_ZRMOT_THR);
   }
 
   /**
@@ -1142,7 +1145,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ZRMOT_THR
    */
   void setZeroMotionDetectionThreshold(int threshold) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_ZRMOT_THR, threshold);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_ZRMOT_THR, threshold);
   }
 
   // ZRMOT_DUR register
@@ -1165,7 +1168,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ZRMOT_DUR
    */
   int getZeroMotionDetectionDuration() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_ZRMOT_DUR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_ZRMOT_DUR);
   }
 
   /**
@@ -1177,7 +1180,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_ZRMOT_DUR
    */
   void setZeroMotionDetectionDuration(int duration) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_ZRMOT_DUR, duration);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_ZRMOT_DUR, duration);
   }
 
   // FIFO_EN register
@@ -1191,7 +1194,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getTempFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_TEMP_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_TEMP_FIFO_EN_BIT);
   }
 
   /**
@@ -1202,7 +1205,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setTempFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_TEMP_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_TEMP_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1214,7 +1217,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getXGyroFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_XG_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_XG_FIFO_EN_BIT);
   }
 
   /**
@@ -1225,7 +1228,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setXGyroFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_XG_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_XG_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1237,7 +1240,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getYGyroFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_YG_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_YG_FIFO_EN_BIT);
   }
 
   /**
@@ -1248,7 +1251,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setYGyroFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_YG_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_YG_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1260,7 +1263,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getZGyroFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_ZG_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_ZG_FIFO_EN_BIT);
   }
 
   /**
@@ -1271,7 +1274,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setZGyroFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_ZG_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_ZG_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1283,7 +1286,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getAccelFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_ACCEL_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_ACCEL_FIFO_EN_BIT);
   }
 
   /**
@@ -1294,7 +1297,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setAccelFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_ACCEL_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_ACCEL_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1306,7 +1309,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getSlave2FIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV2_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV2_FIFO_EN_BIT);
   }
 
   /**
@@ -1317,7 +1320,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setSlave2FIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV2_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV2_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1329,7 +1332,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getSlave1FIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV1_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV1_FIFO_EN_BIT);
   }
 
   /**
@@ -1340,7 +1343,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setSlave1FIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV1_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV1_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1352,7 +1355,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   boolean getSlave0FIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV0_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV0_FIFO_EN_BIT);
   }
 
   /**
@@ -1363,7 +1366,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_EN
    */
   void setSlave0FIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_FIFO_EN, MPU6050_SLV0_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_FIFO_EN, MPU6050_SLV0_FIFO_EN_BIT, enabled);
   }
 
   // I2C_MST_CTRL register
@@ -1385,7 +1388,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   boolean getMultiMasterEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_MULT_MST_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_MULT_MST_EN_BIT);
   }
 
   /**
@@ -1396,7 +1399,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   void setMultiMasterEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_MULT_MST_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_MULT_MST_EN_BIT, enabled);
   }
 
   /**
@@ -1412,7 +1415,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   boolean getWaitForExternalSensorEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_WAIT_FOR_ES_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_WAIT_FOR_ES_BIT);
   }
 
   /**
@@ -1424,7 +1427,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   void setWaitForExternalSensorEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_WAIT_FOR_ES_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_WAIT_FOR_ES_BIT, enabled);
   }
 
   /**
@@ -1436,7 +1439,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MST_CTRL
    */
   boolean getSlave3FIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_SLV_3_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_SLV_3_FIFO_EN_BIT);
   }
 
   /**
@@ -1447,7 +1450,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MST_CTRL
    */
   void setSlave3FIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_SLV_3_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_SLV_3_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -1462,7 +1465,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   boolean getSlaveReadWriteTransitionEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_P_NSR_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_P_NSR_BIT);
   }
 
   /**
@@ -1474,7 +1477,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   void setSlaveReadWriteTransitionEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_P_NSR_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_P_NSR_BIT, enabled);
   }
 
   /**
@@ -1507,7 +1510,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   int getMasterClockSpeed() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_CLK_BIT, MPU6050_I2C_MST_CLK_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_CLK_BIT, MPU6050_I2C_MST_CLK_LENGTH);
   }
 
   /**
@@ -1517,7 +1520,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_CTRL
    */
   void setMasterClockSpeed(int speed) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_CLK_BIT, MPU6050_I2C_MST_CLK_LENGTH, speed);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_I2C_MST_CTRL, MPU6050_I2C_MST_CLK_BIT, MPU6050_I2C_MST_CLK_LENGTH, speed);
   }
 
   // I2C_SLV* registers (Slave 0-3)
@@ -1569,7 +1572,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   int getSlaveAddress(int num) {
     if (num > 3)
       return 0;
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_ADDR + num * 3);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_I2C_SLV0_ADDR + num * 3);
   }
 
   /**
@@ -1584,7 +1587,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveAddress(int num, int address) {
     if (num > 3)
       return;
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_ADDR + num * 3, address);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV0_ADDR + num * 3, address);
   }
 
   /**
@@ -1603,7 +1606,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   int getSlaveRegister(int num) {
     if (num > 3)
       return 0;
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_REG + num * 3);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_I2C_SLV0_REG + num * 3);
   }
 
   /**
@@ -1618,7 +1621,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveRegister(int num, int reg) {
     if (num > 3)
       return;
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_REG + num * 3, reg);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV0_REG + num * 3, reg);
   }
 
   /**
@@ -1634,7 +1637,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   boolean getSlaveEnabled(int num) {
     if (num > 3)
       return false;
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_EN_BIT);
   }
 
   /**
@@ -1649,7 +1652,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveEnabled(int num, boolean enabled) {
     if (num > 3)
       return;
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_EN_BIT, enabled);
   }
 
   /**
@@ -1668,7 +1671,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   boolean getSlaveWordByteSwap(int num) {
     if (num > 3)
       return false;
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_BYTE_SW_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_BYTE_SW_BIT);
   }
 
   /**
@@ -1684,7 +1687,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveWordByteSwap(int num, boolean enabled) {
     if (num > 3)
       return;
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_BYTE_SW_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_BYTE_SW_BIT, enabled);
   }
 
   /**
@@ -1703,7 +1706,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   boolean getSlaveWriteMode(int num) {
     if (num > 3)
       return false;
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_REG_DIS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_REG_DIS_BIT);
   }
 
   /**
@@ -1719,7 +1722,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveWriteMode(int num, boolean mode) {
     if (num > 3)
       return;
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_REG_DIS_BIT, mode);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_REG_DIS_BIT, mode);
   }
 
   /**
@@ -1738,7 +1741,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   boolean getSlaveWordGroupOffset(int num) {
     if (num > 3)
       return false;
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_GRP_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_GRP_BIT);
   }
 
   /**
@@ -1754,7 +1757,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveWordGroupOffset(int num, boolean enabled) {
     if (num > 3)
       return;
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_GRP_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_GRP_BIT, enabled);
   }
 
   /**
@@ -1770,7 +1773,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   int getSlaveDataLength(int num) {
     if (num > 3)
       return 0;
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_LEN_BIT, MPU6050_I2C_SLV_LEN_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_LEN_BIT, MPU6050_I2C_SLV_LEN_LENGTH);
   }
 
   /**
@@ -1786,7 +1789,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveDataLength(int num, int length) {
     if (num > 3)
       return;
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_LEN_BIT, MPU6050_I2C_SLV_LEN_LENGTH, length);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_I2C_SLV0_CTRL + num * 3, MPU6050_I2C_SLV_LEN_BIT, MPU6050_I2C_SLV_LEN_LENGTH, length);
   }
 
   // I2C_SLV* registers (Slave 4)
@@ -1801,7 +1804,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_ADDR
    */
   int getSlave4Address() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_ADDR);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_I2C_SLV4_ADDR);
   }
 
   /**
@@ -1812,7 +1815,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_ADDR
    */
   void setSlave4Address(int address) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_ADDR, address);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV4_ADDR, address);
   }
 
   /**
@@ -1824,7 +1827,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_REG
    */
   int getSlave4Register() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_REG);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_I2C_SLV4_REG);
   }
 
   /**
@@ -1835,7 +1838,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_REG
    */
   void setSlave4Register(int reg) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_REG, reg);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV4_REG, reg);
   }
 
   /**
@@ -1848,7 +1851,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_DO
    */
   void setSlave4OutputByte(int data) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_DO, data);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV4_DO, data);
   }
 
   /**
@@ -1860,7 +1863,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   boolean getSlave4Enabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_EN_BIT);
   }
 
   /**
@@ -1871,7 +1874,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   void setSlave4Enabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_EN_BIT, enabled);
   }
 
   /**
@@ -1885,7 +1888,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   boolean getSlave4InterruptEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_INT_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_INT_EN_BIT);
   }
 
   /**
@@ -1897,7 +1900,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   void setSlave4InterruptEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_INT_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_INT_EN_BIT, enabled);
   }
 
   /**
@@ -1912,7 +1915,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   boolean getSlave4WriteMode() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_REG_DIS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_REG_DIS_BIT);
   }
 
   /**
@@ -1924,7 +1927,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   void setSlave4WriteMode(boolean mode) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_REG_DIS_BIT, mode);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_REG_DIS_BIT, mode);
   }
 
   /**
@@ -1943,7 +1946,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   int getSlave4MasterDelay() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_MST_DLY_BIT, MPU6050_I2C_SLV4_MST_DLY_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_MST_DLY_BIT, MPU6050_I2C_SLV4_MST_DLY_LENGTH);
   }
 
   /**
@@ -1954,7 +1957,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_CTRL
    */
   void setSlave4MasterDelay(int delay) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_MST_DLY_BIT, MPU6050_I2C_SLV4_MST_DLY_LENGTH, delay);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_I2C_SLV4_CTRL, MPU6050_I2C_SLV4_MST_DLY_BIT, MPU6050_I2C_SLV4_MST_DLY_LENGTH, delay);
   }
 
   /**
@@ -1965,7 +1968,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_SLV4_DI
    */
   int getSlate4InputByte() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV4_DI);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_I2C_SLV4_DI);
   }
 
   // I2C_MST_STATUS register
@@ -1981,7 +1984,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getPassthroughStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_PASS_THROUGH_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_PASS_THROUGH_BIT);
   }
 
   /**
@@ -1994,7 +1997,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave4IsDone() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV4_DONE_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV4_DONE_BIT);
   }
 
   /**
@@ -2007,7 +2010,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getLostArbitration() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_LOST_ARB_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_LOST_ARB_BIT);
   }
 
   /**
@@ -2020,7 +2023,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave4Nack() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV4_NACK_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV4_NACK_BIT);
   }
 
   /**
@@ -2033,7 +2036,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave3Nack() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV3_NACK_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV3_NACK_BIT);
   }
 
   /**
@@ -2046,7 +2049,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave2Nack() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV2_NACK_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV2_NACK_BIT);
   }
 
   /**
@@ -2059,7 +2062,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave1Nack() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV1_NACK_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV1_NACK_BIT);
   }
 
   /**
@@ -2072,7 +2075,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_I2C_MST_STATUS
    */
   boolean getSlave0Nack() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV0_NACK_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_STATUS, MPU6050_MST_I2C_SLV0_NACK_BIT);
   }
 
   // INT_PIN_CFG register
@@ -2086,7 +2089,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_LEVEL_BIT
    */
   boolean getInterruptMode() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_LEVEL_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_LEVEL_BIT);
   }
 
   /**
@@ -2099,7 +2102,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_LEVEL_BIT
    */
   void setInterruptMode(boolean mode) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_LEVEL_BIT, mode);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_LEVEL_BIT, mode);
   }
 
   /**
@@ -2110,7 +2113,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_OPEN_BIT
    */
   boolean getInterruptDrive() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_OPEN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_OPEN_BIT);
   }
 
   /**
@@ -2123,7 +2126,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_OPEN_BIT
    */
   void setInterruptDrive(boolean drive) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_OPEN_BIT, drive);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_OPEN_BIT, drive);
   }
 
   /**
@@ -2135,7 +2138,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_LATCH_INT_EN_BIT
    */
   boolean getInterruptLatch() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_LATCH_INT_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_LATCH_INT_EN_BIT);
   }
 
   /**
@@ -2148,7 +2151,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_LATCH_INT_EN_BIT
    */
   void setInterruptLatch(boolean latch) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_LATCH_INT_EN_BIT, latch);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_LATCH_INT_EN_BIT, latch);
   }
 
   /**
@@ -2160,7 +2163,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_RD_CLEAR_BIT
    */
   boolean getInterruptLatchClear() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_RD_CLEAR_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_RD_CLEAR_BIT);
   }
 
   /**
@@ -2173,7 +2176,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_INT_RD_CLEAR_BIT
    */
   void setInterruptLatchClear(boolean clear) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_RD_CLEAR_BIT, clear);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_INT_RD_CLEAR_BIT, clear);
   }
 
   /**
@@ -2185,7 +2188,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT
    */
   boolean getFSyncInterruptLevel() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT);
   }
 
   /**
@@ -2198,7 +2201,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT
    */
   void setFSyncInterruptLevel(boolean level) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT, level);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_LEVEL_BIT, level);
   }
 
   /**
@@ -2210,7 +2213,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_FSYNC_INT_EN_BIT
    */
   boolean getFSyncInterruptEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_EN_BIT);
   }
 
   /**
@@ -2223,7 +2226,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_FSYNC_INT_EN_BIT
    */
   void setFSyncInterruptEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_FSYNC_INT_EN_BIT, enabled);
   }
 
   /**
@@ -2239,7 +2242,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_I2C_BYPASS_EN_BIT
    */
   boolean getI2CBypassEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_I2C_BYPASS_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_I2C_BYPASS_EN_BIT);
   }
 
   /**
@@ -2256,7 +2259,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_I2C_BYPASS_EN_BIT
    */
   void setI2CBypassEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_I2C_BYPASS_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_I2C_BYPASS_EN_BIT, enabled);
   }
 
   /**
@@ -2270,7 +2273,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_CLKOUT_EN_BIT
    */
   boolean getClockOutputEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_CLKOUT_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_CLKOUT_EN_BIT);
   }
 
   /**
@@ -2285,7 +2288,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTCFG_CLKOUT_EN_BIT
    */
   void setClockOutputEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_CLKOUT_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_PIN_CFG, MPU6050_INTCFG_CLKOUT_EN_BIT, enabled);
   }
 
   // INT_ENABLE register
@@ -2299,7 +2302,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FF_BIT
    **/
   int getIntEnabled() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_INT_ENABLE);
   }
 
   /**
@@ -2312,7 +2315,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FF_BIT
    **/
   void setIntEnabled(int enabled) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, enabled);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_INT_ENABLE, enabled);
   }
 
   /**
@@ -2324,7 +2327,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FF_BIT
    **/
   boolean getIntFreefallEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FF_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FF_BIT);
   }
 
   /**
@@ -2336,7 +2339,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FF_BIT
    **/
   void setIntFreefallEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FF_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FF_BIT, enabled);
   }
 
   /**
@@ -2348,7 +2351,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_MOT_BIT
    **/
   boolean getIntMotionEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_MOT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_MOT_BIT);
   }
 
   /**
@@ -2360,7 +2363,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_MOT_BIT
    **/
   void setIntMotionEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_MOT_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_MOT_BIT, enabled);
   }
 
   /**
@@ -2372,7 +2375,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_ZMOT_BIT
    **/
   boolean getIntZeroMotionEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_ZMOT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_ZMOT_BIT);
   }
 
   /**
@@ -2384,7 +2387,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_ZMOT_BIT
    **/
   void setIntZeroMotionEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_ZMOT_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_ZMOT_BIT, enabled);
   }
 
   /**
@@ -2396,7 +2399,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FIFO_OFLOW_BIT
    **/
   boolean getIntFIFOBufferOverflowEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FIFO_OFLOW_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FIFO_OFLOW_BIT);
   }
 
   /**
@@ -2408,7 +2411,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FIFO_OFLOW_BIT
    **/
   void setIntFIFOBufferOverflowEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FIFO_OFLOW_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_FIFO_OFLOW_BIT, enabled);
   }
 
   /**
@@ -2421,7 +2424,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_I2C_MST_INT_BIT
    **/
   boolean getIntI2CMasterEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_I2C_MST_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_I2C_MST_INT_BIT);
   }
 
   /**
@@ -2433,7 +2436,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_I2C_MST_INT_BIT
    **/
   void setIntI2CMasterEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_I2C_MST_INT_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_I2C_MST_INT_BIT, enabled);
   }
 
   /**
@@ -2446,7 +2449,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_DATA_RDY_BIT
    */
   boolean getIntDataReadyEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DATA_RDY_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DATA_RDY_BIT);
   }
 
   /**
@@ -2458,7 +2461,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_DATA_RDY_BIT
    */
   void setIntDataReadyEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DATA_RDY_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DATA_RDY_BIT, enabled);
   }
 
   // INT_STATUS register
@@ -2473,7 +2476,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_INT_STATUS
    */
   int getIntStatus() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_INT_STATUS);
   }
 
   /**
@@ -2486,7 +2489,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FF_BIT
    */
   boolean getIntFreefallStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_FF_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_FF_BIT);
   }
 
   /**
@@ -2499,7 +2502,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_MOT_BIT
    */
   boolean getIntMotionStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_MOT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_MOT_BIT);
   }
 
   /**
@@ -2512,7 +2515,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_ZMOT_BIT
    */
   boolean getIntZeroMotionStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_ZMOT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_ZMOT_BIT);
   }
 
   /**
@@ -2525,7 +2528,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_FIFO_OFLOW_BIT
    */
   boolean getIntFIFOBufferOverflowStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_FIFO_OFLOW_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_FIFO_OFLOW_BIT);
   }
 
   /**
@@ -2539,7 +2542,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_I2C_MST_INT_BIT
    */
   boolean getIntI2CMasterStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_I2C_MST_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_I2C_MST_INT_BIT);
   }
 
   /**
@@ -2552,7 +2555,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_INTERRUPT_DATA_RDY_BIT
    */
   boolean getIntDataReadyStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_DATA_RDY_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_DATA_RDY_BIT);
   }
 
   /**
@@ -2597,7 +2600,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   void getAcceleration(int[] x, int[] y, int[] z) {
     int readBuffer[] = new int[6];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_XOUT_H, 6, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ACCEL_XOUT_H, 6, readBuffer);
     x[0] = ((byte) readBuffer[0] << 8) | readBuffer[1] & 0xff;
     y[0] = ((byte) readBuffer[2] << 8) | readBuffer[3] & 0xff;
     z[0] = ((byte) readBuffer[4] << 8) | readBuffer[5] & 0xff;
@@ -2612,7 +2615,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getAccelerationX() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_XOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ACCEL_XOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2625,7 +2628,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getAccelerationY() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_YOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ACCEL_YOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2638,7 +2641,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getAccelerationZ() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ACCEL_ZOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ACCEL_ZOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2664,7 +2667,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getTemperature() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_TEMP_OUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_TEMP_OUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2708,7 +2711,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   void getRotation(int x[], int y[], int z[]) {
     int readBuffer[] = new int[6];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_GYRO_XOUT_H, 6, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_GYRO_XOUT_H, 6, readBuffer);
     x[0] = (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
     y[0] = (byte) readBuffer[2] << 8 | readBuffer[3] & 0xff;
     z[0] = (byte) readBuffer[4] << 8 | readBuffer[5] & 0xff;
@@ -2723,7 +2726,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getRotationX() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_GYRO_XOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_GYRO_XOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2736,7 +2739,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getRotationY() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_GYRO_YOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_GYRO_YOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2749,7 +2752,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getRotationZ() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_GYRO_ZOUT_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_GYRO_ZOUT_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -2834,7 +2837,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @return Byte read from register
    */
   int getExternalSensorByte(int position) {
-    return (byte) I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_EXT_SENS_DATA_00 + position) & 0xff;
+    return (byte) I2CdevReadByte(i2cAddress, MPU6050_RA_EXT_SENS_DATA_00 + position) & 0xff;
   }
 
   /**
@@ -2846,7 +2849,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getExternalSensorWord(int position) {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_EXT_SENS_DATA_00 + position, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_EXT_SENS_DATA_00 + position, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1];
   }
 
@@ -2859,7 +2862,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getExternalSensorDWord(int position) {
     int readBuffer[] = new int[4];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_EXT_SENS_DATA_00 + position, 4, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_EXT_SENS_DATA_00 + position, 4, readBuffer);
     return (((byte) readBuffer[0]) << 24) | (((byte) readBuffer[1]) << 16) | (((byte) readBuffer[2]) << 8) | readBuffer[3] & 0xff;
   }
 
@@ -2872,7 +2875,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_MOT_DETECT_STATUS
    */
   int getMotionStatus() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS);
   }
 
   /**
@@ -2883,7 +2886,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_XNEG_BIT
    */
   boolean getXNegMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_XNEG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_XNEG_BIT);
   }
 
   /**
@@ -2894,7 +2897,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_XPOS_BIT
    */
   boolean getXPosMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_XPOS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_XPOS_BIT);
   }
 
   /**
@@ -2905,7 +2908,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_YNEG_BIT
    */
   boolean getYNegMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_YNEG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_YNEG_BIT);
   }
 
   /**
@@ -2916,7 +2919,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_YPOS_BIT
    */
   boolean getYPosMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_YPOS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_YPOS_BIT);
   }
 
   /**
@@ -2927,7 +2930,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_ZNEG_BIT
    */
   boolean getZNegMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZNEG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZNEG_BIT);
   }
 
   /**
@@ -2938,7 +2941,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_ZPOS_BIT
    */
   boolean getZPosMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZPOS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZPOS_BIT);
   }
 
   /**
@@ -2949,7 +2952,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_MOTION_MOT_ZRMOT_BIT
    */
   boolean getZeroMotionDetected() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZRMOT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_MOT_DETECT_STATUS, MPU6050_MOTION_MOT_ZRMOT_BIT);
   }
 
   // I2C_SLV*_DO register
@@ -2969,7 +2972,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   void setSlaveOutputByte(int num, int data) {
     if (num > 3)
       return;
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_I2C_SLV0_DO + num, data);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_I2C_SLV0_DO + num, data);
   }
 
   // I2C_MST_DELAY_CTRL register
@@ -2985,7 +2988,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT
    */
   boolean getExternalShadowDelayEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_DELAY_CTRL, MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_DELAY_CTRL, MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT);
   }
 
   /**
@@ -2998,7 +3001,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT
    */
   void setExternalShadowDelayEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_DELAY_CTRL, MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_DELAY_CTRL, MPU6050_DELAYCTRL_DELAY_ES_SHADOW_BIT, enabled);
   }
 
   /**
@@ -3026,7 +3029,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
     // MPU6050_DELAYCTRL_I2C_SLV4_DLY_EN_BIT is 4, SLV3 is 3, etc.
     if (num > 4)
       return false;
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_DELAY_CTRL, num);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_I2C_MST_DELAY_CTRL, num);
   }
 
   /**
@@ -3040,7 +3043,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DELAYCTRL_I2C_SLV0_DLY_EN_BIT
    */
   void setSlaveDelayEnabled(int num, boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_I2C_MST_DELAY_CTRL, num, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_I2C_MST_DELAY_CTRL, num, enabled);
   }
 
   // SIGNAL_PATH_RESET register
@@ -3053,7 +3056,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PATHRESET_GYRO_RESET_BIT
    */
   void resetGyroscopePath() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_GYRO_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_GYRO_RESET_BIT, true);
   }
 
   /**
@@ -3064,7 +3067,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PATHRESET_ACCEL_RESET_BIT
    */
   void resetAccelerometerPath() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_ACCEL_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_ACCEL_RESET_BIT, true);
   }
 
   /**
@@ -3075,7 +3078,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PATHRESET_TEMP_RESET_BIT
    */
   void resetTemperaturePath() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_TEMP_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_SIGNAL_PATH_RESET, MPU6050_PATHRESET_TEMP_RESET_BIT, true);
   }
 
   /**
@@ -3095,7 +3098,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DETECT_ACCEL_ON_DELAY_BIT
    */
   int getAccelerometerPowerOnDelay() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_ACCEL_ON_DELAY_BIT, MPU6050_DETECT_ACCEL_ON_DELAY_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_ACCEL_ON_DELAY_BIT, MPU6050_DETECT_ACCEL_ON_DELAY_LENGTH);
   }
 
   /**
@@ -3108,7 +3111,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DETECT_ACCEL_ON_DELAY_BIT
    */
   void setAccelerometerPowerOnDelay(int delay) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_ACCEL_ON_DELAY_BIT, MPU6050_DETECT_ACCEL_ON_DELAY_LENGTH, delay);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_ACCEL_ON_DELAY_BIT, MPU6050_DETECT_ACCEL_ON_DELAY_LENGTH, delay);
   }
 
   /**
@@ -3139,7 +3142,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DETECT_FF_COUNT_BIT
    */
   int getFreefallDetectionCounterDecrement() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_FF_COUNT_BIT, MPU6050_DETECT_FF_COUNT_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_FF_COUNT_BIT, MPU6050_DETECT_FF_COUNT_LENGTH);
   }
 
   /**
@@ -3152,7 +3155,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DETECT_FF_COUNT_BIT
    */
   void setFreefallDetectionCounterDecrement(int decrement) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_FF_COUNT_BIT, MPU6050_DETECT_FF_COUNT_LENGTH, decrement);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_FF_COUNT_BIT, MPU6050_DETECT_FF_COUNT_LENGTH, decrement);
   }
 
   /**
@@ -3180,7 +3183,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    *
    */
   int getMotionDetectionCounterDecrement() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_MOT_COUNT_BIT, MPU6050_DETECT_MOT_COUNT_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_MOT_COUNT_BIT, MPU6050_DETECT_MOT_COUNT_LENGTH);
   }
 
   /**
@@ -3193,7 +3196,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_DETECT_MOT_COUNT_BIT
    */
   void setMotionDetectionCounterDecrement(int decrement) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_MOT_COUNT_BIT, MPU6050_DETECT_MOT_COUNT_LENGTH, decrement);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_MOT_DETECT_CTRL, MPU6050_DETECT_MOT_COUNT_BIT, MPU6050_DETECT_MOT_COUNT_LENGTH, decrement);
   }
 
   // USER_CTRL register
@@ -3209,7 +3212,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_FIFO_EN_BIT
    */
   boolean getFIFOEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_EN_BIT);
   }
 
   /**
@@ -3221,7 +3224,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_FIFO_EN_BIT
    */
   void setFIFOEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_EN_BIT, enabled);
   }
 
   /**
@@ -3237,7 +3240,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_I2C_MST_EN_BIT
    */
   boolean getI2CMasterModeEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_EN_BIT);
   }
 
   /**
@@ -3249,7 +3252,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_I2C_MST_EN_BIT
    */
   void setI2CMasterModeEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_EN_BIT, enabled);
   }
 
   /**
@@ -3257,7 +3260,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * interface will be enabled in place of the disabled primary I2C interface.
    */
   void switchSPIEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_IF_DIS_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_IF_DIS_BIT, enabled);
   }
 
   /**
@@ -3269,7 +3272,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_FIFO_RESET_BIT
    */
   void resetFIFO() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_FIFO_RESET_BIT, true);
   }
 
   /**
@@ -3281,7 +3284,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_I2C_MST_RESET_BIT
    */
   void resetI2CMaster() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_I2C_MST_RESET_BIT, true);
   }
 
   /**
@@ -3297,7 +3300,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_USERCTRL_SIG_COND_RESET_BIT
    */
   void resetSensors() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_SIG_COND_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_SIG_COND_RESET_BIT, true);
   }
 
   // PWR_MGMT_1 register
@@ -3307,7 +3310,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * triggering a reset.
    */
   public void reset() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_DEVICE_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_DEVICE_RESET_BIT, true);
   }
 
   /**
@@ -3323,7 +3326,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_SLEEP_BIT
    */
   boolean getSleepEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_SLEEP_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_SLEEP_BIT);
   }
 
   /**
@@ -3335,7 +3338,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_SLEEP_BIT
    */
   void setSleepEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_SLEEP_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_SLEEP_BIT, enabled);
   }
 
   /**
@@ -3349,7 +3352,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_CYCLE_BIT
    */
   boolean getWakeCycleEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CYCLE_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CYCLE_BIT);
   }
 
   /**
@@ -3361,7 +3364,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_CYCLE_BIT
    */
   void setWakeCycleEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CYCLE_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CYCLE_BIT, enabled);
   }
 
   /**
@@ -3378,7 +3381,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_TEMP_DIS_BIT
    */
   boolean getTempSensorEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_TEMP_DIS_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_TEMP_DIS_BIT);
     // 1 is actually disabled here
   }
 
@@ -3395,7 +3398,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   void setTempSensorEnabled(boolean enabled) {
     // 1 is actually disabled here
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_TEMP_DIS_BIT, !enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_TEMP_DIS_BIT, !enabled);
   }
 
   /**
@@ -3407,7 +3410,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_CLKSEL_LENGTH
    */
   int getClockSource() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CLKSEL_BIT, MPU6050_PWR1_CLKSEL_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CLKSEL_BIT, MPU6050_PWR1_CLKSEL_LENGTH);
   }
 
   /**
@@ -3443,7 +3446,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR1_CLKSEL_LENGTH
    */
   void setClockSource(int source) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CLKSEL_BIT, MPU6050_PWR1_CLKSEL_LENGTH, source);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_PWR_MGMT_1, MPU6050_PWR1_CLKSEL_BIT, MPU6050_PWR1_CLKSEL_LENGTH, source);
   }
 
   /**
@@ -3470,7 +3473,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_PWR_MGMT_2
    */
   int getWakeFrequency() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_LP_WAKE_CTRL_BIT, MPU6050_PWR2_LP_WAKE_CTRL_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_LP_WAKE_CTRL_BIT, MPU6050_PWR2_LP_WAKE_CTRL_LENGTH);
   }
 
   /**
@@ -3481,7 +3484,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_PWR_MGMT_2
    */
   void setWakeFrequency(int frequency) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_LP_WAKE_CTRL_BIT, MPU6050_PWR2_LP_WAKE_CTRL_LENGTH, frequency);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_LP_WAKE_CTRL_BIT, MPU6050_PWR2_LP_WAKE_CTRL_LENGTH, frequency);
   }
 
   /**
@@ -3493,7 +3496,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_XA_BIT
    */
   boolean getStandbyXAccelEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XA_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XA_BIT);
   }
 
   /**
@@ -3505,7 +3508,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_XA_BIT
    */
   void setStandbyXAccelEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XA_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XA_BIT, enabled);
   }
 
   /**
@@ -3517,7 +3520,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_YA_BIT
    */
   boolean getStandbyYAccelEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YA_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YA_BIT);
   }
 
   /**
@@ -3529,7 +3532,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_YA_BIT
    */
   void setStandbyYAccelEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YA_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YA_BIT, enabled);
   }
 
   /**
@@ -3541,7 +3544,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_ZA_BIT
    */
   boolean getStandbyZAccelEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZA_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZA_BIT);
   }
 
   /**
@@ -3553,7 +3556,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_ZA_BIT
    */
   void setStandbyZAccelEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZA_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZA_BIT, enabled);
   }
 
   /**
@@ -3565,7 +3568,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_XG_BIT
    */
   boolean getStandbyXGyroEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XG_BIT);
   }
 
   /**
@@ -3577,7 +3580,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_XG_BIT
    */
   void setStandbyXGyroEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XG_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_XG_BIT, enabled);
   }
 
   /**
@@ -3589,7 +3592,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_YG_BIT
    */
   boolean getStandbyYGyroEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YG_BIT);
   }
 
   /**
@@ -3601,7 +3604,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_YG_BIT
    */
   void setStandbyYGyroEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YG_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_YG_BIT, enabled);
   }
 
   /**
@@ -3613,7 +3616,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_ZG_BIT
    */
   boolean getStandbyZGyroEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZG_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZG_BIT);
   }
 
   /**
@@ -3625,7 +3628,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_PWR2_STBY_ZG_BIT
    */
   void setStandbyZGyroEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZG_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_PWR_MGMT_2, MPU6050_PWR2_STBY_ZG_BIT, enabled);
   }
 
   /**
@@ -3639,7 +3642,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int getFIFOCount() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_FIFO_COUNTH, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_FIFO_COUNTH, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
@@ -3670,12 +3673,12 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @return Byte from FIFO buffer
    */
   int getFIFOByte() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_FIFO_R_W);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_FIFO_R_W);
   }
 
   void getFIFOBytes(int[] data, int length) {
     if (length > 0) {
-      I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_FIFO_R_W, length, data);
+      I2CdevReadBytes(i2cAddress, MPU6050_RA_FIFO_R_W, length, data);
     } else {
       data = new int[0];
     }
@@ -3689,7 +3692,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_RA_FIFO_R_W
    */
   void setFIFOByte(int data) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_FIFO_R_W, data);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_FIFO_R_W, data);
   }
 
   // WHO_AM_I register
@@ -3704,7 +3707,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_WHO_AM_I_LENGTH
    */
   int getDeviceID() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_WHO_AM_I, MPU6050_WHO_AM_I_BIT, MPU6050_WHO_AM_I_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_WHO_AM_I, MPU6050_WHO_AM_I_BIT, MPU6050_WHO_AM_I_LENGTH);
   }
 
   /**
@@ -3718,184 +3721,184 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    * @see MPU6050_WHO_AM_I_LENGTH
    */
   void setDeviceID(int id) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_WHO_AM_I, MPU6050_WHO_AM_I_BIT, MPU6050_WHO_AM_I_LENGTH, id);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_WHO_AM_I, MPU6050_WHO_AM_I_BIT, MPU6050_WHO_AM_I_LENGTH, id);
   }
 
   // ======== UNDOCUMENTED/DMP REGISTERS/METHODS ========
   boolean getOTPBankValid() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OTP_BNK_VLD_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OTP_BNK_VLD_BIT);
   }
 
   void setOTPBankValid(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OTP_BNK_VLD_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OTP_BNK_VLD_BIT, enabled);
   }
 
   int getXGyroOffsetTC() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
   }
 
   void setXGyroOffsetTC(int offset) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_XG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
   }
 
   int getYGyroOffsetTC() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_YG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
   }
 
   void setYGyroOffsetTC(int offset) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_YG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
   }
 
   int getZGyroOffsetTC() {
-    return I2CdevReadBits(Integer.decode(deviceAddress), MPU6050_RA_ZG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
+    return I2CdevReadBits(i2cAddress, MPU6050_RA_ZG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH);
   }
 
   void setZGyroOffsetTC(int offset) {
-    I2CdevWriteBits(Integer.decode(deviceAddress), MPU6050_RA_ZG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
+    I2CdevWriteBits(i2cAddress, MPU6050_RA_ZG_OFFS_TC, MPU6050_TC_OFFSET_BIT, MPU6050_TC_OFFSET_LENGTH, offset);
   }
 
   int getXFineGain() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_X_FINE_GAIN);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_X_FINE_GAIN);
   }
 
   void setXFineGain(int gain) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_X_FINE_GAIN, gain);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_X_FINE_GAIN, gain);
   }
 
   int getYFineGain() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_Y_FINE_GAIN);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_Y_FINE_GAIN);
   }
 
   void setYFineGain(int gain) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_Y_FINE_GAIN, gain);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_Y_FINE_GAIN, gain);
   }
 
   int getZFineGain() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_Z_FINE_GAIN);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_Z_FINE_GAIN);
   }
 
   void setZFineGain(int gain) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_Z_FINE_GAIN, gain);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_Z_FINE_GAIN, gain);
   }
 
   int getXAccelOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_XA_OFFS_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_XA_OFFS_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setXAccelOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_XA_OFFS_H, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_XA_OFFS_H, offset);
   }
 
   int getYAccelOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_YA_OFFS_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_YA_OFFS_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setYAccelOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_YA_OFFS_H, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_YA_OFFS_H, offset);
   }
 
   int getZAccelOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ZA_OFFS_H, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ZA_OFFS_H, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setZAccelOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_ZA_OFFS_H, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_ZA_OFFS_H, offset);
   }
 
   int getXGyroOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_USRH, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_XG_OFFS_USRH, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setXGyroOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_XG_OFFS_USRH, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_XG_OFFS_USRH, offset);
   }
 
   int getYGyroOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_USRH, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_YG_OFFS_USRH, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setYGyroOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_YG_OFFS_USRH, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_YG_OFFS_USRH, offset);
   }
 
   int getZGyroOffset() {
     int readBuffer[] = new int[2];
-    I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_ZG_OFFS_USRH, 2, readBuffer);
+    I2CdevReadBytes(i2cAddress, MPU6050_RA_ZG_OFFS_USRH, 2, readBuffer);
     return (byte) readBuffer[0] << 8 | readBuffer[1] & 0xff;
   }
 
   void setZGyroOffset(int offset) {
-    I2CdevWriteWord(Integer.decode(deviceAddress), MPU6050_RA_ZG_OFFS_USRH, offset);
+    I2CdevWriteWord(i2cAddress, MPU6050_RA_ZG_OFFS_USRH, offset);
   }
 
   boolean getIntPLLReadyEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_PLL_RDY_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_PLL_RDY_INT_BIT);
   }
 
   void setIntPLLReadyEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_PLL_RDY_INT_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_PLL_RDY_INT_BIT, enabled);
   }
 
   boolean getIntDMPEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DMP_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DMP_INT_BIT);
   }
 
   void setIntDMPEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DMP_INT_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_INT_ENABLE, MPU6050_INTERRUPT_DMP_INT_BIT, enabled);
   }
 
   boolean getDMPInt5Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_5_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_5_BIT);
   }
 
   boolean getDMPInt4Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_4_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_4_BIT);
   }
 
   boolean getDMPInt3Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_3_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_3_BIT);
   }
 
   boolean getDMPInt2Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_2_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_2_BIT);
   }
 
   boolean getDMPInt1Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_1_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_1_BIT);
   }
 
   boolean getDMPInt0Status() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_0_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_DMP_INT_STATUS, MPU6050_DMPINT_0_BIT);
   }
 
   boolean getIntPLLReadyStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_PLL_RDY_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_PLL_RDY_INT_BIT);
   }
 
   boolean getIntDMPStatus() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_DMP_INT_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_INT_STATUS, MPU6050_INTERRUPT_DMP_INT_BIT);
   }
 
   boolean getDMPEnabled() {
-    return I2CdevReadBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_EN_BIT);
+    return I2CdevReadBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_EN_BIT);
   }
 
   void setDMPEnabled(boolean enabled) {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_EN_BIT, enabled);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_EN_BIT, enabled);
   }
 
   void resetDMP() {
-    I2CdevWriteBit(Integer.decode(deviceAddress), MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_RESET_BIT, true);
+    I2CdevWriteBit(i2cAddress, MPU6050_RA_USER_CTRL, MPU6050_USERCTRL_DMP_RESET_BIT, true);
   }
 
   void setMemoryBank(int bank, boolean prefetchEnabled, boolean userBank) {
@@ -3904,7 +3907,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
       bank |= 0x20;
     if (prefetchEnabled)
       bank |= 0x40;
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_BANK_SEL, bank);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_BANK_SEL, bank);
   }
 
   void setMemoryBank(int bank) {
@@ -3912,15 +3915,15 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   }
 
   void setMemoryStartAddress(int address) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_MEM_START_ADDR, address);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_MEM_START_ADDR, address);
   }
 
   int readMemoryByte() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_MEM_R_W);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_MEM_R_W);
   }
 
   void writeMemoryByte(int data) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_MEM_R_W, data);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_MEM_R_W, data);
   }
 
   void readMemoryBlock(int[] data, int dataSize, int bank, int address) {
@@ -3942,7 +3945,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
         chunkSize = 256 - address;
 
       // read the chunk of data as specified
-      I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_MEM_R_W, chunkSize, data);
+      I2CdevReadBytes(i2cAddress, MPU6050_RA_MEM_R_W, chunkSize, data);
 
       // increase byte index by [chunkSize]
       i += chunkSize;
@@ -4002,14 +4005,14 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
       }
 
       log.info("writeMemoryBlock: Block start: {}, ChunkSize {}", i, chunkSize);
-      I2CdevWriteBytes(Integer.decode(deviceAddress), MPU6050_RA_MEM_R_W, chunkSize, progBuffer);
+      I2CdevWriteBytes(i2cAddress, MPU6050_RA_MEM_R_W, chunkSize, progBuffer);
 
       // verify data if needed
 
       if (verify && (verifyBuffer.length > 0)) {
         setMemoryBank(bank);
         setMemoryStartAddress(address);
-        I2CdevReadBytes(Integer.decode(deviceAddress), MPU6050_RA_MEM_R_W, chunkSize, verifyBuffer);
+        I2CdevReadBytes(i2cAddress, MPU6050_RA_MEM_R_W, chunkSize, verifyBuffer);
         if (memcmp(progBuffer, verifyBuffer, chunkSize) != 0) {
           /*
            * Serial.print("Block write verification error, bank ");
@@ -4103,7 +4106,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
           // setIntZeroMotionEnabled(true);
           // setIntFIFOBufferOverflowEnabled(true);
           // setIntDMPEnabled(true);
-          I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_INT_ENABLE, 0x32); // single
+          I2CdevWriteByte(i2cAddress, MPU6050_RA_INT_ENABLE, 0x32); // single
           // operation
 
           success = true;
@@ -4125,21 +4128,21 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   }
 
   int getDMPConfig1() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_DMP_CFG_1);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_DMP_CFG_1);
   }
 
   void setDMPConfig1(int config) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_DMP_CFG_1, config);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_DMP_CFG_1, config);
   }
 
   // DMP_CFG_2 register
 
   int getDMPConfig2() {
-    return I2CdevReadByte(Integer.decode(deviceAddress), MPU6050_RA_DMP_CFG_2);
+    return I2CdevReadByte(i2cAddress, MPU6050_RA_DMP_CFG_2);
   }
 
   void setDMPConfig2(int config) {
-    I2CdevWriteByte(Integer.decode(deviceAddress), MPU6050_RA_DMP_CFG_2, config);
+    I2CdevWriteByte(i2cAddress, MPU6050_RA_DMP_CFG_2, config);
   }
 
   /**
@@ -4260,7 +4263,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
    */
   int I2CdevReadWords(int devAddr, int regAddr, int length, int[] data) {
     byte bytebuffer[] = new byte[length * 2];
-    controller.i2cRead(this, Integer.parseInt(deviceBus), devAddr, bytebuffer, bytebuffer.length);
+    controller.i2cRead(this, i2cBus, devAddr, bytebuffer, bytebuffer.length);
     for (int i = 0; i < bytebuffer.length; i++) {
       data[i] = bytebuffer[i * 2] << 8 + bytebuffer[i * 2 + 1] & 0xff;
     }
@@ -4284,8 +4287,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
   int I2CdevReadBytes(int devAddr, int regAddr, int length, int[] data) {
     byte[] writebuffer = new byte[] { (byte) (regAddr & 0xff) };
     byte[] readbuffer = new byte[length];
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), devAddr, writebuffer, writebuffer.length);
-    controller.i2cRead(this, Integer.parseInt(deviceBus), devAddr, readbuffer, readbuffer.length);
+    controller.i2cWriteRead(this, i2cBus, devAddr, writebuffer, writebuffer.length, readbuffer, readbuffer.length);
     for (int i = 0; i < length; i++) {
       data[i] = readbuffer[i] & 0xff;
     }
@@ -4424,7 +4426,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
     for (int i = 0; i < length; i++) {
       writebuffer[i + 1] = (byte) (data[i] & 0xff);
     }
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), devAddr, writebuffer, writebuffer.length);
+    controller.i2cWrite(this, i2cBus, devAddr, writebuffer, writebuffer.length);
     return true;
   }
 
@@ -4436,7 +4438,7 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
       writebuffer[i * 2 + 1] = (byte) (data[i] << 8); // MSByte
       writebuffer[i * 2 + 2] = (byte) (data[i] & 0xff); // LSByte
     }
-    controller.i2cWrite(this, Integer.parseInt(deviceBus), devAddr, writebuffer, writebuffer.length);
+    controller.i2cWrite(this, i2cBus, devAddr, writebuffer, writebuffer.length);
     return true;
   }
 
@@ -4521,6 +4523,8 @@ public class Mpu6050 extends Service implements I2CControl, OrientationPublisher
 
     this.controllerName = controller.getName();
     this.controller = controller;
+    i2cBus = Integer.parseInt(deviceBus);
+    i2cAddress = Integer.decode(deviceAddress);
     controller.attachI2CControl(this);
     log.info("Attached {} device on bus: {} address {}", controllerName, deviceBus, deviceAddress);
     broadcastState();
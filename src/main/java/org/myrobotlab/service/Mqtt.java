@@ -19,7 +19,8 @@ import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
-import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.codec.MessageCodec;
+import org.myrobotlab.codec.MessageCodecs;
 import org.myrobotlab.framework.DescribeQuery;
 import org.myrobotlab.framework.MRLListener;
 import org.myrobotlab.framework.Message;
@@ -201,6 +202,8 @@ public class Mqtt extends Service implements MqttCallback, IMqttActionListener,
 
       Message onConnect = Message.createMessage(String.format("%s@%s", getName(), getId()), null, "onConnect", new Object[] { Platform.getLocalInstance() });
       onConnect.sendingMethod = "onConnect";
+      // peers pick the encoding of the msgs they send us from these
+      onConnect.setProperty(MessageCodecs.CODECS, MessageCodecs.getKeys());
       sendRemote(onConnect);
 
     } catch (MqttException ex) {
@@ -466,12 +469,10 @@ public class Mqtt extends Service implements MqttCallback, IMqttActionListener,
       // publish it
       invoke("publishMqttMsg", mqtt);
 
-      // FIXME - new String won't be happy with true binary payloads ..
-      String payload = new String(message.getPayload());
-
       Message msg = null;
       if (topic.startsWith(mrlTopicApiPrefix)) {
-        msg = (Message) CodecUtils.fromJson(payload, Message.class);
+        // json or binary - recognized from the payload
+        msg = MessageCodecs.decode(message.getPayload());
 
         // I never want to see a msg again which I have sent away !
         if (msg.containsHop(getId())) {
@@ -525,6 +526,7 @@ public class Mqtt extends Service implements MqttCallback, IMqttActionListener,
           connection.put("type", getSimpleName());
           connection.put("c-type", getSimpleName());
           connection.put("remote-gateway", remoteFullName);
+          connection.put(MessageCodecs.CODEC, MessageCodecs.negotiate(msg.getProperty(MessageCodecs.CODECS)));
 
           // create a unique channel for the remote connecting instance
           String rxTopic = String.format("mrl/gw/%s/rx<-%s", getFullName(), remoteFullName);
@@ -710,6 +712,8 @@ public class Mqtt extends Service implements MqttCallback, IMqttActionListener,
   public void sendRemote(Message msg) throws Exception {
 
     String remoteRxTopic = null;
+    // onConnect is broadcast to any mrl instance - always json
+    MessageCodec codec = MessageCodecs.get((String) null);
 
     // FIXME put all stuff (isLocal) in routeTable
     // FIXME put this in AbstractGateway
@@ -726,13 +730,14 @@ public class Mqtt extends Service implements MqttCallback, IMqttActionListener,
       Connection connection = runtime.getConnectionFromId(rxId);
       String remoteFullName = (String) connection.get("remote-gateway");
       remoteRxTopic = String.format("mrl/gw/%s/rx<-%s", remoteFullName, getFullName());
+      codec = MessageCodecs.get(connection);
     }
 
     // I never want to see a msg again which I have sent away !
     msg.addHop(getId());
 
-    log.warn("mqtt --tx--> {} ({}.{}) qos {} retain {}", remoteRxTopic, msg.getFullName(), msg.getMethod(), qos, retain);
-    publish(remoteRxTopic, CodecUtils.toJsonMsg(msg), qos, retain);
+    log.warn("mqtt --tx--> {} ({}.{}) qos {} retain {} {}", remoteRxTopic, msg.getFullName(), msg.getMethod(), qos, retain, codec.getKey());
+    publishBytes(remoteRxTopic, qos, codec.encode(msg), retain);
 
   }
 
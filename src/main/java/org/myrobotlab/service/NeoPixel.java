@@ -32,6 +32,7 @@ import java.util.Random;
 import java.util.Set;
 
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
 import org.myrobotlab.framework.interfaces.Attachable;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
 import org.myrobotlab.logging.Level;
@@ -74,7 +75,7 @@ public class NeoPixel extends Service implements NeoPixelControl {
     // FIXME - this should just wait/notify - not start a thread
     public synchronized void start() {
       running = false;
-      thread = new Thread(this, String.format("%s-animation-runner", getName()));
+      thread = ServiceExecutor.newThread(this, String.format("%s-animation-runner", getName()));
       thread.start();
     }
 
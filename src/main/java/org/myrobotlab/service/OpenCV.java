@@ -116,12 +116,15 @@ import org.myrobotlab.net.Http;
 import org.myrobotlab.opencv.CloseableFrameConverter;
 import org.myrobotlab.opencv.FilterWrapper;
 import org.myrobotlab.opencv.FrameFileRecorder;
+import org.myrobotlab.opencv.ImagePool;
+import org.myrobotlab.opencv.InferenceExecutor;
 import org.myrobotlab.opencv.OpenCVData;
 import org.myrobotlab.opencv.OpenCVFilter;
 import org.myrobotlab.opencv.OpenCVFilterFaceDetectDNN;
 import org.myrobotlab.opencv.OpenCVFilterFaceRecognizer;
 import org.myrobotlab.opencv.OpenCVFilterKinectDepth;
 import org.myrobotlab.opencv.OpenCVFilterYolo;
+import org.myrobotlab.opencv.OpenCVPipeline;
 import org.myrobotlab.opencv.Overlay;
 import org.myrobotlab.opencv.YoloDetectedObject;
 import org.myrobotlab.reflection.Reflector;
@@ -188,6 +191,12 @@ public class OpenCV extends AbstractComputerVision {
             newFrame = grabber.grab();
           }
 
+          if (newFrame != null && pipelined) {
+            // the grabber reuses its frame - this one is still in the pipeline
+            // when the next is grabbed
+            newFrame = newFrame.clone();
+          }
+
           if (newFrame != null) {
             lastFrame = newFrame;
           } else if (newFrame == null && lastFrame != null) {
@@ -212,7 +221,16 @@ public class OpenCV extends AbstractComputerVision {
             data.putKinect(converter.toImage(newFrame), video);
           }
 
-          processVideo(data);
+          if (pipelined) {
+            processPipelined(data);
+          } else {
+            if (pipeline != null) {
+              // switched back to sequential
+              pipeline.stop();
+              pipeline = null;
+            }
+            processVideo(data);
+          }
 
           if (lengthInFrames > 1 && loop && frameIndex > lengthInFrames - 2) {
             grabber.setFrameNumber(0);
@@ -225,6 +243,12 @@ public class OpenCV extends AbstractComputerVision {
       }
       // begin capturing ...
 
+      if (pipeline != null) {
+        // finishes the frames in it
+        pipeline.stop();
+        pipeline = null;
+      }
+
       videoThread = null;
       frameIndex = 0;
 
@@ -504,6 +528,30 @@ public class OpenCV extends AbstractComputerVision {
   // on a still picture
   Integer maxFps = 32;
 
+  /**
+   * filters run as a pipeline - a thread per filter with frames queued between
+   * them
+   */
+  boolean pipelined = false;
+
+  /**
+   * frames waiting in front of each stage of the pipeline
+   */
+  int pipelineRingSize = 2;
+
+  /**
+   * when the pipeline is full the oldest frame waiting is dropped - otherwise
+   * the grabber waits
+   */
+  boolean pipelineLatest = true;
+
+  /**
+   * threads for filters of the pipeline run at the same time
+   */
+  int pipelineBranchThreads = java.lang.Runtime.getRuntime().availableProcessors();
+
+  transient OpenCVPipeline pipeline = null;
+
   transient HashMap<String, FrameRecorder> outputFileStreams = new HashMap<String, FrameRecorder>();
 
   HashMap<String, Overlay> overlays = new HashMap<String, Overlay>();
@@ -1045,7 +1093,10 @@ public class OpenCV extends AbstractComputerVision {
   // FIXME - TODO track(type)
 
   public OpenCVData getOpenCVData(Integer timeout) {
-    blockingData.clear();
+    OpenCVData stale;
+    while ((stale = blockingData.poll()) != null) {
+      stale.dispose();
+    }
     OpenCVData newData = null;
     try {
       newData = blockingData.poll(timeout, TimeUnit.MILLISECONDS);
@@ -1180,25 +1231,98 @@ public class OpenCV extends AbstractComputerVision {
     // process each filter
     // for (String filterName : filters.keySet()) {
     for (OpenCVFilter filter : filters.values()) {
-      if (filter.isEnabled()) {
-        IplImage input = filter.setData(data);
-        if (input == null) {
-          log.error("could not get setData image");
-          continue;
-        }
-
-        // process the previous filter's output
-        IplImage processed = filter.process(input);
-        filter.postProcess(processed);
-        filter.processDisplay();
-        processFilterStateUpdates(filter);
+      if (filter.isEnabled() && processFilter(filter, data)) {
+        processFilterDisplay(filter);
       }
     } // for each filter
 
+    publishVideo(data);
+
+    frameEndTs = System.currentTimeMillis();
+
+    // delay if needed to maxFps
+    if (maxFps != null && frameEndTs - frameStartTs < 1000 / maxFps) {
+      sleep((1000 / maxFps) - (int) (frameEndTs - frameStartTs));
+    }
+
+    data.dispose();
+
+  } // end processVideo
+
+  /**
+   * hands a grabbed frame to the pipeline - a new one is made when the enabled
+   * filters have changed
+   */
+  private void processPipelined(OpenCVData data) throws InterruptedException {
+    List<OpenCVFilter> enabled = new ArrayList<>();
+    for (OpenCVFilter filter : filters.values()) {
+      if (filter.isEnabled()) {
+        enabled.add(filter);
+      }
+    }
+    if (pipeline == null || !pipeline.isFor(enabled)) {
+      if (pipeline != null) {
+        pipeline.stop();
+      }
+      pipeline = new OpenCVPipeline(this, enabled, pipelineRingSize, pipelineLatest, pipelineBranchThreads);
+      pipeline.start();
+    }
+    pipeline.offer(data);
+
+    frameEndTs = System.currentTimeMillis();
+    if (maxFps != null && frameEndTs - frameStartTs < 1000 / maxFps) {
+      sleep((1000 / maxFps) - (int) (frameEndTs - frameStartTs));
+    }
+  }
+
+  /**
+   * runs a filter on a frame
+   * 
+   * @param filter
+   *          the filter
+   * @param data
+   *          the frame
+   * @return false if there was no image for it
+   * @throws InterruptedException
+   *           filter was interrupted
+   */
+  public boolean processFilter(OpenCVFilter filter, OpenCVData data) throws InterruptedException {
+    IplImage input = filter.setData(data);
+    if (input == null) {
+      log.error("could not get setData image");
+      return false;
+    }
+
+    // process the previous filter's output
+    IplImage processed = filter.process(input);
+    filter.postProcess(processed);
+    return true;
+  }
+
+  /**
+   * a filter's display and the state changes waiting for it - after
+   * processFilter
+   * 
+   * @param filter
+   *          the filter
+   */
+  public void processFilterDisplay(OpenCVFilter filter) {
+    filter.processDisplay();
+    processFilterStateUpdates(filter);
+  }
+
+  /**
+   * display, publishing and recording of a processed frame
+   * 
+   * @param data
+   *          the frame
+   */
+  public void publishVideo(OpenCVData data) {
+
     // get the display filter to process
 
-    putText("frame: %d", frameIndex);
-    putText("time:  %d", frameStartTs);
+    putText("frame: %d", data.getFrameIndex());
+    putText("time:  %d", data.getTs());
 
     BufferedImage displayImage = data.getDisplay();
     if (displayImage != null) {
@@ -1226,12 +1350,15 @@ public class OpenCV extends AbstractComputerVision {
          * </pre>
          */
         BufferedImage b = data.getDisplay();
-        SerializableImage si = new SerializableImage(b, displayFilter, frameIndex);
+        SerializableImage si = new SerializableImage(b, displayFilter, data.getFrameIndex());
         invoke("publishDisplay", si);
 
-        if (webViewer) {
+        // encoded once for this and the other viewers of the display - e.g.
+        // the mjpeg streams of a VideoStreamer
+        byte[] jpg = (webViewer) ? si.getBytes("jpg", null) : null;
+        if (jpg != null) {
           // broadcast(???)
-          WebImage webImage = new WebImage(b, getName(), frameIndex);
+          WebImage webImage = new WebImage(jpg, getName(), data.getFrameIndex(), "jpg");
           // latency use the original ts from before fetch image and the filters
           // !
           webImage.ts = data.getTs();
@@ -1290,11 +1417,19 @@ public class OpenCV extends AbstractComputerVision {
 
     // FIXME - should have had it
 
+    // subscribers keep the frame as long as they like - they get a copy
+    // without pooled images, so the images of this one are reused when
+    // processVideo disposes it
+    OpenCVData published = data;
+    if (outbox.notifyList.containsKey("publishOpenCVData") || outbox.notifyList.containsKey("publishCvData")) {
+      published = data.detach();
+    }
+
     // FIXME - deprecate it
-    invoke("publishOpenCVData", data);
+    invoke("publishOpenCVData", published);
 
     // future publishing (same as BoofCv !)
-    invoke("publishCvData", data);
+    invoke("publishCvData", published);
 
     // FIXME - TODO
     // data.prepareToSerialize();
@@ -1304,7 +1439,8 @@ public class OpenCV extends AbstractComputerVision {
     // record uses the queue - this has the "issue" if
     // the consumer does not pickup-it will get stale
     if (blockingData.size() == 0) {
-      blockingData.add(data);
+      // getOpenCVData hands on a copy - the caller keeps it
+      blockingData.add(data.detach());
     }
 
     if (recording || recordingFrames) {
@@ -1318,17 +1454,7 @@ public class OpenCV extends AbstractComputerVision {
         log.error("webm threw", e);
       }
     }
-
-    frameEndTs = System.currentTimeMillis();
-
-    // delay if needed to maxFps
-    if (maxFps != null && frameEndTs - frameStartTs < 1000 / maxFps) {
-      sleep((1000 / maxFps) - (int) (frameEndTs - frameStartTs));
-    }
-
-    data.dispose();
-
-  } // end processVideo
+  } // end publishVideo
 
   /**
    * A new method to protect filters from other threads doing updates possibly
@@ -1862,6 +1988,73 @@ public class OpenCV extends AbstractComputerVision {
     maxFps = fps;
   }
 
+  /**
+   * run the filters as a pipeline - takes effect from the next frame
+   * 
+   * @param b
+   *          true - a thread per filter with frames queued between them,
+   *          false - every filter on the capture thread one frame at a time
+   */
+  public void setPipelined(boolean b) {
+    pipelined = b;
+    broadcastState();
+  }
+
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
+  /**
+   * @param size
+   *          frames waiting in front of each stage of the pipeline
+   * @param latest
+   *          true - drop the oldest frame waiting when the pipeline is full,
+   *          false - the grabber waits
+   */
+  public void setPipelineRing(int size, boolean latest) {
+    pipelineRingSize = size;
+    pipelineLatest = latest;
+    // new pipeline on the next frame
+    OpenCVPipeline p = pipeline;
+    if (p != null) {
+      p.setStale();
+    }
+  }
+
+  /**
+   * @return reuse of native images by the frames of all OpenCV services and
+   *         the native memory in use
+   */
+  public ImagePool.Stats getImagePoolStats() {
+    return ImagePool.getInstance().getStats();
+  }
+
+  /**
+   * @return throughput, batch size and latency of each neural net the filters
+   *         of all OpenCV services run - by model name
+   */
+  public Map<String, InferenceExecutor.ModelStats> getInferenceStats() {
+    return InferenceExecutor.getInstance().getStats();
+  }
+
+  /**
+   * @param threads
+   *          threads running the neural nets of the filters - shared by all
+   *          OpenCV services, at most one per core
+   */
+  public void setInferenceThreads(int threads) {
+    InferenceExecutor.getInstance().setThreads(threads);
+  }
+
+  /**
+   * @return frames, drops, latency and each stage's throughput of the running
+   *         pipeline - null if there is none
+   */
+  public OpenCVPipeline.Stats getPipelineStats() {
+    OpenCVPipeline p = pipeline;
+    return (p == null) ? null : p.getStats();
+  }
+
   public void setPipeline(String pipeline) {
     this.pipelineSelected = pipeline;
     this.inputSource = "pipeline";
@@ -2071,6 +2264,9 @@ public class OpenCV extends AbstractComputerVision {
     config.inputSource = inputSource;
     config.nativeViewer = nativeViewer;
     config.webViewer = webViewer;
+    config.pipelined = pipelined;
+    config.pipelineRingSize = pipelineRingSize;
+    config.pipelineLatest = pipelineLatest;
     config.filters = new LinkedHashMap<>();
     config.filters.putAll(filters);
 
@@ -2088,6 +2284,9 @@ public class OpenCV extends AbstractComputerVision {
 
     setWebViewer(config.webViewer);
 
+    pipelined = config.pipelined;
+    setPipelineRing(config.pipelineRingSize, config.pipelineLatest);
+
     filters.clear();
     if (config.filters != null) {
       for (OpenCVFilter f : config.filters.values()) {
@@ -17,6 +17,7 @@ import org.myrobotlab.framework.Message;
 import org.myrobotlab.framework.Platform;
 import org.myrobotlab.framework.Registration;
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
 import org.myrobotlab.framework.repo.ServiceData;
 import org.myrobotlab.io.FileIO;
@@ -137,7 +138,7 @@ public class Python extends Service implements ServiceLifeCycleListener {
 
     synchronized public void start() {
       if (myThread == null) {
-        myThread = new Thread(this, String.format("python.%s.input", python.getName()));
+        myThread = ServiceExecutor.newThread(this, String.format("python.%s.input", python.getName()));
         myThread.start();
       } else {
         log.warn("python input queue already running");
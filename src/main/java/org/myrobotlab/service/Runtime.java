@@ -28,7 +28,6 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -36,6 +35,7 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.myrobotlab.codec.ClassUtil;
 import org.myrobotlab.codec.CodecUtils;
@@ -48,11 +48,16 @@ import org.myrobotlab.framework.MRLListener;
 import org.myrobotlab.framework.Message;
 import org.myrobotlab.framework.MethodCache;
 import org.myrobotlab.framework.MethodEntry;
+import org.myrobotlab.framework.Metrics;
 import org.myrobotlab.framework.Plan;
 import org.myrobotlab.framework.Platform;
 import org.myrobotlab.framework.Registration;
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
+import org.myrobotlab.framework.ServiceRegistry;
 import org.myrobotlab.framework.ServiceReservation;
+import org.myrobotlab.framework.ServiceStats;
+import org.myrobotlab.framework.StartupPlanner;
 import org.myrobotlab.framework.Status;
 import org.myrobotlab.framework.interfaces.MessageListener;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
@@ -121,7 +126,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    * a registry of all services regardless of which environment they came from -
    * each must have a unique name
    */
-  static private final Map<String, ServiceInterface> registry = new TreeMap<>();
+  static private final ServiceRegistry registry = new ServiceRegistry();
 
   /**
    * current plan to build when a service is built - a reference is saved so the
@@ -129,6 +134,11 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    */
   Plan plan = new Plan("runtime");
 
+  /**
+   * timeline of the last start of a config set
+   */
+  transient StartupPlanner.Timeline startupTimeline = null;
+
   /**
    * thread for non-blocking install of services
    */
@@ -234,11 +244,31 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    */
   transient private static final Object INSTANCE_LOCK = new Object();
 
+  /**
+   * one creation at a time per service name - services of a config set are
+   * created in parallel. An entry is removed when no thread is creating the
+   * service anymore.
+   */
+  transient private static final Map<String, CreateLock> createLocks = new ConcurrentHashMap<>();
+
+  private static class CreateLock {
+    /**
+     * threads creating or waiting to create the service - guarded by
+     * createLocks
+     */
+    int users = 0;
+  }
+
   /**
    * The singleton of this class.
    */
   transient private static Runtime runtime = null;
 
+  /**
+   * stats last published per service - the baseline of the published rates
+   */
+  transient private final Map<String, ServiceStats> publishedStats = new ConcurrentHashMap<>();
+
   private List<String> jvmArgs;
 
   /**
@@ -333,18 +363,39 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
   // there is no point ... and it just makes it more complicated, if you want to
   // adjust
   // configuration adjust config in the plan before starting
-  static public synchronized ServiceInterface create(String configName, String name, String type) {
+  static public ServiceInterface create(String configName, String name, String type) {
     ServiceInterface si = Runtime.getService(name);
     if (si != null) {
       return si;
     }
 
-    Runtime.loadService(configName, name, type);
-    Runtime.check(name, type);
-    // at this point - the plan should be loaded, now its time to create the
-    // children peers
-    // and parent service
-    return createServicesFromPlan(configName, name, type);
+    // name locks are never taken holding the Runtime lock - createService
+    // takes the Runtime lock holding a name lock
+    boolean named = name != null && !Thread.holdsLock(Runtime.class);
+    CreateLock lock = (named) ? createLocks.compute(name, (n, l) -> {
+      l = (l == null) ? new CreateLock() : l;
+      ++l.users;
+      return l;
+    }) : new CreateLock();
+    try {
+      synchronized (lock) {
+        si = Runtime.getService(name);
+        if (si != null) {
+          return si;
+        }
+
+        Runtime.loadService(configName, name, type);
+        Runtime.check(name, type);
+        // at this point - the plan should be loaded, now its time to create the
+        // children peers
+        // and parent service
+        return createServicesFromPlan(configName, name, type);
+      }
+    } finally {
+      if (named) {
+        createLocks.computeIfPresent(name, (n, l) -> (--l.users == 0) ? null : l);
+      }
+    }
   }
 
   /**
@@ -682,7 +733,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
   public static String dump() {
     try {
       FileOutputStream dump = new FileOutputStream("registry.json");
-      String reg = CodecUtils.toJson(registry);
+      String reg = CodecUtils.toJson(registry.snapshot());
       dump.write(reg.getBytes());
       dump.close();
       return reg;
@@ -926,11 +977,8 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
 
   public static Map<String, ServiceInterface> getLocalServices() {
     Map<String, ServiceInterface> local = new HashMap<>();
-    for (String serviceName : registry.keySet()) {
-      // FIXME @ should be a requirement of "all" entries for consistency
-      if (!serviceName.contains("@") || serviceName.endsWith(String.format("@%s", Platform.getLocalInstance().getId()))) {
-        local.put(serviceName, registry.get(serviceName));
-      }
+    for (ServiceInterface si : registry.getById(Platform.getLocalInstance().getId())) {
+      local.put(si.getFullName(), si);
     }
     return local;
   }
@@ -941,7 +989,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    * @return filtering/query requests
    */
   public static Map<String, ServiceInterface> getLocalServicesForExport() {
-    return registry;
+    return registry.snapshot();
   }
 
   /*
@@ -951,13 +999,12 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    * FIXME - INPUT PARAMETER SHOULD BE TYPE NOT INSTANCE NAME !!!!
    */
   public static Map<String, MethodEntry> getMethodMap(String inName) {
-    String serviceName = getFullName(inName);
-    if (!registry.containsKey(serviceName)) {
-      runtime.error(String.format("%1$s not in registry - can not return method map", serviceName));
+    ServiceInterface sw = registry.get(inName);
+    if (sw == null) {
+      runtime.error(String.format("%1$s not in registry - can not return method map", getFullName(inName)));
       return null;
     }
 
-    ServiceInterface sw = registry.get(serviceName);
     Class<?> c = sw.getClass();
 
     MethodCache cache = MethodCache.getInstance();
@@ -980,7 +1027,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    */
   synchronized public List<Registration> getServiceList() {
     List<Registration> ret = new ArrayList<>();
-    for (ServiceInterface si : registry.values()) {
+    for (ServiceInterface si : registry.getServices()) {
       // problem with
       // ret.add(new NameAndType(si.getId(), si.getName(), si.getType(),
       // CodecUtils.toJson(si)));
@@ -989,23 +1036,17 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
     return ret;
   }
 
-  // FIXME - scary function - returns private data
+  /**
+   * @return sorted snapshot of the registry - changes to it do not change the
+   *         registry
+   */
   public static Map<String, ServiceInterface> getRegistry() {
-    return registry;// FIXME should return copy
+    return registry.snapshot();
   }
 
   public static ServiceInterface getService(String inName) {
-    if (inName == null) {
-      return null;
-    }
-
-    String name = getFullName(inName);
-
-    if (!registry.containsKey(name)) {
-      return null;
-    } else {
-      return registry.get(name);
-    }
+    // short names of local services and full names are both direct lookups
+    return registry.get(inName);
   }
 
   /**
@@ -1084,19 +1125,10 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
 
   public static List<ServiceInterface> getServices(String id) {
     if (id == null) {
-      return new ArrayList<ServiceInterface>(registry.values());
+      return registry.getServices();
     }
-
-    List<ServiceInterface> list = new ArrayList<>();
     // otherwise we are getting services of an instance
-
-    for (String serviceName : registry.keySet()) {
-      ServiceInterface si = registry.get(serviceName);
-      if (si.getId().equals(id)) {
-        list.add(registry.get(serviceName));
-      }
-    }
-    return list;
+    return registry.getById(id);
   }
 
   /**
@@ -1155,34 +1187,13 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
    * @return list of service interfaces
    * 
    */
-  // FIXME !!! - use single implementation that gets parents
   @Deprecated /*
                * no longer used or needed - change events are pushed no longer
                * pulled
                */
-  public static synchronized List<ServiceInterface> getServicesFromInterface(Class<?> interfaze) {
-    List<ServiceInterface> ret = new ArrayList<ServiceInterface>();
-
-    Iterator<String> it = registry.keySet().iterator();
-    String serviceName;
-    ServiceInterface sw;
-    Class<?> c;
-    Class<?>[] interfaces;
-    Class<?> m;
-    while (it.hasNext()) {
-      serviceName = it.next();
-      sw = registry.get(serviceName);
-      c = sw.getClass();
-      interfaces = c.getInterfaces();
-      for (int i = 0; i < interfaces.length; ++i) {
-        m = interfaces[i];
-
-        if (m.equals(interfaze)) {
-          ret.add(sw);
-        }
-      }
-    }
-    return ret;
+  public static List<ServiceInterface> getServicesFromInterface(Class<?> interfaze) {
+    // includes interfaces of parent classes and parent interfaces
+    return registry.getByInterface(interfaze);
   }
 
   static public Set<Thread> getThreads() {
@@ -1522,15 +1533,10 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
 
     log.info("releasing service {}", name);
 
-    if (!registry.containsKey(name)) {
-      log.info("{} not registered", name);
-      return false;
-    }
-
     // get reference from registry
     ServiceInterface si = registry.get(name);
     if (si == null) {
-      log.warn("cannot release {} - not in registry");
+      log.info("{} not registered", name);
       return false;
     }
 
@@ -1632,7 +1638,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
 
   public List<ServiceInterface> getRemoteServices(String id) {
     List<ServiceInterface> list = new ArrayList<>();
-    for (String serviceName : registry.keySet()) {
+    for (String serviceName : registry.getNames()) {
       if (serviceName.contains("@")) {
         String sid = serviceName.substring(serviceName.indexOf("@") + 1);
         if (id == null || sid.equals(id)) {
@@ -1997,7 +2003,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
       }
 
       // decoding message envelope
-      Message msg = CodecUtils.fromJson(data, Message.class);
+      Message msg = CodecUtils.fromJsonMsg(data);
       log.info("==> {} --> {}.{}", msg.sender, msg.name, msg.method);
       msg.setProperty("uuid", uuid); // Properties ???? REMOVE ???
 
@@ -2087,11 +2093,20 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
         log.error("name null type null and rconfig null");
         return null;
       }
+      StartupPlanner planner = new StartupPlanner();
       for (String rname : rconfig.registry) {
         if ("runtime".equals(rname)) {
           continue;
         }
-        startInternal(configName, rname, null);
+        planner.add(rname, runtime.readServiceConfig(configName, rname));
+      }
+      planner.plan();
+      final String cn = configName;
+      try {
+        runtime.startupTimeline = planner.start((rconfig.parallelStartup) ? rconfig.startupThreads : 1, n -> startInternal(cn, n, null));
+        log.info("{}", runtime.startupTimeline);
+      } catch (InterruptedException e) {
+        log.warn("interrupted starting config {}", configName);
       }
       return runtime;
     }
@@ -2677,13 +2692,13 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
 
   // FYI - the way to call "all" service methods !
   public void clearErrors() {
-    for (String serviceName : registry.keySet()) {
+    for (String serviceName : registry.getNames()) {
       send(serviceName, "clearLastError");
     }
   }
 
   public static boolean hasErrors() {
-    for (ServiceInterface si : registry.values()) {
+    for (ServiceInterface si : registry.getServices()) {
       if (si.hasError()) {
         return true;
       }
@@ -2721,6 +2736,93 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
     }
   }
 
+  /**
+   * turn queue and latency metrics of all services on or off - off costs a
+   * volatile read per message
+   * 
+   * @param b
+   *          true to record
+   */
+  public void setMetricsEnabled(boolean b) {
+    Metrics.setEnabled(b);
+    broadcastState();
+  }
+
+  public boolean isMetricsEnabled() {
+    return Metrics.isEnabled();
+  }
+
+  /**
+   * @return metrics snapshot of every local service keyed by name
+   */
+  public static Map<String, ServiceStats> getAllStats() {
+    Map<String, ServiceStats> stats = new TreeMap<>();
+    for (ServiceInterface si : getLocalServices().values()) {
+      if (si instanceof Service) {
+        stats.put(si.getName(), ((Service) si).getStats());
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * @param name
+   *          service name
+   * @return metrics snapshot of a local service - null if it does not exist
+   */
+  public static ServiceStats getStats(String name) {
+    ServiceInterface si = getService(name);
+    if (si instanceof Service) {
+      return ((Service) si).getStats();
+    }
+    return null;
+  }
+
+  /**
+   * @return metrics of all local services in Prometheus text format
+   */
+  public static String getPrometheusMetrics() {
+    return Metrics.toPrometheus(getAllStats().values());
+  }
+
+  /**
+   * periodically publish each service's stats on its publishStats topic -
+   * enables metrics
+   * 
+   * @param intervalMs
+   *          publishing interval
+   */
+  public void startStats(long intervalMs) {
+    Metrics.setEnabled(true);
+    addTask("publishAllStats", intervalMs, 0, "publishAllStats");
+  }
+
+  public void stopStats() {
+    purgeTask("publishAllStats");
+    publishedStats.clear();
+  }
+
+  /**
+   * publishStats on every local service which has subscribers to it - rates
+   * are since the previous publish
+   */
+  public void publishAllStats() {
+    Map<String, ServiceInterface> local = getLocalServices();
+    publishedStats.keySet().retainAll(local.keySet());
+    for (ServiceInterface si : local.values()) {
+      if (!(si instanceof Service)) {
+        continue;
+      }
+      Service s = (Service) si;
+      List<MRLListener> subscribers = s.getOutbox().notifyList.get("publishStats");
+      if (subscribers != null && subscribers.size() > 0) {
+        ServiceStats stats = s.getStats(publishedStats.get(s.getFullName()));
+        publishedStats.put(s.getFullName(), stats);
+        s.invoke("publishStats", stats);
+      }
+    }
+  }
+
   public static Runtime get() {
     return Runtime.getInstance();
   }
@@ -2988,15 +3090,8 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
       // broadcast completed connection information
       invoke("getConnections"); // FIXME - why isn't this done before ???
 
-      Set<String> set = registry.keySet();
-      String[] list = new String[set.size()];
-      set.toArray(list);
-
       // TODO - filtering on what is broadcasted or re-broadcasted
-      for (int i = 0; i < list.length; ++i) {
-        String fullname = list[i];
-        ServiceInterface si = registry.get(fullname);
-
+      for (ServiceInterface si : registry.getServices()) {
         Registration registration = new Registration(si);
 
         results.addRegistration(registration);
@@ -3123,8 +3218,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
   }
 
   public void unregisterId(String id) {
-    Set<String> names = new HashSet<>(registry.keySet());
-    for (String name : names) {
+    for (String name : registry.getNames()) {
       if (name.endsWith("@" + id)) {
         unregister(name);
       }
@@ -3223,8 +3317,7 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
   }
 
   public static Class<?> getClass(String inName) {
-    String name = getFullName(inName);
-    ServiceInterface si = registry.get(name);
+    ServiceInterface si = registry.get(inName);
     if (si == null) {
       return null;
     }
@@ -3399,6 +3492,14 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
     ServiceData.setPeer(fullKey, actualName, serviceType);
   }
 
+  /**
+   * @return wall time of each service of the last config set started and the
+   *         critical path
+   */
+  public StartupPlanner.Timeline getStartupTimeline() {
+    return startupTimeline;
+  }
+
   public static Plan getPlan() {
     Runtime runtime = Runtime.getInstance();
     return runtime.getLocalPlan();
@@ -3605,6 +3706,19 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
         Platform.setVirtual(true);
       }
 
+      // must be set before any service is started
+      if (options.executionMode != null) {
+        ServiceExecutor.setMode(options.executionMode);
+      }
+
+      if (options.doubleEncodeJson) {
+        CodecUtils.setDoubleEncodeJsonMsg(true);
+      }
+
+      if (options.enableMetrics) {
+        Metrics.setEnabled(true);
+      }
+
       if (options.addKeys != null) {
         if (options.addKeys.length < 2) {
           Runtime.mainHelp();
@@ -4148,8 +4262,8 @@ public class Runtime extends Service implements MessageListener, ServiceLifeCycl
     } else {
       fullname = name;
     }
-    if (registry.containsKey(fullname)) {
-      ServiceInterface si = registry.get(fullname);
+    ServiceInterface si = registry.get(fullname);
+    if (si != null) {
       return si.isRunning();
     }
 
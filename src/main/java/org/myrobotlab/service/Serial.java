@@ -1,13 +1,11 @@
 package org.myrobotlab.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
-import java.net.Socket;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -17,8 +15,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
+import org.myrobotlab.framework.MRLListener;
 import org.myrobotlab.framework.Platform;
 import org.myrobotlab.framework.Service;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
@@ -28,15 +26,15 @@ import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.Logging;
 import org.myrobotlab.logging.LoggingFactory;
 import org.myrobotlab.net.TcpSerialHub;
+import org.myrobotlab.serial.ByteRingBuffer;
 import org.myrobotlab.serial.Port;
 import org.myrobotlab.serial.PortQueue;
-import org.myrobotlab.serial.PortStream;
+import org.myrobotlab.serial.PortSocket;
 import org.myrobotlab.serial.SerialControl;
 import org.myrobotlab.service.config.SerialConfig;
 import org.myrobotlab.service.config.ServiceConfig;
 import org.myrobotlab.service.interfaces.PortConnector;
 import org.myrobotlab.service.interfaces.PortPublisher;
-import org.myrobotlab.service.interfaces.QueueSource;
 import org.myrobotlab.service.interfaces.RecordControl;
 import org.myrobotlab.service.interfaces.SerialDataListener;
 import org.myrobotlab.service.interfaces.SerialDevice;
@@ -47,7 +45,7 @@ import org.slf4j.Logger;
  * Serial - a service that allows reading and writing to a serial port device.
  *
  */
-public class Serial extends Service implements SerialControl, QueueSource, SerialDataListener, RecordControl, SerialDevice, PortPublisher, PortConnector {
+public class Serial extends Service implements SerialControl, SerialDataListener, RecordControl, SerialDevice, PortPublisher, PortConnector {
 
   /**
    * general read timeout - 0 is infinite &gt; 0 is number of milliseconds to
@@ -94,9 +92,9 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
   int BUFFER_SIZE = 1024;
 
   /**
-   * blocking queue for blocking rx read requests
+   * primitive ring for blocking rx read requests - bytes are not boxed
    */
-  transient BlockingQueue<Integer> blockingRX = new LinkedBlockingQueue<Integer>();
+  transient ByteRingBuffer rx = new ByteRingBuffer(BUFFER_SIZE);
 
   /**
    * our set of ports we have access to. This is a shared resource between ALL
@@ -294,10 +292,8 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
       // local optimization
       addByteListener((SerialDataListener) si);
     } else {
-      // TODO: review this section here.. we might have double publishing going
-      // on.
-      // pub sub
-      addListener("publishRX", name, "onByte");
+      // pub sub - SerialDataListener only has onBytes, per byte publishRX
+      // is left to monitors which subscribe to it
       addListener("publishBytes", name, "onBytes");
       addListener("publishConnect", name, "onConnect");
       addListener("publishDisconnect", name, "onDisconnect");
@@ -313,14 +309,14 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
    * method similar to InputStream's
    */
   public int available() {
-    return blockingRX.size();
+    return rx.available();
   }
 
   /**
    * clears the rx buffer
    */
   public void clear() {
-    blockingRX.clear();
+    rx.clear();
   }
 
   /**
@@ -545,12 +541,9 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     if (!scheme.toLowerCase().equals("tcp")) {
       throw new IOException(String.format("tcp:// only supported - requested %s", scheme));
     }
-    @SuppressWarnings("resource")
-    Socket socket = new Socket(uri.getHost(), uri.getPort());
-    // String portName = String.format("%s.%s", getName(),
-    // socket.getRemoteSocketAddress().toString());
-    Port socketPort = new PortStream(url, socket.getInputStream(), socket.getOutputStream());
-    ports.put(portName, socketPort);
+    // serviced by the SerialReactor - connects on open
+    Port socketPort = new PortSocket(url, uri.getHost(), uri.getPort());
+    ports.put(url, socketPort);
     return socketPort;
   }
 
@@ -731,11 +724,6 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     return null;
   }
 
-  @Override
-  public BlockingQueue<?> getQueue() {
-    return blockingRX;
-  }
-
   public int getRXCount() {
     return rxCount;
   }
@@ -767,34 +755,54 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     if (listeners.size() == 0) {
       log.warn("No Listeners !!!  we are invoking publishBytes.. data is likely getting dropped? ");
     }
-    invoke("publishBytes", bytes);
-    // String byteIntString = StringUtil.byteArrayToIntString(bytes);
-    // log.info("On bytes called len: {} data: {}" , bytes.length,
-    // byteIntString);
-    for (int i = 0; i < bytes.length; i++) {
-      Integer newByte = bytes[i] & 0xff;
-      ++rxCount;
-      // publish the rx byte !
-      invoke("publishRX", newByte);
-      if (blockingRX.size() < BUFFER_SIZE) {
-        blockingRX.add(newByte);
+    rxCount += bytes.length;
+    rx.write(bytes);
+
+    // the whole chunk is published once - publishRX is per byte and only
+    // invoked when something subscribed to it e.g. a monitor
+    if (hasSubscribers("publishBytes")) {
+      invoke("publishBytes", bytes);
+    }
+    if (hasSubscribers("publishRX")) {
+      for (int i = 0; i < bytes.length; i++) {
+        invoke("publishRX", bytes[i] & 0xff);
       }
+    }
+
+    try {
+      tcpSerialHub.broadcast(bytes, 0, bytes.length);
+    } catch (IOException e) {
+      log.warn("Error broadcasting to tcp serial hub", e);
+    }
+    if (recordRx != null) {
+      // potentially variety of formats can be supported here
       try {
-        tcpSerialHub.broadcast(newByte);
+        recordRx.write(toHexRecord(bytes));
       } catch (IOException e) {
-        log.warn("Error broadcasting to tcp serial hub", e);
-      }
-      if (recordRx != null) {
-        // potentially variety of formats can be supported here
-        try {
-          recordRx.write(String.format(" %02X", newByte).getBytes());
-        } catch (IOException e) {
-          log.warn("Error writing to recordRx", e);
-        }
+        log.warn("Error writing to recordRx", e);
       }
     }
   }
 
+  boolean hasSubscribers(String topicMethod) {
+    List<MRLListener> subscribers = outbox.notifyList.get(topicMethod);
+    return subscribers != null && !subscribers.isEmpty();
+  }
+
+  /**
+   * @return bytes as " %02X" for each byte - the record format
+   */
+  static byte[] toHexRecord(byte[] bytes) {
+    byte[] record = new byte[bytes.length * 3];
+    for (int i = 0; i < bytes.length; i++) {
+      int v = bytes[i] & 0xFF;
+      record[i * 3] = ' ';
+      record[i * 3 + 1] = (byte) hexArray[v >>> 4];
+      record[i * 3 + 2] = (byte) hexArray[v & 0x0F];
+    }
+    return record;
+  }
+
   @Override
   public void onConnect(String portName) {
     info("%s connected to %s", getName(), portName);
@@ -844,7 +852,9 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
   }
 
   /**
-   * Publishing receive data to and end point
+   * Publishing receive data to and end point - one message per byte, so it is
+   * only invoked while something subscribes to it. Bulk consumers should use
+   * publishBytes.
    * 
    * @param data
    *          in
@@ -874,11 +884,8 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
    */
   @Override
   synchronized public int read() throws IOException, InterruptedException {
-    if (timeoutMS == null) {
-      return blockingRX.take();
-    }
-    Integer newByte = blockingRX.poll(timeoutMS, TimeUnit.MILLISECONDS);
-    if (newByte == null) {
+    int newByte = rx.read(getReadTimeout());
+    if (newByte < 0) {
       String error = String.format("%d ms timeout was reached - no data", timeoutMS);
       error(error);
       throw new IOException(error);
@@ -886,6 +893,13 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     return newByte;
   }
 
+  /**
+   * @return timeout for the rx ring - negative is forever
+   */
+  long getReadTimeout() {
+    return (timeoutMS == null) ? -1 : timeoutMS;
+  }
+
   /**
    * return a byte array represending all the input pending data at the time
    * it's called. If there is no input data, null is returned.
@@ -898,26 +912,41 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
    * 
    */
   synchronized public byte[] readBytes() throws IOException, InterruptedException {
-    int size = blockingRX.size();
-    if (size == 0) {
-      return null;
-    } else {
-      byte[] data = new byte[size];
-      for (int i = 0; i < size; i++) {
-        data[i] = blockingRX.take().byteValue();
-      }
-      return data;
-    }
+    return rx.readAvailable();
   }
 
   // FIXME add timeout parameter (with default)
   synchronized public int read(byte[] data) throws IOException, InterruptedException {
-    for (int i = 0; i < data.length; ++i) {
-      data[i] = (byte) read();
+    for (int count = 0; count < data.length;) {
+      int n = rx.read(data, count, data.length - count, getReadTimeout());
+      if (n == 0) {
+        String error = String.format("%d ms timeout was reached - no data", timeoutMS);
+        error(error);
+        throw new IOException(error);
+      }
+      count += n;
     }
     return data.length;
   }
 
+  /**
+   * Bulk read like InputStream's - waits up to the timeout for data then copies
+   * whatever is pending, up to length bytes.
+   * 
+   * @param data
+   *          destination
+   * @param offset
+   *          first index in data
+   * @param length
+   *          max bytes to read
+   * @return number of bytes read - 0 if the timeout was reached
+   * @throws InterruptedException
+   *           e
+   */
+  public int read(byte[] data, int offset, int length) throws InterruptedException {
+    return rx.read(data, offset, length, getReadTimeout());
+  }
+
   /**
    * Read size bytes from the serial port. If a timeout is set it may return
    * less characters as requested. With no timeout it will block until the
@@ -931,40 +960,29 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
    * 
    */
   synchronized public byte[] read(int length) throws InterruptedException {
-    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] bytes = new byte[length];
     int count = 0;
-    Integer newByte = null;
     while (count < length) {
-      if (timeoutMS == null) {
-        newByte = blockingRX.take();
-      } else {
-        newByte = blockingRX.poll(timeoutMS, TimeUnit.MILLISECONDS);
-      }
-      if (newByte == null) {
+      int n = rx.read(bytes, count, length - count, getReadTimeout());
+      if (n == 0) {
         if (count == 0) {
           error("got nothing!");
           return null;
         } else {
           error("expecting %d bytes got %d", length, count);
-          break;
+          return Arrays.copyOf(bytes, count);
         }
       }
-      bytes.write(newByte.intValue() & 0xff);
-      ++count;
+      count += n;
     }
-    return bytes.toByteArray();
+    return bytes;
   }
 
   public int read(int[] data) throws InterruptedException {
     int count = 0;
-    Integer newByte = null;
     while (count < data.length) {
-      if (timeoutMS == null) {
-        newByte = blockingRX.take();
-      } else {
-        newByte = blockingRX.poll(timeoutMS, TimeUnit.MILLISECONDS);
-      }
-      if (newByte == null) {
+      int newByte = rx.read(getReadTimeout());
+      if (newByte < 0) {
         error("expecting %d bytes got %d", data.length, count);
         return count;
       }
@@ -979,21 +997,14 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
   }
 
   public byte[] readLine(char deliminater) throws InterruptedException {
-    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-    Integer newByte = null;
-    while (newByte == null || newByte != deliminater) {
-      if (timeoutMS == null) {
-        newByte = blockingRX.take();
-      } else {
-        newByte = blockingRX.poll(timeoutMS, TimeUnit.MILLISECONDS);
-      }
-      if (newByte == null) {
-        info("non blocking got nothing");
-        return bytes.toByteArray();
-      }
-      bytes.write(newByte.intValue() & 0xff);
+    byte[] line = rx.readToDelimiter(new byte[] { (byte) deliminater }, getReadTimeout());
+    if (line == null) {
+      // partial line - return what we have
+      info("non blocking got nothing");
+      line = rx.readAvailable();
+      return (line == null) ? new byte[0] : line;
     }
-    return bytes.toByteArray();
+    return line;
   }
 
   public String readString() throws InterruptedException {
@@ -1022,11 +1033,19 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     return new String(bytes);
   }
 
-  // FIXME remove blocking public
+  /**
+   * read up to and including a multi byte delimiter
+   * 
+   * @param delimeter
+   *          e.g. "\r\n"
+   * @return the bytes read or null if the timeout was reached - pending bytes
+   *         stay in the rx buffer
+   * @throws InterruptedException
+   *           e
+   */
   // FIXME overload with timeouts etc - remove exposed blocking
-  // FIXME - implement
-  public byte[] readToDelimiter(String delimeter) {
-    return null;
+  public byte[] readToDelimiter(String delimeter) throws InterruptedException {
+    return rx.readToDelimiter(delimeter.getBytes(), getReadTimeout());
   }
 
   public void record() throws FileNotFoundException {
@@ -1055,7 +1074,7 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
       listeners.remove(si.getName());
     } else {
       // pub sub
-      removeListener("publishRX", si.getName(), "onByte");
+      removeListener("publishBytes", si.getName(), "onBytes");
       removeListener("publishConnect", si.getName(), "onConnect");
       removeListener("publishDisconnect", si.getName(), "onDisconnect");
     }
@@ -1070,6 +1089,7 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
 
   public void setBufferSize(int size) {
     BUFFER_SIZE = size;
+    rx.resize(size);
   }
 
   public void setDTR(boolean state) {
@@ -1141,8 +1161,11 @@ public class Serial extends Service implements SerialControl, QueueSource, Seria
     }
 
     // TODO: invoke publishTX with the array?
-    for (int i = 0; i < data.length; i++) {
-      invoke("publishTX", (int) data[i]);
+    // per byte like publishRX - only for subscribers
+    if (hasSubscribers("publishTX")) {
+      for (int i = 0; i < data.length; i++) {
+        invoke("publishTX", (int) data[i]);
+      }
     }
 
   }
@@ -132,7 +132,12 @@ public class Servo extends AbstractServo implements ServoControl, ServiceLifeCyc
       return false;
     }
 
-    broadcast("publishServoMoveTo", new ServoMove(getName(), newPos, mapper.calcOutput(newPos)));
+    ServoMove move = new ServoMove(getName(), newPos, mapper.calcOutput(newPos), speed);
+    // with controller writes the MotionScheduler sends every tick of the move
+    boolean written = encoder instanceof TimeEncoder && ((TimeEncoder) encoder).isControllerWrites();
+    if (!written && (blocking || !addToMoveGroup(move))) {
+      broadcast("publishServoMoveTo", move);
+    }
 
     // TODO: this block isn't tested by ServoTest
     if (isBlocking && blocking) {
@@ -17,6 +17,7 @@ import org.myrobotlab.kinematics.PoseSequence;
 import org.myrobotlab.kinematics.Sequence;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
 import org.myrobotlab.service.interfaces.ServoControl;
 import org.slf4j.Logger;
 
@@ -318,6 +319,8 @@ public class ServoMixer extends Service {
   }
 
   public void moveToPose(Pose p) {
+    // one command per controller for the whole pose
+    ServoMoveGroup group = ServoMoveGroup.begin();
     try {
       invoke("publishPlayingPose", p.name);
       for (String sc : p.getPositions().keySet()) {
@@ -336,6 +339,8 @@ public class ServoMixer extends Service {
       invoke("publishStopPose", p.name);
     } catch (Exception e) {
       error(e);
+    } finally {
+      group.end();
     }
   }
 
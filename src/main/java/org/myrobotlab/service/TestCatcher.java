@@ -307,6 +307,19 @@ public class TestCatcher extends Service implements SerialDataListener, HttpData
     return data;
   }
 
+  /**
+   * overloaded like Servo.setSpeed - null is a valid speed
+   */
+  public double onSpeed(double speed) {
+    log.info("onSpeed {}", speed);
+    return speed;
+  }
+
+  public Double onSpeed(Double speed) {
+    log.info("onSpeed {}", speed);
+    return speed;
+  }
+
   // @Override
   public void onReady(Integer t01, Double t02, Date d) {
     log.info("onReady {} {} {}", t01, t02, d);
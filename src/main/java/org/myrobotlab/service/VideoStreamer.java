@@ -1,8 +1,6 @@
 package org.myrobotlab.service;
 
 import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import org.myrobotlab.image.SerializableImage;
 import org.myrobotlab.logging.Level;
@@ -36,6 +34,7 @@ public class VideoStreamer
   public int listeningPort = 9090;
   transient private MjpegServer server;
   public boolean mergeSteams = true;
+  public Float quality = null;
 
   public static void main(String[] args) {
     LoggingFactory.init(Level.INFO);
@@ -75,14 +74,21 @@ public class VideoStreamer
      * if (mergeSteams) { si.setSource("output"); }
      */
 
-    if (!server.videoFeeds.containsKey(si.getSource())) {
-      server.videoFeeds.put(si.getSource(), new LinkedBlockingQueue<SerializableImage>());
+    // each viewer sends the latest frame - and drops what it could not send
+    if (server != null) {
+      server.publish(si);
     }
+  }
 
-    BlockingQueue<SerializableImage> buffer = server.videoFeeds.get(si.getSource());
-    // if its backed up over 10 frames we are dumping it
-    if (buffer.size() < 1) {
-      buffer.add(si);
+  /**
+   * @param quality
+   *          0.0 - 1.0 jpg quality of the streams - null is the default of the
+   *          writer, which is shared with the WebGui display
+   */
+  public void setQuality(Float quality) {
+    this.quality = quality;
+    if (server != null) {
+      server.setQuality(quality);
     }
   }
 
@@ -114,6 +120,7 @@ public class VideoStreamer
     listeningPort = port;
     try {
       server = new MjpegServer(listeningPort);
+      server.setQuality(quality);
       server.start();
     } catch (IOException e) {
       Logging.logError(e);
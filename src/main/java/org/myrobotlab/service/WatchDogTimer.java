@@ -8,6 +8,7 @@ import java.util.Map;
 import org.myrobotlab.codec.CodecUtils;
 import org.myrobotlab.framework.Message;
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
 import org.myrobotlab.framework.Status;
 import org.myrobotlab.logging.Level;
 import org.myrobotlab.logging.LoggerFactory;
@@ -116,7 +117,7 @@ public class WatchDogTimer extends Service {
         info("activating %s watchdog timer", name);
         futureTimeToAlertTs = System.currentTimeMillis() + interval;
         active = true;
-        myThread = new Thread(this, String.format("%s.timer.%s", parent.getName(), name));
+        myThread = ServiceExecutor.newThread(this, String.format("%s.timer.%s", parent.getName(), name));
         myThread.start();
       }
     }
@@ -182,7 +183,7 @@ public class WatchDogTimer extends Service {
         if (myThread == null) {
           log.info("activating {} checkpoint worker", checkPointIntervalMs);
           active = true;
-          myThread = new Thread(this, String.format("%s.%s.checkpoint", watchDogTimerName, checkPointName));
+          myThread = ServiceExecutor.newThread(this, String.format("%s.%s.checkpoint", watchDogTimerName, checkPointName));
           myThread.start();
         }
       } else {
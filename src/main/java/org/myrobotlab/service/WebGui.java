@@ -8,14 +8,17 @@ import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -32,6 +35,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.atmosphere.cpr.ApplicationConfig;
 import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceEvent;
 import org.atmosphere.cpr.AtmosphereResourceEventListenerAdapter;
@@ -44,12 +48,17 @@ import org.atmosphere.nettosphere.Nettosphere;
 import org.jboss.netty.handler.ssl.SslContext;
 import org.jboss.netty.handler.ssl.util.SelfSignedCertificate;
 import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.codec.MessageCodec;
+import org.myrobotlab.codec.MessageCodecs;
+import org.myrobotlab.codec.StateSync;
 import org.myrobotlab.framework.MRLListener;
 import org.myrobotlab.framework.Message;
 import org.myrobotlab.framework.MethodCache;
+import org.myrobotlab.framework.Metrics;
 import org.myrobotlab.framework.Platform;
 import org.myrobotlab.framework.Registration;
 import org.myrobotlab.framework.Service;
+import org.myrobotlab.framework.ServiceExecutor;
 import org.myrobotlab.framework.interfaces.ServiceInterface;
 import org.myrobotlab.io.FileIO;
 import org.myrobotlab.logging.Level;
@@ -98,6 +107,26 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
     }
   }
 
+  /**
+   * serves the service queue and latency metrics in Prometheus text format
+   */
+  public static class MetricsHandler implements Handler {
+
+    @Override
+    public void handle(AtmosphereResource r) {
+      try {
+        AtmosphereResponse response = r.getResponse();
+        response.setContentType(Metrics.CONTENT_TYPE);
+        byte[] data = Runtime.getPrometheusMetrics().getBytes(StandardCharsets.UTF_8);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(data);
+        out.flush();
+      } catch (Exception e) {
+        log.error("metrics handler threw", e);
+      }
+    }
+  }
+
   private final transient IncomingMsgQueue inMsgQueue = new IncomingMsgQueue();
 
   public static class Panel {
@@ -236,6 +265,8 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
 
   transient LiveVideoStreamHandler stream = new LiveVideoStreamHandler();
 
+  transient MetricsHandler metricsHandler = new MetricsHandler();
+
   boolean useLocalResources = false;
 
   boolean debugConnectivity = false;
@@ -263,6 +294,19 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
 
   protected int maxMsgSize = 1048576;
 
+  /**
+   * state of services is sent to json clients which apply patches as patches
+   * of the last state sent to them
+   */
+  protected boolean stateDelta = true;
+
+  protected long stateResyncMs = 10000;
+
+  /**
+   * last states sent - one per connection which applies patches
+   */
+  transient Map<String, StateSync> stateSyncs = new ConcurrentHashMap<>();
+
   public WebGui(String n, String id) {
     super(n, id);
 
@@ -290,6 +334,7 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
         log.info("onDisconnect - {} {}", event, uuid);
         Runtime runtime = Runtime.getInstance();
         runtime.removeConnection(uuid);
+        stateSyncs.remove(uuid);
         // runtime.removeRoute(uuid);
         // sessions.remove(uuid);
         if (event.isCancelled()) {
@@ -397,6 +442,7 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
     }
 
     configBuilder.resource("/stream", stream);
+    configBuilder.resource("/metrics", metricsHandler);
     // .resource("/video/ffmpeg.1443989700495.mp4", test)
 
     // FIRST DEFINED HAS HIGHER PRIORITY !! no virtual mapping of resources
@@ -556,12 +602,20 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
         setBroadcaster(r);
       }
 
-      // default return encoding
-      r.getResponse().addHeader("Content-Type", CodecUtils.MIME_TYPE_JSON);
+      // encoding negotiated for this connection - json for api requests and
+      // clients which did not ask for anything else
+      MessageCodec codec = MessageCodecs.get(Runtime.getInstance().getConnection(uuid));
+      r.getResponse().addHeader("Content-Type", codec.getMimeType());
 
       AtmosphereRequest request = r.getRequest();
 
-      String bodyData = request.body().asString();
+      AtmosphereRequestImpl.Body body = request.body();
+      String bodyData = body.asString();
+      // binary codec msgs arrive as bytes
+      byte[] binaryData = null;
+      if (body.hasBytes()) {
+        binaryData = Arrays.copyOfRange(body.asBytes(), body.byteOffset(), body.byteOffset() + body.byteLength());
+      }
       // request.c
       request.destroy();
       String logData = null;
@@ -594,10 +648,8 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
         // subscribe to describe
         MRLListener listener = new MRLListener("describe", String.format("runtime@%s", getId()), "onDescribe");
         Message subscribe = Message.createMessage(getFullName(), "runtime", "addListener", listener);
-        // Default serialization to json/text is to json encode the parameter
-        // list
-        // then json encode the message
-        out.write(CodecUtils.toJsonMsg(subscribe).getBytes());
+        // envelope and parameters written in a single pass
+        codec.encode(subscribe, out);
 
         // describe
         Message describe = getDescribeMsg(uuid); // SEND BACK describe(hello)
@@ -606,7 +658,7 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
         // request.getRequestURI()));
         // out.write(CodecUtils.toJson(describe).getBytes());
         // describe.setName("runtime@" + id);
-        out.write(CodecUtils.toJsonMsg(describe).getBytes());// DOUBLE-ENCODE
+        codec.encode(describe, out);
         // i assume that flush/close happen when out of scope - but do it
         // explicitly here
         out.flush();
@@ -636,12 +688,13 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
         return;
       }
 
-      if (bodyData != null) {
+      if (bodyData != null || binaryData != null) {
 
-        // decoding 1st pass - decodes the containers
+        // decodes the envelope - parameters are decoded when the target
+        // method is known
         Message msg = null;
         try {
-          msg = CodecUtils.fromJson(bodyData, Message.class);
+          msg = (binaryData != null) ? MessageCodecs.decode(binaryData) : CodecUtils.fromJsonMsg(bodyData);
 
           if (msg.containsHop(getId())) {
             log.error("{} dumping duplicate hop msg to avoid cyclical from {} --to--> {}.{}", getName(), msg.sender, msg.name, msg.method);
@@ -756,7 +809,7 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
     public void start() {
       synchronized (lock) {
         if (worker == null) {
-          worker = new Thread(this, getName() + "-incoming-msg-queue");
+          worker = ServiceExecutor.newThread(this, getName() + "-incoming-msg-queue");
           worker.start();
         }
       }
@@ -808,6 +861,12 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
       // addendum
       connection.put("user", "root");
 
+      // encoding of the msgs we send - e.g. ?codecs=msgpack,json
+      connection.put(MessageCodecs.CODEC, MessageCodecs.negotiate(request.getParameter(MessageCodecs.CODECS)));
+
+      // clients which apply onStatePatch - e.g. ?statePatch=true
+      connection.put(StateSync.PATCH, Boolean.parseBoolean(request.getParameter(StateSync.PATCH)));
+
       while (headerNames.hasMoreElements()) {
         String headerName = headerNames.nextElement();
         Enumeration<String> headers = request.getHeaders(headerName);
@@ -1002,11 +1061,33 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
       // add our id - we don't want to see it again
       msg.addHop(getId());
 
-      // Double encoding - parameters then message
-      String json = CodecUtils.toJsonMsg(msg);
+      // multi-cast mode clients share a broadcaster - they all get json
+      Connection c = (broadcastMode) ? null : Runtime.getInstance().getRoute(msg.getId());
+      MessageCodec codec = MessageCodecs.get(c);
+
+      Object encoded;
+      int size;
+      if (codec.isBinary()) {
+        byte[] bytes = codec.encode(msg);
+        encoded = bytes;
+        size = bytes.length;
+      } else {
+        // multi-cast clients may not all apply patches
+        if (stateDelta && isStatePatchClient(c)) {
+          msg = getStateSync(c).encode(msg);
+          if (msg == null) {
+            // client has this state
+            return;
+          }
+        }
+        // single pass - unless CodecUtils.setDoubleEncodeJsonMsg(true)
+        String json = CodecUtils.toJsonMsg(msg);
+        encoded = json;
+        size = json.length();
+      }
 
-      if (json.length() > maxMsgSize) {
-        log.warn(String.format("sendRemote default msg size (%d) exceeded 65536 for msg %s", json.length(), msg));
+      if (size > maxMsgSize) {
+        log.warn(String.format("sendRemote default msg size (%d) exceeded 65536 for msg %s", size, msg));
         /*
          * debugging large msgs try {
          * FileIO.toFile(String.format("too-big-%s-%d.json", msg.method,
@@ -1016,22 +1097,85 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
 
       if (broadcastMode) {
         // multi-cast mode all clients have a single id
-        broadcaster.broadcast(json);
+        broadcaster.broadcast(encoded);
       } else {
         // uni-cast mode - all clients have their own id
-        Connection c = Runtime.getInstance().getRoute(msg.getId());
         Broadcaster broadcaster = getBroadcasterFactory().lookup(c.getUuid());
         if (broadcaster == null) {
           log.warn("{} failed to lookup broadcaster {} client gone?", getName(), c.getUuid());
           return;
         }
-        broadcaster.broadcast(json);
+        broadcaster.broadcast(encoded);
       }
     } catch (Exception e) {
       log.error("WebGui.sendRemote threw", e);
     }
   }
 
+  /**
+   * @param c
+   *          a connection - null in broadcastMode
+   * @return true if the client connected with statePatch=true
+   */
+  boolean isStatePatchClient(Connection c) {
+    return c != null && Boolean.TRUE.equals(c.get(StateSync.PATCH));
+  }
+
+  StateSync getStateSync(Connection c) {
+    String key = c.getUuid();
+    StateSync sync = stateSyncs.get(key);
+    if (sync == null) {
+      sync = new StateSync(getFullName());
+      sync.setResyncMs(stateResyncMs);
+      StateSync existing = stateSyncs.putIfAbsent(key, sync);
+      if (existing != null) {
+        sync = existing;
+      }
+    }
+    return sync;
+  }
+
+  /**
+   * sends the state of a service in full - a client which can not apply a
+   * patch asks for it
+   * 
+   * @param name
+   *          service name
+   * @param id
+   *          id of the client asking - the other clients keep getting patches
+   */
+  public void resyncState(String name, String id) {
+    Connection c = Runtime.getInstance().getConnectionFromId(id);
+    StateSync sync = (c == null) ? null : stateSyncs.get(c.getUuid());
+    if (sync != null) {
+      sync.reset(name);
+    }
+    ServiceInterface si = Runtime.getService(name);
+    if (si != null) {
+      si.broadcastState();
+    }
+  }
+
+  /**
+   * @param b
+   *          true - json clients get patches of service state
+   */
+  public void setStateDelta(boolean b) {
+    stateDelta = b;
+    stateSyncs.clear();
+  }
+
+  /**
+   * @param ms
+   *          time between full states of a service sent to a client
+   */
+  public void setStateResyncMs(long ms) {
+    stateResyncMs = ms;
+    for (StateSync sync : stateSyncs.values()) {
+      sync.setResyncMs(ms);
+    }
+  }
+
   // === begin positioning panels plumbing ===
   public void set(String name, int x, int y) {
     set(name, x, y, 0); // or is z -1 ?
@@ -1227,6 +1371,8 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
     WebGuiConfig config = new WebGuiConfig();
     config.port = port;
     config.autoStartBrowser = autoStartBrowser;
+    config.stateDelta = stateDelta;
+    config.stateResyncMs = stateResyncMs;
 
     return config;
   }
@@ -1238,6 +1384,8 @@ public class WebGui extends Service implements AuthorizationProvider, Gateway, H
       setPort(config.port);
     }
     autoStartBrowser(config.autoStartBrowser);
+    setStateDelta(config.stateDelta);
+    setStateResyncMs(config.stateResyncMs);
     if (config.enableMdns) {
       startMdns();
     }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.myrobotlab.framework.Config;
+import org.myrobotlab.framework.MRLListener;
 import org.myrobotlab.framework.Registration;
 import org.myrobotlab.framework.Service;
 import org.myrobotlab.framework.interfaces.Attachable;
@@ -761,6 +762,38 @@ public abstract class AbstractServo extends Service implements ServoControl, Ser
     return move;
   }
 
+  /**
+   * adds a move to the ServoMoveGroup of this thread - the controller gets it
+   * when the group ends, other listeners get it now
+   * 
+   * @param move
+   * @return false if there is no group or no controller - publish the move
+   */
+  protected boolean addToMoveGroup(ServoMove move) {
+    ServoMoveGroup group = ServoMoveGroup.current();
+    if (group == null || controller == null) {
+      return false;
+    }
+    group.addMove(this, move);
+    sendToListeners("publishServoMoveTo", controller, publishServoMoveTo(move));
+    return true;
+  }
+
+  /**
+   * sends data to every listener of a topic except one
+   */
+  void sendToListeners(String topic, String except, Object data) {
+    List<MRLListener> listeners = getNotifyList(topic);
+    if (listeners == null) {
+      return;
+    }
+    for (MRLListener listener : listeners) {
+      if (!listener.callbackName.equals(except)) {
+        send(listener.callbackName, listener.callbackMethod, data);
+      }
+    }
+  }
+
   @Override
   public ServoSpeed publishServoSetSpeed(ServoControl sc) {
     log.debug("{}.publishServoSetSpeed() {}", getName(), getSpeed());
@@ -927,6 +960,13 @@ public abstract class AbstractServo extends Service implements ServoControl, Ser
       log.debug("disabling speed control");
     }
 
+    // in a move group the speed goes with the move
+    ServoMoveGroup group = ServoMoveGroup.current();
+    if (group != null && controller != null) {
+      group.addSpeed(this);
+      return;
+    }
+
     // FIXME 1. remove broadcastState 2. send speed and name over
     // publishServoSetSpeed
     broadcast("publishServoSetSpeed", this);
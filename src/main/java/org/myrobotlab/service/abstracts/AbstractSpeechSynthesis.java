@@ -1,15 +1,31 @@
 package org.myrobotlab.service.abstracts;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.myrobotlab.audio.AudioCache;
+import org.myrobotlab.framework.Histogram;
 import org.myrobotlab.framework.Service;
 import org.myrobotlab.framework.interfaces.Attachable;
 import org.myrobotlab.io.FileIO;
@@ -41,7 +57,17 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
   static String globalFileCacheDir = "audioFile";
 
-  public static final String journalFilename = "journal.txt";
+  public static final String journalFilename = AudioCache.JOURNAL_FILENAME;
+
+  /**
+   * a sentence ends on . ! or ? followed by white space
+   */
+  static final Pattern SENTENCE_END = Pattern.compile("[.!?]+\\s+");
+
+  /**
+   * abbreviations whose period does not end a sentence
+   */
+  static final Set<String> ABBREVIATIONS = new HashSet<>(Arrays.asList("mr.", "mrs.", "ms.", "dr.", "prof.", "st.", "jr.", "sr.", "vs.", "etc.", "e.g.", "i.e."));
 
   /**
    * substitutions are phonetic substitutions for a specific instance of speech
@@ -209,7 +235,94 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
    */
   protected String lastUtterance;
 
-  transient HashMap<AudioData, String> utterances = new HashMap<AudioData, String>();
+  /**
+   * text of the audio data waiting to be played - parts are synthesized and
+   * played on different threads
+   */
+  transient Map<AudioData, String> utterances = new ConcurrentHashMap<AudioData, String>();
+
+  /**
+   * an audio part of an utterance - for the time to the first audio and the
+   * gaps between parts
+   */
+  static class Part {
+    final int utterance;
+    final long requestNs;
+    final boolean first;
+
+    Part(int utterance, long requestNs, boolean first) {
+      this.utterance = utterance;
+      this.requestNs = requestNs;
+      this.first = first;
+    }
+  }
+
+  /**
+   * timing of speaking at one point in time
+   */
+  public static class SpeechStats {
+    /**
+     * ns from speak to the start of the first audio of an utterance
+     */
+    public Histogram.Summary firstAudio;
+    /**
+     * ns of silence between the parts of an utterance
+     */
+    public Histogram.Summary gap;
+
+    @Override
+    public String toString() {
+      return String.format("first audio mean %.1f ms p99 %.1f ms - gap mean %.1f ms p99 %.1f ms max %.1f ms (%d gaps)", firstAudio.mean / 1e6, firstAudio.p99 / 1e6, gap.mean / 1e6,
+          gap.p99 / 1e6, gap.max / 1e6, gap.count);
+    }
+  }
+
+  transient Map<AudioData, Part> audioParts = new ConcurrentHashMap<>();
+
+  transient final Histogram firstAudio = new Histogram();
+
+  transient final Histogram gap = new Histogram();
+
+  transient private volatile int lastEndUtterance = -1;
+
+  transient private volatile long lastEndNs = 0;
+
+  /**
+   * utterances parsed - and stopped, which makes the parts of older ones not be
+   * played
+   */
+  transient final AtomicInteger utteranceCount = new AtomicInteger();
+
+  transient volatile int stoppedAt = 0;
+
+  /**
+   * parts synthesized ahead of the one playing - 0 synthesizes a part when
+   * the one before it has played
+   */
+  protected int lookAhead = 1;
+
+  /**
+   * synthesizes the parts of utterances in order - the audio of the next
+   * sentences is generated while the current one plays
+   */
+  transient private ExecutorService synthesizer = null;
+
+  /**
+   * parts waiting to be synthesized - cancelled by stop
+   */
+  transient final Map<Future<AudioData>, Boolean> synthesizing = new ConcurrentHashMap<>();
+
+  /**
+   * index of the generated audio files of all speech services
+   */
+  transient protected AudioCache cache = AudioCache.getInstance();
+
+  /**
+   * phrases to synthesize into the cache in the background
+   */
+  transient final LinkedBlockingQueue<String> prewarmQueue = new LinkedBlockingQueue<>();
+
+  transient private Thread prewarmer = null;
 
   /**
    * AudioFile peer for caching and playing effects
@@ -418,6 +531,15 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
     // filters on only our speech
     if (utterances.containsKey(data)) {
+      Part part = audioParts.get(data);
+      if (part != null) {
+        long now = System.nanoTime();
+        if (part.first) {
+          firstAudio.record(now - part.requestNs);
+        } else if (part.utterance == lastEndUtterance) {
+          gap.record(now - lastEndNs);
+        }
+      }
       invoke("publishAudioStart", data);
       invoke("publishStartSpeaking", utterances.get(data));
     }
@@ -428,6 +550,11 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
     // filters on only our speech
     if (utterances.containsKey(data)) {
+      Part part = audioParts.remove(data);
+      if (part != null) {
+        lastEndUtterance = part.utterance;
+        lastEndNs = System.nanoTime();
+      }
       invoke("publishAudioEnd", data);
       invoke("publishEndSpeaking", utterances.get(data));
       utterances.remove(data);
@@ -497,12 +624,8 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
       // URLEncoder.encode(getVoice().getName(), "UTF-8")
       filename += getClass().getSimpleName() + File.separator + FileIO.cleanFileName(getVoice().getName()) + File.separator + MathUtils.md5(toSpeak) + getAudioCacheExtension();
 
-      // create subdirectories if necessary
-      File f = new File(filename);
-      File dir = f.getParentFile();
-      if (!dir.exists()) {
-        dir.mkdirs();
-      }
+      // create subdirectories if necessary - once
+      cache.mkdirs(new File(filename).getParentFile());
 
       return filename;
 
@@ -525,8 +648,23 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
   public void stopService() {
     super.stopService();
-    unsubscribe(audioFile.getName(), "publishAudioStart");
-    unsubscribe(audioFile.getName(), "publishAudioEnd");
+    if (audioFile != null) {
+      unsubscribe(audioFile.getName(), "publishAudioStart");
+      unsubscribe(audioFile.getName(), "publishAudioEnd");
+    }
+    synchronized (synthesizing) {
+      if (synthesizer != null) {
+        synthesizer.shutdownNow();
+        synthesizer = null;
+      }
+    }
+    synchronized (prewarmQueue) {
+      prewarmQueue.clear();
+      if (prewarmer != null) {
+        prewarmer.interrupt();
+        prewarmer = null;
+      }
+    }
   }
 
   AudioData play(String filename, boolean block) {
@@ -575,26 +713,21 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
     log.info("{} processing {}", getName(), toSpeak);
 
+    long requestNs = System.nanoTime();
+
     // broadcast the original text to be processed/parsed
     invoke("publishSpeechRequested", toSpeak);
 
-    // normalize to lower case
-    toSpeak = toSpeak.toLowerCase();
-
-    // process substitutions
-    if (substitutions != null) {
-      for (String substitute : substitutions.keySet()) {
-        toSpeak = toSpeak.replace(substitute, substitutions.get(substitute));
-      }
-    }
-
-    List<String> spokenParts = parseEffects(toSpeak);
+    // effects, then the sentences between them - the first sentence plays
+    // while the rest are synthesized
+    List<String> spokenParts = getSpokenParts(toSpeak);
 
     toSpeak = filterText(toSpeak);
 
     // we generate a list of audio data to play to support
     // synthesizing this speech
     List<AudioData> playList = new ArrayList<AudioData>();
+    List<String> texts = new ArrayList<String>();
 
     for (String speak : spokenParts) {
 
@@ -610,14 +743,75 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
         continue;
       }
 
-      if (!mute) {
-        process(audioData, speak, blocking);
-      } else {
-        log.info("not producing audio for {} - currently we are mute", speak);
-      }
-
       // effect files are handled differently from generated audio
       playList.add(audioData);
+      texts.add(speak);
+    }
+
+    if (mute) {
+      log.info("not producing audio for {} - currently we are mute", toSpeak);
+      return playList;
+    }
+
+    int utterance = utteranceCount.incrementAndGet();
+    List<Future<AudioData>> generated = new ArrayList<>();
+    for (int i = 0; i < playList.size(); ++i) {
+      audioParts.put(playList.get(i), new Part(utterance, requestNs, i == 0));
+      utterances.put(playList.get(i), texts.get(i));
+      generated.add(null);
+    }
+
+    int played = 0;
+    for (int i = 0; i < playList.size(); ++i) {
+      // the part and the ones to be synthesized while it plays
+      for (int j = i; j <= i + lookAhead && j < playList.size(); ++j) {
+        if (generated.get(j) == null) {
+          generated.set(j, synthesize(playList.get(j), texts.get(j)));
+        }
+      }
+
+      AudioData audioData = playList.get(i);
+      try {
+        generated.get(i).get();
+      } catch (CancellationException e) {
+        // stopped
+      } catch (ExecutionException e) {
+        log.error("could not generate audio", e.getCause());
+        error("%s %s", e.getCause().getClass().getSimpleName(), e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+
+      if (utterance <= stoppedAt) {
+        log.info("{} stopped - not playing the rest of {}", getName(), toSpeak);
+        break;
+      }
+
+      played = i + 1;
+      if (!audioData.isValid()) {
+        log.error("speech service could not generate audio data [{}]", audioData);
+        audioParts.remove(audioData);
+        utterances.remove(audioData);
+        // generated again next time
+        cache.remove(audioData.getFileName());
+        continue;
+      }
+
+      play(audioData, blocking);
+    }
+
+    for (int i = 0; i < playList.size(); ++i) {
+      Future<AudioData> future = generated.get(i);
+      if (future != null) {
+        future.cancel(false);
+        synthesizing.remove(future);
+      }
+      if (i >= played) {
+        // stopped - there will be no audio events for it
+        audioParts.remove(playList.get(i));
+        utterances.remove(playList.get(i));
+      }
     }
     // FIXME - in theory "speaking" means generating audio from some text
     // so starting speaking event is when the first audio is "started"
@@ -626,6 +820,119 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
     return playList;
   }
 
+  /**
+   * the parts of a text synthesized one by one - lower case with the
+   * substitutions made, split on effects and sentences
+   *
+   * @param toSpeak
+   *          text
+   * @return the parts - effects are #name#
+   */
+  public List<String> getSpokenParts(String toSpeak) {
+    // normalize to lower case
+    toSpeak = toSpeak.toLowerCase();
+
+    // process substitutions
+    if (substitutions != null) {
+      for (String substitute : substitutions.keySet()) {
+        toSpeak = toSpeak.replace(substitute, substitutions.get(substitute));
+      }
+    }
+
+    List<String> spokenParts = new ArrayList<String>();
+    for (String part : parseEffects(toSpeak)) {
+      if (part.startsWith("#") && part.endsWith("#")) {
+        spokenParts.add(part);
+      } else {
+        spokenParts.addAll(splitSentences(part));
+      }
+    }
+    return spokenParts;
+  }
+
+  /**
+   * splits text into sentences - on . ! or ? followed by white space, except
+   * after a common abbreviation like "dr." or "e.g."
+   *
+   * @param text
+   *          text
+   * @return the sentences - none if the text is blank
+   */
+  public static List<String> splitSentences(String text) {
+    List<String> sentences = new ArrayList<String>();
+    Matcher m = SENTENCE_END.matcher(text);
+    int start = 0;
+    while (m.find()) {
+      String ending = text.substring(start, m.end()).trim();
+      String lastWord = ending.substring(ending.lastIndexOf(' ') + 1).toLowerCase();
+      if (ABBREVIATIONS.contains(lastWord)) {
+        continue;
+      }
+      addSentence(sentences, ending);
+      start = m.end();
+    }
+    addSentence(sentences, text.substring(start));
+    return sentences;
+  }
+
+  private static void addSentence(List<String> sentences, String sentence) {
+    sentence = sentence.trim();
+    if (sentence.length() > 0) {
+      sentences.add(sentence);
+    }
+  }
+
+  /**
+   * queues a part to be synthesized on the synthesizer thread - it is played
+   * in order by the thread parsing
+   *
+   * @param audioData
+   *          the audio to generate
+   * @param speak
+   *          the text of the part
+   * @return the generated audio
+   */
+  protected Future<AudioData> synthesize(AudioData audioData, String speak) {
+    Future<AudioData> future;
+    synchronized (synthesizing) {
+      if (synthesizer == null) {
+        synthesizer = Executors.newSingleThreadExecutor(r -> {
+          Thread t = new Thread(r, String.format("%s.synthesizer", getName()));
+          t.setDaemon(true);
+          return t;
+        });
+      }
+      future = synthesizer.submit(() -> generate(audioData, speak));
+      synthesizing.put(future, true);
+    }
+    return future;
+  }
+
+  /**
+   * generates the audio of a part if it is not cached
+   */
+  AudioData generate(AudioData audioData, String speak) throws Exception {
+    long generateStartTs = System.currentTimeMillis();
+    String filename = audioData.getFileName();
+    if (filename == null || (speak.startsWith("#") && speak.endsWith("#"))) {
+      // effects are not generated audio
+      if (!audioData.isValid()) {
+        log.debug("try generating audio data [{}] from [{}]", audioData, speak);
+        generateAudioData(audioData, speak);
+      }
+    } else if (!cache.contains(filename)) {
+      if (!audioData.isValid()) {
+        log.debug("try generating audio data [{}] from [{}]", audioData, speak);
+        // the directory may have been deleted behind the cache
+        new File(filename).getParentFile().mkdirs();
+        generateAudioData(audioData, speak);
+      }
+      cache.add(filename);
+    }
+    invoke("publishGenerationTime", System.currentTimeMillis() - generateStartTs);
+    return audioData;
+  }
+
   @Deprecated /* use replaceWord */
   public void addSubstitution(String key, String replacement) {
     replaceWord(key, replacement);
@@ -664,15 +971,9 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
     try {
 
-      long generateStartTs = System.currentTimeMillis();
       utterances.put(audioData, speak);
 
-      if (!audioData.isValid()) {
-        log.debug("try generating audio data [{}] from [{}]", audioData, speak);
-        generateAudioData(audioData, speak);
-      }
-
-      invoke("publishGenerationTime", System.currentTimeMillis() - generateStartTs);
+      generate(audioData, speak);
 
       if (!audioData.isValid()) {
         log.error("speech service could not generate audio data [{}]", audioData);
@@ -762,12 +1063,92 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
   }
 
   public void purgeFile(String filename) {
-    audioFile.deleteFile(filename);
+    cache.remove(filename);
   }
 
   public void purgeCache() {
-    // audioFile.deleteFiles(String.format("%s%s, args)globalFileCacheDir);
-    audioFile.deleteFiles(this.getClass().getSimpleName());
+    cache.purge(this.getClass().getSimpleName());
+  }
+
+  /**
+   * synthesizes phrases into the cache in the background - e.g. the templates
+   * of a chatbot, so their first answer plays without waiting for the speech
+   * engine. One part is synthesized at a time, so speech waits behind at most
+   * one of them.
+   *
+   * @param phrases
+   *          phrases to synthesize
+   */
+  public void prewarm(List<String> phrases) {
+    synchronized (prewarmQueue) {
+      prewarmQueue.addAll(phrases);
+      if (prewarmer == null) {
+        prewarmer = new Thread(() -> {
+          try {
+            while (!Thread.currentThread().isInterrupted()) {
+              for (String speak : getSpokenParts(prewarmQueue.take())) {
+                String filename = getLocalFileName(speak);
+                if (filename == null || (speak.startsWith("#") && speak.endsWith("#"))) {
+                  continue;
+                }
+                try {
+                  synthesize(new AudioData(filename), speak).get();
+                } catch (ExecutionException | CancellationException e) {
+                  log.warn("{} could not prewarm [{}] - {}", getName(), speak, e.toString());
+                }
+              }
+            }
+          } catch (InterruptedException e) {
+            // service stopped
+          }
+        }, String.format("%s.prewarm", getName()));
+        prewarmer.setDaemon(true);
+        prewarmer.start();
+      }
+    }
+  }
+
+  /**
+   * prewarms the phrases of a text file - one a line
+   *
+   * @param filename
+   *          the file
+   * @throws IOException
+   *           if the file cannot be read
+   */
+  public void prewarmFile(String filename) throws IOException {
+    List<String> phrases = new ArrayList<>();
+    for (String line : Files.readAllLines(Paths.get(filename))) {
+      if (line.trim().length() > 0) {
+        phrases.add(line.trim());
+      }
+    }
+    prewarm(phrases);
+  }
+
+  /**
+   * @return phrases waiting to be prewarmed
+   */
+  public int getPrewarmQueueSize() {
+    return prewarmQueue.size();
+  }
+
+  /**
+   * limits the audio cache of all speech services - the least recently used
+   * files are deleted
+   *
+   * @param maxBytes
+   *          size of the cache
+   * @param maxAgeMs
+   *          ms a file is kept after it was last used - 0 for no limit
+   */
+  public void setCacheLimits(long maxBytes, long maxAgeMs) {
+    cache.setMaxBytes(maxBytes);
+    cache.setMaxAge(maxAgeMs);
+  }
+
+  public AudioCache.Stats getCacheStats() {
+    return cache.getStats();
   }
 
   public Voice getVoice() {
@@ -1047,8 +1428,45 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
     return lang.trim().toLowerCase();
   }
 
+  /**
+   * stops the audio playing - the parts of the utterances being spoken which
+   * have not started are not synthesized or played
+   */
   public void stop() {
-    audioFile.stop();
+    stoppedAt = utteranceCount.get();
+    for (Future<AudioData> future : synthesizing.keySet()) {
+      future.cancel(false);
+    }
+    synthesizing.clear();
+    if (audioFile != null) {
+      audioFile.stop();
+    }
+  }
+
+  /**
+   * @param lookAhead
+   *          parts of an utterance synthesized ahead of the one playing - 0
+   *          synthesizes a part after the one before it played
+   * @return the look ahead
+   */
+  public int setLookAhead(int lookAhead) {
+    this.lookAhead = Math.max(0, lookAhead);
+    return this.lookAhead;
+  }
+
+  public int getLookAhead() {
+    return lookAhead;
+  }
+
+  /**
+   * @return time to the first audio of utterances and the gaps between their
+   *         parts
+   */
+  public SpeechStats getSpeechStats() {
+    SpeechStats stats = new SpeechStats();
+    stats.firstAudio = firstAudio.getSummary();
+    stats.gap = gap.getSummary();
+    return stats;
   }
 
   public String setAudioEffects(String audioEffects) {
@@ -1103,6 +1521,8 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
 
     setBlocking(config.blocking);
 
+    setLookAhead(config.lookAhead);
+
     if (config.substitutions != null) {
       for (String n : config.substitutions.keySet()) {
         replaceWord(n, config.substitutions.get(n));
@@ -1141,6 +1561,7 @@ public abstract class AbstractSpeechSynthesis extends Service implements SpeechS
     SpeechSynthesisConfig c = (SpeechSynthesisConfig)config;
     c.mute = mute;
     c.blocking = blocking;
+    c.lookAhead = lookAhead;
     if (substitutions != null && substitutions.size() > 0) {
       c.substitutions = new HashMap<>();
       c.substitutions.putAll(substitutions);
@@ -0,0 +1,134 @@
+package org.myrobotlab.service.abstracts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.data.ServoMove;
+import org.slf4j.Logger;
+
+/**
+ * <pre>
+ * Servo moves collected on a thread and sent to each controller together - one
+ * onServoMoveGroup per controller instead of an onServoMoveTo per servo, so
+ * the joints of a pose or gesture start together and a serial controller sends
+ * one command for all of them.
+ *
+ *   ServoMoveGroup group = ServoMoveGroup.begin();
+ *   try {
+ *     neck.moveTo(90.0);
+ *     rothead.moveTo(80.0);
+ *   } finally {
+ *     group.end();
+ *   }
+ *
+ * Groups nest, the outermost end() sends. A speed set in a group goes with the
+ * move of its servo - a servo which does not move gets its speed on its own.
+ * Blocking moves are not grouped.
+ * </pre>
+ */
+public class ServoMoveGroup {
+
+  public final static Logger log = LoggerFactory.getLogger(ServoMoveGroup.class);
+
+  private static final ThreadLocal<ServoMoveGroup> current = new ThreadLocal<>();
+
+  int depth = 0;
+
+  /**
+   * moves by controller - the last one of each servo
+   */
+  final Map<String, Map<String, ServoMove>> moves = new LinkedHashMap<>();
+
+  /**
+   * servos of the group by name
+   */
+  final Map<String, AbstractServo> servos = new LinkedHashMap<>();
+
+  /**
+   * servos which had their speed set
+   */
+  final Set<String> speeds = new LinkedHashSet<>();
+
+  /**
+   * starts a group on this thread or joins the one already started
+   */
+  public static ServoMoveGroup begin() {
+    ServoMoveGroup group = current.get();
+    if (group == null) {
+      group = new ServoMoveGroup();
+      current.set(group);
+    }
+    ++group.depth;
+    return group;
+  }
+
+  /**
+   * @return the group of this thread - null if there is none
+   */
+  public static ServoMoveGroup current() {
+    return current.get();
+  }
+
+  /**
+   * ends the group of this thread however deeply it is nested - e.g. after a
+   * script which failed before ending its group
+   */
+  public static void endAll() {
+    ServoMoveGroup group = current.get();
+    if (group != null) {
+      group.depth = 1;
+      group.end();
+    }
+  }
+
+  void addMove(AbstractServo servo, ServoMove move) {
+    servos.put(servo.getName(), servo);
+    moves.computeIfAbsent(servo.controller, c -> new LinkedHashMap<>()).put(move.name, move);
+  }
+
+  void addSpeed(AbstractServo servo) {
+    servos.put(servo.getName(), servo);
+    speeds.add(servo.getName());
+    // set after its move
+    Map<String, ServoMove> controllerMoves = moves.get(servo.controller);
+    if (controllerMoves != null && controllerMoves.containsKey(servo.getName())) {
+      controllerMoves.get(servo.getName()).speed = servo.getSpeed();
+    }
+  }
+
+  /**
+   * ends the group - the outermost end sends everything collected
+   */
+  public void end() {
+    if (--depth > 0) {
+      return;
+    }
+    current.remove();
+    send();
+  }
+
+  void send() {
+    for (String controller : moves.keySet()) {
+      List<ServoMove> group = new ArrayList<>(moves.get(controller).values());
+      for (ServoMove move : group) {
+        AbstractServo servo = servos.get(move.name);
+        if (speeds.remove(move.name)) {
+          // the controller gets the speed with the move
+          servo.sendToListeners("publishServoSetSpeed", controller, servo.publishServoSetSpeed(servo));
+        }
+      }
+      log.debug("{} servos moving together on {}", group.size(), controller);
+      servos.get(group.get(0).name).send(controller, "onServoMoveGroup", group);
+    }
+    for (String name : speeds) {
+      AbstractServo servo = servos.get(name);
+      servo.broadcast("publishServoSetSpeed", servo);
+    }
+  }
+
+}
@@ -14,6 +14,15 @@ public class OpenCVConfig extends ServiceConfig {
   public boolean nativeViewer = true;
   public boolean webViewer = false;
   public boolean capturing = false;
+  /**
+   * filters run as a pipeline - a thread per filter
+   */
+  public boolean pipelined = false;
+  public int pipelineRingSize = 2;
+  /**
+   * drop the oldest frame when the pipeline is full
+   */
+  public boolean pipelineLatest = true;
   public Map<String, OpenCVFilter> filters = new LinkedHashMap<>();
 
 }
@@ -9,4 +9,15 @@ public class RuntimeConfig extends ServiceConfig {
   public String locale;
   public String[] registry;
 
+  /**
+   * start services of the registry which do not depend on each other at the
+   * same time - false starts them one at a time in registry order
+   */
+  public boolean parallelStartup = true;
+
+  /**
+   * threads starting services in parallel
+   */
+  public int startupThreads = 4;
+
 }
@@ -24,6 +24,12 @@ public class ServiceConfig {
    */
   public boolean autoStartPeers = true;
 
+  /**
+   * services which must be started before this one when a config set starts -
+   * peers and services named in the config earlier in the registry already are
+   */
+  public String[] startAfter;
+
   public ServiceConfig() {
     String configTypeName = this.getClass().getSimpleName();
     String serviceType = configTypeName.substring(0, configTypeName.length() - "Config".length());
@@ -6,6 +6,10 @@ public class SpeechSynthesisConfig extends ServiceConfig {
 
   public boolean mute = false;
   public boolean blocking = false;
+  /**
+   * parts of an utterance synthesized ahead of the one playing
+   */
+  public int lookAhead = 1;
   public String[] speechRecognizers;
   public Map<String, String> substitutions;
   public String voice;
@@ -5,5 +5,13 @@ public class WebGuiConfig extends ServiceConfig {
   public Integer port = 8888;
   public boolean autoStartBrowser = true;
   public boolean enableMdns = false;
+  /**
+   * service state is sent to json clients as patches
+   */
+  public boolean stateDelta = true;
+  /**
+   * time between full states of a service sent to a client
+   */
+  public long stateResyncMs = 10000;
 
 }
@@ -18,6 +18,11 @@ public class ServoMove {
    * the input value after the servos mapper has been applied
    */
   public Double outputPos;
+  /**
+   * speed of the servo in degrees per second when it was asked to move - null
+   * is no speed control
+   */
+  public Double speed;
   
   public ServoMove(final String name, final Double inputPos, final Double outputPos) {
     this.name = name;
@@ -25,6 +30,11 @@ public class ServoMove {
     this.outputPos = outputPos;
   }
 
+  public ServoMove(final String name, final Double inputPos, final Double outputPos, final Double speed) {
+    this(name, inputPos, outputPos);
+    this.speed = speed;
+  }
+
   public String toString() {
     return String.format("%s inputPos %.2f outputPos %.2f", name, inputPos, outputPos);
   }
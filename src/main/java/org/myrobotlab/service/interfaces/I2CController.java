@@ -1,5 +1,9 @@
 package org.myrobotlab.service.interfaces;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
 import org.myrobotlab.framework.interfaces.Attachable;
 
 /*
@@ -64,4 +68,49 @@ public interface I2CController extends Attachable {
    */
   int i2cWriteRead(I2CControl control, int busAddress, int deviceAddress, byte[] writeBuffer, int writeSize, byte[] readBuffer, int readSize);
 
+  /**
+   * An optional write (usually a register address) then an optional read as
+   * one transaction. The default runs on the caller's thread with i2cWrite,
+   * i2cRead or i2cWriteRead. Controllers talking to the bus over a link
+   * (Arduino) queue transactions per bus and keep several in flight, so a
+   * device can issue the next transfer without waiting for the last.
+   * 
+   * @param control
+   *          c
+   * @param busAddress
+   *          bus address
+   * @param deviceAddress
+   *          device address
+   * @param writeBuffer
+   *          data written first - may be null if writeSize is 0
+   * @param writeSize
+   *          number of bytes to be written from writeBuffer
+   * @param readSize
+   *          number of bytes to be read after the write
+   * @return the bytes read, completes exceptionally if the transaction failed
+   *         or timed out
+   */
+  default CompletableFuture<byte[]> i2cTransaction(I2CControl control, int busAddress, int deviceAddress, byte[] writeBuffer, int writeSize, int readSize) {
+    CompletableFuture<byte[]> future = new CompletableFuture<>();
+    try {
+      byte[] readBuffer = new byte[readSize];
+      int size = 0;
+      if (readSize == 0) {
+        i2cWrite(control, busAddress, deviceAddress, writeBuffer, writeSize);
+      } else if (writeSize == 0) {
+        size = i2cRead(control, busAddress, deviceAddress, readBuffer, readSize);
+      } else {
+        size = i2cWriteRead(control, busAddress, deviceAddress, writeBuffer, writeSize, readBuffer, readSize);
+      }
+      if (size < 0) {
+        future.completeExceptionally(new TimeoutException(String.format("i2c transaction with 0x%02x on bus %d failed", deviceAddress, busAddress)));
+      } else {
+        future.complete((size == readSize) ? readBuffer : Arrays.copyOf(readBuffer, size));
+      }
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ public interface MrlCommPublisher {
 
   public void publishAck(Integer function/* byte */);
 
+  public void publishAckWindow(Integer seq/* byte */, Integer bitmap/* b32 */);
+
   public int[] publishCustomMsg(int[] msg);
 
   public String publishDebug(String debugMsg);
@@ -32,6 +34,8 @@ public interface MrlCommPublisher {
 
   public void publishI2cData(Integer deviceId, int[] data);
 
+  public void publishI2cTransaction(Integer deviceId, Integer txId, int[] data);
+
   public SerialRelayData publishSerialData(Integer deviceId, int[] data);
 
   public Integer publishServoEvent(Integer deviceId, Integer eventType, Integer currentPos, Integer targetPos);
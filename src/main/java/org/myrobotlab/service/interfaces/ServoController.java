@@ -25,6 +25,8 @@
 
 package org.myrobotlab.service.interfaces;
 
+import java.util.List;
+
 import org.myrobotlab.framework.interfaces.Attachable;
 import org.myrobotlab.service.data.ServoMove;
 import org.myrobotlab.service.data.ServoSpeed;
@@ -61,6 +63,20 @@ public interface ServoController extends Attachable {
    */
   void onServoMoveTo(ServoMove move);
 
+  /**
+   * Several servos moving together, e.g. a pose or a gesture - each move
+   * carries the speed of its servo. Controllers which can should start them
+   * with one command, the default sets the speed and moves each servo in turn
+   * 
+   * @param moves - the moves of a ServoMoveGroup
+   */
+  default void onServoMoveGroup(List<ServoMove> moves) {
+    for (ServoMove move : moves) {
+      onServoSetSpeed(new ServoSpeed(move.name, move.speed));
+      onServoMoveTo(move);
+    }
+  }
+
   /**
    * Stop the servo regardless of where it is in its move
    * 
@@ -19,6 +19,9 @@ public class TestMeta extends MetaData {
     setAvailable(false);
 
     addDependency("junit", "junit", "4.13.1");
+    // micro benchmarks in src/test/java/org/myrobotlab/benchmark
+    addDependency("org.openjdk.jmh", "jmh-core", "1.23");
+    addDependency("org.openjdk.jmh", "jmh-generator-annprocess", "1.23");
     // addPeer("python", "Python", "python to excercise python scripts");
 
   }
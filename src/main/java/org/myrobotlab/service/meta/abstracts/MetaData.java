@@ -8,12 +8,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.myrobotlab.framework.Plan;
 import org.myrobotlab.framework.ServiceReservation;
 import org.myrobotlab.framework.repo.ServiceArtifact;
 import org.myrobotlab.framework.repo.ServiceDependency;
 import org.myrobotlab.framework.repo.ServiceExclude;
+import org.myrobotlab.framework.repo.ServiceIndex;
 import org.myrobotlab.logging.LoggerFactory;
 import org.myrobotlab.service.config.ServiceConfig;
 import org.slf4j.Logger;
@@ -29,11 +31,22 @@ import org.slf4j.Logger;
  * name and type information.
  * 
  */
-public class MetaData implements Serializable {
+public class MetaData implements Serializable, Cloneable {
 
   transient private static final long serialVersionUID = 1L;
   public final static Logger log = LoggerFactory.getLogger(MetaData.class);
 
+  /**
+   * one instance of each MetaData class - get hands out copies, since peers
+   * are changed by whoever uses them
+   */
+  transient private static final Map<String, MetaData> prototypes = new ConcurrentHashMap<>();
+
+  /**
+   * config class of each type - Void.class for types with none
+   */
+  transient private static final Map<String, Class<?>> configClasses = new ConcurrentHashMap<>();
+
   /**
    * available in the UI(s)
    */
@@ -337,11 +350,10 @@ public class MetaData implements Serializable {
         return null;
       }
 
-      type = getFullMetaTypeName(type);
-
-      Class<?> c = Class.forName(type);
-      Constructor<?> mc = c.getConstructor();
-      MetaData meta = (MetaData) mc.newInstance();
+      MetaData meta = get(type);
+      if (meta == null) {
+        return null;
+      }
       return meta.getDefault(name);
 
       // FIXME - add runtime ? - or should this be available to the concrete
@@ -361,7 +373,10 @@ public class MetaData implements Serializable {
     plan.putPeers(name, peers);
     try {
 
-      Class<?> c = Class.forName("org.myrobotlab.service.config." + simpleName + "Config");
+      Class<?> c = getConfigClass();
+      if (c == Void.class) {
+        throw new ClassNotFoundException(simpleName + "Config");
+      }
       Constructor<?> con = c.getConstructor();
       ServiceConfig sc = (ServiceConfig) con.newInstance();
 
@@ -381,12 +396,50 @@ public class MetaData implements Serializable {
     return plan;
   }
 
+  /**
+   * @return config class of this type from the ServiceIndex if there is one -
+   *         Void.class if the type has none
+   */
+  Class<?> getConfigClass() {
+    Class<?> c = configClasses.get(type);
+    if (c != null) {
+      return c;
+    }
+    ServiceIndex index = ServiceIndex.getInstance();
+    ServiceIndex.Entry entry = (index == null) ? null : index.get(type);
+    String configType = (entry == null) ? "org.myrobotlab.service.config." + simpleName + "Config" : entry.configType;
+    c = Void.class;
+    if (configType != null) {
+      try {
+        c = Class.forName(configType);
+      } catch (ClassNotFoundException e) {
+        // generalized ServiceConfig
+      }
+    }
+    configClasses.put(type, c);
+    return c;
+  }
+
+  /**
+   * @param type
+   *          simple or full type name of the service or its MetaData
+   * @return a copy of the MetaData of the type - the class is only loaded and
+   *         instantiated the first time
+   */
   public static MetaData get(String type) {
     try {
       type = getFullMetaTypeName(type);
-      Class<?> c = Class.forName(type);
-      Constructor<?> con = c.getConstructor();
-      return (MetaData) con.newInstance();
+      MetaData prototype = prototypes.get(type);
+      if (prototype == null) {
+        Class<?> c = Class.forName(type);
+        Constructor<?> con = c.getConstructor();
+        prototype = (MetaData) con.newInstance();
+        MetaData existing = prototypes.putIfAbsent(type, prototype);
+        if (existing != null) {
+          prototype = existing;
+        }
+      }
+      return prototype.copy();
 
     } catch (Exception e) {
       log.error("getting MetaData failed on {}", type);
@@ -394,6 +447,28 @@ public class MetaData implements Serializable {
     return null;
   }
 
+  /**
+   * @return copy with its own peers, categories and dependency list
+   */
+  public MetaData copy() {
+    try {
+      MetaData copy = (MetaData) clone();
+      copy.categories = new HashSet<>(categories);
+      copy.dependencies = new ArrayList<>(dependencies);
+      copy.peers = new TreeMap<>();
+      for (Map.Entry<String, ServiceReservation> e : peers.entrySet()) {
+        ServiceReservation sr = e.getValue();
+        ServiceReservation srCopy = new ServiceReservation(sr.key, sr.actualName, sr.type, sr.comment);
+        srCopy.state = sr.state;
+        copy.peers.put(e.getKey(), srCopy);
+      }
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      // it is Cloneable
+      throw new IllegalStateException(e);
+    }
+  }
+
   protected void setPeerName(String key, String actualName) {
     // FIXME - do we bother to check if a peer exists or just make one? - we
     // don't have type info ...
@@ -9,7 +9,7 @@
  * 							src\resource\Arduino\generate\ArduinoMsgCodec.template.h
  */
 
-#define MRLCOMM_VERSION			68
+#define MRLCOMM_VERSION			71
 #define MAGIC_NUMBER            170 // 10101010
 #define MAX_MSG_SIZE			64
 
@@ -143,6 +143,16 @@
 #define PUBLISH_MRL_COMM_BEGIN 58
 // > servoStop/deviceId
 #define SERVO_STOP 59
+// > enableAckWindow/size
+#define ENABLE_ACK_WINDOW 60
+// < publishAckWindow/seq/b32 bitmap
+#define PUBLISH_ACK_WINDOW 61
+// > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+#define I2C_TRANSACTION 62
+// < publishI2cTransaction/deviceId/txId/[] data
+#define PUBLISH_I2C_TRANSACTION 63
+// > servoMoveGroup/[] moves
+#define SERVO_MOVE_GROUP 64
 
 
 
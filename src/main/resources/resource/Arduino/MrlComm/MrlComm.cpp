@@ -331,6 +331,12 @@ void MrlComm::i2cWriteRead(byte deviceId, byte deviceAddress, byte readSize, byt
 	((MrlI2CBus *)getDevice(deviceId))->i2cWriteRead(deviceAddress, readSize, writeValue);
 }
 
+// > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+void MrlComm::i2cTransaction(byte deviceId, byte txId, byte deviceAddress, byte readSize, byte writeDataSize, const byte *writeData)
+{
+	((MrlI2CBus *)getDevice(deviceId))->i2cTransaction(txId, deviceAddress, readSize, writeDataSize, writeData);
+}
+
 /////////////////////////////////// NeoPixel Begin ///////////////////////////////////////////
 
 // > neoPixelAttach/deviceId/pin/b16 numPixels/depth
@@ -433,12 +439,35 @@ void MrlComm::servoStop(byte deviceId)
 	servo->stop();
 }
 
+// sliding window acks are not implemented in the firmware yet - not
+// confirming the window keeps the host in stop and wait
+void MrlComm::enableAckWindow(byte size)
+{
+}
+
 void MrlComm::servoMoveToMicroseconds(byte deviceId, int target)
 {
 	MrlServo *servo = (MrlServo *)getDevice(deviceId);
 	servo->moveToMicroseconds(target);
 }
 
+// > servoMoveGroup/[] moves
+// deviceId, b16 target, b16 velocity for each servo - they all start moving in
+// the same loop
+void MrlComm::servoMoveGroup(byte movesSize, const byte *moves)
+{
+	for (int i = 0; i + 4 < movesSize; i += 5)
+	{
+		MrlServo *servo = (MrlServo *)getDevice(moves[i]);
+		if (servo == NULL)
+		{
+			continue;
+		}
+		servo->setVelocity((int16_t)((moves[i + 3] << 8) | moves[i + 4]));
+		servo->moveToMicroseconds((moves[i + 1] << 8) | moves[i + 2]);
+	}
+}
+
 void MrlComm::setDebug(boolean enabled)
 {
 	msg->debug = enabled;
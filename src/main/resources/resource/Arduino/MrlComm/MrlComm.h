@@ -168,6 +168,12 @@ public:
   void setZeroPoint( byte deviceId);
   // > servoStop/deviceId
   void servoStop( byte deviceId);
+  // > enableAckWindow/size
+  void enableAckWindow( byte size);
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  void i2cTransaction( byte deviceId,  byte txId,  byte deviceAddress,  byte readSize,  byte writeDataSize, const byte*writeData);
+  // > servoMoveGroup/[] moves
+  void servoMoveGroup( byte movesSize, const byte*moves);
     // </generatedCallBacks>
   // end
 
@@ -62,6 +62,33 @@ void MrlI2CBus::i2cWriteRead(byte deviceAddress, byte readSize, byte writeValue)
 	msg->publishI2cData(id, msg->getBuffer(), msg->getBufferSize());
 }
 
+// I2C_TRANSACTION | DEVICE_INDEX | TX_ID | I2CADDRESS | READ_SIZE | WRITE_SIZE | DATA ....
+// PUBLISH_I2C_TRANSACTION | DEVICE_INDEX | TX_ID | DATASIZE | DATA ....
+// writes the data (usually a register address) then reads readSize bytes,
+// either part may be empty - always answered so the host can complete the
+// transaction with TX_ID
+void MrlI2CBus::i2cTransaction(byte txId, byte deviceAddress, byte readSize, byte writeSize, const byte*writeData) {
+	if (writeSize > 0) {
+		Wire.beginTransmission(deviceAddress);
+		for (int i = 0; i < writeSize; i++) {
+			Wire.write(writeData[i]);
+		}
+		// repeated start when a read follows
+		Wire.endTransmission(readSize == 0);
+	}
+
+	byte data[BUFFER_LENGTH];
+	int answer = 0;
+	if (readSize > 0) {
+		answer = Wire.requestFrom(deviceAddress, min(readSize, (byte)BUFFER_LENGTH));
+		for (int i = 0; i < answer; i++) {
+			data[i] = Wire.read();
+		}
+	}
+
+	msg->publishI2cTransaction(id, txId, data, answer);
+}
+
 void MrlI2CBus::update() {
 	//Nothing to do
 }
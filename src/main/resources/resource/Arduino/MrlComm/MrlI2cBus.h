@@ -29,6 +29,7 @@ class MrlI2CBus : public Device {
     void i2cRead(byte deviceAddress, byte size);
     void i2cWrite(byte deviceAddress, byte dataSize, const byte*data);
     void i2cWriteRead(byte deviceAddress, byte readSize, byte writeValue);
+    void i2cTransaction(byte txId, byte deviceAddress, byte readSize, byte writeSize, const byte*writeData);
     void update();
 };
 
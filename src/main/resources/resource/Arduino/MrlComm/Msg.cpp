@@ -144,6 +144,12 @@ Msg* Msg::getInstance() {
   void setZeroPoint( byte deviceId);
   // > servoStop/deviceId
   void servoStop( byte deviceId);
+  // > enableAckWindow/size
+  void enableAckWindow( byte size);
+  // > i2cTransaction/deviceId/txId/deviceAddress/readSize/[] writeData
+  void i2cTransaction( byte deviceId,  byte txId,  byte deviceAddress,  byte readSize,  byte writeDataSize, const byte*writeData);
+  // > servoMoveGroup/[] moves
+  void servoMoveGroup( byte movesSize, const byte*moves);
 
  */
 
@@ -279,6 +285,27 @@ void Msg::publishMrlCommBegin( byte version) {
   reset();
 }
 
+void Msg::publishAckWindow( byte seq,  long bitmap) {
+  write(MAGIC_NUMBER);
+  write(1 + 1 + 4); // size
+  write(PUBLISH_ACK_WINDOW); // msgType = 61
+  write(seq);
+  writeb32(bitmap);
+  flush();
+  reset();
+}
+
+void Msg::publishI2cTransaction( byte deviceId,  byte txId, const byte* data,  byte dataSize) {
+  write(MAGIC_NUMBER);
+  write(1 + 1 + 1 + (1 + dataSize)); // size
+  write(PUBLISH_I2C_TRANSACTION); // msgType = 63
+  write(deviceId);
+  write(txId);
+  write((byte*)data, dataSize);
+  flush();
+  reset();
+}
+
 
 void Msg::processCommand() {
 
@@ -670,6 +697,34 @@ void Msg::processCommand() {
       byte deviceId = ioCmd[startPos+1]; // bu8
       startPos += 1;
       mrlComm->servoStop( deviceId);
+      break;
+	}
+  case ENABLE_ACK_WINDOW: { // enableAckWindow
+      byte size = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      mrlComm->enableAckWindow( size);
+      break;
+	}
+  case I2C_TRANSACTION: { // i2cTransaction
+      byte deviceId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      byte txId = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      byte deviceAddress = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      byte readSize = ioCmd[startPos+1]; // bu8
+      startPos += 1;
+      const byte* writeData = ioCmd+startPos+2;
+      byte writeDataSize = ioCmd[startPos+1];
+      startPos += 1 + ioCmd[startPos+1];
+      mrlComm->i2cTransaction( deviceId,  txId,  deviceAddress,  readSize,  writeDataSize, writeData);
+      break;
+	}
+  case SERVO_MOVE_GROUP: { // servoMoveGroup
+      const byte* moves = ioCmd+startPos+2;
+      byte movesSize = ioCmd[startPos+1];
+      startPos += 1 + ioCmd[startPos+1];
+      mrlComm->servoMoveGroup( movesSize, moves);
       break;
 	}
 
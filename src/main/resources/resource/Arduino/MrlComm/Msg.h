@@ -105,6 +105,8 @@ public:
 	void publishUltrasonicSensorData( byte deviceId,  int echoTime);
 	void publishEncoderData( byte deviceId,  int position);
 	void publishMrlCommBegin( byte version);
+	void publishAckWindow( byte seq,  long bitmap);
+	void publishI2cTransaction( byte deviceId,  byte txId, const byte* data,  byte dataSize);
 
 	// handles all (PC --> MrlComm) methods
 	// void handle(int[] ioCmd); // send size too ?
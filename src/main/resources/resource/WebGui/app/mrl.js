@@ -91,6 +91,10 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
     let registry = {}
     let ids = {}
 
+    // sequence of the state in the registry of each service - patches
+    // of state (onStatePatch) apply to the state with their base sequence
+    let stateSeqs = {}
+
     let methodCache = {}
     let transport = 'websocket'
     let socket = null
@@ -108,7 +112,7 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
     // See the following link for all websocket configuration
     // https://raw.githubusercontent.com/Atmosphere/atmosphere-javascript/master/modules/javascript/src/main/webapp/javascript/atmosphere.js
     this.request = {
-        url: document.location.origin.toString() + '/api/messages?user=root&pwd=pwd&session_id=2309adf3dlkdk&id=' + this.id,
+        url: document.location.origin.toString() + '/api/messages?user=root&pwd=pwd&session_id=2309adf3dlkdk&statePatch=true&id=' + this.id,
         transport: 'websocket',
         maxRequest: 100,
         maxReconnectOnClose: 100,
@@ -360,6 +364,67 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
         return null
     }
 
+    /**
+     * applies a json patch (add, remove and replace operations) to a
+     * state in place
+     */
+    function applyPatch(doc, ops) {
+        for (let i = 0; i < ops.length; ++i) {
+            let op = ops[i]
+            if (op.path == '') {
+                doc = op.value
+                continue
+            }
+            let tokens = op.path.substring(1).split('/').map(t => t.replace(/~1/g, '/').replace(/~0/g, '~'))
+            let key = tokens.pop()
+            let parent = doc
+            for (let j = 0; j < tokens.length; ++j) {
+                parent = parent[tokens[j]]
+            }
+            if (Array.isArray(parent)) {
+                let index = (key == '-') ? parent.length : parseInt(key)
+                if (op.op == 'remove') {
+                    parent.splice(index, 1)
+                } else if (op.op == 'replace') {
+                    parent[index] = op.value
+                } else {
+                    parent.splice(index, 0, op.value)
+                }
+            } else if (op.op == 'remove') {
+                delete parent[key]
+            } else {
+                parent[key] = op.value
+            }
+        }
+        return doc
+    }
+
+    /**
+     * turns an onStatePatch msg into the onState msg it stands for - null if
+     * the patch does not apply to the state we have, in which case the
+     * gateway is asked to send it in full
+     */
+    function patchState(msg) {
+        let senderFullName = _self.getFullName(msg.sender)
+        let patch = msg.data[0]
+        let state = registry[senderFullName]
+        if (!state) {
+            // not a service we know
+            return null
+        }
+        if (stateSeqs[senderFullName] != patch.base) {
+            console.info('state patch ' + senderFullName + ' ' + patch.base + ' does not apply - resync')
+            delete stateSeqs[senderFullName]
+            _self.sendTo(patch.gateway, 'resyncState', senderFullName, _self.id)
+            return null
+        }
+        registry[senderFullName] = applyPatch(state, patch.ops)
+        stateSeqs[senderFullName] = patch.seq
+        msg.method = 'onState'
+        msg.data = [registry[senderFullName]]
+        return msg
+    }
+
     /**
      * onMessage gets all messaging from the remote websocket server
      * all asynchronous callbacks will be routed here.  All
@@ -391,7 +456,8 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
                 }
 
                 // second parse decodes each parameter in the array
-                if (msg.data) {
+                // json-inline msgs already have decoded parameters
+                if (msg.data && msg.encoding != 'json-inline') {
                     for (let x = 0; x < msg.data.length; ++x) {
                         msg.data[x] = jQuery.parseJSON(msg.data[x])
                     }
@@ -400,6 +466,16 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
                 // GREAT FOR DEBUGGING INCOMING MSGS
                 // console.warn(msg.sender + '---> ' + msg.name + '.' + msg.method)
 
+                // patch of a state we have - from here on it is an onState msg
+                if (msg.method == 'onStatePatch') {
+                    msg = patchState(msg)
+                    if (msg == null) {
+                        return
+                    }
+                } else if (msg.method == 'onState' && msg.properties && msg.properties.stateSeq) {
+                    stateSeqs[_self.getFullName(msg.sender)] = msg.properties.stateSeq
+                }
+
                 // handle blocking 'R'eturn msgs here - FIXME - timer to clean old errored msg ?
                 // the blocking call removes any msg resolved
                 if (msg.msgType == 'R') {
@@ -427,6 +503,8 @@ angular.module('mrlapp.mrl', []).provider('mrl', [function() {
                     let s = registry[senderFullName]
                     if (s){
                        registry[senderFullName] = msg.data[0]
+                    } else {
+                       delete stateSeqs[senderFullName]
                     }
                 }
 
@@ -0,0 +1,180 @@
+package org.myrobotlab.arduino;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.myrobotlab.arduino.virtual.MrlComm;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.VirtualArduino;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+import org.slf4j.Logger;
+
+public class AckWindowTest {
+
+  public final static Logger log = LoggerFactory.getLogger(AckWindowTest.class);
+
+  SerialLink toBoard;
+  SerialLink toHost;
+  Msg msg;
+  MrlComm board;
+  final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * host side publisher - only getName and ackTimeout matter here
+   */
+  static MrlCommPublisher publisher() {
+    return (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> ("getName".equals(method.getName())) ? "host" : null);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    LoggingFactory.init("WARN");
+    toBoard = new SerialLink("toBoard", 0, 0);
+    toHost = new SerialLink("toHost", 0, 0);
+    msg = new Msg(publisher(), toBoard.getPort());
+    msg.setInvoke(false);
+    board = new MrlComm(new VirtualArduino("virtual", "virtual")) {
+      @Override
+      public void digitalWrite(Integer pin, Integer value) {
+        written.add(pin * 256 + value);
+      }
+    };
+    board.begin(toHost.getPort());
+    toBoard.connect(board::onBytes);
+    toHost.connect(msg::onBytes);
+    board.getMsg().publishMrlCommBegin(Msg.MRLCOMM_VERSION);
+    long deadline = System.currentTimeMillis() + 3000;
+    while (!msg.isClearToSend() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(msg.isClearToSend());
+  }
+
+  @After
+  public void tearDown() {
+    msg.getAckWindow().reset();
+    toBoard.disconnect();
+    toHost.disconnect();
+  }
+
+  void send(int count) {
+    for (int i = 0; i < count; ++i) {
+      msg.digitalWrite(i / 256, i % 256);
+    }
+  }
+
+  void assertInOrder(int count) throws Exception {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (written.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(msg.getAckWindow().flush(3000));
+    assertEquals(count, written.size());
+    for (int i = 0; i < count; ++i) {
+      assertEquals(i, (int) written.get(i));
+    }
+  }
+
+  @Test
+  public void receiverBitmap() {
+    AckWindow.Receiver receiver = new AckWindow.Receiver();
+    receiver.enable(8);
+    List<Integer> run = new ArrayList<>();
+    int pin = Msg.DIGITAL_WRITE;
+    receiver.receive(new int[] { pin, 1, 0, 1 }, cmd -> run.add(cmd[1]));
+    receiver.receive(new int[] { pin, 3, 0, 3 }, cmd -> run.add(cmd[1]));
+    assertEquals(0, receiver.getNext());
+    assertEquals(0b101, receiver.getBitmap());
+    assertTrue(run.isEmpty());
+
+    receiver.receive(new int[] { pin, 0, 0, 0 }, cmd -> run.add(cmd[1]));
+    assertEquals(2, receiver.getNext());
+    assertEquals(0b1, receiver.getBitmap());
+
+    // a re-sent frame which already ran
+    receiver.receive(new int[] { pin, 1, 0, 1 }, cmd -> run.add(cmd[1]));
+    receiver.receive(new int[] { pin, 2, 0, 2 }, cmd -> run.add(cmd[1]));
+    assertEquals(4, receiver.getNext());
+    assertEquals(0, receiver.getBitmap());
+    assertEquals(4, run.size());
+    for (int i = 0; i < 4; ++i) {
+      assertEquals(i, (int) run.get(i));
+    }
+  }
+
+  @Test
+  public void stopAndWait() throws Exception {
+    send(100);
+    assertInOrder(100);
+    assertFalse(msg.getAckWindow().isEnabled());
+  }
+
+  @Test
+  public void window() throws Exception {
+    assertTrue(msg.setAckWindow(8));
+    assertTrue(msg.getAckWindow().isEnabled());
+    send(1000);
+    assertInOrder(1000);
+    assertEquals(0, msg.getAckWindow().getRetransmitCount());
+
+    // back to stop and wait - the switch itself is acked
+    assertFalse(msg.setAckWindow(0));
+    assertEquals(0, msg.getAckWindow().getTimeoutCount());
+    written.clear();
+    send(10);
+    assertInOrder(10);
+  }
+
+  @Test
+  public void lossyLink() throws Exception {
+    assertTrue(msg.setAckWindow(8));
+    msg.getAckWindow().setTimeout(100);
+    Random random = new Random(7);
+    toBoard.setDrop(frame -> random.nextInt(20) == 0);
+    Random ackRandom = new Random(11);
+    toHost.setDrop(frame -> ackRandom.nextInt(20) == 0);
+    send(500);
+    assertInOrder(500);
+    assertTrue(msg.getAckWindow().getRetransmitCount() > 0);
+    assertTrue(msg.getAckWindow().isEnabled());
+  }
+
+  @Test
+  public void deadLink() throws Exception {
+    assertTrue(msg.setAckWindow(4));
+    msg.getAckWindow().setTimeout(20);
+    toBoard.setDrop(frame -> true);
+    send(4);
+    // gives up and falls back to stop and wait
+    long deadline = System.currentTimeMillis() + 3000;
+    while (msg.getAckWindow().isEnabled() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertFalse(msg.getAckWindow().isEnabled());
+    assertEquals(1, msg.getAckWindow().getTimeoutCount());
+  }
+
+  @Test
+  public void unsupported() throws Exception {
+    // the confirmation is lost - the board is resynced to stop and wait
+    toHost.setDrop(frame -> (frame[2] & 0xFF) == Msg.PUBLISH_ACK_WINDOW);
+    assertFalse(msg.setAckWindow(8));
+    assertFalse(msg.getAckWindow().isEnabled());
+    toHost.setDrop(null);
+    send(10);
+    assertInOrder(10);
+  }
+
+}
@@ -0,0 +1,166 @@
+package org.myrobotlab.arduino;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.myrobotlab.benchmark.FrameParserBenchmark;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.logging.LoggingFactory;
+import org.slf4j.Logger;
+
+public class FrameParserTest {
+
+  public final static Logger log = LoggerFactory.getLogger(FrameParserTest.class);
+
+  static class Collector implements FrameParser.Listener {
+    List<int[]> frames = new ArrayList<>();
+    int count = 0;
+    boolean keep = true;
+
+    @Override
+    public boolean acceptMethod(int method) {
+      return Msg.isMethod(method);
+    }
+
+    @Override
+    public void onFrame(FrameParser.Frame frame) {
+      ++count;
+      if (keep) {
+        frames.add(frame.toArray());
+      }
+    }
+  }
+
+  static byte[] bytes(int... values) {
+    byte[] b = new byte[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      b[i] = (byte) values[i];
+    }
+    return b;
+  }
+
+  @Test
+  public void splitFrames() {
+    byte[] stream = FrameParserBenchmark.createStream();
+
+    Collector whole = new Collector();
+    new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, whole).parse(stream);
+    assertEquals(300, whole.count);
+
+    // the same frames whatever the chunks are
+    Collector chunked = new Collector();
+    FrameParser parser = new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, chunked);
+    Random random = new Random(3);
+    for (int i = 0; i < stream.length;) {
+      int length = Math.min(stream.length - i, random.nextInt(20));
+      parser.parse(stream, i, length);
+      i += length;
+    }
+    assertEquals(300, chunked.count);
+    for (int i = 0; i < whole.frames.size(); ++i) {
+      assertArrayEquals(whole.frames.get(i), chunked.frames.get(i));
+    }
+
+    Collector direct = new Collector();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(stream.length);
+    buffer.put(stream).flip();
+    new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, direct).parse(buffer);
+    assertEquals(300, direct.count);
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void resync() {
+    LoggingFactory.init("ERROR");
+    Collector collector = new Collector();
+    FrameParser parser = new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, collector);
+    // garbage, a bad size, an unknown method, then a good frame
+    parser.parse(bytes(1, 2, 3, 170, 99, 170, 2, 250, 0, 170, 2, Msg.PUBLISH_ACK, 7));
+    assertEquals(1, collector.count);
+    assertArrayEquals(new int[] { Msg.PUBLISH_ACK, 7 }, collector.frames.get(0));
+    assertEquals(6, parser.getErrorCount());
+
+    // a partial frame is dropped on reset
+    parser.parse(bytes(170, 3, Msg.PUBLISH_ACK));
+    parser.reset();
+    parser.parse(bytes(170, 2, Msg.PUBLISH_ACK, 8));
+    assertEquals(2, collector.count);
+    assertArrayEquals(new int[] { Msg.PUBLISH_ACK, 8 }, collector.frames.get(1));
+  }
+
+  @Test
+  public void accessors() {
+    FrameParser.Frame[] last = new FrameParser.Frame[1];
+    List<Object> values = new ArrayList<>();
+    FrameParser parser = new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, new FrameParser.Listener() {
+      @Override
+      public boolean acceptMethod(int method) {
+        return true;
+      }
+
+      @Override
+      public void onFrame(FrameParser.Frame frame) {
+        last[0] = frame;
+        values.add(frame.u8(1));
+        values.add(frame.b16(2));
+        values.add(frame.b32(4));
+        values.add(frame.bu32(4));
+        values.add(frame.f32(8));
+        values.add(frame.str(12));
+        values.add(frame.array(15));
+      }
+    });
+    int f = Float.floatToIntBits(1.5f);
+    parser.parse(bytes(170, 18, 1, 200, 0xFF, 0xFE, 0xFF, 0xFF, 0xFF, 0xFF, f >>> 24, (f >> 16) & 0xFF, (f >> 8) & 0xFF, f & 0xFF, 2, 'h', 'i', 2, 5, 6));
+    assertEquals(18, last[0].getSize());
+    assertEquals(1, last[0].getMethod());
+    assertEquals(200, values.get(0));
+    assertEquals(-2, values.get(1));
+    assertEquals(-1, values.get(2));
+    assertEquals(4294967295L, values.get(3));
+    assertEquals(1.5f, values.get(4));
+    assertEquals("hi", values.get(5));
+    assertArrayEquals(new int[] { 5, 6 }, (int[]) values.get(6));
+  }
+
+  @Test
+  public void zeroAllocation() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+    byte[] stream = FrameParserBenchmark.createStream();
+    Collector collector = new Collector();
+    collector.keep = false;
+    FrameParser parser = new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, collector);
+    ByteBuffer buffer = ByteBuffer.wrap(stream);
+    for (int i = 0; i < 2000; ++i) {
+      parser.parse(stream);
+    }
+
+    collector.count = 0;
+    long id = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(id);
+    for (int i = 0; i < 1000; ++i) {
+      parser.parse(stream);
+      buffer.clear();
+      parser.parse(buffer);
+    }
+    long allocated = threads.getThreadAllocatedBytes(id) - before;
+    log.info("{} bytes allocated parsing {} frames", allocated, collector.count);
+    assertEquals(2000 * 300, collector.count);
+    // a few bytes of measurement noise - nothing per frame
+    assertTrue("allocated " + allocated, allocated < 16 * 1024);
+  }
+
+}
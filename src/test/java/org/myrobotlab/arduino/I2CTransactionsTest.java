@@ -0,0 +1,168 @@
+package org.myrobotlab.arduino;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+import org.myrobotlab.arduino.virtual.MrlComm;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.VirtualArduino;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+
+public class I2CTransactionsTest {
+
+  /**
+   * what was sent - deviceId, txId, deviceAddress, readSize
+   */
+  final List<int[]> sent = Collections.synchronizedList(new ArrayList<>());
+
+  I2CTransactions transactions() {
+    return new I2CTransactions((deviceId, txId, deviceAddress, readSize, writeData) -> sent.add(new int[] { deviceId, txId, deviceAddress, readSize }));
+  }
+
+  static void await(long timeoutMs, BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  public void windowAndCorrelation() throws Exception {
+    I2CTransactions transactions = transactions();
+    List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+    for (int i = 0; i < 6; ++i) {
+      futures.add(transactions.submit(1, 0x68, new byte[] { (byte) i }, 1, i + 1));
+    }
+    // the rest wait for the window
+    assertEquals(I2CTransactions.DEFAULT_WINDOW, sent.size());
+    assertEquals(I2CTransactions.DEFAULT_WINDOW, transactions.getPendingCount());
+
+    // answered out of order
+    int[] second = sent.get(1);
+    transactions.onResponse(1, second[1], new int[] { 0xAA, 0xBB });
+    assertArrayEquals(new byte[] { (byte) 0xAA, (byte) 0xBB }, futures.get(1).get(1, TimeUnit.SECONDS));
+    assertFalse(futures.get(0).isDone());
+
+    // a free slot sends the next queued transaction
+    await(1000, () -> sent.size() == 5);
+    assertEquals(5, sent.size());
+
+    // an answer for another bus or one already given is dropped
+    transactions.onResponse(2, sent.get(0)[1], new int[] { 1 });
+    transactions.onResponse(1, second[1], new int[] { 1 });
+    assertFalse(futures.get(0).isDone());
+
+    // sent in the order submitted
+    for (int i : new int[] { 0, 2, 3, 4, 5 }) {
+      final int count = i + 1;
+      await(1000, () -> sent.size() >= count);
+      int[] tx = sent.get(i);
+      assertEquals(i + 1, tx[3]);
+      transactions.onResponse(1, tx[1], new int[tx[3]]);
+    }
+    for (int i = 0; i < 6; ++i) {
+      assertEquals(i + 1, futures.get(i).get(1, TimeUnit.SECONDS).length);
+    }
+    assertEquals(0, transactions.getPendingCount());
+    assertEquals(6, transactions.getCompletedCount());
+  }
+
+  @Test
+  public void timeoutAndClear() throws Exception {
+    I2CTransactions transactions = transactions();
+    transactions.setTimeout(50);
+    CompletableFuture<byte[]> lost = transactions.submit(1, 0x28, new byte[] { 0 }, 1, 6);
+    try {
+      lost.get(1, TimeUnit.SECONDS);
+      fail("no answer should time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertEquals(0, transactions.getPendingCount());
+    assertEquals(1, transactions.getTimeoutCount());
+
+    // the late answer is ignored
+    transactions.onResponse(1, sent.get(0)[1], new int[6]);
+    assertEquals(0, transactions.getCompletedCount());
+
+    transactions.setTimeout(I2CTransactions.DEFAULT_TIMEOUT_MS);
+    transactions.setWindow(1);
+    CompletableFuture<byte[]> inFlight = transactions.submit(1, 0x28, null, 0, 1);
+    CompletableFuture<byte[]> queued = transactions.submit(1, 0x28, null, 0, 1);
+    assertEquals(2, sent.size());
+    transactions.clear();
+    for (CompletableFuture<byte[]> future : new CompletableFuture[] { inFlight, queued }) {
+      try {
+        future.get(1, TimeUnit.SECONDS);
+        fail("cleared transactions should fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IOException);
+      }
+    }
+    assertEquals(0, transactions.getPendingCount());
+  }
+
+  /**
+   * transactions through Msg to the virtual MrlComm and its MrlI2CBus
+   */
+  @Test
+  public void virtualBoard() throws Exception {
+    LoggingFactory.init("WARN");
+    I2CTransactions[] transactions = new I2CTransactions[1];
+    MrlCommPublisher publisher = (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> {
+          if ("publishI2cTransaction".equals(method.getName())) {
+            transactions[0].onResponse((Integer) args[0], (Integer) args[1], (int[]) args[2]);
+          }
+          return ("getName".equals(method.getName())) ? "host" : null;
+        });
+    SerialLink toBoard = new SerialLink("toBoard", 0, 0);
+    SerialLink toHost = new SerialLink("toHost", 0, 0);
+    Msg msg = new Msg(publisher, toBoard.getPort());
+    msg.setInvoke(false);
+    MrlComm board = new MrlComm(new VirtualArduino("virtual", "virtual"));
+    board.begin(toHost.getPort());
+    toBoard.connect(board::onBytes);
+    toHost.connect(msg::onBytes);
+    board.getMsg().publishMrlCommBegin(Msg.MRLCOMM_VERSION);
+    await(3000, msg::isClearToSend);
+    assertTrue(msg.isClearToSend());
+
+    transactions[0] = new I2CTransactions((deviceId, txId, deviceAddress, readSize, writeData) -> msg.i2cTransaction(deviceId, txId, deviceAddress, readSize, writeData));
+    msg.i2cBusAttach(1, 1);
+
+    List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+    for (int i = 0; i < 300; ++i) {
+      futures.add(transactions[0].submit(1, 0x68, new byte[] { 0x3B }, 1, i % 15));
+    }
+    for (int i = 0; i < futures.size(); ++i) {
+      byte[] data = futures.get(i).get(5, TimeUnit.SECONDS);
+      assertEquals(i % 15, data.length);
+      for (byte b : data) {
+        // what the virtual Wire reads
+        assertEquals(123, b);
+      }
+    }
+    assertEquals(300, transactions[0].getCompletedCount());
+    assertEquals(0, transactions[0].getTimeoutCount());
+
+    toBoard.disconnect();
+    toHost.disconnect();
+  }
+
+}
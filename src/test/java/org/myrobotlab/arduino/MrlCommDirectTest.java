@@ -275,6 +275,11 @@ public class MrlCommDirectTest implements SerialDataListener, MrlCommPublisher,
     // System.err.println("Publish Ack: " + function);
   }
 
+  @Override
+  public void publishAckWindow(Integer seq, Integer bitmap) {
+    numAcks++;
+  }
+
   @Override
   public int[] publishCustomMsg(int[] msg) {
     // TODO Auto-generated method stub
@@ -308,6 +313,11 @@ public class MrlCommDirectTest implements SerialDataListener, MrlCommPublisher,
     log.info("Publish I2C data");
   }
 
+  @Override
+  public void publishI2cTransaction(Integer deviceId, Integer txId, int[] data) {
+    log.info("Publish I2C transaction {}", txId);
+  }
+
   @Override
   public SerialRelayData publishSerialData(Integer deviceId, int[] data) {
     // TODO Auto-generated method stub
@@ -0,0 +1,146 @@
+package org.myrobotlab.arduino;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.myrobotlab.service.interfaces.SerialDevice;
+
+/**
+ * One direction of an in-memory serial line - what is written to getPort() is
+ * delivered to the peer by a delivery thread. Optionally paced at a baud rate
+ * (8N1 - 10 bits per byte) plus a fixed latency, and lossy - frames matching
+ * the drop predicate are never delivered.
+ *
+ * The port is a proxy - only write, isConnected and getName do something, so
+ * no serial library is loaded.
+ */
+public class SerialLink implements InvocationHandler {
+
+  final String name;
+  final int baud;
+  final long latencyNs;
+  final LinkedBlockingQueue<Frame> queue = new LinkedBlockingQueue<>();
+  final SerialDevice port;
+
+  static class Frame {
+    final long dueNs;
+    final byte[] data;
+
+    Frame(long dueNs, byte[] data) {
+      this.dueNs = dueNs;
+      this.data = data;
+    }
+  }
+
+  Consumer<byte[]> peer;
+  volatile Predicate<byte[]> drop;
+  Thread delivery;
+  long lineFreeNs = 0;
+  long written = 0;
+
+  /**
+   * @param name
+   *          name of the link
+   * @param baud
+   *          0 for unpaced
+   * @param latencyMs
+   *          added to each frame
+   */
+  public SerialLink(String name, int baud, double latencyMs) {
+    this.name = name;
+    this.baud = baud;
+    this.latencyNs = (long) (latencyMs * 1000000);
+    port = (SerialDevice) Proxy.newProxyInstance(SerialDevice.class.getClassLoader(), new Class<?>[] { SerialDevice.class }, this);
+  }
+
+  public SerialDevice getPort() {
+    return port;
+  }
+
+  public void connect(Consumer<byte[]> peer) {
+    this.peer = peer;
+    delivery = new Thread(this::deliver, name);
+    delivery.setDaemon(true);
+    delivery.start();
+  }
+
+  public void setDrop(Predicate<byte[]> drop) {
+    this.drop = drop;
+  }
+
+  public void disconnect() {
+    if (delivery != null) {
+      delivery.interrupt();
+      delivery = null;
+    }
+  }
+
+  synchronized public long getWritten() {
+    return written;
+  }
+
+  synchronized public void write(byte[] data) {
+    ++written;
+    long due = 0;
+    if (baud > 0) {
+      // a lost frame still used the line
+      lineFreeNs = Math.max(System.nanoTime(), lineFreeNs) + data.length * 10L * 1000000000L / baud;
+      due = lineFreeNs + latencyNs;
+    }
+    Predicate<byte[]> d = drop;
+    if (d != null && d.test(data)) {
+      return;
+    }
+    queue.add(new Frame(due, Arrays.copyOf(data, data.length)));
+  }
+
+  void deliver() {
+    try {
+      while (true) {
+        Frame frame = queue.take();
+        long now;
+        while ((now = System.nanoTime()) < frame.dueNs) {
+          LockSupport.parkNanos(frame.dueNs - now);
+        }
+        peer.accept(frame.data);
+      }
+    } catch (InterruptedException e) {
+      /* disconnected */
+    }
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "write":
+        if (args[0] instanceof byte[]) {
+          write((byte[]) args[0]);
+        }
+        return null;
+      case "isConnected":
+        return true;
+      case "getName":
+      case "getPortName":
+      case "toString":
+        return name;
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+    }
+    Class<?> type = method.getReturnType();
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,142 @@
+package org.myrobotlab.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.myrobotlab.io.FileIO;
+import org.myrobotlab.test.AbstractTest;
+
+public class AudioCacheTest extends AbstractTest {
+
+  File root;
+
+  File voice;
+
+  @Before
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("audioCache").toFile();
+    voice = new File(root, "FakeSpeech" + File.separator + "fake");
+  }
+
+  @After
+  public void tearDown() {
+    FileIO.rm(root.getAbsolutePath());
+  }
+
+  String write(String name, int size) throws Exception {
+    File file = new File(voice, name);
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[size]);
+    }
+    return file.getAbsolutePath();
+  }
+
+  @Test
+  public void testIndexAndJournal() throws Exception {
+    voice.mkdirs();
+    String old = write("old.mp3", 10);
+
+    AudioCache cache = new AudioCache(root);
+    // listing the directory indexes the files already there
+    cache.mkdirs(voice);
+    assertTrue(cache.contains(old));
+
+    String a = write("a.mp3", 100);
+    assertFalse(cache.contains(a));
+    cache.add(a);
+    assertTrue(cache.contains(a));
+
+    AudioCache.Stats stats = cache.getStats();
+    assertEquals(2, stats.hits);
+    assertEquals(1, stats.misses);
+    assertEquals(2, stats.entries);
+    assertEquals(110, stats.bytes);
+
+    cache.remove(old);
+    assertFalse(new File(old).exists());
+    cache.close();
+
+    // the index is read from the journal - the directory is not listed again
+    String b = write("b.mp3", 5);
+    AudioCache reloaded = new AudioCache(root);
+    reloaded.mkdirs(voice);
+    assertTrue(reloaded.contains(a));
+    assertFalse(reloaded.contains(old));
+    assertFalse(reloaded.contains(b));
+    assertEquals(100, reloaded.getStats().bytes);
+
+    reloaded.compact();
+    assertEquals(2, Files.readAllLines(new File(root, AudioCache.JOURNAL_FILENAME).toPath()).size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEvicted() throws Exception {
+    AudioCache cache = new AudioCache(root);
+    cache.mkdirs(voice);
+    cache.setMaxBytes(300);
+
+    String a = write("a.mp3", 100);
+    cache.add(a);
+    String b = write("b.mp3", 100);
+    cache.add(b);
+    String c = write("c.mp3", 100);
+    cache.add(c);
+    // a is used - b is the least recently used
+    assertTrue(cache.contains(a));
+
+    String d = write("d.mp3", 100);
+    cache.add(d);
+    assertFalse(new File(b).exists());
+    assertFalse(cache.contains(b));
+    assertTrue(cache.contains(a));
+    assertEquals(1, cache.getStats().evictions);
+    assertEquals(300, cache.getStats().bytes);
+
+    // a file bigger than the cache is kept until the next one
+    String big = write("big.mp3", 500);
+    cache.add(big);
+    assertTrue(new File(big).exists());
+    assertEquals(1, cache.getStats().entries);
+  }
+
+  @Test
+  public void testAgeEvicted() throws Exception {
+    AudioCache cache = new AudioCache(root);
+    cache.mkdirs(voice);
+    String a = write("a.mp3", 100);
+    cache.add(a);
+    Thread.sleep(50);
+    String b = write("b.mp3", 100);
+    cache.add(b);
+
+    cache.setMaxAge(25);
+    assertFalse(new File(a).exists());
+    assertTrue(new File(b).exists());
+    assertEquals(1, cache.getStats().entries);
+  }
+
+  @Test
+  public void testPurge() throws Exception {
+    AudioCache cache = new AudioCache(root);
+    cache.mkdirs(voice);
+    String a = write("a.mp3", 100);
+    cache.add(a);
+
+    cache.purge("FakeSpeech");
+    assertFalse(voice.exists());
+    assertEquals(0, cache.getStats().entries);
+
+    // the directory is made again
+    cache.mkdirs(voice);
+    assertTrue(voice.exists());
+  }
+
+}
@@ -0,0 +1,87 @@
+package org.myrobotlab.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+
+import org.myrobotlab.audio.AudioCache;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.math.MathUtils;
+import org.myrobotlab.service.data.AudioData;
+
+/**
+ * Time to find out whether an utterance is cached in a voice directory of a
+ * number of files - asking the filesystem the way generate did before the
+ * cache was indexed, and asking the index. Also the time to load the index
+ * from its journal. Not a JMH benchmark - the filesystem caches of the os are
+ * warm after the files are written.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * AudioCacheBenchmark [files] [lookups]
+ * </pre>
+ */
+public class AudioCacheBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int files = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+    int lookups = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+
+    File root = new File("audioCacheBenchmark").getAbsoluteFile();
+    File voice = new File(root, "Benchmark" + File.separator + "voice");
+    voice.mkdirs();
+    String[] filenames = new String[files];
+    for (int i = 0; i < files; ++i) {
+      filenames[i] = new File(voice, MathUtils.md5("utterance " + i) + ".mp3").getAbsolutePath();
+      try (FileOutputStream out = new FileOutputStream(filenames[i])) {
+        out.write(1);
+      }
+    }
+
+    // hits and misses
+    Random random = new Random(1);
+    String[] keys = new String[lookups];
+    for (int i = 0; i < lookups; ++i) {
+      keys[i] = (random.nextBoolean()) ? filenames[random.nextInt(files)] : new File(voice, MathUtils.md5("miss " + i) + ".mp3").getAbsolutePath();
+    }
+
+    long start = System.nanoTime();
+    int found = 0;
+    for (String key : keys) {
+      File dir = new File(key).getParentFile();
+      if (!dir.exists()) {
+        dir.mkdirs();
+      }
+      if (new AudioData(key).isValid()) {
+        ++found;
+      }
+    }
+    System.out.println(String.format("%-10s %6d files %8.2f us a lookup (%d found)", "filesystem", files, (System.nanoTime() - start) / 1e3 / lookups, found));
+
+    AudioCache cache = new AudioCache(root);
+    cache.mkdirs(voice);
+    start = System.nanoTime();
+    found = 0;
+    for (String key : keys) {
+      cache.mkdirs(new File(key).getParentFile());
+      if (cache.contains(key)) {
+        ++found;
+      }
+    }
+    System.out.println(String.format("%-10s %6d files %8.2f us a lookup (%d found)", "index", files, (System.nanoTime() - start) / 1e3 / lookups, found));
+    cache.close();
+
+    start = System.nanoTime();
+    cache = new AudioCache(root);
+    System.out.println(String.format("journal loaded in %.1f ms - %s", (System.nanoTime() - start) / 1e6, cache.getStats()));
+
+    cache.purge("Benchmark");
+    new File(root, AudioCache.JOURNAL_FILENAME).delete();
+    root.delete();
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,113 @@
+package org.myrobotlab.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.arduino.FrameParser;
+import org.myrobotlab.arduino.Msg;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Receive side of MrlComm - a stream of servo events, pin arrays and acks as
+ * the board sends them, parsed by FrameParser alone and by Msg.onBytes with
+ * dispatch to a publisher which ignores everything. Times are per frame.
+ *
+ * Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameParserBenchmark {
+
+  final static int FRAMES = 300;
+
+  byte[] stream;
+  FrameParser parser;
+  Msg msg;
+  Blackhole blackhole;
+
+  static void frame(ByteArrayOutputStream out, int... data) {
+    out.write(Msg.MAGIC_NUMBER);
+    out.write(data.length);
+    for (int b : data) {
+      out.write(b);
+    }
+  }
+
+  /**
+   * @return FRAMES frames - a third each of servo events, pin arrays of 4 pins
+   *         and acks
+   */
+  public static byte[] createStream() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < FRAMES / 3; ++i) {
+      int pos = 1000 + i;
+      frame(out, Msg.PUBLISH_SERVO_EVENT, 0, 1, pos >> 8, pos & 0xFF, 0x07, 0xD0);
+      frame(out, Msg.PUBLISH_PIN_ARRAY, 12, 2, 0, i & 0xFF, 3, 0, 1, 14, 2, 0, 15, 3, 255);
+      frame(out, Msg.PUBLISH_ACK, Msg.SERVO_MOVE_TO_MICROSECONDS);
+    }
+    return out.toByteArray();
+  }
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    LoggingFactory.init("WARN");
+    this.blackhole = blackhole;
+    stream = createStream();
+    parser = new FrameParser(Msg.MAGIC_NUMBER, Msg.MAX_MSG_SIZE, new FrameParser.Listener() {
+      @Override
+      public boolean acceptMethod(int method) {
+        return Msg.isMethod(method);
+      }
+
+      @Override
+      public void onFrame(FrameParser.Frame frame) {
+        FrameParserBenchmark.this.blackhole.consume(frame.getMethod());
+      }
+    });
+    MrlCommPublisher publisher = (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> null);
+    msg = new Msg(publisher, null);
+    msg.setInvoke(false);
+    msg.onBytes(new byte[] { (byte) Msg.MAGIC_NUMBER, 2, (byte) Msg.PUBLISH_MRL_COMM_BEGIN, (byte) Msg.MRLCOMM_VERSION });
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FRAMES)
+  public void parser() {
+    parser.parse(stream);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FRAMES)
+  public void msgOnBytes() {
+    msg.onBytes(stream);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(FrameParserBenchmark.class.getSimpleName()).addProfiler("gc").build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,115 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.myrobotlab.arduino.I2CTransactions;
+import org.myrobotlab.arduino.Msg;
+import org.myrobotlab.arduino.SerialLink;
+import org.myrobotlab.arduino.virtual.MrlComm;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.VirtualArduino;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+
+/**
+ * Register reads per second from a virtual MrlComm's i2c bus over a simulated
+ * 115200 baud line with a fixed latency - an Mpu6050 sample, a 1 byte register
+ * write and a 14 byte read. "polled" waits for each answer the way
+ * Arduino.i2cWriteRead used to wait for publishI2cData - sleep(1) until it is
+ * there. The others are I2CTransactions with windows of several sizes, a
+ * fusion loop issuing reads as fast as the window allows. Commands use an ack
+ * window of 8 throughout. Not a JMH benchmark - the line is simulated
+ * in real time.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * I2CTransactionBenchmark [reads] [latencyMs] [windowSize ...]
+ * </pre>
+ */
+public class I2CTransactionBenchmark {
+
+  static final int BUS = 1;
+  static final int ADDRESS = 0x68;
+  static final int READ_SIZE = 14;
+
+  static void run(int reads, double latencyMs, int windowSize) throws Exception {
+    I2CTransactions[] transactions = new I2CTransactions[1];
+    MrlCommPublisher publisher = (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> {
+          if ("publishI2cTransaction".equals(method.getName())) {
+            transactions[0].onResponse((Integer) args[0], (Integer) args[1], (int[]) args[2]);
+          }
+          return ("getName".equals(method.getName())) ? "host" : null;
+        });
+    SerialLink toBoard = new SerialLink("toBoard", 115200, latencyMs);
+    SerialLink toHost = new SerialLink("toHost", 115200, latencyMs);
+    Msg msg = new Msg(publisher, toBoard.getPort());
+    msg.setInvoke(false);
+    MrlComm board = new MrlComm(new VirtualArduino("virtual", "virtual"));
+    board.begin(toHost.getPort());
+    toBoard.connect(board::onBytes);
+    toHost.connect(msg::onBytes);
+
+    board.getMsg().publishMrlCommBegin(Msg.MRLCOMM_VERSION);
+    while (!msg.isClearToSend()) {
+      Thread.sleep(1);
+    }
+    // commands pipelined too - see MrlCommAckBenchmark
+    if (!msg.setAckWindow(8)) {
+      throw new IllegalStateException("ack window not confirmed");
+    }
+    msg.i2cBusAttach(BUS, BUS);
+    transactions[0] = new I2CTransactions((deviceId, txId, deviceAddress, readSize, writeData) -> msg.i2cTransaction(deviceId, txId, deviceAddress, readSize, writeData));
+
+    byte[] register = new byte[] { 0x3B };
+    long start = System.nanoTime();
+    if (windowSize == 0) {
+      for (int i = 0; i < reads; ++i) {
+        CompletableFuture<byte[]> future = transactions[0].submit(BUS, ADDRESS, register, register.length, READ_SIZE);
+        for (int retry = 0; retry < 1000 && !future.isDone(); ++retry) {
+          Thread.sleep(1);
+        }
+      }
+    } else {
+      transactions[0].setWindow(windowSize);
+      List<CompletableFuture<byte[]>> futures = new ArrayList<>(reads);
+      for (int i = 0; i < reads; ++i) {
+        futures.add(transactions[0].submit(BUS, ADDRESS, register, register.length, READ_SIZE));
+      }
+      for (CompletableFuture<byte[]> future : futures) {
+        future.get();
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.println(String.format("%-10s %8.0f reads/s  %6.2f ms/read", (windowSize > 0) ? "window " + windowSize : "polled", reads / seconds, seconds * 1000 / reads));
+
+    msg.setAckWindow(0);
+    toBoard.disconnect();
+    toHost.disconnect();
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int reads = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+    double latencyMs = (args.length > 1) ? Double.parseDouble(args[1]) : 1.0;
+    int[] sizes = new int[] { 0, 1, 2, 4, 8 };
+    if (args.length > 2) {
+      sizes = new int[args.length - 2];
+      for (int i = 2; i < args.length; ++i) {
+        sizes[i - 2] = Integer.parseInt(args[i]);
+      }
+    }
+
+    System.out.println(String.format("%d reads of %d bytes, 115200 baud, %.1f ms latency", reads, READ_SIZE, latencyMs));
+    for (int size : sizes) {
+      run(reads, latencyMs, size);
+    }
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,82 @@
+package org.myrobotlab.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacv.Frame;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.opencv.ImageFileFrameGrabber;
+import org.myrobotlab.opencv.ImagePool;
+import org.myrobotlab.opencv.OpenCVData;
+import org.myrobotlab.opencv.OpenCVFilter;
+import org.myrobotlab.opencv.OpenCVFilterCopy;
+import org.myrobotlab.opencv.OpenCVFilterGray;
+import org.myrobotlab.opencv.OpenCVFilterPyramidDown;
+import org.myrobotlab.service.OpenCV;
+import org.myrobotlab.service.Runtime;
+
+/**
+ * Native memory of a long run of frames - images from a directory through an
+ * ImageFileFrameGrabber and a few filters, each frame disposed the way the
+ * video thread does. Native and resident bytes are printed every report frames
+ * and should be flat once the pool is warm. Not a JMH benchmark - it is a
+ * soak.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * ImagePoolSoak [image dir] [frames] [report]
+ * </pre>
+ */
+public class ImagePoolSoak {
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String dir = (args.length > 0) ? args[0] : "src/test/resources/OpenCV/kinect-data";
+    long frames = (args.length > 1) ? Long.parseLong(args[1]) : 1000000;
+    long report = (args.length > 2) ? Long.parseLong(args[2]) : 50000;
+
+    OpenCV cv = (OpenCV) Runtime.start("cv", "OpenCV");
+    List<OpenCVFilter> filters = new ArrayList<>();
+    filters.add(new OpenCVFilterPyramidDown("pyramidDown"));
+    filters.add(new OpenCVFilterCopy("copy"));
+    filters.add(new OpenCVFilterGray("gray"));
+    for (OpenCVFilter filter : filters) {
+      filter.setOpenCV(cv);
+    }
+
+    ImageFileFrameGrabber grabber = new ImageFileFrameGrabber(dir);
+    grabber.start();
+
+    long warm = 0;
+    long maxPhysical = 0;
+    long start = System.nanoTime();
+    for (long i = 1; i <= frames; ++i) {
+      Frame frame = grabber.grab();
+      OpenCVData data = new OpenCVData("cv", System.currentTimeMillis(), (int) i, frame);
+      for (OpenCVFilter filter : filters) {
+        if (cv.processFilter(filter, data)) {
+          // what a pipeline stage does
+          data.keepImage(filter.name);
+        }
+      }
+      data.getDisplay();
+      data.dispose();
+
+      if (i % report == 0) {
+        ImagePool.Stats stats = ImagePool.getInstance().getStats();
+        System.out.println(String.format("%9d frames %6.0f fps %s", i, i / ((System.nanoTime() - start) / 1e9), stats));
+        if (warm == 0) {
+          warm = stats.physicalBytes;
+        }
+        maxPhysical = Math.max(maxPhysical, stats.physicalBytes);
+      }
+    }
+    grabber.release();
+    System.out.println(String.format("resident after the first report %s, most after %s", Pointer.formatBytes(warm), Pointer.formatBytes(maxPhysical)));
+    System.exit(0);
+  }
+
+}
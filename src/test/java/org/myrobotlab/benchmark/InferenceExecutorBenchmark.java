@@ -0,0 +1,111 @@
+package org.myrobotlab.benchmark;
+
+import static org.bytedeco.opencv.global.opencv_imgproc.resize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Size;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.opencv.InferenceExecutor;
+import org.myrobotlab.opencv.OpenCVFilterFaceDetectDNN.FaceDetectModel;
+
+/**
+ * Faces detected per second by the bundled caffe face detector for a number of
+ * cameras sharing it through the InferenceExecutor - each camera a thread
+ * submitting frames of a video and waiting for the detections the way a
+ * blocking FaceDetectDNN filter does, once with a batch of 1 and once with
+ * frames of up to 8 cameras in a batch. Not a JMH benchmark - each run is a
+ * number of seconds after a warm up.
+ *
+ * The model is installed with the OpenCV service. Run main() with the test
+ * classpath, e.g.
+ *
+ * <pre>
+ * InferenceExecutorBenchmark [video file] [cameras] [seconds] [inference threads]
+ * </pre>
+ */
+public class InferenceExecutorBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String video = (args.length > 0) ? args[0] : "src/test/resources/OpenCV/monkeyFace.mp4";
+    int cameras = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+    int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+    int threads = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+
+    String protoTxt = "resource/OpenCV/models/facedetectdnn/deploy.prototxt.txt";
+    String modelFile = "resource/OpenCV/models/facedetectdnn/res10_300x300_ssd_iter_140000.caffemodel";
+
+    // the inputs the filter makes of the video frames
+    List<Mat> frames = new ArrayList<>();
+    OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+    FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(video);
+    grabber.start();
+    Frame frame;
+    while (frames.size() < 100 && (frame = grabber.grabImage()) != null) {
+      Mat input = new Mat();
+      resize(converter.convert(frame), input, new Size(300, 300));
+      frames.add(input);
+    }
+    grabber.stop();
+    grabber.release();
+
+    InferenceExecutor executor = InferenceExecutor.getInstance();
+    executor.setThreads(threads);
+
+    for (int maxBatch : new int[] { 1, 8 }) {
+      FaceDetectModel model = executor.getModel(modelFile, () -> new FaceDetectModel(protoTxt, modelFile));
+      model.setMaxBatch(maxBatch);
+
+      AtomicBoolean running = new AtomicBoolean(true);
+      AtomicLong detected = new AtomicLong();
+      AtomicBoolean counting = new AtomicBoolean(false);
+      List<Thread> camThreads = new ArrayList<>();
+      for (int c = 0; c < cameras; ++c) {
+        final String source = "cam" + c;
+        Thread cam = new Thread(() -> {
+          for (int i = 0; running.get(); ++i) {
+            try {
+              executor.submit(model, source, i, frames.get(i % frames.size())).get();
+              if (counting.get()) {
+                detected.incrementAndGet();
+              }
+            } catch (Exception e) {
+              // the model is gone
+              return;
+            }
+          }
+        }, source);
+        camThreads.add(cam);
+        cam.start();
+      }
+
+      // warm up
+      Thread.sleep(2000);
+      counting.set(true);
+      long start = System.nanoTime();
+      Thread.sleep(seconds * 1000L);
+      long count = detected.get();
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      running.set(false);
+      for (Thread cam : camThreads) {
+        cam.join();
+      }
+
+      System.out.println(String.format("batch %d %2d cameras %6d frames %6.1f fps %6.1f fps a camera", maxBatch, cameras, count, count / elapsed, count / elapsed / cameras));
+      System.out.println(executor.getStats().get(modelFile));
+      // a new queue and stats for the next run
+      executor.releaseModel(modelFile);
+    }
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,94 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.framework.DispatchEntry;
+import org.myrobotlab.framework.MethodCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Invoke latency of the previous path (string keyed MethodCache.getMethod +
+ * Method.invoke) against the per class dispatch table. Run with the gc
+ * profiler to see allocation per call.
+ * 
+ * Run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokeBenchmark {
+
+  public static class Target {
+    double position;
+
+    public double moveTo(Double pos) {
+      position = pos;
+      return position;
+    }
+
+    public void onServoData(String name, double pos) {
+      position = pos;
+    }
+  }
+
+  MethodCache cache;
+  Target target;
+  Object[] oneParam;
+  Object[] twoParams;
+
+  @Setup
+  public void setup() {
+    cache = MethodCache.getInstance();
+    cache.cacheMethodEntries(Target.class);
+    target = new Target();
+    oneParam = new Object[] { 42.0 };
+    twoParams = new Object[] { "servo01", 42.0 };
+  }
+
+  @Benchmark
+  public Object reflectOneParam() throws Exception {
+    Method method = cache.getMethod(Target.class, "moveTo", oneParam);
+    return method.invoke(target, oneParam);
+  }
+
+  @Benchmark
+  public Object dispatchOneParam() throws Exception {
+    DispatchEntry entry = cache.getDispatchEntry(Target.class, "moveTo", oneParam);
+    return entry.invoke(target, oneParam);
+  }
+
+  @Benchmark
+  public Object reflectTwoParams() throws Exception {
+    Method method = cache.getMethod(Target.class, "onServoData", twoParams);
+    return method.invoke(target, twoParams);
+  }
+
+  @Benchmark
+  public Object dispatchTwoParams() throws Exception {
+    DispatchEntry entry = cache.getDispatchEntry(Target.class, "onServoData", twoParams);
+    return entry.invoke(target, twoParams);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(InvokeBenchmark.class.getSimpleName()).addProfiler("gc").build();
+    new Runner(opt).run();
+  }
+
+}
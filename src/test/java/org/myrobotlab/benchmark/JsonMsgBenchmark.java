@@ -0,0 +1,149 @@
+package org.myrobotlab.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.MethodCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Encoding and decoding a large broadcastState msg - the original double
+ * encoded json format against the single pass json-inline format. The bytes
+ * counter is reported as bytes/s, allocation rates are reported by the gc
+ * profiler which main() enables.
+ *
+ * Run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMsgBenchmark {
+
+  /**
+   * stands in for a service's state - nested objects, arrays and strings
+   */
+  public static class ServiceState {
+    public String name;
+    public String typeKey;
+    public boolean isRunning = true;
+    public double[] positions;
+    public List<Map<String, Object>> listeners = new ArrayList<>();
+    public Map<String, String> config = new LinkedHashMap<>();
+  }
+
+  public static class Gateway {
+    public void onState(ServiceState state) {
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  Message msg;
+  String legacyJson;
+  String inlineJson;
+
+  @Setup
+  public void setup() {
+    MethodCache.getInstance().cacheMethodEntries(Gateway.class);
+    ServiceState state = new ServiceState();
+    state.name = "i01.head";
+    state.typeKey = "org.myrobotlab.service.InMoov2Head";
+    state.positions = new double[256];
+    for (int i = 0; i < state.positions.length; ++i) {
+      state.positions[i] = i * 0.37;
+    }
+    for (int i = 0; i < 64; ++i) {
+      Map<String, Object> listener = new LinkedHashMap<>();
+      listener.put("topicMethod", "publishServoMoveTo");
+      listener.put("callbackName", "servo" + i + "@remote");
+      listener.put("callbackMethod", "onServoMoveTo");
+      state.listeners.add(listener);
+      state.config.put("key" + i, "a \"quoted\" value " + i);
+    }
+    msg = Message.createMessage("i01.head@local", "webgui@local", "onState", new Object[] { state });
+    legacyJson = legacyToJsonMsg(msg);
+    inlineJson = CodecUtils.toJsonMsg(msg);
+  }
+
+  /**
+   * the original CodecUtils.toJsonMsg
+   */
+  static String legacyToJsonMsg(Message inMsg) {
+    Message msg = new Message(inMsg);
+    msg.encoding = "json";
+    Object[] params = inMsg.getData();
+    Object[] d = new Object[params.length];
+    for (int i = 0; i < params.length; ++i) {
+      d[i] = CodecUtils.toJson(params[i]);
+    }
+    msg.setData(d);
+    return CodecUtils.toJson(msg);
+  }
+
+  @Benchmark
+  public String legacyEncode(Bytes bytes) {
+    String json = legacyToJsonMsg(msg);
+    bytes.bytes += json.length();
+    return json;
+  }
+
+  @Benchmark
+  public String inlineEncode(Bytes bytes) {
+    String json = CodecUtils.toJsonMsg(msg);
+    bytes.bytes += json.length();
+    return json;
+  }
+
+  @Benchmark
+  public Object[] legacyDecode(Bytes bytes) {
+    // the original WebGui.handle
+    Message m = CodecUtils.fromJson(legacyJson, Message.class);
+    bytes.bytes += legacyJson.length();
+    return MethodCache.getInstance().getDecodedJsonParameters(Gateway.class, m.method, m.data);
+  }
+
+  @Benchmark
+  public Object[] inlineDecode(Bytes bytes) {
+    Message m = CodecUtils.fromJsonMsg(inlineJson);
+    bytes.bytes += inlineJson.length();
+    return MethodCache.getInstance().getDecodedJsonParameters(Gateway.class, m.method, m.data);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(JsonMsgBenchmark.class.getSimpleName()).addProfiler("gc").build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,82 @@
+package org.myrobotlab.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.framework.LinkedMailbox;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.MpscMailbox;
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.framework.interfaces.Mailbox.OverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the original LinkedList + wait/notify queue with the lock-free ring
+ * under contention - 4 publishing threads, 1 draining thread, like many
+ * services publishing into one subscriber's inbox. A full mailbox drops the
+ * newest message, so the score is the rate of add and poll operations.
+ * 
+ * Run main() with the test classpath.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailboxBenchmark {
+
+  @Param({ "LinkedMailbox", "MpscMailbox" })
+  public String type;
+
+  Mailbox mailbox;
+
+  Message msg;
+
+  @Setup
+  public void setup() {
+    if ("LinkedMailbox".equals(type)) {
+      mailbox = new LinkedMailbox(1024, OverflowPolicy.DROP_NEWEST);
+    } else {
+      mailbox = new MpscMailbox(1024, OverflowPolicy.DROP_NEWEST);
+    }
+    msg = Message.createMessage("servo01", "catcher", "onServoData", 1.0);
+  }
+
+  @Benchmark
+  @Group("mpsc")
+  @GroupThreads(4)
+  public boolean add() {
+    return mailbox.add(msg);
+  }
+
+  @Benchmark
+  @Group("mpsc")
+  @GroupThreads(1)
+  public Message poll() {
+    // non-blocking on both sides so JMH can end an iteration with threads
+    // still in the group
+    return mailbox.poll();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(MailboxBenchmark.class.getSimpleName()).build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,123 @@
+package org.myrobotlab.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.codec.MessageCodec;
+import org.myrobotlab.codec.MessageCodecs;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.MethodCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Msgs/s through each MessageCodec for typical sensor streams - an imu
+ * reading (boxed doubles), 32 joint angles (double[]) and an encoder (int).
+ * A full round trip is encode, decode and decoding the parameters for the
+ * target method. Bytes on the wire are reported as bytes/s.
+ *
+ * Run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+  public static class Listener {
+    public void onImu(Double yaw, Double pitch, Double roll, Long ts) {
+    }
+
+    public void onJointAngles(double[] angles) {
+    }
+
+    public void onEncoderData(int position) {
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Param({ "json", "msgpack" })
+  String codecKey;
+
+  @Param({ "imu", "jointAngles", "encoder" })
+  String stream;
+
+  MessageCodec codec;
+  Message msg;
+  byte[] encoded;
+
+  @Setup
+  public void setup() throws Exception {
+    MethodCache.getInstance().cacheMethodEntries(Listener.class);
+    codec = MessageCodecs.get(codecKey);
+    switch (stream) {
+      case "imu":
+        msg = Message.createMessage("imu01@body", "vision@box", "onImu", new Object[] { 12.25, -3.5, 0.125, System.currentTimeMillis() });
+        break;
+      case "jointAngles":
+        double[] angles = new double[32];
+        for (int i = 0; i < angles.length; ++i) {
+          angles[i] = i * 5.625;
+        }
+        msg = Message.createMessage("i01@body", "vision@box", "onJointAngles", new Object[] { angles });
+        break;
+      default:
+        msg = Message.createMessage("encoder01@body", "vision@box", "onEncoderData", new Object[] { 40960 });
+    }
+    msg.addHop("body");
+    encoded = codec.encode(msg);
+  }
+
+  @Benchmark
+  public byte[] encode(Bytes bytes) throws Exception {
+    byte[] data = codec.encode(msg);
+    bytes.bytes += data.length;
+    return data;
+  }
+
+  @Benchmark
+  public Object[] roundTrip(Bytes bytes) throws Exception {
+    byte[] data = codec.encode(msg);
+    bytes.bytes += data.length;
+    Message m = codec.decode(data, 0, data.length);
+    return MethodCache.getInstance().getDecodedJsonParameters(Listener.class, m.method, m.data);
+  }
+
+  @Benchmark
+  public Object[] decode() throws Exception {
+    Message m = codec.decode(encoded, 0, encoded.length);
+    return MethodCache.getInstance().getDecodedJsonParameters(Listener.class, m.method, m.data);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(MessageCodecBenchmark.class.getSimpleName()).addProfiler("gc").build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,103 @@
+package org.myrobotlab.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.framework.Histogram;
+import org.myrobotlab.framework.Inbox;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.Metrics;
+import org.myrobotlab.framework.ServiceMetrics;
+import org.myrobotlab.logging.LoggingFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of the metrics hooks - an inbox add and poll with metrics disabled and
+ * enabled, and histogram recording from 4 threads. Disabled should be within noise
+ * of an inbox without metrics.
+ * 
+ * Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+  @Param({ "false", "true" })
+  public boolean enabled;
+
+  Histogram histogram;
+  ServiceMetrics metrics;
+
+  @State(Scope.Thread)
+  public static class Queue {
+    Inbox inbox;
+    Message msg;
+
+    @Setup
+    public void setup(MetricsBenchmark benchmark) {
+      inbox = new Inbox("bench");
+      inbox.setMetrics(benchmark.metrics);
+      msg = Message.createMessage("sender", "bench", "onInt", 1);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    LoggingFactory.init("WARN");
+    Metrics.setEnabled(enabled);
+    histogram = new Histogram();
+    metrics = new ServiceMetrics("bench");
+  }
+
+  @TearDown
+  public void tearDown() {
+    Metrics.setEnabled(false);
+  }
+
+  @Benchmark
+  public Message inboxAddPoll(Queue q) {
+    q.inbox.add(q.msg);
+    return q.inbox.getMailbox().poll();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordHistogram() {
+    if (Metrics.isEnabled()) {
+      histogram.record(System.nanoTime() & 0xfffff);
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordInvoke() {
+    if (Metrics.isEnabled()) {
+      metrics.recordInvoke("moveTo", 1000);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(MetricsBenchmark.class.getSimpleName()).addProfiler("gc").build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,127 @@
+package org.myrobotlab.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.myrobotlab.image.SerializableImage;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.net.MjpegServer;
+
+/**
+ * Process cpu per frame of an MjpegServer feed as viewers are added - each
+ * frame is encoded once whatever the number of viewers, so the cpu of a viewer
+ * is the write of the bytes. The png encode every viewer used to do is timed
+ * for comparison. Not a JMH benchmark - frames are published at a fixed rate
+ * to viewers on loopback sockets.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * MjpegFanOutBenchmark [frames] [fps]
+ * </pre>
+ */
+public class MjpegFanOutBenchmark {
+
+  static BufferedImage frame(int i) {
+    BufferedImage img = new BufferedImage(640, 480, BufferedImage.TYPE_3BYTE_BGR);
+    Graphics2D g = img.createGraphics();
+    for (int y = 0; y < 480; y += 8) {
+      g.setColor(new Color((y * 3 + i) % 256, (y + i * 5) % 256, (i * 7) % 256));
+      g.fillRect(0, y, 640, 8);
+    }
+    g.setColor(Color.WHITE);
+    g.drawString("frame " + i, 20 + i % 500, 240);
+    g.dispose();
+    return img;
+  }
+
+  static long cpuNs() {
+    return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 300;
+    int fps = (args.length > 1) ? Integer.parseInt(args[1]) : 30;
+
+    int port;
+    try (ServerSocket s = new ServerSocket(0)) {
+      port = s.getLocalPort();
+    }
+    MjpegServer server = new MjpegServer(port);
+    server.start();
+    server.publish(new SerializableImage(frame(0), "feed", 0));
+
+    BufferedImage sample = frame(1);
+    long start = System.nanoTime();
+    for (int i = 0; i < 20; ++i) {
+      SerializableImage.encode(sample, "png", null);
+    }
+    double png = (System.nanoTime() - start) / 20 / 1e6;
+    start = System.nanoTime();
+    for (int i = 0; i < 20; ++i) {
+      SerializableImage.encode(sample, "jpg", null);
+    }
+    double jpg = (System.nanoTime() - start) / 20 / 1e6;
+    System.out.println(String.format("encode png %.2f ms jpg %.2f ms - a png per viewer was the cost of a viewer", png, jpg));
+
+    List<Socket> viewers = new ArrayList<>();
+    for (int count : new int[] { 1, 2, 4, 8, 16 }) {
+      while (viewers.size() < count) {
+        Socket socket = new Socket("localhost", port);
+        OutputStream os = socket.getOutputStream();
+        os.write("GET /feed HTTP/1.0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        os.flush();
+        Thread reader = new Thread(() -> {
+          byte[] buffer = new byte[65536];
+          try {
+            InputStream in = socket.getInputStream();
+            while (in.read(buffer) > 0) {
+            }
+          } catch (Exception e) {
+          }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        viewers.add(socket);
+      }
+      while (server.feeds.get("feed").size() < count) {
+        Thread.sleep(10);
+      }
+
+      long cpu = cpuNs();
+      long encodes = SerializableImage.getEncodeCount();
+      long sent = 0;
+      for (MjpegServer.VideoWebClient viewer : server.feeds.get("feed")) {
+        sent -= viewer.getSent();
+      }
+      for (int i = 0; i < frames; ++i) {
+        server.publish(new SerializableImage(frame(i), "feed", i));
+        Thread.sleep(1000 / fps);
+      }
+      Thread.sleep(200);
+      for (MjpegServer.VideoWebClient viewer : server.feeds.get("feed")) {
+        sent += viewer.getSent();
+      }
+      double cpuMs = (cpuNs() - cpu) / 1e6 / frames;
+      System.out.println(String.format("%2d viewers %6.2f ms cpu/frame %5d encodes %6d frames sent", count, cpuMs, SerializableImage.getEncodeCount() - encodes, sent));
+    }
+
+    for (Socket socket : viewers) {
+      socket.close();
+    }
+    server.stop();
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,66 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Proxy;
+
+import org.myrobotlab.framework.Histogram;
+import org.myrobotlab.framework.interfaces.Broadcaster;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.sensor.MotionScheduler;
+import org.myrobotlab.sensor.TimeEncoder;
+import org.myrobotlab.service.interfaces.ServoControl;
+
+/**
+ * Threads and tick lateness of the MotionScheduler with every servo of a
+ * robot moving at once. Each servo is a TimeEncoder moving back and forth over
+ * 180 degrees - "threads" is the live thread count while they move, which was
+ * one thread per moving servo before the scheduler. Not a JMH benchmark - the
+ * clock runs in real time.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * MotionClockBenchmark [servos] [seconds] [hz]
+ * </pre>
+ */
+public class MotionClockBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int servos = (args.length > 0) ? Integer.parseInt(args[0]) : 30;
+    int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+    double hz = (args.length > 2) ? Double.parseDouble(args[2]) : 50;
+
+    MotionScheduler scheduler = new MotionScheduler();
+    scheduler.setTickRate(hz);
+    TimeEncoder[] encoders = new TimeEncoder[servos];
+    for (int i = 0; i < servos; ++i) {
+      String name = "s" + i;
+      ServoControl servo = (ServoControl) Proxy.newProxyInstance(ServoControl.class.getClassLoader(), new Class<?>[] { ServoControl.class, Broadcaster.class },
+          (proxy, method, a) -> ("getName".equals(method.getName())) ? name : null);
+      encoders[i] = new TimeEncoder(servo);
+      encoders[i].setScheduler(scheduler);
+    }
+
+    int baseThreads = Thread.activeCount();
+    int maxThreads = 0;
+    long end = System.currentTimeMillis() + seconds * 1000L;
+    while (System.currentTimeMillis() < end) {
+      for (int i = 0; i < servos; ++i) {
+        if (!scheduler.isScheduled(encoders[i])) {
+          double pos = (encoders[i].getPos() == null) ? 0 : encoders[i].getPos();
+          encoders[i].calculateTrajectory(pos, (pos < 90) ? 180 : 0, 90.0 + i);
+        }
+      }
+      maxThreads = Math.max(maxThreads, Thread.activeCount() - baseThreads);
+      Thread.sleep(50);
+    }
+
+    Histogram.Summary jitter = scheduler.getJitter();
+    System.out.println(String.format("%d servos %.0f Hz %d s  threads %d  ticks %d  missed %d", servos, hz, seconds, maxThreads, scheduler.getTickCount(),
+        scheduler.getMissedTicks()));
+    System.out.println(String.format("lateness  mean %.2f ms  p50 %.2f ms  p99 %.2f ms  max %.2f ms", jitter.mean / 1e6, jitter.p50 / 1e6, jitter.p99 / 1e6, jitter.max / 1e6));
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,86 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Proxy;
+
+import org.myrobotlab.arduino.AckWindow;
+import org.myrobotlab.arduino.Msg;
+import org.myrobotlab.arduino.SerialLink;
+import org.myrobotlab.arduino.virtual.MrlComm;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.VirtualArduino;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+
+/**
+ * Commands per second from Msg to a virtual MrlComm over a simulated 115200
+ * baud line - stop and wait against ack windows of several sizes. Each
+ * direction is paced at 11520 bytes/s plus a fixed latency (a USB serial
+ * adapter adds 1 to 16 ms). The commands are digitalWrites - the virtual
+ * board does nothing with them, so only the protocol is measured. Not a JMH
+ * benchmark - the line is simulated in real time.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * MrlCommAckBenchmark [commands] [latencyMs] [windowSize ...]
+ * </pre>
+ */
+public class MrlCommAckBenchmark {
+
+  static MrlCommPublisher publisher() {
+    return (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> ("getName".equals(method.getName())) ? "host" : null);
+  }
+
+  static void run(int commands, double latencyMs, int windowSize) throws Exception {
+    SerialLink toBoard = new SerialLink("toBoard", 115200, latencyMs);
+    SerialLink toHost = new SerialLink("toHost", 115200, latencyMs);
+    Msg msg = new Msg(publisher(), toBoard.getPort());
+    msg.setInvoke(false);
+    MrlComm board = new MrlComm(new VirtualArduino("virtual", "virtual"));
+    board.begin(toHost.getPort());
+    toBoard.connect(board::onBytes);
+    toHost.connect(msg::onBytes);
+
+    board.getMsg().publishMrlCommBegin(Msg.MRLCOMM_VERSION);
+    while (!msg.isClearToSend()) {
+      Thread.sleep(1);
+    }
+    if (windowSize > 0 && !msg.setAckWindow(windowSize)) {
+      throw new IllegalStateException("ack window not confirmed");
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < commands; ++i) {
+      msg.digitalWrite(13, i & 1);
+    }
+    msg.getAckWindow().flush(AckWindow.DEFAULT_TIMEOUT_MS * AckWindow.MAX_RETRIES);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.println(String.format("%-14s %8.0f cmds/s  %6.1f ms/cmd  retransmits %d", (windowSize > 0) ? "window " + windowSize : "stop and wait",
+        commands / seconds, seconds * 1000 / commands, msg.getAckWindow().getRetransmitCount()));
+
+    msg.setAckWindow(0);
+    toBoard.disconnect();
+    toHost.disconnect();
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int commands = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+    double latencyMs = (args.length > 1) ? Double.parseDouble(args[1]) : 1.0;
+    int[] sizes = new int[] { 0, 2, 4, 8, 16 };
+    if (args.length > 2) {
+      sizes = new int[args.length - 2];
+      for (int i = 2; i < args.length; ++i) {
+        sizes[i - 2] = Integer.parseInt(args[i]);
+      }
+    }
+
+    System.out.println(String.format("%d commands, 115200 baud, %.1f ms latency", commands, latencyMs));
+    for (int size : sizes) {
+      run(commands, latencyMs, size);
+    }
+  }
+
+}
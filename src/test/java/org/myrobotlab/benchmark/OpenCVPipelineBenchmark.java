@@ -0,0 +1,74 @@
+package org.myrobotlab.benchmark;
+
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.opencv.OpenCVFilter;
+import org.myrobotlab.opencv.OpenCVPipeline;
+import org.myrobotlab.service.OpenCV;
+import org.myrobotlab.service.Runtime;
+
+/**
+ * Frames per second of a filter chain run one filter after the other on the
+ * video thread against the same chain run as a pipeline - PyramidDown, then
+ * Canny and Smooth both reading the PyramidDown output, then FindContours. Not
+ * a JMH benchmark - each mode captures the video for a number of seconds after
+ * a warm up.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * OpenCVPipelineBenchmark [video file] [seconds]
+ * </pre>
+ */
+public class OpenCVPipelineBenchmark {
+
+  /**
+   * frames grabbed in ms - the frame index starts over when the video loops
+   */
+  static long grabbed(OpenCV cv, long ms) throws InterruptedException {
+    long count = 0;
+    int last = cv.getFrameIndex();
+    for (long t = 0; t < ms; t += 50) {
+      Thread.sleep(50);
+      int index = cv.getFrameIndex();
+      count += (index >= last) ? index - last : index;
+      last = index;
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String video = (args.length > 0) ? args[0] : "src/test/resources/OpenCV/monkeyFace.mp4";
+    int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+    OpenCV cv = (OpenCV) Runtime.start("cv", "OpenCV");
+    cv.setDisplay(false);
+    cv.addFilter("PyramidDown");
+    ((OpenCVFilter) cv.addFilter("Canny")).setSourceKey("PyramidDown");
+    ((OpenCVFilter) cv.addFilter("Smooth")).setSourceKey("PyramidDown");
+    cv.addFilter("FindContours");
+
+    for (boolean pipelined : new boolean[] { false, true }) {
+      cv.setPipelined(pipelined);
+      cv.capture(video);
+      // warm up
+      Thread.sleep(2000);
+      long start = System.nanoTime();
+      OpenCVPipeline.Stats before = cv.getPipelineStats();
+      long count = grabbed(cv, seconds * 1000L);
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format("%-10s %6d frames grabbed %6.1f fps", (pipelined) ? "pipelined" : "sequential", count, count / elapsed));
+      if (pipelined) {
+        OpenCVPipeline.Stats stats = cv.getPipelineStats();
+        long published = stats.frames - ((before == null) ? 0 : before.frames);
+        System.out.println(String.format("           %6d frames published %6.1f fps", published, published / elapsed));
+        System.out.println(stats);
+      }
+      cv.stopCapture();
+      Thread.sleep(500);
+    }
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,137 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.framework.Platform;
+import org.myrobotlab.framework.ServiceRegistry;
+import org.myrobotlab.framework.interfaces.ServiceInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Service lookup by short name and by interface with 1k and 10k registered
+ * services - the previous TreeMap registry (getFullName + containsKey + get,
+ * full scan for interfaces) against ServiceRegistry.
+ *
+ * Run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark {
+
+  public interface Sensor {
+  }
+
+  @Param({ "1000", "10000" })
+  int serviceCount;
+
+  Map<String, ServiceInterface> treeRegistry;
+  ServiceRegistry registry;
+  String[] names;
+  int next = 0;
+
+  static ServiceInterface createService(String name, String id, boolean sensor) {
+    Class<?>[] interfaces = (sensor) ? new Class<?>[] { ServiceInterface.class, Sensor.class } : new Class<?>[] { ServiceInterface.class };
+    return (ServiceInterface) Proxy.newProxyInstance(RegistryBenchmark.class.getClassLoader(), interfaces, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getName":
+          return name;
+        case "getId":
+          return id;
+        case "getType":
+          return (sensor) ? "org.myrobotlab.service.Sensor" : "org.myrobotlab.service.Clock";
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        default:
+          return null;
+      }
+    });
+  }
+
+  @Setup
+  public void setup() {
+    String id = Platform.getLocalInstance().getId();
+    treeRegistry = new TreeMap<>();
+    registry = new ServiceRegistry();
+    names = new String[serviceCount];
+    for (int i = 0; i < serviceCount; ++i) {
+      names[i] = "service" + i;
+      // 1 in 100 is a sensor
+      ServiceInterface si = createService(names[i], id, i % 100 == 0);
+      treeRegistry.put(names[i] + "@" + id, si);
+      registry.put(names[i] + "@" + id, si);
+    }
+  }
+
+  String nextName() {
+    if (++next == names.length) {
+      next = 0;
+    }
+    return names[next];
+  }
+
+  @Benchmark
+  public ServiceInterface treeMapGetService() {
+    // the previous Runtime.getService
+    String name = String.format("%s@%s", nextName(), Platform.getLocalInstance().getId());
+    if (!treeRegistry.containsKey(name)) {
+      return null;
+    }
+    return treeRegistry.get(name);
+  }
+
+  @Benchmark
+  public ServiceInterface registryGetService() {
+    return registry.get(nextName());
+  }
+
+  @Benchmark
+  public List<ServiceInterface> treeMapGetFromInterface() {
+    // the previous Runtime.getServicesFromInterface
+    List<ServiceInterface> ret = new ArrayList<>();
+    for (String name : treeRegistry.keySet()) {
+      ServiceInterface si = treeRegistry.get(name);
+      for (Class<?> c : si.getClass().getInterfaces()) {
+        if (c.equals(Sensor.class)) {
+          ret.add(si);
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Benchmark
+  public List<ServiceInterface> registryGetFromInterface() {
+    return registry.getByInterface(Sensor.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(RegistryBenchmark.class.getSimpleName()).build();
+    new Runner(opt).run();
+  }
+
+}
@@ -0,0 +1,154 @@
+package org.myrobotlab.benchmark;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.myrobotlab.framework.QueueStats;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.serial.Port;
+import org.myrobotlab.serial.PortQueue;
+import org.myrobotlab.serial.PortSocket;
+import org.myrobotlab.serial.PortStream;
+import org.myrobotlab.service.interfaces.SerialDataListener;
+
+/**
+ * CPU used by many mostly idle serial ports - each gets a 16 byte message at
+ * rateHz, as a sensor board would send. "virtual" ports are PortQueues,
+ * "stream" ports are PortStreams over local sockets with a reading thread
+ * each, "socket" ports are PortSockets serviced by the SerialReactor. Not a
+ * JMH benchmark - the interesting number is process cpu time.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * SerialPortsBenchmark [virtual|stream|socket] [ports] [seconds] [rateHz]
+ * </pre>
+ */
+public class SerialPortsBenchmark {
+
+  static class Counter implements SerialDataListener {
+    final AtomicLong bytes = new AtomicLong();
+
+    @Override
+    public String getName() {
+      return "counter";
+    }
+
+    @Override
+    public void onConnect(String portName) {
+    }
+
+    @Override
+    public void onDisconnect(String portName) {
+    }
+
+    @Override
+    public QueueStats publishStats(QueueStats stats) {
+      return stats;
+    }
+
+    @Override
+    public void updateStats(QueueStats stats) {
+    }
+
+    @Override
+    public void onBytes(byte[] data) {
+      bytes.addAndGet(data.length);
+    }
+  }
+
+  static long cpuNanos() {
+    return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+  }
+
+  static Port socketPort(String mode, int port, String name) throws Exception {
+    if ("socket".equals(mode)) {
+      return new PortSocket(name, "localhost", port);
+    }
+    @SuppressWarnings("resource")
+    Socket socket = new Socket("localhost", port);
+    return new PortStream(name, socket.getInputStream(), socket.getOutputStream());
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String mode = (args.length > 0) ? args[0] : "virtual";
+    int portCount = (args.length > 1) ? Integer.parseInt(args[1]) : 32;
+    int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+    int rateHz = (args.length > 3) ? Integer.parseInt(args[3]) : 10;
+
+    Counter counter = new Counter();
+    List<Port> ports = new ArrayList<>();
+    List<BlockingQueue<Integer>> queues = new ArrayList<>();
+    List<OutputStream> sockets = new ArrayList<>();
+    ServerSocket server = null;
+
+    if ("virtual".equals(mode)) {
+      for (int i = 0; i < portCount; ++i) {
+        BlockingQueue<Integer> in = new LinkedBlockingQueue<>();
+        queues.add(in);
+        ports.add(new PortQueue("v" + i, in, new LinkedBlockingQueue<>()));
+      }
+    } else {
+      server = new ServerSocket();
+      server.bind(new InetSocketAddress("localhost", 0));
+      for (int i = 0; i < portCount; ++i) {
+        ports.add(socketPort(mode, server.getLocalPort(), "s" + i));
+        ports.get(i).open();
+        sockets.add(server.accept().getOutputStream());
+      }
+    }
+    for (Port port : ports) {
+      if (!port.isOpen()) {
+        port.open();
+      }
+      port.listen(counter);
+    }
+    Thread.sleep(500);
+
+    byte[] message = new byte[16];
+    long periodNs = 1000000000L / rateHz;
+    long startCpu = cpuNanos();
+    long start = System.nanoTime();
+    long next = start;
+    while (System.nanoTime() - start < seconds * 1000000000L) {
+      for (int i = 0; i < portCount; ++i) {
+        if (queues.size() > 0) {
+          for (byte b : message) {
+            queues.get(i).add(b & 0xFF);
+          }
+        } else {
+          sockets.get(i).write(message);
+        }
+      }
+      next += periodNs;
+      long sleep = next - System.nanoTime();
+      if (sleep > 0) {
+        Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+      }
+    }
+    double cpu = (cpuNanos() - startCpu) / 1e9;
+    double wall = (System.nanoTime() - start) / 1e9;
+
+    System.out.println(String.format("%s %d ports at %d Hz: cpu %.2f s in %.2f s (%.1f%% of a core), %d threads, %d bytes received", mode, portCount, rateHz, cpu, wall,
+        100 * cpu / wall, Thread.activeCount(), counter.bytes.get()));
+
+    for (Port port : ports) {
+      port.close();
+    }
+    if (server != null) {
+      server.close();
+    }
+    System.exit(0);
+  }
+
+}
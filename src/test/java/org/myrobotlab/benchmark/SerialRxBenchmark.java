@@ -0,0 +1,81 @@
+package org.myrobotlab.benchmark;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.Serial;
+
+/**
+ * Receive throughput of the Serial service - a feeding thread hands chunks to
+ * Serial.onBytes as a hardware port's reading thread does ("direct"), or
+ * writes them to the far end of a virtual uart so they come through a
+ * PortQueue ("virtual"). A reader drains them with blocking bulk reads. 1
+ * Mbaud is about 100 KB/s. Not a JMH benchmark - two threads and a service.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * SerialRxBenchmark [direct|virtual] [megabytes] [chunkSize]
+ * </pre>
+ */
+public class SerialRxBenchmark {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String mode = (args.length > 0) ? args[0] : "direct";
+    int total = (int) ((args.length > 1) ? Double.parseDouble(args[1]) * 1024 * 1024 : 16 * 1024 * 1024);
+    int chunkSize = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+
+    Serial serial = (Serial) Runtime.start("rx", "Serial");
+    serial.setBufferSize(BUFFER_SIZE);
+    serial.setTimeout(1000);
+    Serial uart = null;
+    if ("virtual".equals(mode)) {
+      uart = Serial.connectVirtualUart("bench");
+      serial.connect("bench");
+    }
+    final Serial far = uart;
+
+    byte[] chunk = new byte[chunkSize];
+    for (int i = 0; i < chunkSize; ++i) {
+      chunk[i] = (byte) i;
+    }
+
+    AtomicInteger received = new AtomicInteger();
+    Thread feeder = new Thread(() -> {
+      try {
+        for (int sent = 0; sent < total; sent += chunkSize) {
+          // no flow control on the line - keep inside the rx buffer
+          while (sent - received.get() > BUFFER_SIZE / 2) {
+            Thread.yield();
+          }
+          if (far == null) {
+            serial.onBytes(chunk);
+          } else {
+            far.write(chunk);
+          }
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }, "feeder");
+
+    byte[] data = new byte[chunkSize];
+    long start = System.nanoTime();
+    feeder.start();
+    while (received.get() < total) {
+      serial.read(data);
+      received.addAndGet(data.length);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    feeder.join();
+
+    System.out.println(String.format("%s %d byte chunks: %.1f MB in %.2f s - %.2f MB/s", mode, chunkSize, total / 1048576.0, seconds, total / 1048576.0 / seconds));
+    Runtime.shutdown();
+  }
+
+}
@@ -0,0 +1,122 @@
+package org.myrobotlab.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.repo.ServiceIndex;
+import org.myrobotlab.io.FileIO;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.meta.abstracts.MetaData;
+
+/**
+ * Cost of listing every service type with its categories - what
+ * ServiceData.generate does when it builds serviceData.json - and of asking
+ * for the MetaData of a type over and over, the way every service created
+ * does. "scan" lists the classpath and instantiates each MetaData class by
+ * reflection, "index" reads the ServiceIndex resource and copies memoized
+ * MetaData. Each mode runs in its own JVM so the loaded classes and metaspace
+ * are its own. Not a JMH benchmark - each is a cold start.
+ *
+ * Run main() with the main classpath, e.g.
+ *
+ * <pre>
+ * ServiceIndexBenchmark [gets]
+ * </pre>
+ */
+public class ServiceIndexBenchmark {
+
+  static long metaspace() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(pool.getName())) {
+        return pool.getUsage().getUsed();
+      }
+    }
+    return -1;
+  }
+
+  static void child(String mode, int gets) throws Exception {
+    // loaded by runtime long before either - not part of the cost
+    CodecUtils.toJson(mode);
+    FileIO.getRoot();
+
+    long classes = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+    long space = metaspace();
+    long start = System.nanoTime();
+
+    Map<String, TreeSet<String>> categories = new TreeMap<>();
+    int types = 0;
+    if ("scan".equals(mode)) {
+      List<String> services = FileIO.getServiceList();
+      for (String service : services) {
+        try {
+          Class<?> c = Class.forName(MetaData.getFullMetaTypeName(service));
+          Constructor<?> con = c.getConstructor();
+          MetaData meta = (MetaData) con.newInstance();
+          for (String category : meta.categories) {
+            categories.computeIfAbsent(category, k -> new TreeSet<>()).add(service);
+          }
+          ++types;
+        } catch (Exception e) {
+          // not a service
+        }
+      }
+    } else {
+      for (ServiceIndex.Entry entry : ServiceIndex.getInstance().types.values()) {
+        for (String category : entry.categories) {
+          categories.computeIfAbsent(category, k -> new TreeSet<>()).add(entry.type);
+        }
+        ++types;
+      }
+    }
+    long listNs = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < gets; ++i) {
+      if ("scan".equals(mode)) {
+        Class<?> c = Class.forName(MetaData.getFullMetaTypeName("Servo"));
+        c.getConstructor().newInstance();
+      } else {
+        MetaData.get("Servo");
+      }
+    }
+    long getNs = System.nanoTime() - start;
+
+    System.out.println(String.format("%-6s %4d types %3d categories  list %7.1f ms  %d gets %6.1f us/get  classes +%5d  metaspace +%6d KB", mode, types, categories.size(), listNs / 1e6,
+        gets, getNs / 1e3 / gets, ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - classes, (metaspace() - space) / 1024));
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    if (args.length > 1) {
+      child(args[0], Integer.parseInt(args[1]));
+      return;
+    }
+    int gets = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+
+    // the index the build would put in the jar
+    File dir = Files.createTempDirectory("serviceIndex").toFile();
+    File framework = new File(dir, "resource" + File.separator + "framework");
+    framework.mkdirs();
+    FileIO.toFile(new File(framework, "serviceIndex.json").getPath(), CodecUtils.toJson(ServiceIndex.generate()));
+
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    String cp = System.getProperty("java.class.path");
+    for (String mode : new String[] { "scan", "index" }) {
+      String modeCp = ("index".equals(mode)) ? dir.getPath() + File.pathSeparator + cp : cp;
+      Process p = new ProcessBuilder(java, "-cp", modeCp, ServiceIndexBenchmark.class.getName(), mode, Integer.toString(gets)).inheritIO().start();
+      p.waitFor();
+    }
+    FileIO.rm(dir);
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,96 @@
+package org.myrobotlab.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.ServiceExecutor;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.TestCatcher;
+
+/**
+ * Starts many services and measures thread count, resident memory and message
+ * latency for an execution mode. Not a JMH benchmark - the interesting numbers
+ * are process wide.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * ServiceStressBenchmark [thread|pooled|virtual] [serviceCount] [rounds]
+ * </pre>
+ */
+public class ServiceStressBenchmark {
+
+  static String getRss() {
+    try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"))) {
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("VmRSS:")) {
+          return line.substring(6).trim();
+        }
+      }
+    } catch (Exception e) {
+    }
+    return "n/a";
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String mode = (args.length > 0) ? args[0] : "pooled";
+    int serviceCount = (args.length > 1) ? Integer.parseInt(args[1]) : 500;
+    int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+
+    ServiceExecutor.setMode(mode);
+    Runtime runtime = Runtime.getInstance();
+
+    int baseThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+    long startTs = System.currentTimeMillis();
+    List<TestCatcher> catchers = new ArrayList<>();
+    for (int i = 0; i < serviceCount; ++i) {
+      catchers.add((TestCatcher) Runtime.start("stress" + i, "TestCatcher"));
+    }
+    long startupMs = System.currentTimeMillis() - startTs;
+
+    long[] latencies = new long[serviceCount * rounds];
+    int n = 0;
+    long sendTs = System.nanoTime();
+    for (int r = 0; r < rounds; ++r) {
+      for (TestCatcher catcher : catchers) {
+        // through the outbox and inbox - send(name, method, data) would invoke
+        // local services directly
+        Message msg = Message.createMessage(runtime.getFullName(), catcher.getName(), "onDouble", new Object[] { (double) System.nanoTime() });
+        runtime.send(msg);
+      }
+      for (TestCatcher catcher : catchers) {
+        Message msg = null;
+        // skip any registration or status traffic
+        do {
+          msg = catcher.msgs.poll(10, TimeUnit.SECONDS);
+          if (msg == null) {
+            throw new IllegalStateException(catcher.getName() + " did not receive its message");
+          }
+        } while (!"onDouble".equals(msg.method));
+        latencies[n++] = System.nanoTime() - (long) (double) (Double) msg.data[0];
+      }
+    }
+    long totalNs = System.nanoTime() - sendTs;
+    Arrays.sort(latencies, 0, n);
+
+    System.out.println(String.format("mode %s services %d rounds %d", ServiceExecutor.getMode(), serviceCount, rounds));
+    System.out.println(String.format("startup %d ms", startupMs));
+    System.out.println(String.format("threads %d (base %d)", ManagementFactory.getThreadMXBean().getThreadCount(), baseThreads));
+    System.out.println(String.format("rss %s", getRss()));
+    System.out.println(String.format("throughput %.0f msgs/s", n / (totalNs / 1e9)));
+    System.out.println(String.format("latency us p50 %.1f p99 %.1f max %.1f", latencies[n / 2] / 1e3, latencies[(int) (n * 0.99)] / 1e3, latencies[n - 1] / 1e3));
+
+    Runtime.shutdown();
+  }
+
+}
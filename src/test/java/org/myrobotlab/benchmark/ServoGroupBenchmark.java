@@ -0,0 +1,110 @@
+package org.myrobotlab.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.myrobotlab.arduino.Msg;
+import org.myrobotlab.arduino.SerialLink;
+import org.myrobotlab.arduino.virtual.MrlComm;
+import org.myrobotlab.arduino.virtual.MrlServo;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.Arduino;
+import org.myrobotlab.service.VirtualArduino;
+import org.myrobotlab.service.interfaces.MrlCommPublisher;
+
+/**
+ * Skew of a gesture tick - every servo of an InMoov moving at once - from Msg
+ * to a virtual MrlComm over a simulated 115200 baud line with a fixed latency.
+ * "single" sends a servoMoveToMicroseconds per servo the way
+ * Arduino.onServoMoveTo does, "group" sends servoMoveGroup frames the way
+ * Arduino.onServoMoveGroup does. Skew is the time from the first command until
+ * the last servo of the tick starts moving. Stop and wait acks. Not a JMH
+ * benchmark - the line is simulated in real time.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * ServoGroupBenchmark [servos] [ticks] [latencyMs]
+ * </pre>
+ */
+public class ServoGroupBenchmark {
+
+  static void run(String mode, int servos, int ticks, double latencyMs) throws Exception {
+    MrlCommPublisher publisher = (MrlCommPublisher) Proxy.newProxyInstance(MrlCommPublisher.class.getClassLoader(), new Class<?>[] { MrlCommPublisher.class },
+        (proxy, method, args) -> ("getName".equals(method.getName())) ? "host" : null);
+    SerialLink toBoard = new SerialLink("toBoard", 115200, latencyMs);
+    SerialLink toHost = new SerialLink("toHost", 115200, latencyMs);
+    Msg msg = new Msg(publisher, toBoard.getPort());
+    msg.setInvoke(false);
+    MrlComm board = new MrlComm(new VirtualArduino("virtual", "virtual"));
+    board.begin(toHost.getPort());
+    toBoard.connect(board::onBytes);
+    toHost.connect(msg::onBytes);
+
+    board.getMsg().publishMrlCommBegin(Msg.MRLCOMM_VERSION);
+    while (!msg.isClearToSend()) {
+      Thread.sleep(1);
+    }
+    MrlServo[] devices = new MrlServo[servos];
+    for (int i = 0; i < servos; ++i) {
+      msg.servoAttach(i, 2 + i, 90, -1, "s" + i);
+      devices[i] = (MrlServo) board.getDevice(i);
+    }
+
+    double totalSkew = 0;
+    double maxSkew = 0;
+    int frames = 0;
+    for (int tick = 0; tick < ticks; ++tick) {
+      int us = 1000 + (tick % 2) * 1000;
+      long start = System.nanoTime();
+      if ("single".equals(mode)) {
+        for (int i = 0; i < servos; ++i) {
+          msg.servoMoveToMicroseconds(i, us);
+          ++frames;
+        }
+      } else {
+        int[] frame = new int[Math.min(servos, Arduino.SERVO_MOVE_GROUP_SIZE) * 5];
+        int size = 0;
+        for (int i = 0; i < servos; ++i) {
+          frame[size++] = i;
+          frame[size++] = us >> 8 & 0xFF;
+          frame[size++] = us & 0xFF;
+          frame[size++] = 0xFF;
+          frame[size++] = 0xFF;
+          if (size == frame.length || i == servos - 1) {
+            msg.servoMoveGroup(Arrays.copyOf(frame, size));
+            ++frames;
+            size = 0;
+          }
+        }
+      }
+      for (MrlServo device : devices) {
+        while (device.targetPosUs != us) {
+          Thread.sleep(0, 100000);
+        }
+      }
+      double skew = (System.nanoTime() - start) / 1e6;
+      totalSkew += skew;
+      maxSkew = Math.max(maxSkew, skew);
+    }
+
+    System.out.println(String.format("%-8s %3d servos  skew %6.1f ms avg %6.1f ms max  %5.1f frames/tick", mode, servos, totalSkew / ticks, maxSkew, (double) frames / ticks));
+
+    toBoard.disconnect();
+    toHost.disconnect();
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    int servos = (args.length > 0) ? Integer.parseInt(args[0]) : 22;
+    int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+    double latencyMs = (args.length > 2) ? Double.parseDouble(args[2]) : 1.0;
+
+    System.out.println(String.format("%d ticks, 115200 baud, %.1f ms latency", ticks, latencyMs));
+    run("single", servos, ticks, latencyMs);
+    run("group", servos, ticks, latencyMs);
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.myrobotlab.benchmark;
+
+import java.io.File;
+
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.abstracts.AbstractSpeechSynthesis;
+import org.myrobotlab.service.data.AudioData;
+
+/**
+ * Time to the first audio and the silence between sentences of a long response
+ * spoken by a speech service - the whole text synthesized before it plays (how
+ * parse worked before it split sentences), each sentence synthesized after the
+ * one before it played (look ahead 0) and the next sentences synthesized while
+ * one plays. The cache is purged before each run. Not a JMH benchmark - it
+ * needs the speech program of the service and an audio device.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * SpeechPipelineBenchmark [service type] [look ahead]
+ * </pre>
+ */
+public class SpeechPipelineBenchmark {
+
+  static final String TEXT = "Hello, I am a robot built with my robot lab. I can see with my cameras and hear with my microphone. "
+      + "When you talk to me I think of an answer and then I say it out loud. Long answers used to have a pause before every sentence. "
+      + "Now the next sentence is ready while this one plays. Thank you for listening to me.";
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    String type = (args.length > 0) ? args[0] : "LocalSpeech";
+    int lookAhead = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+
+    // before - the whole text is one part
+    AbstractSpeechSynthesis whole = (AbstractSpeechSynthesis) Runtime.start("whole", type);
+    whole.purgeCache();
+    String filename = whole.getLocalFileName(TEXT.toLowerCase());
+    new File(filename).delete();
+    long start = System.nanoTime();
+    whole.generateAudioData(new AudioData(filename), TEXT.toLowerCase());
+    System.out.println(String.format("%-12s first audio %7.1f ms", "whole text", (System.nanoTime() - start) / 1e6));
+
+    for (int ahead : new int[] { 0, lookAhead }) {
+      AbstractSpeechSynthesis speech = (AbstractSpeechSynthesis) Runtime.start("lookAhead" + ahead, type);
+      speech.purgeCache();
+      speech.setLookAhead(ahead);
+      start = System.nanoTime();
+      speech.speakBlocking(TEXT);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format("look ahead %d %6.2f s %s", ahead, seconds, speech.getSpeechStats()));
+    }
+    System.exit(0);
+  }
+
+}
@@ -0,0 +1,92 @@
+package org.myrobotlab.benchmark;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.codec.StateSync;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.interfaces.ServiceInterface;
+import org.myrobotlab.logging.LoggingFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.Servo;
+
+/**
+ * Bytes a WebGui client is sent for a session of broadcastState msgs - every
+ * state in full, the way sendRemote did, against the patches of a StateSync.
+ * The session is a file of json msgs, one per line, as sendRemote wrote them -
+ * or one is recorded from live services: a panel per service, servos changing
+ * their speed and rest one after the other and the runtime's state now and
+ * then. Not a JMH benchmark - the session is replayed once after a warm up.
+ *
+ * Run main() with the test classpath, e.g.
+ *
+ * <pre>
+ * StateSyncBenchmark [session file | panels] [updates]
+ * </pre>
+ */
+public class StateSyncBenchmark {
+
+  static List<String> record(int panels, int updates) throws Exception {
+    List<String> session = new ArrayList<>();
+    List<Servo> servos = new ArrayList<>();
+    for (int i = 0; i < panels - 1; ++i) {
+      servos.add((Servo) Runtime.start("servo" + i, "Servo"));
+    }
+    ServiceInterface runtime = Runtime.getInstance();
+    for (int i = 0; i < updates; ++i) {
+      Servo servo = servos.get(i % servos.size());
+      servo.setSpeed(20.0 + i % 50);
+      servo.setRest(80 + i % 20);
+      session.add(CodecUtils.toJsonMsg(Message.createMessage(servo.getName(), "runtime@webgui-client", "onState", new Object[] { servo })));
+      if (i % 50 == 0) {
+        session.add(CodecUtils.toJsonMsg(Message.createMessage(runtime.getName(), "runtime@webgui-client", "onState", new Object[] { runtime })));
+      }
+    }
+    for (Servo servo : servos) {
+      Runtime.release(servo.getName());
+    }
+    return session;
+  }
+
+  static long[] replay(List<String> session, boolean delta) {
+    StateSync sync = new StateSync("webgui@benchmark");
+    long bytes = 0;
+    long start = System.nanoTime();
+    for (String line : session) {
+      Message msg = CodecUtils.fromJsonMsg(line);
+      Message out = (delta) ? sync.encode(msg) : msg;
+      if (out != null) {
+        bytes += CodecUtils.toJsonMsg(out).length();
+      }
+    }
+    return new long[] { bytes, System.nanoTime() - start, sync.getFullCount(), sync.getPatchCount(), sync.getUnchangedCount() };
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoggingFactory.init("WARN");
+
+    List<String> session;
+    if (args.length > 0 && new File(args[0]).exists()) {
+      session = Files.readAllLines(new File(args[0]).toPath(), StandardCharsets.UTF_8);
+    } else {
+      int panels = (args.length > 0) ? Integer.parseInt(args[0]) : 30;
+      int updates = (args.length > 1) ? Integer.parseInt(args[1]) : 3000;
+      session = record(panels, updates);
+    }
+
+    // warm up
+    replay(session, true);
+
+    for (boolean delta : new boolean[] { false, true }) {
+      long[] r = replay(session, delta);
+      System.out.println(String.format("%-6s %6d msgs %9.1f KB sent  %6.1f us/msg  full %5d patch %5d unchanged %5d", (delta) ? "delta" : "full", session.size(), r[0] / 1024.0,
+          r[1] / 1e3 / session.size(), r[2], r[3], r[4]));
+    }
+    System.exit(0);
+  }
+
+}
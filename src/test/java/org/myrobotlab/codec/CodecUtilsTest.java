@@ -0,0 +1,150 @@
+package org.myrobotlab.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.myrobotlab.framework.MRLListener;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.MethodCache;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.TestCatcher;
+import org.slf4j.Logger;
+
+public class CodecUtilsTest {
+
+  public final static Logger log = LoggerFactory.getLogger(CodecUtilsTest.class);
+
+  static MethodCache cache;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    cache = MethodCache.getInstance();
+    cache.cacheMethodEntries(TestCatcher.class);
+  }
+
+  @After
+  public void tearDown() {
+    CodecUtils.setDoubleEncodeJsonMsg(false);
+  }
+
+  Message createMsg() {
+    Message msg = Message.createMessage("runtime@remote", "catcher@local", "testMultipleParamTypes", new Object[] { "a \"quoted\" string", 3.5, 7 });
+    msg.sendingMethod = "send";
+    msg.addHop("remote");
+    return msg;
+  }
+
+  void assertDecoded(Message msg) {
+    assertEquals("catcher@local", msg.name);
+    assertEquals("runtime@remote", msg.sender);
+    assertEquals("send", msg.sendingMethod);
+    assertEquals("testMultipleParamTypes", msg.method);
+    assertTrue(msg.containsHop("remote"));
+    Object[] params = cache.getDecodedJsonParameters(TestCatcher.class, msg.method, msg.data);
+    assertArrayEquals(new Object[] { "a \"quoted\" string", 3.5, 7 }, params);
+  }
+
+  @Test
+  public void inlineRoundTrip() {
+    Message msg = createMsg();
+    String json = CodecUtils.toJsonMsg(msg);
+    log.info("inline {}", json);
+    assertTrue(json.contains("\"encoding\":\"json-inline\""));
+    assertTrue(json.contains("\"data\":[\"a \\\"quoted\\\" string\",3.5,7]"));
+    // the msg being sent is not changed
+    assertNull(msg.encoding);
+
+    Message decoded = CodecUtils.fromJsonMsg(json);
+    assertEquals(CodecUtils.MSG_ENCODING_JSON_INLINE, decoded.encoding);
+    assertEquals(msg.msgId, decoded.msgId);
+    assertDecoded(decoded);
+  }
+
+  @Test
+  public void doubleEncodedRoundTrip() {
+    CodecUtils.setDoubleEncodeJsonMsg(true);
+    Message msg = createMsg();
+    String json = CodecUtils.toJsonMsg(msg);
+    log.info("double encoded {}", json);
+    assertTrue(json.contains("\"encoding\":\"json\""));
+
+    // same as the original two pass encoding
+    Message expected = new Message(msg);
+    expected.encoding = "json";
+    expected.data = new Object[] { CodecUtils.toJson(msg.data[0]), CodecUtils.toJson(msg.data[1]), CodecUtils.toJson(msg.data[2]) };
+    assertEquals(CodecUtils.toJson(expected), json);
+
+    Message decoded = CodecUtils.fromJsonMsg(json);
+    assertEquals(String.class, decoded.data[0].getClass());
+    assertDecoded(decoded);
+  }
+
+  @Test
+  public void relay() {
+    Message msg = createMsg();
+    Message decoded = CodecUtils.fromJsonMsg(CodecUtils.toJsonMsg(msg));
+    // relayed by a gateway without decoding the parameters
+    decoded.addHop("relay");
+    Message relayed = CodecUtils.fromJsonMsg(CodecUtils.toJsonMsg(decoded));
+    assertTrue(relayed.containsHop("relay"));
+    assertDecoded(relayed);
+  }
+
+  @Test
+  public void browserMsg() {
+    // as sent by mrl.js - encoding after data, parameters are json strings
+    String json = "{\"name\":\"catcher@local\",\"method\":\"testMultipleParamTypes\",\"sender\":\"runtime@remote\",\"sendingMethod\":\"send\","
+        + "\"historyList\":[\"remote\"],\"data\":[\"\\\"a \\\\\\\"quoted\\\\\\\" string\\\"\",\"3.5\",\"7\"],\"encoding\":\"json\"}";
+    assertDecoded(CodecUtils.fromJsonMsg(json));
+  }
+
+  @Test
+  public void whitespaceAndUnknownFields() {
+    String json = " {\n  \"name\" : \"catcher@local\",\n  \"extra\" : { \"a\" : [ 1, \"]}\" ] },\n  \"method\" : \"testMultipleParamTypes\",\n"
+        + "  \"sender\" : \"runtime@remote\", \"sendingMethod\" : \"send\", \"historyList\" : [ \"remote\" ],\n"
+        + "  \"encoding\" : \"json-inline\", \"data\" : [ \"a \\\"quoted\\\" string\" , 3.5 , 7 ]\n}\n";
+    assertDecoded(CodecUtils.fromJsonMsg(json));
+  }
+
+  @Test(expected = com.google.gson.JsonSyntaxException.class)
+  public void truncated() {
+    CodecUtils.fromJsonMsg("{\"name\":\"catcher@local\",\"data\":[\"abc");
+  }
+
+  @Test
+  public void msgIdNotations() {
+    assertEquals(1000000000000L, CodecUtils.fromJsonMsg("{\"msgId\":1.0E12,\"name\":\"catcher@local\"}").msgId);
+    assertEquals(1234L, CodecUtils.fromJsonMsg("{\"msgId\":\"1234\",\"name\":\"catcher@local\"}").msgId);
+  }
+
+  @Test
+  public void nestedObjects() throws Exception {
+    MRLListener listener = new MRLListener("publishState", "webgui@local", "onState");
+    Message msg = Message.createMessage("webgui@local", "runtime@remote", "addListener", new Object[] { listener, new double[] { 1.0, 2.5 }, null });
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CodecUtils.writeJsonMsg(msg, out);
+    String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertEquals(CodecUtils.toJsonMsg(msg), json);
+
+    Message decoded = CodecUtils.fromJsonMsg(out.toByteArray());
+    assertEquals(3, decoded.data.length);
+    assertNull(decoded.data[2]);
+    // inline parameters are kept as their json text until the target method is
+    // known
+    assertEquals(CodecUtils.toJson(listener), decoded.data[0]);
+    MRLListener l = CodecUtils.fromJson((String) decoded.data[0], MRLListener.class);
+    assertEquals("onState", l.callbackMethod);
+    double[] d = CodecUtils.fromJson((String) decoded.data[1], double[].class);
+    assertEquals(2.5, d[1], 0.0);
+  }
+
+}
@@ -0,0 +1,169 @@
+package org.myrobotlab.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.myrobotlab.framework.MRLListener;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.framework.MethodCache;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.TestCatcher;
+import org.slf4j.Logger;
+
+public class MessageCodecTest {
+
+  public final static Logger log = LoggerFactory.getLogger(MessageCodecTest.class);
+
+  static MethodCache cache;
+
+  final MessageCodec msgpack = MessageCodecs.get(MsgPackMessageCodec.KEY);
+  final MessageCodec json = MessageCodecs.get(JsonMessageCodec.KEY);
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    cache = MethodCache.getInstance();
+    cache.cacheMethodEntries(TestCatcher.class);
+  }
+
+  Message createMsg(String method, Object... data) {
+    Message msg = Message.createMessage("runtime@remote", "catcher@local", method, data);
+    msg.sendingMethod = "send";
+    msg.addHop("remote");
+    msg.setProperty("uuid", "1234");
+    return msg;
+  }
+
+  Object[] decodeParams(MessageCodec codec, Message msg) throws IOException {
+    Message decoded = MessageCodecs.decode(codec.encode(msg));
+    assertEquals(msg.msgId, decoded.msgId);
+    assertEquals(msg.name, decoded.name);
+    assertEquals(msg.sender, decoded.sender);
+    assertEquals(msg.sendingMethod, decoded.sendingMethod);
+    assertEquals(msg.method, decoded.method);
+    assertEquals(msg.getHops(), decoded.getHops());
+    assertEquals("1234", decoded.getProperty("uuid"));
+    return cache.getDecodedJsonParameters(TestCatcher.class, decoded.method, decoded.data);
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    for (MessageCodec codec : new MessageCodec[] { msgpack, json }) {
+      Object[] params = decodeParams(codec, createMsg("testMultipleParamTypes", "a \"quoted\" string - ünïcödé", 3.5, 7));
+      assertArrayEquals(new Object[] { "a \"quoted\" string - ünïcödé", 3.5, 7 }, params);
+
+      double[] d = new double[] { 1.0, -2.5, Double.MAX_VALUE };
+      params = decodeParams(codec, createMsg("testDoubleArray", d));
+      assertArrayEquals(d, (double[]) params[0], 0.0);
+
+      byte[] b = new byte[300];
+      Arrays.fill(b, (byte) 0xfe);
+      params = decodeParams(codec, createMsg("onBytes", b));
+      assertArrayEquals(b, (byte[]) params[0]);
+
+      int[] i = new int[] { 0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE };
+      params = decodeParams(codec, createMsg("getPin", i));
+      assertArrayEquals(i, (int[]) params[0]);
+
+      params = decodeParams(codec, createMsg("catchBall", new TestCatcher.Ball()));
+      assertEquals(TestCatcher.Ball.class, params[0].getClass());
+    }
+  }
+
+  @Test
+  public void nativeParameters() throws Exception {
+    int[] i = new int[] { 1, 2, 3 };
+    long[] l = new long[] { Long.MIN_VALUE, 0, Long.MAX_VALUE };
+    float[] f = new float[] { 0.5f, -1.0f };
+    // NaN has no json representation
+    double[] d = new double[] { 0.25, 1e300, Double.NaN };
+    byte[] b = new byte[] { 0, 1, -1 };
+    Message msg = createMsg("anything", i, l, f, d, b, 7, 3000000000L, 2.5, 1.5f, true, null, "text", new MRLListener("a", "b", "c"));
+    byte[] data = msgpack.encode(msg);
+    Message decoded = msgpack.decode(data, 0, data.length);
+
+    assertArrayEquals(i, (int[]) decoded.data[0]);
+    assertArrayEquals(l, (long[]) decoded.data[1]);
+    assertArrayEquals(f, (float[]) decoded.data[2], 0.0f);
+    assertArrayEquals(d, (double[]) decoded.data[3], 0.0);
+    assertArrayEquals(b, (byte[]) decoded.data[4]);
+    assertEquals(7, decoded.data[5]);
+    assertEquals(3000000000L, decoded.data[6]);
+    assertEquals(2.5, decoded.data[7]);
+    assertEquals(1.5f, decoded.data[8]);
+    assertEquals(true, decoded.data[9]);
+    assertNull(decoded.data[10]);
+    // strings and objects are json text until the target method is known
+    assertEquals("\"text\"", decoded.data[11]);
+    assertEquals(CodecUtils.toJson(new MRLListener("a", "b", "c")), decoded.data[12]);
+  }
+
+  @Test
+  public void coercion() throws Exception {
+    // numbers are carried with the type they were sent with - they are
+    // converted to the declared parameter type
+    Object[] params = decodeParams(msgpack, createMsg("onDouble", 7));
+    assertEquals(7.0, params[0]);
+    params = decodeParams(msgpack, createMsg("onInteger", 7L));
+    assertEquals(7, params[0]);
+  }
+
+  @Test
+  public void nullSkipsPrimitiveOverload() throws Exception {
+    // a null speed can only be a Double - onSpeed(double) sorts first
+    for (MessageCodec codec : new MessageCodec[] { msgpack, json }) {
+      Object[] params = decodeParams(codec, createMsg("onSpeed", (Object) null));
+      assertEquals(1, params.length);
+      assertNull(params[0]);
+      // no overload takes a null
+      assertNull(decodeParams(codec, createMsg("onDouble", (Object) null)));
+    }
+  }
+
+  @Test
+  public void relay() throws Exception {
+    double[] d = new double[] { 1.0, 2.0 };
+    Message msg = createMsg("testMultipleParamTypes", "relayed", 3.5, 7);
+    Message arrays = createMsg("testDoubleArray", d);
+
+    // binary -> json -> binary without decoding the parameters
+    for (Message m : new Message[] { msg, arrays }) {
+      Message hop1 = MessageCodecs.decode(msgpack.encode(m));
+      Message hop2 = MessageCodecs.decode(json.encode(hop1));
+      Message hop3 = MessageCodecs.decode(msgpack.encode(hop2));
+      Object[] params = cache.getDecodedJsonParameters(TestCatcher.class, hop3.method, hop3.data);
+      if (m == msg) {
+        assertArrayEquals(new Object[] { "relayed", 3.5, 7 }, params);
+      } else {
+        assertArrayEquals(d, (double[]) params[0], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void negotiate() {
+    assertEquals(MsgPackMessageCodec.KEY, MessageCodecs.negotiate(Arrays.asList("json", "msgpack")));
+    assertEquals(MsgPackMessageCodec.KEY, MessageCodecs.negotiate("json, msgpack"));
+    assertEquals(JsonMessageCodec.KEY, MessageCodecs.negotiate(Arrays.asList("json", "cbor")));
+    assertEquals(JsonMessageCodec.KEY, MessageCodecs.negotiate(null));
+    assertEquals(JsonMessageCodec.KEY, MessageCodecs.get("cbor").getKey());
+    assertTrue(MessageCodecs.getKeys().contains(JsonMessageCodec.KEY));
+
+    assertTrue(msgpack.isBinary());
+    assertFalse(json.isBinary());
+  }
+
+  @Test(expected = IOException.class)
+  public void truncated() throws Exception {
+    byte[] data = msgpack.encode(createMsg("testDoubleArray", new double[] { 1.0, 2.0 }));
+    MessageCodecs.decode(Arrays.copyOf(data, data.length - 3));
+  }
+
+}
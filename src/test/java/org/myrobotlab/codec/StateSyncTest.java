@@ -0,0 +1,111 @@
+package org.myrobotlab.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.myrobotlab.framework.Message;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+public class StateSyncTest {
+
+  public final static Logger log = LoggerFactory.getLogger(StateSyncTest.class);
+
+  public static class State {
+    public String name = "servo01";
+    public double currentInputPos = 90;
+    public boolean enabled = true;
+    public List<String> listeners = new ArrayList<>();
+    public Map<String, String> tasks = new TreeMap<>();
+    public String description = "a servo with a long enough description to make the state larger than its patches - as the state of most services is";
+    public double[] limits = new double[] { 0, 180, 0, 180, 10, 170 };
+  }
+
+  static Message state(State state) {
+    Message msg = Message.createMessage("servo01@local", "runtime@webgui-client", "onState", new Object[] { state });
+    msg.sendingMethod = "publishState";
+    msg.setProperty("uuid", "1234");
+    return msg;
+  }
+
+  @Test
+  public void diffApply() {
+    JsonElement a = CodecUtils.parseJson("{\"a/b\":1,\"list\":[1,2,3],\"gone\":true,\"o\":{\"x\":[{\"y\":1}]}}");
+    JsonElement b = CodecUtils.parseJson("{\"a/b\":2,\"list\":[1,5],\"added\":\"s\",\"o\":{\"x\":[{\"y\":1},{\"y\":2}]}}");
+    JsonArray ops = JsonPatch.diff(a, b);
+    log.info("{}", ops);
+    assertTrue(ops.toString().contains("/a~1b"));
+    assertEquals(b, JsonPatch.apply(a.deepCopy(), ops));
+    assertEquals(a, JsonPatch.apply(b.deepCopy(), JsonPatch.diff(b, a)));
+    assertEquals(0, JsonPatch.diff(a, a.deepCopy()).size());
+    // different types - the whole document
+    assertEquals(b, JsonPatch.apply(CodecUtils.parseJson("[1]"), JsonPatch.diff(CodecUtils.parseJson("[1]"), b)));
+  }
+
+  @Test
+  public void encode() {
+    StateSync sync = new StateSync("webgui@local");
+    State state = new State();
+    state.listeners.add("publishMoveTo");
+
+    Message full = sync.encode(state(state));
+    assertEquals("onState", full.method);
+    assertEquals(1L, full.getProperty(StateSync.PROPERTY_SEQ));
+    assertEquals("1234", full.getProperty("uuid"));
+    JsonElement client = (JsonElement) full.data[0];
+
+    state.currentInputPos = 91.5;
+    state.tasks.put("sweep", "100");
+    Message patch = sync.encode(state(state));
+    assertEquals(StateSync.METHOD_PATCH, patch.method);
+    JsonObject data = (JsonObject) patch.data[0];
+    assertEquals(1, data.get("base").getAsLong());
+    assertEquals(2, data.get("seq").getAsLong());
+    assertEquals("webgui@local", data.get("gateway").getAsString());
+    client = JsonPatch.apply(client, data.getAsJsonArray("ops"));
+    assertEquals(CodecUtils.toJsonTree(state), client);
+    // what goes on the wire
+    assertTrue(CodecUtils.toJsonMsg(patch).length() < CodecUtils.toJsonMsg(full).length());
+
+    // nothing to send
+    assertNull(sync.encode(state(state)));
+    assertEquals(1, sync.getUnchangedCount());
+
+    // not state
+    Message other = Message.createMessage("servo01@local", "runtime@webgui-client", "onMoveTo", new Object[] { 3 });
+    assertSame(other, sync.encode(other));
+
+    // asked for - or too big a change
+    sync.reset("servo01@local");
+    assertEquals(3L, sync.encode(state(state)).getProperty(StateSync.PROPERTY_SEQ));
+    state.description = state.description.toUpperCase();
+    assertEquals("onState", sync.encode(state(state)).method);
+    assertEquals(2, sync.getFullCount() - sync.getPatchCount());
+
+    // periodic
+    sync.setResyncMs(1);
+    state.currentInputPos = 10;
+    sleep(5);
+    assertEquals("onState", sync.encode(state(state)).method);
+  }
+
+  static void sleep(int ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+    }
+  }
+
+}
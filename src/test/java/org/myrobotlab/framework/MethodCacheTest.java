@@ -133,6 +133,26 @@ public class MethodCacheTest extends AbstractTest {
 
   }
 
+  @Test
+  public void dispatchTest() throws IllegalAccessException, InvocationTargetException, ClassNotFoundException {
+
+    DispatchEntry entry = cache.getDispatchEntry(TestCatcher.class, "getPin", 3);
+    assertEquals("dispatch int to primitive param", 7, entry.invoke(tester, 7));
+    assertTrue("same signature resolves to the same entry", entry == cache.getDispatchEntry(TestCatcher.class, "getPin", 9));
+
+    entry = cache.getDispatchEntry(TestCatcher.class, "invokeTest", "echo");
+    assertEquals("dispatch string param", "echo", entry.invoke(tester, "echo"));
+
+    entry = cache.getDispatchEntry(TestCatcher.class, "invokeTest", (HttpDataListener) tester);
+    assertEquals("dispatch overloaded interface param", tester, entry.invoke(tester, tester));
+
+    entry = cache.getDispatchEntry(TestCatcher.class, "testMultipleParamTypes", "hello world", null, 3);
+    assertEquals("dispatch with null param", "hello world", entry.invoke(tester, "hello world", null, 3));
+
+    entry = cache.getDispatchEntry(TestCatcher.class, "isRunning");
+    assertNotNull("dispatch inherited no param method", entry.invoke(tester));
+  }
+
   @Test
   public void ancestorTest() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, ClassNotFoundException {
 
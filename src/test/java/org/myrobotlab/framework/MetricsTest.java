@@ -0,0 +1,162 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+public class MetricsTest {
+
+  public final static Logger log = LoggerFactory.getLogger(MetricsTest.class);
+
+  @After
+  public void tearDown() {
+    Metrics.setEnabled(false);
+  }
+
+  @Test
+  public void buckets() {
+    // every value lands in a bucket whose upper bound is within 12.5%
+    long last = -1;
+    for (long v = 0; v < (1L << 41); v = v * 3 / 2 + 1) {
+      int bucket = Histogram.getBucket(v);
+      long upper = Histogram.getBucketValue(bucket);
+      assertTrue(v + " above its bucket " + upper, v <= upper);
+      assertTrue(v + " too far below its bucket " + upper, upper - v <= Math.max(0, v / 8));
+      if (bucket > 0) {
+        assertTrue(v + " below the previous bucket", v > Histogram.getBucketValue(bucket - 1));
+      }
+      assertTrue(bucket >= last);
+      last = bucket;
+    }
+    assertEquals(Histogram.BUCKETS - 1, Histogram.getBucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void percentiles() {
+    Histogram h = new Histogram();
+    for (int i = 1; i <= 1000; ++i) {
+      h.record(i * 1000L);
+    }
+    Histogram.Summary s = h.getSummary();
+    assertEquals(1000, s.count);
+    assertEquals(1000000, s.max);
+    assertEquals(500500.0, s.mean, 0.0);
+    assertEquals(500000, s.p50, 500000 / 8);
+    assertEquals(900000, s.p90, 900000 / 8);
+    assertEquals(990000, s.p99, 990000 / 8);
+    assertTrue(s.p99 <= s.max);
+
+    h.reset();
+    assertEquals(0, h.getCount());
+    assertEquals(0, h.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void concurrentRecording() throws Exception {
+    final Histogram h = new Histogram();
+    final int threads = 4;
+    final int count = 100000;
+    List<Thread> list = new ArrayList<>();
+    for (int t = 0; t < threads; ++t) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < count; ++i) {
+          h.record(i);
+        }
+      });
+      list.add(thread);
+      thread.start();
+    }
+    for (Thread t : list) {
+      t.join();
+    }
+    assertEquals(threads * count, h.getCount());
+    assertEquals(count - 1, h.getMax());
+    assertEquals(threads * ((long) count * (count - 1) / 2), h.getSum());
+  }
+
+  @Test
+  public void inboxHooks() throws Exception {
+    Inbox inbox = new Inbox("metrics-test");
+    ServiceMetrics metrics = new ServiceMetrics("metrics-test");
+    inbox.setMetrics(metrics);
+
+    // disabled - nothing recorded, nothing stamped
+    Message msg = Message.createMessage("sender", "metrics-test", "onInt", 1);
+    inbox.add(msg);
+    assertEquals(0, inbox.getMsg().enqueued);
+    assertEquals(0, metrics.enqueued.sum());
+
+    Metrics.setEnabled(true);
+    inbox.add(Message.createMessage("sender", "metrics-test", "onInt", 2));
+    Message m = inbox.getMsg();
+    assertTrue(m.enqueued != 0);
+    metrics.recordProcessed(System.nanoTime() - m.enqueued);
+    metrics.recordInvoke("onInt", 1500);
+    metrics.recordPublish("publishInt", 3, 2500);
+
+    ServiceStats stats = metrics.snapshot(inbox.size(), 0);
+    assertEquals("metrics-test", stats.name);
+    assertEquals(1, stats.enqueued);
+    assertEquals(1, stats.processed);
+    assertEquals(1, stats.total);
+    assertEquals(1, stats.inboxLatency.count);
+    assertEquals(1500, stats.invoke.get("onInt").max);
+    assertEquals(3, stats.topics.get("publishInt").deliveries);
+    assertEquals(1, stats.topics.get("publishInt").published);
+
+    // a snapshot changes nothing - interval is since the previous snapshot
+    // passed in
+    assertEquals(1, metrics.snapshot(0, 0).interval);
+    assertEquals(0, metrics.snapshot(0, 0, stats).interval);
+    assertEquals(1, metrics.snapshot(0, 0).processed);
+  }
+
+  @Test
+  public void prometheus() {
+    ServiceMetrics metrics = new ServiceMetrics("servo \"01\"");
+    metrics.recordEnqueued();
+    metrics.recordProcessed(2000);
+    metrics.recordInvoke("moveTo", 1000000);
+    metrics.recordPublish("publishServoEvent", 2, 5000);
+    ServiceMetrics empty = new ServiceMetrics("runtime");
+
+    String text = Metrics.toPrometheus(Arrays.asList(metrics.snapshot(3, 0), empty.snapshot(0, 0)));
+    log.info("\n{}", text);
+
+    String[] lines = text.split("\n");
+    assertEquals("# HELP mrl_inbox_depth messages waiting in the inbox", lines[0]);
+    assertEquals("# TYPE mrl_inbox_depth gauge", lines[1]);
+    assertEquals("mrl_inbox_depth{service=\"servo \\\"01\\\"\"} 3", lines[2]);
+    assertEquals("mrl_inbox_depth{service=\"runtime\"} 0", lines[3]);
+
+    assertTrue(text.contains("# TYPE mrl_invoke_duration_seconds summary\n"));
+    assertTrue(text.contains("mrl_invoke_duration_seconds{service=\"servo \\\"01\\\"\",method=\"moveTo\",quantile=\"0.99\"} 0.001\n"));
+    assertTrue(text.contains("mrl_invoke_duration_seconds_count{service=\"servo \\\"01\\\"\",method=\"moveTo\"} 1\n"));
+    assertTrue(text.contains("mrl_publish_deliveries_total{service=\"servo \\\"01\\\"\",topic=\"publishServoEvent\"} 2\n"));
+
+    // a header is written once per family
+    int headers = 0;
+    for (String line : lines) {
+      if (line.startsWith("# TYPE mrl_inbox_latency_seconds ")) {
+        ++headers;
+      }
+    }
+    assertEquals(1, headers);
+  }
+
+  @Test
+  public void escape() {
+    assertEquals("plain", Metrics.escape("plain"));
+    assertEquals("a\\\\b\\\"c\\nd", Metrics.escape("a\\b\"c\nd"));
+    assertEquals("", Metrics.escape(null));
+  }
+
+}
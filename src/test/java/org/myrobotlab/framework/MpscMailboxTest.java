@@ -0,0 +1,160 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.myrobotlab.framework.interfaces.Mailbox.OverflowPolicy;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+public class MpscMailboxTest {
+
+  public final static Logger log = LoggerFactory.getLogger(MpscMailboxTest.class);
+
+  static Message msg(String sender, String method, Object data) {
+    return Message.createMessage(sender, "catcher", method, data);
+  }
+
+  @Test
+  public void fifoAndCapacity() throws InterruptedException {
+    MpscMailbox box = new MpscMailbox(5);
+    assertEquals("rounded to power of 2", 8, box.capacity());
+    for (int i = 0; i < 8; ++i) {
+      assertTrue(box.add(msg("s", "onInt", i)));
+    }
+    assertFalse("full drops newest", box.add(msg("s", "onInt", 8)));
+    assertEquals(1, box.getDropCount());
+    assertEquals(8, box.size());
+    for (int i = 0; i < 8; ++i) {
+      assertEquals(i, box.take().data[0]);
+    }
+    assertNull(box.poll());
+    assertEquals(0, box.size());
+  }
+
+  @Test
+  public void dropOldest() {
+    MpscMailbox box = new MpscMailbox(4, OverflowPolicy.DROP_OLDEST);
+    for (int i = 0; i < 6; ++i) {
+      assertTrue(box.add(msg("s", "onInt", i)));
+    }
+    assertEquals(2, box.getDropCount());
+    assertEquals(2, box.poll().data[0]);
+  }
+
+  @Test
+  public void coalesce() {
+    MpscMailbox box = new MpscMailbox(16, OverflowPolicy.COALESCE);
+    for (int i = 0; i < 10; ++i) {
+      box.add(msg("servo01", "onServoData", i));
+      box.add(msg("servo02", "onServoData", i * 10));
+    }
+    assertEquals("one slot per topic", 2, box.size());
+    assertEquals(9, box.poll().data[0]);
+    assertEquals(90, box.poll().data[0]);
+    assertNull(box.poll());
+    // topic is free again after being taken
+    box.add(msg("servo01", "onServoData", 11));
+    assertEquals(11, box.poll().data[0]);
+  }
+
+  @Test
+  public void blockingProducer() throws InterruptedException {
+    MpscMailbox box = new MpscMailbox(2, OverflowPolicy.BLOCK);
+    box.add(msg("s", "onInt", 0));
+    box.add(msg("s", "onInt", 1));
+    CountDownLatch added = new CountDownLatch(1);
+    Thread producer = new Thread(() -> {
+      box.add(msg("s", "onInt", 2));
+      added.countDown();
+    }, "producer");
+    producer.start();
+    assertFalse("producer should wait on full mailbox", added.await(100, TimeUnit.MILLISECONDS));
+    assertEquals(0, box.take().data[0]);
+    assertTrue(added.await(1000, TimeUnit.MILLISECONDS));
+    assertEquals(0, box.getDropCount());
+  }
+
+  @Test
+  public void blockedProducersAllWoken() throws InterruptedException {
+    final int producers = 4;
+    MpscMailbox box = new MpscMailbox(4, OverflowPolicy.BLOCK);
+    for (int i = 0; i < 4; ++i) {
+      box.add(msg("s", "onInt", i));
+    }
+    CountDownLatch added = new CountDownLatch(producers);
+    for (int p = 0; p < producers; ++p) {
+      final String sender = "p" + p;
+      new Thread(() -> {
+        box.add(msg(sender, "onInt", 0));
+        added.countDown();
+      }, sender).start();
+    }
+    long start = System.currentTimeMillis();
+    while (box.producers.size() < producers && System.currentTimeMillis() - start < 1000) {
+      Thread.sleep(5);
+    }
+    assertEquals(producers, box.producers.size());
+
+    // free every slot at once - then nothing is taken anymore, each
+    // blocked producer must still find its room
+    for (int i = 0; i < 4; ++i) {
+      assertEquals(i, box.poll().data[0]);
+    }
+    assertTrue(added.await(1000, TimeUnit.MILLISECONDS));
+    assertEquals(producers, box.size());
+    assertEquals(0, box.getDropCount());
+  }
+
+  @Test
+  public void multipleProducers() throws InterruptedException {
+    final int producers = 4;
+    final int count = 20000;
+    MpscMailbox box = new MpscMailbox(64, OverflowPolicy.BLOCK);
+    for (int p = 0; p < producers; ++p) {
+      final String sender = "p" + p;
+      new Thread(() -> {
+        for (int i = 0; i < count; ++i) {
+          box.add(msg(sender, "onInt", i));
+        }
+      }, sender).start();
+    }
+
+    // per-producer ordering must be kept
+    Map<String, Integer> last = new HashMap<>();
+    for (int i = 0; i < producers * count; ++i) {
+      Message m = box.take();
+      Integer prev = last.get(m.sender);
+      int value = (Integer) m.data[0];
+      assertEquals((prev == null) ? 0 : prev + 1, value);
+      last.put(m.sender, value);
+    }
+    assertNull(box.poll());
+  }
+
+  @Test
+  public void interruptedTake() throws InterruptedException {
+    MpscMailbox box = new MpscMailbox(4);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Thread consumer = new Thread(() -> {
+      try {
+        box.take();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    }, "consumer");
+    consumer.start();
+    Thread.sleep(50);
+    consumer.interrupt();
+    assertTrue(interrupted.await(1000, TimeUnit.MILLISECONDS));
+  }
+
+}
@@ -0,0 +1,112 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.TestCatcher;
+import org.myrobotlab.test.AbstractTest;
+import org.slf4j.Logger;
+
+public class PublishPolicyTest extends AbstractTest {
+
+  public final static Logger log = LoggerFactory.getLogger(PublishPolicyTest.class);
+
+  static List<Object> data(TestCatcher catcher) {
+    List<Object> ret = new ArrayList<>();
+    for (Message msg : catcher.msgs) {
+      ret.add(msg.data[0]);
+    }
+    return ret;
+  }
+
+  @Test
+  public void resolution() {
+    TestCatcher pub = (TestCatcher) Runtime.start("policyResolve", "TestCatcher");
+    assertNull(pub.getPublishPolicy("publishState", "ui"));
+
+    pub.setPublishPolicy("publishState", PublishPolicy.changeOnly());
+    pub.setPublishPolicy("publishState", Outbox.REMOTE, PublishPolicy.latest(10));
+    pub.setPublishPolicy("publishState", "control", PublishPolicy.maxRate(0));
+
+    assertTrue(pub.getPublishPolicy("publishState", "ui").changeOnly);
+    assertTrue(pub.getPublishPolicy("publishState", "webgui@remote-id").latest);
+    assertEquals(0, pub.getPublishPolicy("publishState", "control").maxRateHz, 0);
+    assertNull(pub.getPublishPolicy("publishStatus", "ui"));
+
+    pub.setPublishPolicy("publishState", Outbox.REMOTE, null);
+    assertTrue(pub.getPublishPolicy("publishState", "webgui@remote-id").changeOnly);
+    Runtime.release("policyResolve");
+  }
+
+  @Test
+  public void maxRate() throws Exception {
+    TestCatcher pub = (TestCatcher) Runtime.start("policyRate", "TestCatcher");
+    Outbox outbox = pub.getOutbox();
+    MRLListener listener = new MRLListener("testDouble", "ui", "onDouble");
+    outbox.setPublishPolicy("testDouble", "ui", PublishPolicy.maxRate(10));
+    Message msg = Message.createMessage("policyRate", "ui", "onDouble", new Object[] { 1.0 });
+
+    assertTrue(outbox.admit("testDouble", listener, msg));
+    assertFalse(outbox.admit("testDouble", listener, msg));
+    assertFalse(outbox.admit("testDouble", listener, msg));
+    assertEquals(2, outbox.getSuppressedCount());
+    sleep(120);
+    assertTrue(outbox.admit("testDouble", listener, msg));
+    // others are not limited
+    assertTrue(outbox.admit("testDouble", new MRLListener("testDouble", "control", "onDouble"), msg));
+    Runtime.release("policyRate");
+  }
+
+  @Test
+  public void latestPerSubscriber() throws Exception {
+    TestCatcher pub = (TestCatcher) Runtime.start("policyPub", "TestCatcher");
+    TestCatcher control = (TestCatcher) Runtime.start("policyControl", "TestCatcher");
+    TestCatcher ui = (TestCatcher) Runtime.start("policyUi", "TestCatcher");
+    control.subscribe("policyPub", "testDouble", "policyControl", "onDouble");
+    ui.subscribe("policyPub", "testDouble", "policyUi", "onDouble");
+    sleep(100);
+    control.clear();
+    ui.clear();
+
+    pub.setPublishPolicy("testDouble", "policyUi", PublishPolicy.latest(10));
+    for (int i = 0; i < 20; ++i) {
+      pub.invoke("testDouble", (double) i);
+    }
+    control.waitForMsgs(20);
+    // the first and - when it is due - the newest
+    ui.waitForMsgs(2);
+    sleep(250);
+    log.info("control {} ui {}", data(control), data(ui));
+    assertEquals(20, control.msgs.size());
+    assertEquals(2, ui.msgs.size());
+    assertEquals(0.0, data(ui).get(0));
+    assertEquals(19.0, data(ui).get(1));
+
+    // only changes
+    control.clear();
+    ui.clear();
+    pub.setPublishPolicy("testDouble", "policyUi", null);
+    pub.setPublishPolicy("testDouble", PublishPolicy.changeOnly());
+    for (double d : new double[] { 1, 1, 2, 2, 2, 1 }) {
+      pub.invoke("testDouble", d);
+    }
+    control.waitForMsgs(3);
+    ui.waitForMsgs(3);
+    sleep(100);
+    assertEquals(3, control.msgs.size());
+    assertEquals("[1.0, 2.0, 1.0]", data(ui).toString());
+
+    Runtime.release("policyPub");
+    Runtime.release("policyControl");
+    Runtime.release("policyUi");
+  }
+
+}
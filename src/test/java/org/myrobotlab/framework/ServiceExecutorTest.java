@@ -0,0 +1,87 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.myrobotlab.framework.interfaces.Mailbox;
+import org.myrobotlab.framework.interfaces.Mailbox.OverflowPolicy;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+public class ServiceExecutorTest {
+
+  public final static Logger log = LoggerFactory.getLogger(ServiceExecutorTest.class);
+
+  @Test
+  public void drainInOrder() throws Exception {
+    final int producers = 4;
+    final int count = 20000;
+    final Mailbox box = new MpscMailbox(1024, OverflowPolicy.BLOCK);
+    final CountDownLatch done = new CountDownLatch(producers * count);
+    final AtomicInteger inHandler = new AtomicInteger();
+    final AtomicBoolean overlapped = new AtomicBoolean();
+    final int[] last = new int[producers];
+    final AtomicBoolean outOfOrder = new AtomicBoolean();
+
+    final ServiceExecutor.Drain drain = new ServiceExecutor.Drain("test", () -> box, msg -> {
+      if (inHandler.incrementAndGet() != 1) {
+        overlapped.set(true);
+      }
+      int producer = (Integer) msg.data[0];
+      int seq = (Integer) msg.data[1];
+      // only the drain touches last - no synchronization needed if it is
+      // never run concurrently
+      if (seq != last[producer] + 1) {
+        outOfOrder.set(true);
+      }
+      last[producer] = seq;
+      inHandler.decrementAndGet();
+      done.countDown();
+    });
+
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; ++p) {
+      final int producer = p;
+      Thread t = new Thread(() -> {
+        for (int i = 1; i <= count; ++i) {
+          if (box.add(Message.createMessage("sender", "test", "onInt", new Object[] { producer, i }))) {
+            drain.signal();
+          }
+        }
+      }, "producer-" + p);
+      threads.add(t);
+      t.start();
+    }
+
+    assertEquals(true, done.await(30, TimeUnit.SECONDS));
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertFalse("drain ran on two threads at once", overlapped.get());
+    assertFalse("messages of a producer were reordered", outOfOrder.get());
+    assertEquals(0, box.size());
+  }
+
+  @Test
+  public void newThreadThreadMode() {
+    ServiceExecutor.ExecutionMode mode = ServiceExecutor.getMode();
+    try {
+      ServiceExecutor.setMode(ServiceExecutor.ExecutionMode.THREAD);
+      Thread t = ServiceExecutor.newThread(() -> {
+      }, "executor-test");
+      assertEquals("executor-test", t.getName());
+      assertEquals(Thread.State.NEW, t.getState());
+    } finally {
+      ServiceExecutor.setMode(mode);
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.Test;
+import org.myrobotlab.framework.interfaces.ServiceInterface;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+public class ServiceRegistryTest {
+
+  public final static Logger log = LoggerFactory.getLogger(ServiceRegistryTest.class);
+
+  public interface Widget {
+  }
+
+  /**
+   * lightweight stand-in for a service - only name, id and type are answered
+   */
+  static ServiceInterface createService(String name, String id, String type, Class<?>... interfaces) {
+    Class<?>[] all = new Class<?>[interfaces.length + 1];
+    all[0] = ServiceInterface.class;
+    System.arraycopy(interfaces, 0, all, 1, interfaces.length);
+    return (ServiceInterface) Proxy.newProxyInstance(ServiceRegistryTest.class.getClassLoader(), all, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getName":
+          return name;
+        case "getId":
+          return id;
+        case "getType":
+          return type;
+        case "getFullName":
+          return name + "@" + id;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        case "toString":
+          return name + "@" + id;
+        default:
+          return null;
+      }
+    });
+  }
+
+  @Test
+  public void indexes() {
+    String localId = Platform.getLocalInstance().getId();
+    ServiceRegistry registry = new ServiceRegistry();
+
+    ServiceInterface servo = createService("servo01", localId, "org.myrobotlab.service.Servo", Widget.class);
+    ServiceInterface clock = createService("clock01", localId, "org.myrobotlab.service.Clock");
+    ServiceInterface remote = createService("servo01", "remote-id", "org.myrobotlab.service.Servo", Widget.class);
+
+    registry.put("servo01@" + localId, servo);
+    registry.put("clock01@" + localId, clock);
+    registry.put("servo01@remote-id", remote);
+
+    assertEquals(3, registry.size());
+
+    // short names resolve to local services
+    assertSame(servo, registry.get("servo01"));
+    assertSame(servo, registry.get("servo01@" + localId));
+    assertSame(remote, registry.get("servo01@remote-id"));
+    assertNull(registry.get("nothere"));
+    assertNull(registry.get(null));
+
+    assertEquals(2, registry.getByType("org.myrobotlab.service.Servo").size());
+    assertEquals(1, registry.getByType("org.myrobotlab.service.Clock").size());
+    assertEquals(2, registry.getByInterface(Widget.class).size());
+    assertEquals(3, registry.getByInterface(ServiceInterface.class).size());
+    assertEquals(2, registry.getById(localId).size());
+    assertEquals(1, registry.getById("remote-id").size());
+
+    // replace
+    ServiceInterface servo2 = createService("servo01", localId, "org.myrobotlab.service.Servo", Widget.class);
+    assertSame(servo, registry.put("servo01@" + localId, servo2));
+    assertSame(servo2, registry.get("servo01"));
+    assertEquals(2, registry.getByType("org.myrobotlab.service.Servo").size());
+
+    // remove
+    assertSame(servo2, registry.remove("servo01@" + localId));
+    assertNull(registry.get("servo01"));
+    assertEquals(1, registry.getByInterface(Widget.class).size());
+    assertEquals(1, registry.getById(localId).size());
+    assertTrue(registry.getByType("org.myrobotlab.service.Nothing").isEmpty());
+  }
+
+  @Test
+  public void snapshotIteration() {
+    String localId = Platform.getLocalInstance().getId();
+    ServiceRegistry registry = new ServiceRegistry();
+    for (int i = 0; i < 100; ++i) {
+      registry.put(String.format("s%03d@%s", i, localId), createService(String.format("s%03d", i), localId, "org.myrobotlab.service.Clock"));
+    }
+
+    // releasing while iterating must not throw
+    List<String> names = registry.getNames();
+    assertEquals("s000@" + localId, names.get(0));
+    for (String name : names) {
+      registry.remove(name);
+    }
+    for (ServiceInterface si : registry.getServices()) {
+      registry.remove(si.getFullName());
+    }
+    assertEquals(0, registry.size());
+    assertTrue(registry.getById(localId).isEmpty());
+  }
+
+}
@@ -0,0 +1,163 @@
+package org.myrobotlab.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.StartupPlanner.Entry;
+import org.myrobotlab.framework.StartupPlanner.Timeline;
+import org.myrobotlab.io.FileIO;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.config.ArduinoConfig;
+import org.myrobotlab.service.config.ClockConfig;
+import org.myrobotlab.service.config.RuntimeConfig;
+import org.myrobotlab.service.config.ServoConfig;
+import org.myrobotlab.service.config.TrackingConfig;
+import org.myrobotlab.test.AbstractTest;
+import org.slf4j.Logger;
+
+public class StartupPlannerTest extends AbstractTest {
+
+  public final static Logger log = LoggerFactory.getLogger(StartupPlannerTest.class);
+
+  static ServoConfig servo(String controller) {
+    ServoConfig sc = new ServoConfig();
+    sc.controller = controller;
+    return sc;
+  }
+
+  @Test
+  public void edges() {
+    StartupPlanner planner = new StartupPlanner();
+    planner.add("arduino", new ArduinoConfig());
+    planner.add("neck", servo("arduino"));
+    // named before its controller - registry order is kept as it was
+    planner.add("jaw", servo("arduino2"));
+    planner.add("arduino2", new ArduinoConfig());
+    ClockConfig clock = new ClockConfig();
+    clock.startAfter = new String[] { "jaw", "notInRegistry" };
+    planner.add("clock", clock);
+    TrackingConfig tracking = new TrackingConfig();
+    tracking.tilt = "neck";
+    planner.add("track", tracking);
+    planner.add("track.pan", servo(null));
+    planner.plan();
+
+    assertEquals("[arduino]", planner.getDependsOn("neck").toString());
+    assertTrue(planner.getDependsOn("jaw").isEmpty());
+    assertTrue(planner.getDependsOn("arduino2").isEmpty());
+    assertEquals("[jaw]", planner.getDependsOn("clock").toString());
+    // peers - named in config or by default
+    assertTrue(planner.getDependsOn("track").contains("neck"));
+    assertTrue(planner.getDependsOn("track").contains("track.pan"));
+    assertEquals(2, planner.getDependsOn("track").size());
+  }
+
+  @Test
+  public void parallel() throws Exception {
+    StartupPlanner planner = new StartupPlanner();
+    for (String name : new String[] { "a", "b", "c", "d" }) {
+      planner.add(name, new ClockConfig());
+    }
+    ClockConfig last = new ClockConfig();
+    last.startAfter = new String[] { "a", "d" };
+    planner.add("e", last);
+    planner.plan();
+
+    Map<String, Long> ended = new ConcurrentHashMap<>();
+    Map<String, Long> began = new ConcurrentHashMap<>();
+    Timeline timeline = planner.start(4, name -> {
+      began.put(name, System.nanoTime());
+      Thread.sleep(("d".equals(name)) ? 400 : 200);
+      ended.put(name, System.nanoTime());
+    });
+    log.info("{}", timeline);
+
+    assertTrue(timeline.parallel);
+    assertEquals(5, timeline.entries.size());
+    assertTrue(began.get("e") >= ended.get("a"));
+    assertTrue(began.get("e") >= ended.get("d"));
+    // a b c d together, then e
+    assertTrue(timeline.wallMs < 900);
+    assertTrue(timeline.serviceMs >= 1200);
+    assertEquals(Arrays.asList("d", "e"), timeline.criticalPath);
+    for (Entry e : timeline.entries) {
+      assertTrue(e.thread.startsWith("startup-"));
+    }
+  }
+
+  @Test
+  public void sequential() throws Exception {
+    StartupPlanner planner = new StartupPlanner();
+    planner.add("arduino", new ArduinoConfig());
+    planner.add("neck", servo("arduino"));
+    planner.add("jaw", servo(null));
+    planner.plan();
+
+    StringBuilder order = new StringBuilder();
+    Timeline timeline = planner.start(1, name -> {
+      if ("jaw".equals(name)) {
+        throw new Exception("no pin");
+      }
+      order.append(name).append(" ");
+    });
+    assertFalse(timeline.parallel);
+    assertEquals("arduino neck ", order.toString());
+    assertEquals(Thread.currentThread().getName(), timeline.entries.get(0).thread);
+    assertEquals("no pin", timeline.entries.get(2).error);
+  }
+
+  @Test
+  public void startConfig() throws Exception {
+    Runtime runtime = Runtime.getInstance();
+    String dir = runtime.getConfigDir() + File.separator + "startupPlannerTest";
+    new File(dir).mkdirs();
+    RuntimeConfig rconfig = new RuntimeConfig();
+    rconfig.registry = new String[] { "runtime", "plannerClock1", "plannerClock2", "plannerClock3" };
+    FileIO.toFile(dir + File.separator + "runtime.yml", CodecUtils.toYaml(rconfig));
+    for (int i = 1; i < 4; ++i) {
+      ClockConfig clock = new ClockConfig();
+      clock.startAfter = (i == 3) ? new String[] { "plannerClock1" } : null;
+      FileIO.toFile(dir + File.separator + "plannerClock" + i + ".yml", CodecUtils.toYaml(clock));
+    }
+
+    Runtime.startConfig("startupPlannerTest");
+    Timeline timeline = runtime.getStartupTimeline();
+    log.info("{}", timeline);
+    assertTrue(timeline.parallel);
+    assertEquals(3, timeline.entries.size());
+    for (int i = 1; i < 4; ++i) {
+      assertNotNull(Runtime.getService("plannerClock" + i));
+      Runtime.release("plannerClock" + i);
+    }
+    assertEquals("[plannerClock1]", timeline.entries.get(2).dependsOn.toString());
+  }
+
+  @Test
+  public void cycle() throws Exception {
+    StartupPlanner planner = new StartupPlanner();
+    ClockConfig a = new ClockConfig();
+    a.startAfter = new String[] { "b" };
+    ClockConfig b = new ClockConfig();
+    b.startAfter = new String[] { "a" };
+    planner.add("a", a);
+    planner.add("b", b);
+    planner.add("c", new ClockConfig());
+    planner.plan();
+
+    Map<String, Long> ended = new ConcurrentHashMap<>();
+    Timeline timeline = planner.start(2, name -> ended.put(name, System.nanoTime()));
+    assertEquals(3, ended.size());
+    assertNotNull(timeline.criticalPath);
+  }
+
+}
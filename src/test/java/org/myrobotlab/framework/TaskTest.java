@@ -1,5 +1,6 @@
 package org.myrobotlab.framework;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -55,6 +56,43 @@ public class TaskTest extends AbstractTest {
 
   }
 
+  @Test
+  public void fixedRateTask() throws InterruptedException {
+    Runtime runtime = Runtime.getInstance();
+    runtime.addTask("rateTest", true, 100, 0, "getUptime");
+    sleep(550);
+    Task task = runtime.getTaskStats().get("rateTest");
+    log.info("fixed rate task ran {} times avg jitter {} ms overruns {}", task.getRunCount(), task.getAvgJitter(), task.getOverrunCount());
+    assertTrue(task.getRunCount() >= 5);
+    assertTrue(TaskScheduler.getInstance().getTaskCount(runtime.getName()) > 0);
+    runtime.purgeTask("rateTest");
+    assertTrue(task.isCancelled());
+    assertFalse(runtime.containsTask("rateTest"));
+
+    // one shot tasks remove themselves so the same method can be invoked again
+    runtime.invokeFuture("getUptime", 10);
+    sleep(200);
+    assertFalse(runtime.containsTask("getUptime"));
+  }
+
+  @Test
+  public void blockingTaskDoesNotDelayOthers() throws InterruptedException {
+    TestCatcher catcher = (TestCatcher) Runtime.start("blocker", "TestCatcher");
+    // more blocking runs than any fixed pool would have threads
+    for (int i = 0; i < 8; ++i) {
+      catcher.addTask("block" + i, 0, 0, "sleep", 1500);
+    }
+    Runtime runtime = Runtime.getInstance();
+    runtime.addTask("notBlocked", true, 50, 0, "getUptime");
+    sleep(600);
+    Task task = runtime.getTaskStats().get("notBlocked");
+    log.info("task ran {} times while others blocked - max jitter {} ms", task.getRunCount(), task.getMaxJitter());
+    runtime.purgeTask("notBlocked");
+    assertTrue(task.getRunCount() >= 8);
+    assertTrue(TaskScheduler.getInstance().getActiveCount() >= 8);
+    catcher.purgeTasks();
+  }
+
   public void onUptime(String data) {
     log.info("uptime {}", data);
   }
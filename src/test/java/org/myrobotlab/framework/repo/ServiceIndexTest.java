@@ -0,0 +1,87 @@
+package org.myrobotlab.framework.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+
+import org.junit.Test;
+import org.myrobotlab.codec.CodecUtils;
+import org.myrobotlab.framework.Plan;
+import org.myrobotlab.io.FileIO;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.config.ServoConfig;
+import org.myrobotlab.service.meta.abstracts.MetaData;
+import org.myrobotlab.test.AbstractTest;
+import org.slf4j.Logger;
+
+public class ServiceIndexTest extends AbstractTest {
+
+  public final static Logger log = LoggerFactory.getLogger(ServiceIndexTest.class);
+
+  @Test
+  public void testGenerate() throws Exception {
+    ServiceIndex index = ServiceIndex.generate();
+    assertTrue(index.types.size() > 100);
+
+    ServiceIndex.Entry tracking = index.get("Tracking");
+    assertNotNull(tracking);
+    assertEquals("org.myrobotlab.service.Tracking", tracking.type);
+    assertEquals("org.myrobotlab.service.config.TrackingConfig", tracking.configType);
+    assertEquals("Servo", tracking.peers.get("pan"));
+    assertTrue(tracking.categories.size() > 0);
+    assertNotNull(index.get("org.myrobotlab.service.OpenCV").dependencies.get(0));
+    assertNull(index.get("NotAService"));
+
+    // what the build writes is what runtime reads
+    ServiceIndex read = CodecUtils.fromJson(CodecUtils.toJson(index), ServiceIndex.class);
+    assertEquals(index.getServiceTypes(), read.getServiceTypes());
+    assertEquals(tracking.peers, read.get("Tracking").peers);
+  }
+
+  @Test
+  public void testStale() throws Exception {
+    ServiceIndex index = ServiceIndex.generate();
+    File file = File.createTempFile("serviceIndex", ".json");
+    file.deleteOnExit();
+    FileIO.toFile(file.getPath(), CodecUtils.toJson(index));
+    URL url = file.toURI().toURL();
+    assertFalse(ServiceIndex.isStale(url, index));
+
+    // a meta class compiled after the index
+    file.setLastModified(0);
+    assertTrue(ServiceIndex.isStale(url, index));
+    file.setLastModified(System.currentTimeMillis());
+
+    // a type which has no meta class anymore
+    ServiceIndex.Entry gone = new ServiceIndex.Entry();
+    gone.type = "org.myrobotlab.service.Gone";
+    gone.simpleName = "Gone";
+    index.types.put(gone.type, gone);
+    assertTrue(ServiceIndex.isStale(url, index));
+  }
+
+  @Test
+  public void testMetaDataCopies() {
+    MetaData tracking = MetaData.get("Tracking");
+    tracking.getPeer("pan").actualName = "head.rothead";
+    tracking.categories.add("changed");
+
+    MetaData again = MetaData.get("org.myrobotlab.service.Tracking");
+    assertNotSame(tracking, again);
+    assertEquals(tracking.getClass(), again.getClass());
+    assertNull(again.getPeer("pan").actualName);
+    assertTrue(!again.categories.contains("changed"));
+
+    Plan plan = MetaData.getDefault("track", "Tracking");
+    assertEquals("Tracking", plan.get("track").type);
+    assertTrue(plan.get("track.pan") instanceof ServoConfig);
+    assertNull(MetaData.get("Tracking").getPeer("pan").actualName);
+  }
+
+}
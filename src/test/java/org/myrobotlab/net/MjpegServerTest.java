@@ -0,0 +1,153 @@
+package org.myrobotlab.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.myrobotlab.image.SerializableImage;
+import org.myrobotlab.logging.LoggerFactory;
+import org.slf4j.Logger;
+
+public class MjpegServerTest {
+
+  public final static Logger log = LoggerFactory.getLogger(MjpegServerTest.class);
+
+  static BufferedImage noise(int width, int height, long seed) {
+    Random random = new Random(seed);
+    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    for (int y = 0; y < height; ++y) {
+      for (int x = 0; x < width; ++x) {
+        img.setRGB(x, y, random.nextInt());
+      }
+    }
+    return img;
+  }
+
+  static Socket view(int port, String feed) throws Exception {
+    Socket socket = new Socket("localhost", port);
+    OutputStream os = socket.getOutputStream();
+    os.write(String.format("GET /%s HTTP/1.0\r\n\r\n", feed).getBytes(StandardCharsets.US_ASCII));
+    os.flush();
+    return socket;
+  }
+
+  /**
+   * counts the parts of a stream
+   */
+  static Thread read(Socket socket, AtomicInteger parts) {
+    Thread t = new Thread(() -> {
+      byte[] boundary = "--BoundaryString".getBytes(StandardCharsets.US_ASCII);
+      byte[] buffer = new byte[65536];
+      int matched = 0;
+      try {
+        InputStream in = socket.getInputStream();
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+          for (int i = 0; i < read; ++i) {
+            matched = (buffer[i] == boundary[matched]) ? matched + 1 : ((buffer[i] == boundary[0]) ? 1 : 0);
+            if (matched == boundary.length) {
+              parts.incrementAndGet();
+              matched = 0;
+            }
+          }
+        }
+      } catch (Exception e) {
+      }
+    });
+    t.setDaemon(true);
+    t.start();
+    return t;
+  }
+
+  static int freePort() throws Exception {
+    try (ServerSocket s = new ServerSocket(0)) {
+      return s.getLocalPort();
+    }
+  }
+
+  @Test
+  public void testFanOut() throws Exception {
+    int port = freePort();
+    MjpegServer server = new MjpegServer(port);
+    server.start();
+    try {
+      BufferedImage[] images = new BufferedImage[] { noise(640, 480, 1), noise(640, 480, 2) };
+      // the feed exists once it has a frame
+      server.publish(new SerializableImage(images[0], "feed", 0));
+
+      List<AtomicInteger> counts = new ArrayList<>();
+      List<Socket> sockets = new ArrayList<>();
+      for (int i = 0; i < 3; ++i) {
+        AtomicInteger parts = new AtomicInteger();
+        Socket socket = view(port, "feed");
+        read(socket, parts);
+        counts.add(parts);
+        sockets.add(socket);
+      }
+      // never reads
+      Socket slow = view(port, "feed");
+      sockets.add(slow);
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (server.feeds.get("feed").size() < 4 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(4, server.feeds.get("feed").size());
+
+      int frames = 20;
+      long encodes = SerializableImage.getEncodeCount();
+      for (int i = 1; i <= frames; ++i) {
+        server.publish(new SerializableImage(images[i % 2], "feed", i));
+        Thread.sleep(100);
+      }
+
+      // once per frame - not per viewer
+      long encoded = SerializableImage.getEncodeCount() - encodes;
+      log.info("{} frames {} encodes", frames, encoded);
+      assertTrue(encoded > 0);
+      assertTrue(encoded <= frames);
+      for (AtomicInteger parts : counts) {
+        assertTrue(parts.get() > 0);
+      }
+
+      // frames already encoded - as fast as the sockets go, more than the slow
+      // one can buffer
+      SerializableImage[] encodedFrames = new SerializableImage[] { new SerializableImage(images[0], "feed", 0), new SerializableImage(images[1], "feed", 0) };
+      for (int i = 0; i < 300; ++i) {
+        server.publish(encodedFrames[i % 2]);
+        Thread.sleep(5);
+      }
+      Thread.sleep(200);
+
+      long most = 0;
+      MjpegServer.VideoWebClient slowViewer = null;
+      for (MjpegServer.VideoWebClient viewer : server.feeds.get("feed")) {
+        log.info("viewer sent {} dropped {}", viewer.getSent(), viewer.getDropped());
+        most = Math.max(most, viewer.getSent());
+        if (slowViewer == null || viewer.getSent() < slowViewer.getSent()) {
+          slowViewer = viewer;
+        }
+      }
+      // the slow one is behind - and did not hold up the others
+      assertTrue(slowViewer.getDropped() > 0);
+      assertTrue(slowViewer.getSent() < most);
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+}
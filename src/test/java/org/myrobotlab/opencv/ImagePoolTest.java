@@ -0,0 +1,79 @@
+package org.myrobotlab.opencv;
+
+import static org.bytedeco.opencv.global.opencv_core.IPL_DEPTH_8U;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.bytedeco.opencv.opencv_core.IplImage;
+import org.junit.Test;
+import org.myrobotlab.test.AbstractTest;
+
+public class ImagePoolTest extends AbstractTest {
+
+  @Test
+  public void testReuse() {
+    ImagePool pool = new ImagePool();
+    IplImage a = pool.acquire(320, 240, IPL_DEPTH_8U, 3);
+    pool.release(a);
+    assertSame(a, pool.acquire(320, 240, IPL_DEPTH_8U, 3));
+    // another shape
+    IplImage gray = pool.acquire(320, 240, IPL_DEPTH_8U, 1);
+    assertNotSame(a, gray);
+
+    ImagePool.Stats stats = pool.getStats();
+    assertEquals(1, stats.hits);
+    assertEquals(2, stats.misses);
+    assertEquals(0, stats.idle);
+
+    pool.setMaxIdle(1);
+    pool.release(a);
+    pool.release(pool.acquire(320, 240, IPL_DEPTH_8U, 1));
+    pool.release(gray);
+    // the second gray is freed
+    assertEquals(2, pool.getStats().idle);
+    pool.clear();
+    assertEquals(0, pool.getStats().idleBytes);
+  }
+
+  @Test
+  public void testFrameRefs() {
+    ImagePool pool = ImagePool.getInstance();
+    IplImage image = pool.acquire(64, 48, IPL_DEPTH_8U, 3);
+    OpenCVData data = new OpenCVData();
+    IplImage copy = data.copy(image);
+    long hits = pool.getStats().hits;
+
+    // a subscriber still has it
+    data.retain();
+    data.dispose();
+    assertNotSame(copy, pool.acquire(64, 48, IPL_DEPTH_8U, 3));
+
+    data.dispose();
+    assertSame(copy, pool.acquire(64, 48, IPL_DEPTH_8U, 3));
+    assertEquals(hits + 1, pool.getStats().hits);
+  }
+
+  @Test
+  public void testDetach() {
+    ImagePool pool = ImagePool.getInstance();
+    IplImage image = pool.acquire(64, 48, IPL_DEPTH_8U, 3);
+    OpenCVData data = new OpenCVData();
+    IplImage copy = data.copy(image);
+    data.sources.put("cam.filter.IplImage", copy);
+
+    // what a subscriber gets owns no pooled image
+    OpenCVData published = data.detach();
+    IplImage kept = (IplImage) published.sources.get("cam.filter.IplImage");
+    assertNotNull(kept);
+    assertNotSame(copy, kept);
+    assertEquals(copy.imageSize(), kept.imageSize());
+
+    // so the frame's images go back to the pool at once
+    data.dispose();
+    assertSame(copy, pool.acquire(64, 48, IPL_DEPTH_8U, 3));
+    published.dispose();
+  }
+
+}
@@ -0,0 +1,172 @@
+package org.myrobotlab.opencv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.myrobotlab.test.AbstractTest;
+
+public class InferenceExecutorTest extends AbstractTest {
+
+  /**
+   * upper cases its inputs - the first batch waits until it is let go
+   */
+  static class GatedModel implements InferenceExecutor.Model<String, String> {
+    final String name;
+    final int maxBatch;
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch gate = new CountDownLatch(1);
+    final List<Integer> batches = new ArrayList<>();
+    boolean closed = false;
+
+    GatedModel(String name, int maxBatch) {
+      this.name = name;
+      this.maxBatch = maxBatch;
+    }
+
+    @Override
+    public String getModelName() {
+      return name;
+    }
+
+    @Override
+    public int getMaxBatch() {
+      return maxBatch;
+    }
+
+    @Override
+    public List<String> infer(List<String> inputs) throws Exception {
+      started.countDown();
+      gate.await(5, TimeUnit.SECONDS);
+      synchronized (batches) {
+        batches.add(inputs.size());
+      }
+      List<String> results = new ArrayList<>();
+      for (String input : inputs) {
+        if (input.equals("bad")) {
+          throw new IllegalArgumentException(input);
+        }
+        results.add(input.toUpperCase());
+      }
+      return results;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  /**
+   * the worker is busy with the first frame when the others come
+   */
+  CompletableFuture<String> block(InferenceExecutor executor, GatedModel model) throws InterruptedException {
+    CompletableFuture<String> first = executor.submit(model, "cam0", 1, "first");
+    assertTrue(model.started.await(5, TimeUnit.SECONDS));
+    return first;
+  }
+
+  @Test
+  public void testBatching() throws Exception {
+    InferenceExecutor executor = new InferenceExecutor(1);
+    GatedModel model = executor.getModel("batching", () -> new GatedModel("batching", 8));
+    CompletableFuture<String> first = block(executor, model);
+
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 1; i <= 4; ++i) {
+      futures.add(executor.submit(model, "cam" + i, 1, "frame" + i));
+    }
+    model.gate.countDown();
+
+    assertEquals("FIRST", first.get(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 4; ++i) {
+      assertEquals("FRAME" + i, futures.get(i - 1).get(5, TimeUnit.SECONDS));
+    }
+    // the frames of the 4 cameras ran as one batch
+    assertEquals(2, model.batches.size());
+    assertEquals(4, (int) model.batches.get(1));
+
+    InferenceExecutor.ModelStats stats = executor.getStats().get("batching");
+    assertEquals(5, stats.completed);
+    assertEquals(2, stats.batches);
+    assertEquals(2.5, stats.meanBatch, 0.001);
+    assertEquals(5, stats.latency.count);
+
+    executor.releaseModel("batching");
+    assertTrue(model.closed);
+    assertTrue(executor.getStats().isEmpty());
+  }
+
+  @Test
+  public void testLatestFrameWins() throws Exception {
+    InferenceExecutor executor = new InferenceExecutor(1);
+    GatedModel model = executor.getModel("latest", () -> new GatedModel("latest", 8));
+    block(executor, model);
+
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 2; i <= 4; ++i) {
+      futures.add(executor.submit(model, "cam0", i, "frame" + i));
+    }
+    // frames 2 and 3 never started
+    assertTrue(futures.get(0).isCancelled());
+    assertTrue(futures.get(1).isCancelled());
+
+    Future<String> result = executor.getResult("latest", "cam0", 4);
+    assertSame(futures.get(2), result);
+    model.gate.countDown();
+    assertEquals("FRAME4", result.get(5, TimeUnit.SECONDS));
+    assertTrue(executor.getResult("latest", "cam0", 2).isCancelled());
+
+    InferenceExecutor.ModelStats stats = executor.getStats().get("latest");
+    assertEquals(4, stats.submitted);
+    assertEquals(2, stats.dropped);
+    assertEquals(2, stats.completed);
+  }
+
+  @Test
+  public void testDepth() throws Exception {
+    InferenceExecutor executor = new InferenceExecutor(1);
+    executor.setDepth(3);
+    GatedModel model = executor.getModel("depth", () -> new GatedModel("depth", 8));
+    block(executor, model);
+
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 2; i <= 5; ++i) {
+      futures.add(executor.submit(model, "cam0", i, "frame" + i));
+    }
+    model.gate.countDown();
+    // only the oldest is dropped - the 3 newest run together
+    assertTrue(futures.get(0).isCancelled());
+    for (int i = 1; i < futures.size(); ++i) {
+      futures.get(i).get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(3, (int) model.batches.get(1));
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    InferenceExecutor executor = new InferenceExecutor(1);
+    GatedModel model = executor.getModel("failure", () -> new GatedModel("failure", 1));
+    model.gate.countDown();
+    try {
+      executor.submit(model, "cam0", 1, "bad").get(5, TimeUnit.SECONDS);
+      fail("bad input classified");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+    // the model goes on
+    assertEquals("GOOD", executor.submit(model, "cam0", 2, "good").get(5, TimeUnit.SECONDS));
+    assertEquals(1, executor.getStats().get("failure").failed);
+  }
+
+}
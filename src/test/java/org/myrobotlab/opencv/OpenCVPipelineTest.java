@@ -0,0 +1,75 @@
+package org.myrobotlab.opencv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.myrobotlab.logging.LoggerFactory;
+import org.myrobotlab.service.OpenCV;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.test.AbstractTest;
+import org.slf4j.Logger;
+
+public class OpenCVPipelineTest extends AbstractTest {
+
+  public final static Logger log = LoggerFactory.getLogger(OpenCVPipelineTest.class);
+
+  static final String TEST_LOCAL_MP4 = "src/test/resources/OpenCV/monkeyFace.mp4";
+
+  @Test
+  public void testBranches() {
+    OpenCVFilter canny = new OpenCVFilterCanny("canny");
+    OpenCVFilter smooth = new OpenCVFilterSmooth("smooth");
+    OpenCVFilter gray = new OpenCVFilterGray("gray");
+    List<OpenCVFilter> group = new ArrayList<>();
+    group.add(canny);
+
+    // no sourceKey - reads the output of the filter before it
+    assertFalse(OpenCVPipeline.isBranch(group, smooth));
+
+    canny.setSourceKey("input");
+    smooth.setSourceKey("input");
+    assertTrue(OpenCVPipeline.isBranch(group, smooth));
+
+    // reads the output of a filter in the group
+    gray.setSourceKey("canny");
+    assertFalse(OpenCVPipeline.isBranch(group, gray));
+  }
+
+  @Test
+  public void testPipeline() throws Exception {
+    OpenCV cv = (OpenCV) Runtime.start("pipelinecv", "OpenCV");
+    cv.addFilter("PyramidDown");
+    OpenCVFilter canny = (OpenCVFilter) cv.addFilter("Canny");
+    OpenCVFilter smooth = (OpenCVFilter) cv.addFilter("Smooth");
+    canny.setSourceKey("PyramidDown");
+    smooth.setSourceKey("PyramidDown");
+    cv.setPipelined(true);
+    cv.capture(TEST_LOCAL_MP4);
+
+    OpenCVData data = cv.getOpenCVData();
+    assertNotNull(data);
+    sleep(1000);
+
+    OpenCVPipeline.Stats stats = cv.getPipelineStats();
+    log.info("pipeline {}", stats);
+    assertNotNull(stats);
+    assertTrue(stats.frames > 0);
+    assertEquals(3, stats.stages.size());
+    assertEquals("PyramidDown", stats.stages.get(0).name);
+    assertEquals("Canny|Smooth", stats.stages.get(1).name);
+    assertEquals("display", stats.stages.get(2).name);
+
+    // back to sequential
+    cv.setPipelined(false);
+    assertNotNull(cv.getOpenCVData());
+    cv.stopCapture();
+    Runtime.release("pipelinecv");
+  }
+
+}
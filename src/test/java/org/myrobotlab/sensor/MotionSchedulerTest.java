@@ -0,0 +1,173 @@
+package org.myrobotlab.sensor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.myrobotlab.framework.interfaces.Broadcaster;
+import org.myrobotlab.math.MapperLinear;
+import org.myrobotlab.service.data.ServoMove;
+import org.myrobotlab.service.interfaces.ServoControl;
+
+public class MotionSchedulerTest {
+
+  /**
+   * a servo which only records what its encoder tells it
+   */
+  static class Recorder {
+    final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    final List<Double> positions = Collections.synchronizedList(new ArrayList<>());
+
+    ServoControl servo(String name) {
+      return (ServoControl) Proxy.newProxyInstance(ServoControl.class.getClassLoader(), new Class<?>[] { ServoControl.class, Broadcaster.class }, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "getName":
+            return name;
+          case "getController":
+            return "controller";
+          case "getMapper":
+            return new MapperLinear(0.0, 180.0, 180.0, 0.0);
+          case "onEncoderData":
+            positions.add(((EncoderData) args[0]).angle);
+            return null;
+          case "broadcast":
+            events.add((String) args[0]);
+            return null;
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  @Test
+  public void profiles() {
+    Trajectory linear = new Trajectory(0, 90, 90, null, Trajectory.Profile.S_CURVE);
+    assertEquals(Trajectory.Profile.LINEAR, linear.getProfile());
+    assertEquals(1000, linear.getDurationMs(), 0.001);
+    assertEquals(45, linear.getPos(500), 0.001);
+
+    // 0.5 s ramps of 22.5 degrees, 45 degrees of cruise
+    Trajectory trapezoid = new Trajectory(90, 0, 90, 180.0, Trajectory.Profile.TRAPEZOIDAL);
+    assertEquals(1500, trapezoid.getDurationMs(), 0.001);
+    assertEquals(90 - 22.5, trapezoid.getPos(500), 0.001);
+    assertEquals(45, trapezoid.getPos(750), 0.001);
+    assertEquals(22.5, trapezoid.getPos(1000), 0.001);
+    assertEquals(90, trapezoid.getPos(-1), 0.001);
+    assertEquals(0, trapezoid.getPos(2000), 0.001);
+
+    Trajectory sCurve = new Trajectory(90, 0, 90, 180.0, Trajectory.Profile.S_CURVE);
+    assertEquals(trapezoid.getDurationMs(), sCurve.getDurationMs(), 0.001);
+    assertEquals(90 - 22.5, sCurve.getPos(500), 0.001);
+    // slower off the mark
+    assertTrue(sCurve.getPos(100) > trapezoid.getPos(100));
+
+    // too short to reach speed
+    Trajectory triangle = new Trajectory(0, 10, 90, 180.0, Trajectory.Profile.TRAPEZOIDAL);
+    assertEquals(2 * Math.sqrt(10 / 180.0) * 1000, triangle.getDurationMs(), 0.001);
+    assertEquals(5, triangle.getPos(triangle.getDurationMs() / 2), 0.001);
+  }
+
+  @Test
+  public void deterministicTicks() {
+    MotionScheduler scheduler = new MotionScheduler();
+    scheduler.setDeterministic(true);
+    scheduler.setTickRate(50);
+    Map<Long, Map<String, Double>> states = new LinkedHashMap<>();
+    scheduler.addJointStateListener((tick, positions) -> states.put(tick, new LinkedHashMap<>(positions)));
+
+    Recorder neck = new Recorder();
+    TimeEncoder neckEncoder = new TimeEncoder(neck.servo("neck"));
+    neckEncoder.setScheduler(scheduler);
+    Recorder jaw = new Recorder();
+    TimeEncoder jawEncoder = new TimeEncoder(jaw.servo("jaw"));
+    jawEncoder.setScheduler(scheduler);
+    jawEncoder.setProfile(Trajectory.Profile.TRAPEZOIDAL, 1000.0);
+
+    assertEquals(200, neckEncoder.calculateTrajectory(90, 110, 100.0));
+    assertEquals(300, jawEncoder.calculateTrajectory(0, 20, 100.0));
+    assertEquals(2, scheduler.getActiveCount());
+
+    scheduler.advance(100);
+    // 20 ms ticks
+    assertEquals(5, scheduler.getTickCount());
+    assertEquals(5, states.size());
+    assertEquals(100, states.get(5L).get("neck"), 0.001);
+    assertEquals(jawEncoder.trajectory.getPos(100), states.get(5L).get("jaw"), 0.001);
+    assertEquals("publishServoStarted", neck.events.get(0));
+
+    scheduler.advance(100);
+    // neck has arrived
+    assertEquals(1, scheduler.getActiveCount());
+    assertEquals(110, neck.positions.get(neck.positions.size() - 1), 0.001);
+    assertEquals("publishServoStopped", neck.events.get(neck.events.size() - 1));
+    assertEquals(2, neck.events.size());
+
+    // a new move while moving carries on
+    jawEncoder.calculateTrajectory(jawEncoder.getPos(), 0, 100.0);
+    scheduler.advance(20);
+    jawEncoder.stopMove();
+    scheduler.advance(20);
+    assertEquals(0, scheduler.getActiveCount());
+    assertEquals(2, jaw.events.size());
+    assertTrue(jawEncoder.getPos() > 0);
+
+    // all joints in one state per tick
+    for (Map<String, Double> state : states.values()) {
+      assertTrue(state.size() <= 2);
+    }
+    assertEquals(2, states.get(1L).size());
+  }
+
+  @Test
+  public void controllerWrites() {
+    MotionScheduler scheduler = new MotionScheduler();
+    scheduler.setDeterministic(true);
+    Recorder recorder = new Recorder();
+    TimeEncoder encoder = new TimeEncoder(recorder.servo("wrist"));
+    encoder.setScheduler(scheduler);
+    assertNull(encoder.getController());
+
+    encoder.setControllerWrites(true);
+    encoder.calculateTrajectory(0, 100, 100.0);
+    scheduler.advance(100);
+    assertEquals("controller", encoder.getController());
+    ServoMove move = encoder.getMove();
+    assertEquals(10, move.outputPos, 0.001);
+    // through the servo's inverted mapper
+    assertEquals(170, move.inputPos, 0.001);
+    assertNull(move.speed);
+  }
+
+  @Test
+  public void clock() throws Exception {
+    MotionScheduler scheduler = new MotionScheduler();
+    scheduler.setTickRate(100);
+    Recorder recorder = new Recorder();
+    TimeEncoder encoder = new TimeEncoder(recorder.servo("rothead"));
+    encoder.setScheduler(scheduler);
+    long ms = encoder.calculateTrajectory(0, 30, 100.0);
+    long start = System.currentTimeMillis();
+    while (scheduler.getActiveCount() > 0 && System.currentTimeMillis() - start < ms + 3000) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, scheduler.getActiveCount());
+    assertEquals(30, recorder.positions.get(recorder.positions.size() - 1), 0.001);
+    assertTrue(scheduler.getTickCount() > 1);
+    assertEquals(scheduler.getTickCount(), scheduler.getJitter().count);
+
+    encoder.disable();
+    encoder.calculateTrajectory(30, 0, 100.0);
+    assertFalse(scheduler.isScheduled(encoder));
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.myrobotlab.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ByteRingBufferTest {
+
+  @Test
+  public void wrapAndOverrun() throws Exception {
+    ByteRingBuffer ring = new ByteRingBuffer(8);
+    assertEquals(6, ring.write(new byte[] { 1, 2, 3, 4, 5, 6 }));
+    assertEquals(1, ring.read(0));
+    assertEquals(2, ring.read(0));
+
+    // wraps around the end - only 4 of 6 fit
+    assertEquals(4, ring.write(new byte[] { 7, 8, 9, 10, 11, 12 }));
+    assertEquals(2, ring.getOverrunCount());
+    assertEquals(8, ring.available());
+
+    byte[] data = new byte[10];
+    assertEquals(5, ring.read(data, 2, 5, 0));
+    assertArrayEquals(new byte[] { 0, 0, 3, 4, 5, 6, 7, 0, 0, 0 }, data);
+    assertArrayEquals(new byte[] { 8, 9, 10 }, ring.readAvailable());
+    assertNull(ring.readAvailable());
+
+    // unsigned and a timeout
+    ring.write(new byte[] { (byte) 0xFF });
+    assertEquals(255, ring.read(0));
+    assertEquals(-1, ring.read(0));
+    assertEquals(0, ring.read(data, 0, 1, 10));
+  }
+
+  @Test
+  public void delimiter() throws Exception {
+    ByteRingBuffer ring = new ByteRingBuffer(16);
+    ring.write("ab\r\ncd\r".getBytes());
+    assertArrayEquals("ab\r\n".getBytes(), ring.readToDelimiter("\r\n".getBytes(), 0));
+
+    // delimiter split across writes - pending bytes are kept on timeout
+    assertNull(ring.readToDelimiter("\r\n".getBytes(), 10));
+    assertEquals(3, ring.available());
+    ring.write("\nef".getBytes());
+    assertArrayEquals("cd\r\n".getBytes(), ring.readToDelimiter("\r\n".getBytes(), 0));
+    assertArrayEquals("ef".getBytes(), ring.readAvailable());
+  }
+
+  @Test
+  public void blockingRead() throws Exception {
+    ByteRingBuffer ring = new ByteRingBuffer(8);
+    Thread writer = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+        ring.write("hello\n".getBytes(), 0, 3);
+        Thread.sleep(50);
+        ring.write("lo\n".getBytes());
+      } catch (InterruptedException e) {
+      }
+    });
+    writer.start();
+    long start = System.currentTimeMillis();
+    assertArrayEquals("hello\n".getBytes(), ring.readToDelimiter(new byte[] { '\n' }, -1));
+    assertTrue(System.currentTimeMillis() - start >= 90);
+    writer.join();
+
+    // the ring size limits a line
+    ring.write("abcdefgh".getBytes());
+    assertNull(ring.readToDelimiter(new byte[] { '\n' }, -1));
+  }
+
+  @Test
+  public void resize() throws Exception {
+    ByteRingBuffer ring = new ByteRingBuffer(4);
+    ring.write(new byte[] { 1, 2, 3 });
+    ring.read(0);
+    ring.write(new byte[] { 4, 5 });
+    ring.resize(16);
+    assertEquals(16, ring.capacity());
+    ring.write(new byte[] { 6 });
+    assertArrayEquals(new byte[] { 2, 3, 4, 5, 6 }, ring.readAvailable());
+
+    ring.write(new byte[] { 1, 2, 3 });
+    ring.resize(2);
+    assertEquals(1, ring.getOverrunCount());
+    assertArrayEquals(new byte[] { 1, 2 }, ring.readAvailable());
+  }
+
+}
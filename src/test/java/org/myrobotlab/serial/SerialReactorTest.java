@@ -0,0 +1,127 @@
+package org.myrobotlab.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.myrobotlab.framework.QueueStats;
+import org.myrobotlab.service.interfaces.SerialDataListener;
+
+public class SerialReactorTest {
+
+  static class Collector implements SerialDataListener {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int expected;
+    CountDownLatch done = new CountDownLatch(1);
+
+    Collector(int expected) {
+      this.expected = expected;
+    }
+
+    @Override
+    public String getName() {
+      return "collector";
+    }
+
+    @Override
+    public void onConnect(String portName) {
+    }
+
+    @Override
+    public void onDisconnect(String portName) {
+    }
+
+    @Override
+    public QueueStats publishStats(QueueStats stats) {
+      return stats;
+    }
+
+    @Override
+    public void updateStats(QueueStats stats) {
+    }
+
+    @Override
+    synchronized public void onBytes(byte[] data) {
+      bytes.write(data, 0, data.length);
+      if (bytes.size() >= expected) {
+        done.countDown();
+      }
+    }
+  }
+
+  /**
+   * echo server on the reactor - everything is written back
+   */
+  static ServerSocketChannel echoServer(List<SerialReactor.Connection> accepted) throws Exception {
+    ServerSocketChannel server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress("localhost", 0));
+    SerialReactor reactor = SerialReactor.getInstance();
+    reactor.accept(server, channel -> {
+      SerialReactor.Connection[] connection = new SerialReactor.Connection[1];
+      connection[0] = reactor.register(channel, new SerialReactor.Listener() {
+        @Override
+        public void onBytes(byte[] bytes) {
+          try {
+            connection[0].write(bytes);
+          } catch (Exception e) {
+            connection[0].close();
+          }
+        }
+
+        @Override
+        public void onClose() {
+        }
+      });
+      accepted.add(connection[0]);
+    });
+    return server;
+  }
+
+  @Test
+  public void echo() throws Exception {
+    List<SerialReactor.Connection> accepted = new CopyOnWriteArrayList<>();
+    ServerSocketChannel server = echoServer(accepted);
+    int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+    // more than a socket buffer so writes queue up
+    byte[] data = new byte[4 * 1024 * 1024];
+    for (int i = 0; i < data.length; ++i) {
+      data[i] = (byte) (i * 31);
+    }
+    Collector collector = new Collector(data.length);
+    PortSocket socket = new PortSocket("tcp://localhost:" + port, "localhost", port);
+    socket.open();
+    socket.listen(collector);
+    assertTrue(socket.isListening());
+    for (int i = 0; i < data.length; i += 1000) {
+      socket.write(Arrays.copyOfRange(data, i, Math.min(data.length, i + 1000)));
+    }
+    assertTrue("echo timed out", collector.done.await(20, TimeUnit.SECONDS));
+    assertArrayEquals(data, collector.bytes.toByteArray());
+    // chunks not bytes
+    assertTrue(SerialReactor.getInstance().getReadCount() < data.length / 100);
+
+    // the peer goes away
+    assertEquals(1, accepted.size());
+    accepted.get(0).close();
+    long start = System.currentTimeMillis();
+    while (socket.isListening() && System.currentTimeMillis() - start < 5000) {
+      Thread.sleep(10);
+    }
+    assertFalse(socket.isListening());
+    socket.close();
+    server.close();
+  }
+
+}
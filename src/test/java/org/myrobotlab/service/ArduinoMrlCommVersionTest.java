@@ -0,0 +1,103 @@
+package org.myrobotlab.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.myrobotlab.arduino.BoardInfo;
+import org.myrobotlab.arduino.DeviceSummary;
+import org.myrobotlab.arduino.Msg;
+import org.myrobotlab.arduino.virtual.MrlServo;
+import org.myrobotlab.framework.Service;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
+import org.myrobotlab.test.AbstractTest;
+
+/**
+ * a board with an older MrlComm, or one which has not said its version yet,
+ * gets the msgs it knows
+ */
+public class ArduinoMrlCommVersionTest extends AbstractTest {
+
+  static final String port = "/dev/ttyACM7";
+  static Arduino arduino = null;
+  static Ads1115 ads = null;
+  static Servo servo = null;
+
+  @BeforeClass
+  static public void setUp() throws Exception {
+    arduino = (Arduino) Runtime.start("arduinoVersionTest", "Arduino");
+    arduino.connect(port);
+    ads = (Ads1115) Runtime.start("adsVersionTest", "Ads1115");
+    ads.attach(arduino, "1", "0x48");
+    servo = (Servo) Runtime.start("servoVersionTest", "Servo");
+    servo.attach(arduino, 3, 90.0);
+    servo.enable();
+    Service.sleep(300);
+  }
+
+  @AfterClass
+  static public void afterClass() throws Exception {
+    servo.releaseService();
+    ads.releaseService();
+    arduino.releaseService();
+  }
+
+  @After
+  public void currentVersion() {
+    setVersion(Msg.MRLCOMM_VERSION);
+  }
+
+  static void setVersion(int version) {
+    arduino.boardInfo = new BoardInfo(version, 0, "uno", 0, 0, 0, new DeviceSummary[0], System.currentTimeMillis());
+  }
+
+  @Test
+  public void unknownVersion() throws Exception {
+    arduino.boardInfo = null;
+    assertFalse(arduino.isMrlCommVersion(Arduino.MRLCOMM_VERSION_TRANSACTIONS));
+    byte[] buffer = new byte[4];
+    assertEquals(2, arduino.i2cWriteRead(ads, 1, 0x48, new byte[] { 0 }, 1, buffer, 2));
+    assertEquals(123, buffer[0]);
+  }
+
+  @Test
+  public void i2c() throws Exception {
+    assertTrue(arduino.isMrlCommVersion(Arduino.MRLCOMM_VERSION_TRANSACTIONS));
+    byte[] buffer = new byte[4];
+    assertEquals(2, arduino.i2cWriteRead(ads, 1, 0x48, new byte[] { 0 }, 1, buffer, 2));
+
+    setVersion(Arduino.MRLCOMM_VERSION_TRANSACTIONS - 1);
+    assertFalse(arduino.isMrlCommVersion(Arduino.MRLCOMM_VERSION_TRANSACTIONS));
+    buffer = new byte[4];
+    // i2cWriteRead
+    assertEquals(2, arduino.i2cWriteRead(ads, 1, 0x48, new byte[] { 0 }, 1, buffer, 2));
+    assertEquals(123, buffer[0]);
+    // i2cWrite then i2cRead
+    assertEquals(3, arduino.i2cWriteRead(ads, 1, 0x48, new byte[] { 1, 2 }, 2, buffer, 3));
+    // i2cRead
+    assertEquals(1, arduino.i2cRead(ads, 1, 0x48, buffer, 1));
+    arduino.i2cWrite(ads, 1, 0x48, new byte[] { 1, 2 }, 2);
+    assertEquals(4, arduino.i2cRead(ads, 1, 0x48, buffer, 4));
+  }
+
+  @Test
+  public void servoMoveGroup() throws Exception {
+    setVersion(Arduino.MRLCOMM_VERSION_SERVO_MOVE_GROUP - 1);
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      servo.setSpeed(30.0);
+      servo.moveTo(45.0);
+    } finally {
+      group.end();
+    }
+    Service.sleep(300);
+    MrlServo virtualServo = (MrlServo) arduino.getVirtual().getDevice(arduino.getDeviceId(servo.getName()));
+    assertEquals((int) arduino.degreeToMicroseconds(45.0), virtualServo.targetPosUs);
+    assertEquals(30, virtualServo.velocity);
+  }
+
+}
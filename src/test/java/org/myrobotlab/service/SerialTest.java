@@ -364,6 +364,45 @@ public class SerialTest extends AbstractTest {
 
   }
 
+  @Test
+  public final void testReadToDelimiter() throws Exception {
+    log.info("testReadToDelimiter");
+
+    serial.write("ok\r\nline\nrest");
+    Thread.sleep(300);
+    assertEquals("ok\r\n", new String(uart.readToDelimiter("\r\n")));
+    assertEquals("line\n", uart.readString());
+    // no delimiter - the bytes stay buffered
+    assertEquals(null, uart.readToDelimiter("\n"));
+    byte[] data = new byte[8];
+    assertEquals(4, uart.read(data, 2, 6));
+    assertEquals("rest", new String(data, 2, 4));
+  }
+
+  @Test
+  public final void testTcpServer() throws Exception {
+    log.info("testTcpServer");
+
+    serial.startTcpServer(32324);
+    Serial client = (Serial) Runtime.start("tcpClient", "Serial");
+    client.setTimeout(1000);
+    client.connect("tcp://localhost:32324");
+    Thread.sleep(300);
+
+    // uart --> serial --> hub --> client
+    uart.write("hello hub\n");
+    assertEquals("hello hub\n", client.readString());
+
+    // client --> hub --> serial --> uart
+    client.write("hello uart\n");
+    assertEquals("hello uart\n", uart.readString());
+
+    client.disconnect();
+    Runtime.release("tcpClient");
+    serial.stopTcpServer();
+    serial.clear();
+  }
+
   @Test
   public final void testReset() {
     serial.reset();
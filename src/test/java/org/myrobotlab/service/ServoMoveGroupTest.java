@@ -0,0 +1,100 @@
+package org.myrobotlab.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.myrobotlab.arduino.virtual.MrlServo;
+import org.myrobotlab.framework.Service;
+import org.myrobotlab.service.abstracts.ServoMoveGroup;
+import org.myrobotlab.test.AbstractTest;
+
+/**
+ * servos moving together through a virtual arduino - one servoMoveGroup frame
+ * for the group
+ */
+public class ServoMoveGroupTest extends AbstractTest {
+
+  static final String port = "/dev/ttyACM6";
+  static Arduino arduino = null;
+  static Servo[] servos = new Servo[3];
+
+  @BeforeClass
+  static public void setUp() throws Exception {
+    arduino = (Arduino) Runtime.start("arduinoGroupTest", "Arduino");
+    arduino.connect(port);
+    for (int i = 0; i < servos.length; ++i) {
+      servos[i] = (Servo) Runtime.start("servoGroupTest" + i, "Servo");
+      servos[i].attach(arduino, 3 + i, 90.0);
+      servos[i].enable();
+    }
+    Service.sleep(300);
+  }
+
+  @AfterClass
+  static public void afterClass() throws Exception {
+    for (Servo servo : servos) {
+      servo.releaseService();
+    }
+    arduino.releaseService();
+  }
+
+  MrlServo virtualServo(int i) {
+    return (MrlServo) arduino.getVirtual().getDevice(arduino.getDeviceId(servos[i].getName()));
+  }
+
+  @Test
+  public void moveTogether() throws Exception {
+    ServoMoveGroup group = ServoMoveGroup.begin();
+    try {
+      servos[0].setSpeed(40.0);
+      servos[1].fullSpeed();
+      servos[0].moveTo(10.0);
+      servos[1].moveTo(20.0);
+      servos[2].moveTo(30.0);
+      // a speed set after the move goes with it
+      servos[2].setSpeed(60.0);
+      Service.sleep(200);
+      // nothing sent until the group ends
+      for (int i = 0; i < servos.length; ++i) {
+        assertNotEquals((int) arduino.degreeToMicroseconds(10.0 * (i + 1)), virtualServo(i).targetPosUs);
+      }
+    } finally {
+      group.end();
+    }
+    assertNull(ServoMoveGroup.current());
+    Service.sleep(300);
+
+    for (int i = 0; i < servos.length; ++i) {
+      assertEquals((int) arduino.degreeToMicroseconds(10.0 * (i + 1)), virtualServo(i).targetPosUs);
+    }
+    assertEquals(40, virtualServo(0).velocity);
+    assertEquals(-1, virtualServo(1).velocity);
+    assertEquals(60, virtualServo(2).velocity);
+  }
+
+  @Test
+  public void nested() throws Exception {
+    ServoMoveGroup outer = ServoMoveGroup.begin();
+    ServoMoveGroup inner = ServoMoveGroup.begin();
+    assertEquals(outer, inner);
+    servos[0].moveTo(100.0);
+    inner.end();
+    Service.sleep(200);
+    assertNotEquals((int) arduino.degreeToMicroseconds(100.0), virtualServo(0).targetPosUs);
+    outer.end();
+    Service.sleep(300);
+    assertEquals((int) arduino.degreeToMicroseconds(100.0), virtualServo(0).targetPosUs);
+
+    // a speed on its own is set when the group ends
+    ServoMoveGroup.begin();
+    servos[1].setSpeed(25.0);
+    ServoMoveGroup.endAll();
+    Service.sleep(300);
+    assertEquals(25, virtualServo(1).velocity);
+  }
+
+}
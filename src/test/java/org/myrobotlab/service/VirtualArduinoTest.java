@@ -79,6 +79,18 @@ public class VirtualArduinoTest extends AbstractServiceTest implements MrlCommPu
     Thread.sleep(50);
     assertEquals(s.velocity, 22);
 
+    // several servos in one frame - deviceId, b16 target, b16 velocity
+    serial.write(msg.servoAttach(1, 8, 90, -1, "s2"));
+    Thread.sleep(50);
+    MrlServo s2 = (MrlServo) va.getDevice(1);
+    assertNotNull(s2);
+    serial.write(msg.servoMoveGroup(new int[] { 0, 0x07, 0xD0, 0, 30, 1, 0x03, 0xE8, 0xFF, 0xFF }));
+    Thread.sleep(50);
+    assertEquals(2000, s.targetPosUs);
+    assertEquals(30, s.velocity);
+    assertEquals(1000, s2.targetPosUs);
+    assertEquals(-1, s2.velocity);
+
     // other Servo methods to test.
     serial.write(msg.servoAttachPin(0, 11));
     Thread.sleep(50);
@@ -112,6 +124,11 @@ public class VirtualArduinoTest extends AbstractServiceTest implements MrlCommPu
     log.info("Publish Ack for function {}", VirtualMsg.methodToString(function));
   }
 
+  @Override
+  public void publishAckWindow(Integer seq, Integer bitmap) {
+    log.info("Publish Ack Window next {} bitmap {}", seq, bitmap);
+  }
+
   @Override
   public int[] publishCustomMsg(int[] msg) {
     log.info("Publish Custom Msg: {}", msg);
@@ -142,6 +159,11 @@ public class VirtualArduinoTest extends AbstractServiceTest implements MrlCommPu
     log.info("Publish I2C - Device ID: {} Data: {}", deviceId, data);
   }
 
+  @Override
+  public void publishI2cTransaction(Integer deviceId, Integer txId, int[] data) {
+    log.info("Publish I2C transaction - Device ID: {} txId: {} Data: {}", deviceId, txId, data);
+  }
+
   @Override
   public SerialRelayData publishSerialData(Integer deviceId, int[] data) {
     log.info("Publish Serial Data: {} {}", deviceId, data);
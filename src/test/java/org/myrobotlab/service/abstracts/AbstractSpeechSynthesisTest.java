@@ -0,0 +1,159 @@
+package org.myrobotlab.service.abstracts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.myrobotlab.audio.AudioCache;
+import org.myrobotlab.service.Runtime;
+import org.myrobotlab.service.data.AudioData;
+import org.myrobotlab.test.AbstractTest;
+
+public class AbstractSpeechSynthesisTest extends AbstractTest {
+
+  /**
+   * takes 100 ms to synthesize a part and 100 ms to play it
+   */
+  static public class FakeSpeech extends AbstractSpeechSynthesis {
+
+    private static final long serialVersionUID = 1L;
+
+    transient final List<String> events = new ArrayList<>();
+
+    transient final CountDownLatch playing = new CountDownLatch(1);
+
+    public FakeSpeech(String n, String id) {
+      super(n, id);
+    }
+
+    void event(String event) {
+      synchronized (events) {
+        events.add(event);
+      }
+    }
+
+    int indexOf(String event) {
+      synchronized (events) {
+        return events.indexOf(event);
+      }
+    }
+
+    @Override
+    public AudioData generateAudioData(AudioData audioData, String toSpeak) throws Exception {
+      event("generate " + toSpeak);
+      Thread.sleep(100);
+      try (FileOutputStream out = new FileOutputStream(audioData.getFileName())) {
+        out.write(toSpeak.getBytes());
+      }
+      event("generated " + toSpeak);
+      return audioData;
+    }
+
+    @Override
+    AudioData play(AudioData data, boolean block) {
+      // what the AudioFile events do
+      onAudioStart(data);
+      event("play " + utterances.get(data));
+      playing.countDown();
+      sleep(100);
+      event("played " + utterances.get(data));
+      onAudioEnd(data);
+      return data;
+    }
+
+    @Override
+    protected void loadVoices() throws Exception {
+      addVoice("fake", "female", "en", null);
+    }
+  }
+
+  @After
+  public void cleanup() {
+    AudioCache.getInstance().purge(FakeSpeech.class.getSimpleName());
+  }
+
+  @Test
+  public void testSplitSentences() {
+    List<String> sentences = AbstractSpeechSynthesis.splitSentences("hello there. how are you? fine!  pi is 3.14; or so");
+    assertEquals(4, sentences.size());
+    assertEquals("how are you?", sentences.get(1));
+    assertEquals("pi is 3.14; or so", sentences.get(3));
+    // abbreviations and clauses do not end a sentence
+    sentences = AbstractSpeechSynthesis.splitSentences("Dr. Smith said: bring tools, e.g. a hammer. ok");
+    assertEquals(2, sentences.size());
+    assertEquals("Dr. Smith said: bring tools, e.g. a hammer.", sentences.get(0));
+    assertEquals(1, AbstractSpeechSynthesis.splitSentences("no punctuation").size());
+    assertEquals(0, AbstractSpeechSynthesis.splitSentences("  ").size());
+  }
+
+  @Test
+  public void testLookAhead() throws Exception {
+    FakeSpeech sequential = new FakeSpeech("sequential", Runtime.getInstance().getId());
+    sequential.setLookAhead(0);
+    FakeSpeech pipelined = new FakeSpeech("pipelined", Runtime.getInstance().getId());
+
+    long start = System.currentTimeMillis();
+    sequential.speakBlocking("one. two. three. four.");
+    long sequentialMs = System.currentTimeMillis() - start;
+
+    start = System.currentTimeMillis();
+    List<AudioData> parts = pipelined.speakBlocking("five. six. seven. eight.");
+    long pipelinedMs = System.currentTimeMillis() - start;
+    assertEquals(4, parts.size());
+
+    // the next sentence was synthesized while the one before played
+    assertTrue(pipelined.indexOf("generate six.") < pipelined.indexOf("played five."));
+    assertTrue(sequential.indexOf("generate two.") > sequential.indexOf("played one."));
+    assertTrue(String.format("pipelined %d ms sequential %d ms", pipelinedMs, sequentialMs), pipelinedMs + 200 < sequentialMs);
+
+    AbstractSpeechSynthesis.SpeechStats stats = pipelined.getSpeechStats();
+    log.info("pipelined {} sequential {}", stats, sequential.getSpeechStats());
+    assertEquals(1, stats.firstAudio.count);
+    assertEquals(3, stats.gap.count);
+    assertTrue(stats.gap.mean < sequential.getSpeechStats().gap.mean);
+  }
+
+  @Test
+  public void testStop() throws Exception {
+    FakeSpeech speech = new FakeSpeech("stopped", Runtime.getInstance().getId());
+    speech.setLookAhead(2);
+    Thread speaking = new Thread(() -> speech.speakBlocking("a. b. c. d. e. f."));
+    speaking.start();
+    assertTrue(speech.playing.await(5, TimeUnit.SECONDS));
+    speech.stop();
+    speaking.join(5000);
+
+    // the part playing finishes - no other starts
+    assertTrue(speech.indexOf("play b.") < 0);
+    assertTrue(speech.indexOf("generate f.") < 0);
+    assertTrue(speech.utterances.isEmpty());
+  }
+
+  @Test
+  public void testPrewarm() throws Exception {
+    FakeSpeech speech = new FakeSpeech("prewarmed", Runtime.getInstance().getId());
+    List<String> phrases = new ArrayList<>();
+    phrases.add("Good morning. How did you sleep?");
+    phrases.add("Good night.");
+    speech.prewarm(phrases);
+    for (int i = 0; i < 50 && speech.indexOf("generated good night.") < 0; ++i) {
+      Thread.sleep(100);
+    }
+    assertTrue(speech.indexOf("generated how did you sleep?") >= 0);
+
+    // played from the cache - nothing is generated
+    int generated = speech.events.size();
+    speech.speakBlocking("Good morning. How did you sleep?");
+    assertTrue(speech.indexOf("play how did you sleep?") > generated);
+    assertEquals(generated + 4, speech.events.size());
+    assertTrue(speech.getCacheStats().hits >= 2);
+  }
+
+}